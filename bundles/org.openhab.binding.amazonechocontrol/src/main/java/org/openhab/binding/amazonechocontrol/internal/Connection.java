@@ -111,6 +111,7 @@ import com.google.gson.JsonSyntaxException;
  * handling of the commands
  *
  * @author Michael Geramb - Initial contribution
+ * @author agent - Added request cache and statistics
  */
 @NonNullByDefault
 public class Connection {
@@ -120,11 +121,15 @@ public class Connection {
     protected final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(THING_THREADPOOL_NAME);
 
     private static final long expiresIn = 432000; // five days
+    private static final long DEVICE_LIST_TIME_TO_LIVE = 5000; // milliseconds
+    private static final long WAKE_WORDS_TIME_TO_LIVE = 30000; // milliseconds
     private static final Pattern charsetPattern = Pattern.compile("(?i)\\bcharset=\\s*\"?([^\\s;\"]*)");
 
     private final Logger logger = LoggerFactory.getLogger(Connection.class);
 
     private final CookieManager cookieManager = new CookieManager();
+    private final HttpRequestCache requestCache = new HttpRequestCache();
+    private final HttpRequestStatistics requestStatistics = new HttpRequestStatistics();
     private String amazonSite = "amazon.com";
     private String alexaServer = "https://alexa.amazon.com";
     private final String userAgent;
@@ -495,8 +500,25 @@ public class Connection {
         return makeRequestAndReturnString("GET", url, null, false, null);
     }
 
+    /**
+     * Makes a GET request, concurrent requests of the same url share one request and the result is kept for the
+     * given time or until the next command is sent.
+     */
+    private String makeCachedRequestAndReturnString(String url, long timeToLive)
+            throws IOException, URISyntaxException {
+        return requestCache.get(url, timeToLive, () -> readRequestResult("GET", url, null, false, null));
+    }
+
     public String makeRequestAndReturnString(String verb, String url, @Nullable String postData, boolean json,
             @Nullable Map<String, String> customHeaders) throws IOException, URISyntaxException {
+        if ("GET".equals(verb) && postData == null && customHeaders == null) {
+            return makeCachedRequestAndReturnString(url, 0);
+        }
+        return readRequestResult(verb, url, postData, json, customHeaders);
+    }
+
+    private String readRequestResult(String verb, String url, @Nullable String postData, boolean json,
+            @Nullable Map<String, String> customHeaders) throws IOException, URISyntaxException {
         HttpsURLConnection connection = makeRequest(verb, url, postData, json, true, customHeaders, 0);
         String result = convertStream(connection);
         this.logger.debug("Result of {} {}:{}", verb, url, result);
@@ -506,6 +528,38 @@ public class Connection {
     public HttpsURLConnection makeRequest(String verb, String url, @Nullable String postData, boolean json,
             boolean autoredirect, @Nullable Map<String, String> customHeaders, int badRequestRepeats)
             throws IOException, URISyntaxException {
+        if (!"GET".equals(verb)) {
+            // commands change the state of the account, so cached results are outdated
+            requestCache.invalidate();
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            HttpsURLConnection connection = executeRequest(verb, url, postData, json, autoredirect, customHeaders,
+                    badRequestRepeats);
+            success = true;
+            return connection;
+        } finally {
+            requestStatistics.record(verb, url, System.nanoTime() - start, success);
+        }
+    }
+
+    public HttpRequestStatistics getRequestStatistics() {
+        return requestStatistics;
+    }
+
+    public void logRequestStatistics() {
+        if (logger.isDebugEnabled()) {
+            requestStatistics.getEndpoints().forEach((endpoint, statistics) -> logger.debug("Requests {}: {}",
+                    endpoint, statistics));
+            logger.debug("Requests answered from cache: {}, shared with a request in flight: {}",
+                    requestCache.getHits(), requestCache.getSharedRequests());
+        }
+    }
+
+    private HttpsURLConnection executeRequest(String verb, String url, @Nullable String postData, boolean json,
+            boolean autoredirect, @Nullable Map<String, String> customHeaders, int badRequestRepeats)
+            throws IOException, URISyntaxException {
         String currentUrl = url;
         int redirectCounter = 0;
         while (true) // loop for handling redirect and bad request, using automatic redirect is not possible,
@@ -875,6 +929,7 @@ public class Connection {
 
     public void logout() {
         cookieManager.getCookieStore().removeAll();
+        requestCache.invalidate();
         // reset all members
         refreshToken = null;
         loginTime = null;
@@ -898,7 +953,8 @@ public class Connection {
     public WakeWord[] getWakeWords() {
         String json;
         try {
-            json = makeRequestAndReturnString(alexaServer + "/api/wake-word?cached=true");
+            json = makeCachedRequestAndReturnString(alexaServer + "/api/wake-word?cached=true",
+                    WAKE_WORDS_TIME_TO_LIVE);
             JsonWakeWords wakeWords = parseJson(json, JsonWakeWords.class);
             WakeWord[] result = wakeWords.wakeWords;
             if (result != null) {
@@ -921,7 +977,8 @@ public class Connection {
     }
 
     public String getDeviceListJson() throws IOException, URISyntaxException {
-        String json = makeRequestAndReturnString(alexaServer + "/api/devices-v2/device?cached=false");
+        String json = makeCachedRequestAndReturnString(alexaServer + "/api/devices-v2/device?cached=false",
+                DEVICE_LIST_TIME_TO_LIVE);
         return json;
     }
 
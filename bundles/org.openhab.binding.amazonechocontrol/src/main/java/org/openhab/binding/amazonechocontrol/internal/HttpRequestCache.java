@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.amazonechocontrol.internal;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.LongSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link HttpRequestCache} shares the results of GET requests to the amazon server.
+ *
+ * Concurrent requests of the same url are sent only once, all callers get the result of the request in flight.
+ * Results of urls with a time to live are additionally kept for this time.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class HttpRequestCache {
+
+    /**
+     * Sends a request and returns its result.
+     */
+    @FunctionalInterface
+    public interface Request {
+        String execute() throws IOException, URISyntaxException;
+    }
+
+    private static class Entry {
+        final String result;
+        final long expires;
+
+        Entry(String result, long expires) {
+            this.result = result;
+            this.expires = expires;
+        }
+    }
+
+    private final Map<String, CompletableFuture<String>> requestsInFlight = new ConcurrentHashMap<>();
+    private final Map<String, Entry> results = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+    private int generation;
+    private long hits;
+    private long sharedRequests;
+
+    public HttpRequestCache() {
+        this(System::currentTimeMillis);
+    }
+
+    HttpRequestCache(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the result for the url, either from the cache, from a request in flight or by executing the request.
+     *
+     * @param url url of the request
+     * @param timeToLive milliseconds to keep the result, 0 to share only the request in flight
+     * @param request the request to execute if there is no result
+     * @return result of the request
+     */
+    public String get(String url, long timeToLive, Request request) throws IOException, URISyntaxException {
+        Entry entry = results.get(url);
+        if (entry != null) {
+            if (entry.expires - clock.getAsLong() > 0) {
+                synchronized (this) {
+                    hits++;
+                }
+                return entry.result;
+            }
+            results.remove(url, entry);
+        }
+
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> inFlight = requestsInFlight.putIfAbsent(url, future);
+        if (inFlight != null) {
+            synchronized (this) {
+                sharedRequests++;
+            }
+            return await(inFlight);
+        }
+        int requestGeneration = getGeneration();
+        try {
+            String result = request.execute();
+            // do not cache results that might have been changed by a concurrent command
+            if (timeToLive > 0 && requestGeneration == getGeneration()) {
+                results.put(url, new Entry(result, clock.getAsLong() + timeToLive));
+            }
+            future.complete(result);
+            return result;
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            requestsInFlight.remove(url, future);
+        }
+    }
+
+    /**
+     * Removes all cached results, e.g. after a command has changed the state of the account.
+     */
+    public void invalidate() {
+        synchronized (this) {
+            generation++;
+        }
+        results.clear();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getSharedRequests() {
+        return sharedRequests;
+    }
+
+    private synchronized int getGeneration() {
+        return generation;
+    }
+
+    private static String await(CompletableFuture<String> future) throws IOException, URISyntaxException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for request", e);
+        } catch (ExecutionException e) {
+            @Nullable
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof URISyntaxException) {
+                throw (URISyntaxException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.amazonechocontrol.internal;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link HttpRequestStatistics} collects the latency of the requests to the amazon server per endpoint
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class HttpRequestStatistics {
+
+    /**
+     * Latency of the requests to one endpoint
+     */
+    public static class Endpoint {
+        private long count;
+        private long failures;
+        private long totalNanos;
+        private long maxNanos;
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public long getAverageMillis() {
+            return count > 0 ? TimeUnit.NANOSECONDS.toMillis(totalNanos / count) : 0;
+        }
+
+        public long getMaxMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxNanos);
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count + ", failures=" + failures + ", avg=" + getAverageMillis() + "ms, max="
+                    + getMaxMillis() + "ms";
+        }
+    }
+
+    private final Map<String, Endpoint> endpoints = new TreeMap<>();
+
+    /**
+     * Records a finished request.
+     *
+     * @param verb http verb of the request
+     * @param url url of the request, the query is not part of the endpoint
+     * @param nanos duration of the request
+     * @param success false if the request failed
+     */
+    public synchronized void record(String verb, String url, long nanos, boolean success) {
+        Endpoint endpoint = endpoints.computeIfAbsent(getEndpoint(verb, url), key -> new Endpoint());
+        endpoint.count++;
+        endpoint.totalNanos += nanos;
+        endpoint.maxNanos = Math.max(endpoint.maxNanos, nanos);
+        if (!success) {
+            endpoint.failures++;
+        }
+    }
+
+    /**
+     * Returns a copy of the statistics by endpoint, e.g. "GET /api/devices-v2/device".
+     *
+     * @return statistics by endpoint
+     */
+    public synchronized Map<String, Endpoint> getEndpoints() {
+        Map<String, Endpoint> result = new TreeMap<>();
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Endpoint source = entry.getValue();
+            Endpoint copy = new Endpoint();
+            copy.count = source.count;
+            copy.failures = source.failures;
+            copy.totalNanos = source.totalNanos;
+            copy.maxNanos = source.maxNanos;
+            result.put(entry.getKey(), copy);
+        }
+        return result;
+    }
+
+    public synchronized void clear() {
+        endpoints.clear();
+    }
+
+    static String getEndpoint(String verb, String url) {
+        String path = url;
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        int scheme = path.indexOf("://");
+        if (scheme >= 0) {
+            int pathStart = path.indexOf('/', scheme + 3);
+            path = pathStart >= 0 ? path.substring(pathStart) : "/";
+        }
+        return verb + " " + path;
+    }
+}
@@ -23,12 +23,17 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.storage.Storage;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.ChannelUID;
@@ -80,10 +85,13 @@ import com.google.gson.JsonSyntaxException;
  * Handles the connection to the amazon server.
  *
  * @author Michael Geramb - Initial Contribution
+ * @author agent - Added request cache and statistics
  */
 @NonNullByDefault
 public class AccountHandler extends BaseBridgeHandler implements IWebSocketCommandHandler, IAmazonThingHandler {
 
+    private static final String REQUEST_THREADPOOL_NAME = "amazonechocontrol";
+
     private final Logger logger = LoggerFactory.getLogger(AccountHandler.class);
     private Storage<String> stateStorage;
     private @Nullable Connection connection;
@@ -92,6 +100,7 @@ public class AccountHandler extends BaseBridgeHandler implements IWebSocketComma
     private final Set<FlashBriefingProfileHandler> flashBriefingProfileHandlers = new HashSet<>();
     private final Object synchronizeConnection = new Object();
     private Map<String, Device> jsonSerialNumberDeviceMapping = new HashMap<>();
+    private final ExecutorService requestExecutor = ThreadPoolManager.getPool(REQUEST_THREADPOOL_NAME);
     private @Nullable ScheduledFuture<?> checkDataJob;
     private @Nullable ScheduledFuture<?> checkLoginJob;
     private @Nullable ScheduledFuture<?> refreshAfterCommandJob;
@@ -406,6 +415,9 @@ public class AccountHandler extends BaseBridgeHandler implements IWebSocketComma
                     if (!checkWebSocketConnection() || checkDataCounter == 0) {
                         refreshData();
                     }
+                    if (checkDataCounter == 0) {
+                        connection.logRequestStatistics();
+                    }
                 }
                 logger.debug("checkData {} finished", getThing().getUID().getAsString());
             } catch (HttpException | JsonSyntaxException | ConnectionException e) {
@@ -466,23 +478,31 @@ public class AccountHandler extends BaseBridgeHandler implements IWebSocketComma
                 JsonBluetoothStates states = null;
                 List<JsonMusicProvider> musicProviders = null;
                 if (currentConnection.getIsLoggedIn()) {
+                    // the states of the account are independent, so request them at the same time. This runs on
+                    // the scheduler and waits for the requests, so they must not be queued on the scheduler as well.
+                    final Connection requestConnection = currentConnection;
+                    CompletableFuture<DeviceNotificationState[]> deviceNotificationStatesFuture = CompletableFuture
+                            .supplyAsync(requestConnection::getDeviceNotificationStates, requestExecutor);
+                    CompletableFuture<AscendingAlarmModel[]> ascendingAlarmModelsFuture = CompletableFuture
+                            .supplyAsync(requestConnection::getAscendingAlarm, requestExecutor);
+                    CompletableFuture<JsonBluetoothStates> statesFuture = CompletableFuture
+                            .supplyAsync(requestConnection::getBluetoothConnectionStates, requestExecutor);
+
+                    // update music providers
+                    try {
+                        musicProviders = currentConnection.getMusicProviders();
+                    } catch (HttpException | JsonSyntaxException | ConnectionException e) {
+                        logger.debug("Update music provider failed", e);
+                    }
+
                     // update notification states
-                    deviceNotificationStates = currentConnection.getDeviceNotificationStates();
+                    deviceNotificationStates = joinRequest(deviceNotificationStatesFuture, "notification states");
 
                     // update ascending alarm
-                    ascendingAlarmModels = currentConnection.getAscendingAlarm();
+                    ascendingAlarmModels = joinRequest(ascendingAlarmModelsFuture, "ascending alarm");
 
                     // update bluetooth states
-                    states = currentConnection.getBluetoothConnectionStates();
-
-                    // update music providers
-                    if (currentConnection.getIsLoggedIn()) {
-                        try {
-                            musicProviders = currentConnection.getMusicProviders();
-                        } catch (HttpException | JsonSyntaxException | ConnectionException e) {
-                            logger.debug("Update music provider failed", e);
-                        }
-                    }
+                    states = joinRequest(statesFuture, "bluetooth states");
                 }
                 // forward device information to echo handler
                 for (EchoHandler child : echoHandlers) {
@@ -581,6 +601,32 @@ public class AccountHandler extends BaseBridgeHandler implements IWebSocketComma
         return null;
     }
 
+    /**
+     * Waits for a request of {@link #refreshData()}. The failures that abort the refresh are rethrown as if the
+     * request was made directly, any other failure only leaves the requested state unknown.
+     */
+    private <T> @Nullable T joinRequest(CompletableFuture<T> future, String name) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof HttpException) {
+                throw (HttpException) cause;
+            }
+            if (cause instanceof ConnectionException) {
+                throw (ConnectionException) cause;
+            }
+            if (cause instanceof JsonSyntaxException) {
+                throw (JsonSyntaxException) cause;
+            }
+            logger.debug("Update {} failed", name, cause);
+            return null;
+        } catch (CancellationException e) {
+            logger.debug("Update {} failed", name, e);
+            return null;
+        }
+    }
+
     public List<Device> updateDeviceList() {
 
         Connection currentConnection = connection;
@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.amazonechocontrol.internal;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the {@link HttpRequestCache} with requests to a local stub server.
+ *
+ * @author agent - Initial contribution
+ */
+public class HttpRequestCacheTest {
+
+    private static final String PATH = "/api/devices-v2/device";
+
+    private HttpServer server;
+    private String url;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile CountDownLatch release = new CountDownLatch(0);
+    private final AtomicLong time = new AtomicLong(1000);
+    private HttpRequestCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext(PATH, exchange -> {
+            int count = requestCount.incrementAndGet();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = ("{\"request\":" + count + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        url = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + PATH;
+        cache = new HttpRequestCache(time::get);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private String get(long timeToLive) throws Exception {
+        return cache.get(url, timeToLive, () -> httpGet(url));
+    }
+
+    private static String httpGet(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try (InputStream in = connection.getInputStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int length;
+            while ((length = in.read(buffer)) > 0) {
+                out.write(buffer, 0, length);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Starts the callers, and waits until all but the first one share the request of the first one.
+     */
+    private List<Future<String>> startSharedCallers(ExecutorService executor, int callers) throws Exception {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(() -> get(0)));
+        }
+        long deadline = System.currentTimeMillis() + 10000;
+        while (cache.getSharedRequests() < callers - 1) {
+            assertTrue("callers are not sharing the request", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+        return results;
+    }
+
+    @Test
+    public void testConcurrentRequestsAreSentOnce() throws Exception {
+        release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = startSharedCallers(executor, 4);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("{\"request\":1}", result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, requestCount.get());
+        assertEquals(3, cache.getSharedRequests());
+
+        // without a time to live, the result is not kept
+        assertEquals("{\"request\":2}", get(0));
+    }
+
+    @Test
+    public void testResultIsKeptForTimeToLive() throws Exception {
+        assertEquals("{\"request\":1}", get(5000));
+        time.addAndGet(4999);
+        assertEquals("{\"request\":1}", get(5000));
+        assertEquals(1, cache.getHits());
+
+        time.addAndGet(1);
+        assertEquals("{\"request\":2}", get(5000));
+        assertEquals(2, requestCount.get());
+    }
+
+    @Test
+    public void testInvalidateRemovesResults() throws Exception {
+        assertEquals("{\"request\":1}", get(5000));
+        cache.invalidate();
+        assertEquals("{\"request\":2}", get(5000));
+    }
+
+    @Test
+    public void testResultOfRequestRacingWithCommandIsNotKept() throws Exception {
+        // a command invalidates the cache while the request is in flight
+        assertEquals("{\"request\":1}", cache.get(url, 5000, () -> {
+            String result = httpGet(url);
+            cache.invalidate();
+            return result;
+        }));
+        assertEquals("{\"request\":2}", get(5000));
+    }
+
+    @Test
+    public void testFailureIsPassedToAllCallersAndNotKept() throws Exception {
+        status = 500;
+        release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<String>> results = startSharedCallers(executor, 3);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                try {
+                    result.get(10, TimeUnit.SECONDS);
+                    fail("Expecting the request to fail");
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof IOException);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, requestCount.get());
+
+        status = 200;
+        assertEquals("{\"request\":2}", get(5000));
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.amazonechocontrol.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.openhab.binding.amazonechocontrol.internal.HttpRequestStatistics.Endpoint;
+
+/**
+ * Tests the {@link HttpRequestStatistics}.
+ *
+ * @author agent - Initial contribution
+ */
+public class HttpRequestStatisticsTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testEndpointIgnoresHostAndQuery() {
+        assertEquals("GET /api/devices-v2/device",
+                HttpRequestStatistics.getEndpoint("GET", "https://alexa.amazon.de/api/devices-v2/device?cached=true"));
+        assertEquals("POST /api/behaviors/preview",
+                HttpRequestStatistics.getEndpoint("POST", "https://alexa.amazon.com/api/behaviors/preview"));
+        assertEquals("GET /", HttpRequestStatistics.getEndpoint("GET", "https://alexa.amazon.de"));
+        assertEquals("GET /api/wakeword", HttpRequestStatistics.getEndpoint("GET", "/api/wakeword?x=1"));
+    }
+
+    @Test
+    public void testLatencyIsCollectedPerEndpoint() {
+        HttpRequestStatistics statistics = new HttpRequestStatistics();
+        statistics.record("GET", "https://alexa.amazon.de/api/devices-v2/device?cached=true", 10 * MILLIS, true);
+        statistics.record("GET", "https://alexa.amazon.de/api/devices-v2/device?cached=false", 30 * MILLIS, false);
+        statistics.record("POST", "https://alexa.amazon.de/api/devices-v2/device", 5 * MILLIS, true);
+
+        Map<String, Endpoint> endpoints = statistics.getEndpoints();
+        assertEquals(Arrays.asList("GET /api/devices-v2/device", "POST /api/devices-v2/device"),
+                Arrays.asList(endpoints.keySet().toArray()));
+
+        Endpoint get = endpoints.get("GET /api/devices-v2/device");
+        assertEquals(2, get.getCount());
+        assertEquals(1, get.getFailures());
+        assertEquals(20, get.getAverageMillis());
+        assertEquals(30, get.getMaxMillis());
+
+        Endpoint post = endpoints.get("POST /api/devices-v2/device");
+        assertEquals(1, post.getCount());
+        assertEquals(0, post.getFailures());
+        assertEquals(5, post.getAverageMillis());
+    }
+
+    @Test
+    public void testEndpointsAreACopy() {
+        HttpRequestStatistics statistics = new HttpRequestStatistics();
+        statistics.record("GET", "/api/wakeword", MILLIS, true);
+        Map<String, Endpoint> endpoints = statistics.getEndpoints();
+
+        statistics.record("GET", "/api/wakeword", MILLIS, true);
+        statistics.record("GET", "/api/notifications", MILLIS, true);
+
+        assertEquals(1, endpoints.size());
+        assertEquals(1, endpoints.get("GET /api/wakeword").getCount());
+        assertEquals(2, statistics.getEndpoints().get("GET /api/wakeword").getCount());
+    }
+
+    @Test
+    public void testClear() {
+        HttpRequestStatistics statistics = new HttpRequestStatistics();
+        statistics.record("GET", "/api/wakeword", MILLIS, true);
+        statistics.clear();
+        assertTrue(statistics.getEndpoints().isEmpty());
+        assertEquals(0, new Endpoint().getAverageMillis());
+    }
+}
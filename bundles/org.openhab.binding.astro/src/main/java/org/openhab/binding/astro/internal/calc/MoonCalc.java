@@ -32,6 +32,7 @@ import org.openhab.binding.astro.internal.util.DateTimeUtils;
  *
  * @author Gerhard Riegler - Initial contribution
  * @author Christoph Weitkamp - Introduced UoM
+ * @author agent - Interpolate the positions from a daily table
  * @see based on the calculations of
  *      http://www.computus.de/mondphase/mondphase.htm azimuth/elevation and
  *      zodiac based on http://lexikon.astronomie.info/java/sunmoon/
@@ -48,6 +49,14 @@ public class MoonCalc {
     protected static final int ECLIPSE_MODE_TOTAL = 1;
     protected static final int ECLIPSE_MODE_RING = 2;
 
+    // the series of the positional tables
+    private static final int TABLE_AZIMUTH = 0;
+    private static final int TABLE_ELEVATION = 1;
+    private static final int TABLE_ZODIAC = 2;
+    private static final int TABLE_DISTANCE = 3;
+    private static final int TABLE_ILLUMINATION = 4;
+    private static final boolean[] TABLE_ANGLES = new boolean[] { true, false, false, false, false };
+
     /**
      * Calculates all moon data at the specified coordinates
      */
@@ -108,18 +117,46 @@ public class MoonCalc {
      */
     public void setPositionalInfo(Calendar calendar, double latitude, double longitude, Moon moon) {
         double julianDate = DateTimeUtils.dateToJulianDate(calendar);
-        setMoonPhase(calendar, moon);
-        setAzimuthElevationZodiac(julianDate, latitude, longitude, moon);
+        setMoonPhase(calendar, moon, getIllumination(julianDate));
+        setAzimuthElevationZodiac(moon, getAzimuthElevationZodiac(julianDate, latitude, longitude));
 
         MoonDistance distance = moon.getDistance();
         distance.setDate(Calendar.getInstance());
         distance.setDistance(getDistance(julianDate));
     }
 
+    /**
+     * Calculates the moon illumination, distance and position like
+     * {@link #setPositionalInfo(Calendar, double, double, Moon)}, but interpolates the illumination, distance and
+     * position from the {@link PositionalTable} of the day, which is shared by all moon things at the same location.
+     * The age and the phase are still calculated.
+     */
+    public void setInterpolatedPositionalInfo(Calendar calendar, double latitude, double longitude, Moon moon) {
+        long millis = calendar.getTimeInMillis();
+        PositionalTable table = PositionalTableCache.getTable("moon", latitude, longitude, millis, TABLE_ANGLES,
+                (time, values) -> {
+                    double julianDate = DateTimeUtils.millisToJulianDate(time);
+                    double[] azimuthElevationZodiac = getAzimuthElevationZodiac(julianDate, latitude, longitude);
+                    values[TABLE_AZIMUTH] = azimuthElevationZodiac[0];
+                    values[TABLE_ELEVATION] = azimuthElevationZodiac[1];
+                    values[TABLE_ZODIAC] = azimuthElevationZodiac[2];
+                    values[TABLE_DISTANCE] = getDistance(julianDate);
+                    values[TABLE_ILLUMINATION] = getIllumination(julianDate);
+                });
+        setMoonPhase(calendar, moon, table.interpolate(TABLE_ILLUMINATION, millis));
+        // the zodiac sign is not interpolated, it changes at most one minute late
+        setAzimuthElevationZodiac(moon, new double[] { table.interpolate(TABLE_AZIMUTH, millis),
+                table.interpolate(TABLE_ELEVATION, millis), table.getPrevious(TABLE_ZODIAC, millis) });
+
+        MoonDistance distance = moon.getDistance();
+        distance.setDate(Calendar.getInstance());
+        distance.setDistance(table.interpolate(TABLE_DISTANCE, millis));
+    }
+
     /**
      * Calculates the age and the current phase.
      */
-    private void setMoonPhase(Calendar calendar, Moon moon) {
+    private void setMoonPhase(Calendar calendar, Moon moon, double illumination) {
         MoonPhase phase = moon.getPhase();
         double julianDateEndOfDay = DateTimeUtils.endOfDayDateToJulianDate(calendar);
         double parentNewMoon = getPreviousPhase(calendar, julianDateEndOfDay, NEW_MOON);
@@ -132,7 +169,6 @@ public class MoonCalc {
         double agePercent = ageRangeTimeMillis != 0 ? ageCurrentMillis * 100.0 / ageRangeTimeMillis : 0;
         phase.setAgePercent(agePercent);
         phase.setAgeDegree(3.6 * agePercent);
-        double illumination = getIllumination(DateTimeUtils.dateToJulianDate(calendar));
         phase.setIllumination(illumination);
         boolean isWaxing = age < (29.530588853 / 2);
         if (DateTimeUtils.isSameDay(calendar, phase.getNew())) {
@@ -655,7 +691,21 @@ public class MoonCalc {
     /**
      * Sets the azimuth, elevation and zodiac in the moon object.
      */
-    private void setAzimuthElevationZodiac(double julianDate, double latitude, double longitude, Moon moon) {
+    private void setAzimuthElevationZodiac(Moon moon, double[] azimuthElevationZodiac) {
+        Position position = moon.getPosition();
+        position.setAzimuth(azimuthElevationZodiac[0]);
+        position.setElevation(azimuthElevationZodiac[1]);
+
+        int idx = (int) azimuthElevationZodiac[2];
+        if (idx >= 0 || idx <= ZodiacSign.values().length) {
+            moon.setZodiac(new Zodiac(ZodiacSign.values()[idx]));
+        }
+    }
+
+    /**
+     * Calculates the azimuth, elevation and the index of the zodiac sign of the moon.
+     */
+    private double[] getAzimuthElevationZodiac(double julianDate, double latitude, double longitude) {
         double lat = latitude * SunCalc.DEG2RAD;
         double lon = longitude * SunCalc.DEG2RAD;
 
@@ -696,10 +746,6 @@ public class MoonCalc {
         double raDecTopo[] = geoEqu2TopoEqu(raDec, distance, lat, lmst);
         double azAlt[] = equ2AzAlt(raDecTopo[0], raDecTopo[1], lat, lmst);
 
-        Position position = moon.getPosition();
-        position.setAzimuth(azAlt[0] * SunCalc.RAD2DEG);
-        position.setElevation(azAlt[1] * SunCalc.RAD2DEG + refraction(azAlt[1]));
-
         // zodiac
         double idxd = Math.floor(moonLon * SunCalc.RAD2DEG / 30);
         int idx = 0;
@@ -709,9 +755,7 @@ public class MoonCalc {
             idx = (int) (Math.floor(idxd));
         }
 
-        if (idx >= 0 || idx <= ZodiacSign.values().length) {
-            moon.setZodiac(new Zodiac(ZodiacSign.values()[idx]));
-        }
+        return new double[] { azAlt[0] * SunCalc.RAD2DEG, azAlt[1] * SunCalc.RAD2DEG + refraction(azAlt[1]), idx };
     }
 
     private double mod2Pi(double x) {
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.astro.internal.calc;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Positional values of a planet for one day (UTC) at one location, sampled once per minute. Values between two
+ * samples are interpolated linearly. Each sample is calculated when it is first needed, so that a table which is only
+ * used for a few points in time does not cost more than calculating the values directly.
+ *
+ * @author agent - Initial contribution
+ */
+public class PositionalTable {
+
+    /**
+     * Calculates the values of all series at a point in time.
+     */
+    @FunctionalInterface
+    public interface Sampler {
+        void sample(long millis, double[] values);
+    }
+
+    public static final long SAMPLE_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    public static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    // the last sample is the first of the next day, so that the whole day can be interpolated
+    private static final int SAMPLES = (int) (DAY / SAMPLE_INTERVAL) + 1;
+
+    private final long start;
+    private final boolean[] angles;
+    private final Sampler sampler;
+
+    // guarded by this
+    private final double[] values;
+    private final boolean[] sampled = new boolean[SAMPLES];
+    private final double[] sample;
+
+    /**
+     * Creates the table of a day, the samples are calculated on first access.
+     *
+     * @param start the start of the day in milliseconds since the epoch, a multiple of {@link #DAY}
+     * @param angles for each series, true if its values are angles in degrees from 0 to 360
+     * @param sampler calculates the values of all series
+     */
+    public PositionalTable(long start, boolean[] angles, Sampler sampler) {
+        this.start = start;
+        this.angles = angles.clone();
+        this.sampler = sampler;
+        this.values = new double[SAMPLES * angles.length];
+        this.sample = new double[angles.length];
+    }
+
+    /**
+     * Returns the start of the day in milliseconds since the epoch.
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Returns true, if the point in time is part of this day.
+     */
+    public boolean covers(long millis) {
+        return millis >= start && millis < start + DAY;
+    }
+
+    /**
+     * Returns the value of a series, interpolated between the samples before and after the point in time. Angles are
+     * interpolated along the shorter way around the circle.
+     *
+     * @throws IllegalArgumentException if the point in time is not part of this day
+     */
+    public double interpolate(int series, long millis) {
+        int sample = getSample(millis);
+        double fraction = (double) ((millis - start) % SAMPLE_INTERVAL) / SAMPLE_INTERVAL;
+        double before = getValue(sample, series);
+        double after = getValue(sample + 1, series);
+        if (!angles[series]) {
+            return before + (after - before) * fraction;
+        }
+        double delta = after - before;
+        if (delta > 180) {
+            delta -= 360;
+        } else if (delta < -180) {
+            delta += 360;
+        }
+        double angle = before + delta * fraction;
+        if (angle < 0) {
+            angle += 360;
+        } else if (angle >= 360) {
+            angle -= 360;
+        }
+        return angle;
+    }
+
+    /**
+     * Returns the value of a series at the sample before the point in time, for values that must not be interpolated.
+     *
+     * @throws IllegalArgumentException if the point in time is not part of this day
+     */
+    public double getPrevious(int series, long millis) {
+        return getValue(getSample(millis), series);
+    }
+
+    /**
+     * Returns the number of samples which have been calculated.
+     */
+    synchronized int getSampledCount() {
+        int count = 0;
+        for (boolean isSampled : sampled) {
+            if (isSampled) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private synchronized double getValue(int index, int series) {
+        if (!sampled[index]) {
+            sampler.sample(start + index * SAMPLE_INTERVAL, sample);
+            System.arraycopy(sample, 0, values, index * angles.length, angles.length);
+            sampled[index] = true;
+        }
+        return values[index * angles.length + series];
+    }
+
+    private int getSample(long millis) {
+        if (!covers(millis)) {
+            throw new IllegalArgumentException("The table does not cover " + millis);
+        }
+        return (int) ((millis - start) / SAMPLE_INTERVAL);
+    }
+}
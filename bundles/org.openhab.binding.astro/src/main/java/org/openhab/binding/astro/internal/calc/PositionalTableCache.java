@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.astro.internal.calc;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openhab.binding.astro.internal.calc.PositionalTable.Sampler;
+
+/**
+ * Shares the {@link PositionalTable}s between all things of the same planet at the same location. Only the tables of
+ * the current and the previous day are kept.
+ *
+ * @author agent - Initial contribution
+ */
+public final class PositionalTableCache {
+
+    private static final Map<String, PositionalTable> TABLES = new ConcurrentHashMap<>();
+
+    private PositionalTableCache() {
+        // hidden constructor
+    }
+
+    /**
+     * Returns the table of the planet at the location for the day of the point in time, the table is calculated if
+     * it does not exist yet.
+     *
+     * @param planet the name of the planet
+     * @param latitude the latitude of the location
+     * @param longitude the longitude of the location
+     * @param millis the point in time
+     * @param angles for each series, true if its values are angles in degrees
+     * @param sampler calculates the values of all series
+     * @return the table covering the point in time
+     */
+    public static PositionalTable getTable(String planet, double latitude, double longitude, long millis,
+            boolean[] angles, Sampler sampler) {
+        long start = Math.floorDiv(millis, PositionalTable.DAY) * PositionalTable.DAY;
+        String key = planet + "/" + latitude + "/" + longitude + "/" + start;
+        PositionalTable table = TABLES.get(key);
+        if (table == null) {
+            TABLES.values().removeIf(oldTable -> oldTable.getStart() < start - PositionalTable.DAY);
+            table = TABLES.computeIfAbsent(key, k -> new PositionalTable(start, angles, sampler));
+        }
+        return table;
+    }
+
+    /**
+     * Returns the number of cached tables.
+     */
+    static int size() {
+        return TABLES.size();
+    }
+
+    /**
+     * Removes all tables.
+     */
+    static void clear() {
+        TABLES.clear();
+    }
+}
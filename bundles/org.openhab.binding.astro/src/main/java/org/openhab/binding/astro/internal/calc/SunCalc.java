@@ -29,6 +29,7 @@ import org.openhab.binding.astro.internal.util.DateTimeUtils;
  *
  * @author Gerhard Riegler - Initial contribution
  * @author Christoph Weitkamp - Introduced UoM
+ * @author agent - Interpolate the positions from a daily table
  * @see based on the calculations of http://www.suncalc.net
  */
 public class SunCalc {
@@ -60,14 +61,55 @@ public class SunCalc {
     private static final int CURVE_TIME_INTERVAL = 20; // 20 minutes
     private static final double JD_ONE_MINUTE_FRACTION = 1.0 / 60 / 24;
 
+    // the series of the positional tables
+    private static final int TABLE_AZIMUTH = 0;
+    private static final int TABLE_ELEVATION = 1;
+    private static final boolean[] TABLE_ANGLES = new boolean[] { true, false };
+
     /**
      * Calculates the sun position (azimuth and elevation).
      */
     public void setPositionalInfo(Calendar calendar, double latitude, double longitude, Double altitude, Sun sun) {
+        double[] azimuthElevation = getAzimuthElevation(DateTimeUtils.dateToJulianDate(calendar), latitude,
+                longitude);
+        setPosition(calendar, azimuthElevation[0], azimuthElevation[1], altitude, sun);
+    }
+
+    /**
+     * Calculates the sun position (azimuth and elevation) like
+     * {@link #setPositionalInfo(Calendar, double, double, Double, Sun)}, but interpolates the position from the
+     * {@link PositionalTable} of the day, which is shared by all sun things at the same location.
+     */
+    public void setInterpolatedPositionalInfo(Calendar calendar, double latitude, double longitude, Double altitude,
+            Sun sun) {
+        long millis = calendar.getTimeInMillis();
+        PositionalTable table = PositionalTableCache.getTable("sun", latitude, longitude, millis, TABLE_ANGLES,
+                (time, values) -> {
+                    double[] azimuthElevation = getAzimuthElevation(DateTimeUtils.millisToJulianDate(time),
+                            latitude, longitude);
+                    values[TABLE_AZIMUTH] = azimuthElevation[0];
+                    values[TABLE_ELEVATION] = azimuthElevation[1];
+                });
+        setPosition(calendar, table.interpolate(TABLE_AZIMUTH, millis),
+                table.interpolate(TABLE_ELEVATION, millis), altitude, sun);
+    }
+
+    private void setPosition(Calendar calendar, double azimuth, double elevation, Double altitude, Sun sun) {
+        Position position = sun.getPosition();
+        position.setAzimuth(azimuth);
+        position.setElevation(elevation);
+        position.setShadeLength(getShadeLength(elevation));
+
+        setRadiationInfo(calendar, elevation, altitude, sun);
+    }
+
+    /**
+     * Returns the azimuth (0 to 360 degrees) and elevation of the sun at the julian date.
+     */
+    private double[] getAzimuthElevation(double j, double latitude, double longitude) {
         double lw = -longitude * DEG2RAD;
         double phi = latitude * DEG2RAD;
 
-        double j = DateTimeUtils.dateToJulianDate(calendar);
         double m = getSolarMeanAnomaly(j);
         double c = getEquationOfCenter(m);
         double lsun = getEclipticLongitude(m, c);
@@ -77,14 +119,7 @@ public class SunCalc {
 
         double azimuth = getAzimuth(th, a, phi, d) / DEG2RAD;
         double elevation = getElevation(th, a, phi, d) / DEG2RAD;
-        double shadeLength = getShadeLength(elevation);
-
-        Position position = sun.getPosition();
-        position.setAzimuth(azimuth + 180);
-        position.setElevation(elevation);
-        position.setShadeLength(shadeLength);
-
-        setRadiationInfo(calendar, elevation, altitude, sun);
+        return new double[] { azimuth + 180, elevation };
     }
 
     /**
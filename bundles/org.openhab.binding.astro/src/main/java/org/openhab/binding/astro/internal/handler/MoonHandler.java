@@ -33,6 +33,7 @@ import org.openhab.binding.astro.internal.model.Planet;
  *
  * @author Gerhard Riegler - Initial contribution
  * @author Amit Kumar Mondal - Implementation to be compliant with ESH Scheduler
+ * @author agent - Publish the interpolated positions
  */
 public class MoonHandler extends AstroThingHandler {
 
@@ -59,7 +60,8 @@ public class MoonHandler extends AstroThingHandler {
     @Override
     public void publishPositionalInfo() {
         initializeMoon();
-        moonCalc.setPositionalInfo(Calendar.getInstance(), thingConfig.getLatitude(), thingConfig.getLongitude(), moon);
+        moonCalc.setInterpolatedPositionalInfo(Calendar.getInstance(), thingConfig.getLatitude(),
+                thingConfig.getLongitude(), moon);
         publishPlanet();
     }
 
@@ -33,6 +33,7 @@ import org.openhab.binding.astro.internal.model.Sun;
  *
  * @author Gerhard Riegler - Initial contribution
  * @author Amit Kumar Mondal - Implementation to be compliant with ESH Scheduler
+ * @author agent - Publish the interpolated positions
  */
 public class SunHandler extends AstroThingHandler {
 
@@ -59,8 +60,8 @@ public class SunHandler extends AstroThingHandler {
     @Override
     public void publishPositionalInfo() {
         initializeSun();
-        sunCalc.setPositionalInfo(Calendar.getInstance(), thingConfig.getLatitude(), thingConfig.getLongitude(),
-                thingConfig.getAltitude(), sun);
+        sunCalc.setInterpolatedPositionalInfo(Calendar.getInstance(), thingConfig.getLatitude(),
+                thingConfig.getLongitude(), thingConfig.getAltitude(), sun);
         publishPlanet();
     }
 
@@ -27,6 +27,7 @@ import org.slf4j.LoggerFactory;
  * Common used DateTime functions.
  *
  * @author Gerhard Riegler - Initial contribution
+ * @author agent - Add the julian date of milliseconds since the epoch
  */
 public class DateTimeUtils {
     private static final Logger LOGGER = LoggerFactory.getLogger(DateTimeUtils.class);
@@ -87,7 +88,14 @@ public class DateTimeUtils {
      * Returns the julian date from the calendar object.
      */
     public static double dateToJulianDate(Calendar calendar) {
-        return calendar.getTimeInMillis() / MILLISECONDS_PER_DAY - 0.5 + J1970;
+        return millisToJulianDate(calendar.getTimeInMillis());
+    }
+
+    /**
+     * Returns the julian date from milliseconds since the epoch.
+     */
+    public static double millisToJulianDate(long millis) {
+        return millis / MILLISECONDS_PER_DAY - 0.5 + J1970;
     }
 
     /**
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.astro.internal.calc;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import org.openhab.binding.astro.internal.model.Moon;
+import org.openhab.binding.astro.internal.model.Sun;
+
+/**
+ * Compares the time of the calculated positional updates with the time of the updates interpolated from the
+ * {@link PositionalTable}s. Every iteration updates the sun and the moon once per minute for a whole day, like a sun
+ * and a moon thing with the default interval of 60 seconds. The time to calculate the tables is measured separately.
+ *
+ * Usage: java org.openhab.binding.astro.internal.calc.PositionalBenchmark [iterations]
+ *
+ * @author agent - Initial contribution
+ */
+public class PositionalBenchmark {
+
+    private static final double LATITUDE = 52.367607;
+    private static final double LONGITUDE = 4.8978293;
+    private static final double ALTITUDE = 0.0;
+
+    private interface Update {
+        void update(Calendar calendar);
+    }
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+
+        SunCalc sunCalc = new SunCalc();
+        MoonCalc moonCalc = new MoonCalc();
+        Calendar day = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        day.clear();
+        day.set(2019, Calendar.FEBRUARY, 27);
+        Sun sun = new Sun();
+        Moon moon = moonCalc.getMoonInfo(day, LATITUDE, LONGITUDE);
+
+        long start = System.nanoTime();
+        sunCalc.setInterpolatedPositionalInfo(day, LATITUDE, LONGITUDE, ALTITUDE, sun);
+        moonCalc.setInterpolatedPositionalInfo(day, LATITUDE, LONGITUDE, moon);
+        System.out.println(String.format("tables: %.2f ms", (System.nanoTime() - start) / 1e6));
+
+        System.out.println("Iterations: " + iterations + ", updates per iteration: 1440");
+        run("calculated", iterations, day, calendar -> {
+            sunCalc.setPositionalInfo(calendar, LATITUDE, LONGITUDE, ALTITUDE, sun);
+            moonCalc.setPositionalInfo(calendar, LATITUDE, LONGITUDE, moon);
+        });
+        run("interpolated", iterations, day, calendar -> {
+            sunCalc.setInterpolatedPositionalInfo(calendar, LATITUDE, LONGITUDE, ALTITUDE, sun);
+            moonCalc.setInterpolatedPositionalInfo(calendar, LATITUDE, LONGITUDE, moon);
+        });
+    }
+
+    private static void run(String name, int iterations, Calendar day, Update update) {
+        Calendar calendar = (Calendar) day.clone();
+        long end = day.getTimeInMillis() + PositionalTable.DAY;
+
+        // warm up the JIT
+        for (int i = 0; i < iterations; i++) {
+            for (long time = day.getTimeInMillis(); time < end; time += PositionalTable.SAMPLE_INTERVAL) {
+                calendar.setTimeInMillis(time);
+                update.update(calendar);
+            }
+        }
+
+        long[] times = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            for (long time = day.getTimeInMillis(); time < end; time += PositionalTable.SAMPLE_INTERVAL) {
+                calendar.setTimeInMillis(time);
+                update.update(calendar);
+            }
+            times[i] = (System.nanoTime() - start) / 1440;
+        }
+        Arrays.sort(times);
+        System.out.println(String.format("%-12s per update: median %.1f us, p95 %.1f us", name,
+                times[iterations / 2] / 1e3, times[(int) (iterations * 0.95)] / 1e3));
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.astro.internal.calc;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.astro.internal.model.Moon;
+import org.openhab.binding.astro.internal.model.Position;
+import org.openhab.binding.astro.internal.model.Sun;
+
+/***
+ * Checks that the positional values interpolated from a {@link PositionalTable} match the values calculated by
+ * {@link SunCalc} and {@link MoonCalc} for every point in time.
+ *
+ * @author agent - Initial contribution
+ */
+public class PositionalTableTest {
+
+    private static final TimeZone TIME_ZONE = TimeZone.getTimeZone("UTC");
+    private static final double[][] LOCATIONS = { { 52.367607, 4.8978293 }, { 48.2082, 16.3738 },
+            { -33.8688, 151.2093 }, { 40.7128, -74.0060 }, { 64.1466, -21.9426 } };
+    private static final double ALTITUDE = 0.0;
+
+    private static final double ANGLE_ACCURACY = 0.05;
+    private static final double RADIATION_ACCURACY = 2.0;
+    private static final double DISTANCE_ACCURACY_IN_KM = 1.0;
+    private static final double ILLUMINATION_ACCURACY = 0.01;
+
+    // not a multiple of the sample interval, so that the values are interpolated
+    private static final long STEP = 7 * PositionalTable.SAMPLE_INTERVAL + 13_000;
+
+    private SunCalc sunCalc;
+    private MoonCalc moonCalc;
+
+    @Before
+    public void init() {
+        sunCalc = new SunCalc();
+        moonCalc = new MoonCalc();
+        PositionalTableCache.clear();
+    }
+
+    @Test
+    public void testInterpolatedSunPosition() {
+        for (double[] location : LOCATIONS) {
+            Calendar calendar = newCalendar(2019, Calendar.JUNE, 21);
+            long end = calendar.getTimeInMillis() + PositionalTable.DAY;
+            Sun exact = new Sun();
+            Sun interpolated = new Sun();
+            for (long time = calendar.getTimeInMillis(); time < end; time += STEP) {
+                calendar.setTimeInMillis(time);
+                sunCalc.setPositionalInfo(calendar, location[0], location[1], ALTITUDE, exact);
+                sunCalc.setInterpolatedPositionalInfo(calendar, location[0], location[1], ALTITUDE, interpolated);
+
+                assertPosition(exact.getPosition(), interpolated.getPosition());
+                assertEquals(exact.getRadiation().getTotal().doubleValue(),
+                        interpolated.getRadiation().getTotal().doubleValue(), RADIATION_ACCURACY);
+            }
+        }
+    }
+
+    @Test
+    public void testInterpolatedMoonPosition() {
+        for (double[] location : LOCATIONS) {
+            Calendar calendar = newCalendar(2019, Calendar.FEBRUARY, 27);
+            Moon exact = moonCalc.getMoonInfo(calendar, location[0], location[1]);
+            Moon interpolated = moonCalc.getMoonInfo(calendar, location[0], location[1]);
+            long end = calendar.getTimeInMillis() + PositionalTable.DAY;
+            for (long time = calendar.getTimeInMillis(); time < end; time += STEP) {
+                calendar.setTimeInMillis(time);
+                moonCalc.setPositionalInfo(calendar, location[0], location[1], exact);
+                moonCalc.setInterpolatedPositionalInfo(calendar, location[0], location[1], interpolated);
+
+                assertPosition(exact.getPosition(), interpolated.getPosition());
+                assertEquals(exact.getDistance().getDistance().doubleValue(),
+                        interpolated.getDistance().getDistance().doubleValue(), DISTANCE_ACCURACY_IN_KM);
+                assertEquals(exact.getPhase().getIllumination().doubleValue(),
+                        interpolated.getPhase().getIllumination().doubleValue(), ILLUMINATION_ACCURACY);
+            }
+        }
+    }
+
+    @Test
+    public void testTableIsSharedPerLocationAndDay() {
+        Calendar calendar = newCalendar(2019, Calendar.FEBRUARY, 27);
+        sunCalc.setInterpolatedPositionalInfo(calendar, 52.367607, 4.8978293, ALTITUDE, new Sun());
+        calendar.add(Calendar.HOUR_OF_DAY, 5);
+        sunCalc.setInterpolatedPositionalInfo(calendar, 52.367607, 4.8978293, ALTITUDE, new Sun());
+        assertEquals(1, PositionalTableCache.size());
+
+        sunCalc.setInterpolatedPositionalInfo(calendar, 48.2082, 16.3738, ALTITUDE, new Sun());
+        assertEquals(2, PositionalTableCache.size());
+
+        // the tables of the day before yesterday are removed when the table of the next day is calculated
+        calendar.add(Calendar.DAY_OF_MONTH, 2);
+        sunCalc.setInterpolatedPositionalInfo(calendar, 52.367607, 4.8978293, ALTITUDE, new Sun());
+        assertEquals(1, PositionalTableCache.size());
+    }
+
+    @Test
+    public void testAngleInterpolationWrapsAround() {
+        PositionalTable table = new PositionalTable(0, new boolean[] { true, false },
+                (time, values) -> {
+                    values[0] = time == 0 ? 359.0 : 1.0;
+                    values[1] = time == 0 ? 359.0 : 1.0;
+                });
+        long half = PositionalTable.SAMPLE_INTERVAL / 2;
+        assertEquals(0.0, table.interpolate(0, half), 1e-9);
+        assertEquals(180.0, table.interpolate(1, half), 1e-9);
+        assertEquals(359.5, table.interpolate(0, half / 2), 1e-9);
+        assertEquals(359.0, table.getPrevious(0, half), 1e-9);
+    }
+
+    @Test
+    public void testSamplesAreCalculatedOnFirstAccess() {
+        List<Long> sampledTimes = new ArrayList<>();
+        PositionalTable table = new PositionalTable(0, new boolean[] { false }, (time, values) -> {
+            sampledTimes.add(time);
+            values[0] = time;
+        });
+        assertEquals(0, table.getSampledCount());
+
+        long time = 10 * PositionalTable.SAMPLE_INTERVAL + 1000;
+        assertEquals(time, table.interpolate(0, time), 1e-6);
+        assertEquals(Arrays.asList(10 * PositionalTable.SAMPLE_INTERVAL, 11 * PositionalTable.SAMPLE_INTERVAL),
+                sampledTimes);
+
+        // the samples are reused, the next minute only needs one more
+        table.interpolate(0, time + 30_000);
+        table.getPrevious(0, time);
+        table.interpolate(0, time + PositionalTable.SAMPLE_INTERVAL);
+        assertEquals(3, table.getSampledCount());
+        assertEquals(3, sampledTimes.size());
+
+        // the last minute of the day is interpolated with the first sample of the next day
+        table.interpolate(0, PositionalTable.DAY - 1);
+        assertEquals(5, table.getSampledCount());
+        assertEquals(Long.valueOf(PositionalTable.DAY), sampledTimes.get(4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPointInTimeOutsideOfTable() {
+        PositionalTable table = new PositionalTable(0, new boolean[] { false }, (time, values) -> values[0] = time);
+        table.interpolate(0, PositionalTable.DAY);
+    }
+
+    private static void assertPosition(Position expected, Position actual) {
+        double azimuthDelta = Math.abs(expected.getAzimuth().doubleValue() - actual.getAzimuth().doubleValue());
+        assertTrue("azimuth differs by " + azimuthDelta,
+                Math.min(azimuthDelta, 360 - azimuthDelta) <= ANGLE_ACCURACY);
+        assertEquals(expected.getElevation().doubleValue(), actual.getElevation().doubleValue(), ANGLE_ACCURACY);
+    }
+
+    private static Calendar newCalendar(int year, int month, int dayOfMonth) {
+        Calendar result = new GregorianCalendar(TIME_ZONE);
+        result.clear();
+        result.set(year, month, dayOfMonth);
+        return result;
+    }
+}
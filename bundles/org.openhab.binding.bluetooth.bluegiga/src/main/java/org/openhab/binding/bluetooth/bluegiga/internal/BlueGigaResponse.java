@@ -29,6 +29,7 @@ import org.openhab.binding.bluetooth.bluegiga.internal.enumeration.ScanResponseT
  * classes.
  *
  * @author Chris Jackson - Initial contribution and API
+ * @author agent - Queue commands per connection
  *
  */
 @NonNullByDefault
@@ -52,6 +53,24 @@ public abstract class BlueGigaResponse extends BlueGigaPacket {
         return event;
     }
 
+    /**
+     * Returns the class ID from the packet header
+     *
+     * @return the class ID
+     */
+    public int getCommandClass() {
+        return buffer[2];
+    }
+
+    /**
+     * Returns the command ID from the packet header
+     *
+     * @return the command ID
+     */
+    public int getCommandMethod() {
+        return buffer[3];
+    }
+
     /**
      * Reads a int8 from the output stream
      *
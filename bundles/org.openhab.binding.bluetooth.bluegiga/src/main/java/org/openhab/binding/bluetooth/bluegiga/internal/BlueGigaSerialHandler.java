@@ -30,6 +30,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Chris Jackson - Initial contribution and API
  * @author Pauli Anttila - Split serial handler and transaction management
+ * @author agent - Queue commands per connection
  *
  */
 @NonNullByDefault
@@ -144,14 +145,26 @@ public class BlueGigaSerialHandler {
     }
 
     private void sendFrame(BlueGigaCommand bleFrame, boolean checkIsAlive) throws IllegalStateException {
+        logger.trace("sendFrame: {}", bleFrame);
+        sendFrame(bleFrame.serialize(), checkIsAlive);
+    }
+
+    /**
+     * Sends an already serialized frame.
+     *
+     * @param payload the serialized {@link BlueGigaCommand}
+     */
+    public void sendFrame(int[] payload) throws IllegalStateException {
+        sendFrame(payload, true);
+    }
+
+    private void sendFrame(int[] payload, boolean checkIsAlive) throws IllegalStateException {
         if (checkIsAlive) {
             checkIfAlive();
         }
 
         // Send the data
-        logger.trace("sendFrame: {}", bleFrame);
         try {
-            int[] payload = bleFrame.serialize();
             if (logger.isTraceEnabled()) {
                 logger.trace("BLE TX: {}", printHex(payload, payload.length));
             }
@@ -12,13 +12,15 @@
  */
 package org.openhab.binding.bluetooth.bluegiga.internal;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.Callable;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -29,20 +31,66 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaAttributeValueEvent;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaAttributeWriteCommand;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaAttributeWriteResponse;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaExecuteWriteCommand;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaExecuteWriteResponse;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaFindByTypeValueCommand;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaFindByTypeValueResponse;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaFindInformationCommand;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaFindInformationResponse;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaPrepareWriteCommand;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaPrepareWriteResponse;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaProcedureCompletedEvent;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaReadByGroupTypeCommand;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaReadByGroupTypeResponse;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaReadByHandleCommand;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaReadByHandleResponse;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaReadByTypeCommand;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaReadByTypeResponse;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaReadLongCommand;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaReadLongResponse;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaReadMultipleCommand;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaReadMultipleResponse;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaReadMultipleResponseEvent;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.connection.BlueGigaDisconnectedEvent;
+import org.openhab.binding.bluetooth.bluegiga.internal.enumeration.AttributeValueType;
+import org.openhab.binding.bluetooth.bluegiga.internal.enumeration.BgApiResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This class provides transaction management and queuing of {@link BlueGigaCommand} frames.
+ * <p>
+ * BGAPI only allows one command to wait for its response on the serial line, so commands are still written one at a
+ * time. Responses are correlated by class ID, command ID and connection handle, and completed asynchronously so no
+ * thread is blocked per transaction.
+ * <p>
+ * Commands are queued per connection handle and served in round robin order. A GATT procedure (e.g. a characteristic
+ * read) keeps running on the device after its command response has been received, and BLE allows only one of them per
+ * connection. A connection with an ongoing procedure therefore holds back its next procedure command until the
+ * procedure has completed or timed out, while procedures on other connections keep running concurrently.
  *
  * @author Pauli Anttila - Initial contribution
+ * @author agent - Queue commands per connection
  *
  */
 @NonNullByDefault
 public class BlueGigaTransactionManager implements BlueGigaSerialEventListener {
 
+    /**
+     * Pseudo connection handle used to queue commands which are not addressed to a connection
+     */
+    static final int NO_CONNECTION = -1;
+
     private static final int TRANSACTION_TIMEOUT_PERIOD_MS = 100;
 
+    /**
+     * An attribute protocol transaction times out after 30 seconds
+     */
+    private static final int PROCEDURE_TIMEOUT_PERIOD_MS = 30000;
+
     private final Logger logger = LoggerFactory.getLogger(BlueGigaTransactionManager.class);
 
     /**
@@ -51,33 +99,38 @@ public class BlueGigaTransactionManager implements BlueGigaSerialEventListener {
     private AtomicInteger transactionId = new AtomicInteger();
 
     /**
-     * Ongoing transaction id. If not present, no ongoing transaction.
+     * Command waiting for its response. If null, no ongoing transaction.
      */
-    private volatile Optional<Integer> ongoingTransactionId = Optional.empty();
+    private @Nullable BlueGigaUniqueCommand ongoingTransaction;
 
     /**
-     * Transaction listeners are used internally to correlate the commands and responses
+     * Send queues per connection handle. The iteration order is the round robin order.
      */
-    private final List<BluetoothListener<? extends BlueGigaResponse>> transactionListeners = new CopyOnWriteArrayList<>();
+    private final Map<Integer, Queue<BlueGigaUniqueCommand>> sendQueues = new LinkedHashMap<>();
+
+    /**
+     * Ongoing GATT procedures per connection handle
+     */
+    private final Map<Integer, OngoingProcedure> ongoingProcedures = new HashMap<>();
 
     /**
      * The event listeners will be notified of any asynchronous events
      */
     private final Set<BlueGigaEventListener> eventListeners = new CopyOnWriteArraySet<>();
 
-    private final Queue<BlueGigaUniqueCommand> sendQueue = new LinkedList<BlueGigaUniqueCommand>();
     private final ScheduledExecutorService executor;
     private final BlueGigaSerialHandler serialHandler;
 
     private @Nullable Future<?> transactionTimeoutTimer;
 
-    /**
-     * Internal interface for transaction listeners.
-     */
-    interface BluetoothListener<T extends BlueGigaResponse> {
-        boolean transactionEvent(BlueGigaResponse response, int transactionId);
+    private static class OngoingProcedure {
+        private final BlueGigaUniqueCommand command;
+        private final Future<?> timeoutTimer;
 
-        boolean transactionTimeout(int transactionId);
+        OngoingProcedure(BlueGigaUniqueCommand command, Future<?> timeoutTimer) {
+            this.command = command;
+            this.timeoutTimer = timeoutTimer;
+        }
     }
 
     public BlueGigaTransactionManager(BlueGigaSerialHandler serialHandler, ScheduledExecutorService executor) {
@@ -91,210 +144,122 @@ public class BlueGigaTransactionManager implements BlueGigaSerialEventListener {
      */
     public void close() {
         serialHandler.removeEventListener(this);
-        cancelTransactionTimer();
-        sendQueue.clear();
-        transactionListeners.clear();
+        List<BlueGigaUniqueCommand> pending = new ArrayList<>();
+        synchronized (this) {
+            cancelTransactionTimer();
+            BlueGigaUniqueCommand frame = ongoingTransaction;
+            if (frame != null) {
+                pending.add(frame);
+                ongoingTransaction = null;
+            }
+            sendQueues.values().forEach(pending::addAll);
+            sendQueues.clear();
+            ongoingProcedures.values().forEach(procedure -> procedure.timeoutTimer.cancel(false));
+            ongoingProcedures.clear();
+        }
+        pending.forEach(frame -> frame.getResponse()
+                .completeExceptionally(new BlueGigaException("BlueGiga transaction manager closed")));
         eventListeners.clear();
         logger.debug("Closed");
     }
 
-    private void startTransactionTimer() {
+    private void startTransactionTimer(BlueGigaUniqueCommand frame) {
         transactionTimeoutTimer = executor.schedule(() -> {
-            notifyTransactionTimeout(ongoingTransactionId);
+            notifyTransactionTimeout(frame);
         }, TRANSACTION_TIMEOUT_PERIOD_MS, TimeUnit.MILLISECONDS);
     }
 
     private void cancelTransactionTimer() {
-        if (transactionTimeoutTimer != null) {
-            transactionTimeoutTimer.cancel(true);
+        Future<?> timer = transactionTimeoutTimer;
+        if (timer != null) {
+            timer.cancel(false);
             transactionTimeoutTimer = null;
         }
     }
 
+    /**
+     * Sends the next frame from the queues if there is no ongoing transaction. Must be called while holding the lock.
+     */
     private void sendNextFrame() {
-        getNextFrame().ifPresent(frame -> {
-            cancelTransactionTimer();
+        while (ongoingTransaction == null) {
+            BlueGigaUniqueCommand frame = getNextFrame();
+            if (frame == null) {
+                return;
+            }
             logger.debug("Send frame #{}: {}", frame.getTransactionId(), frame.getMessage());
-            ongoingTransactionId = Optional.of(frame.getTransactionId());
-            serialHandler.sendFrame(frame.getMessage());
-            startTransactionTimer();
-        });
+            try {
+                serialHandler.sendFrame(frame.getPayload());
+            } catch (IllegalStateException | BlueGigaException e) {
+                logger.debug("Failed to send frame #{}: {}", frame.getTransactionId(), e.getMessage());
+                frame.getResponse().completeExceptionally(e);
+                continue;
+            }
+            ongoingTransaction = frame;
+            startTransactionTimer(frame);
+        }
     }
 
-    @SuppressWarnings({ "null", "unused" })
-    private Optional<BlueGigaUniqueCommand> getNextFrame() {
-        while (!sendQueue.isEmpty()) {
-            BlueGigaUniqueCommand frame = sendQueue.poll();
-            if (frame != null) {
-                if (frame.getMessage() != null) {
-                    return Optional.of(frame);
-                } else {
-                    logger.debug("Null message found from queue, skip it");
+    /**
+     * Takes the next frame to send. Queues are served in round robin order, and a connection with an ongoing procedure
+     * is only served with commands which don't start a new procedure.
+     */
+    private @Nullable BlueGigaUniqueCommand getNextFrame() {
+        Iterator<Map.Entry<Integer, Queue<BlueGigaUniqueCommand>>> queues = sendQueues.entrySet().iterator();
+        while (queues.hasNext()) {
+            Map.Entry<Integer, Queue<BlueGigaUniqueCommand>> entry = queues.next();
+            Queue<BlueGigaUniqueCommand> queue = entry.getValue();
+            boolean procedureOngoing = ongoingProcedures.containsKey(entry.getKey());
+
+            BlueGigaUniqueCommand frame = null;
+            Iterator<BlueGigaUniqueCommand> frames = queue.iterator();
+            while (frames.hasNext()) {
+                BlueGigaUniqueCommand candidate = frames.next();
+                if (candidate.getResponse().isDone()) {
+                    logger.debug("Transaction #{} already completed, skip it", candidate.getTransactionId());
+                    frames.remove();
                     continue;
                 }
-            } else {
-                logger.debug("Null frame found from queue, skip it");
-                continue;
+                if (procedureOngoing && isProcedure(candidate.getMessage())) {
+                    continue;
+                }
+                frames.remove();
+                frame = candidate;
+                break;
+            }
+
+            if (queue.isEmpty()) {
+                queues.remove();
+            }
+            if (frame != null) {
+                if (!queue.isEmpty()) {
+                    // Move the connection to the end of the round
+                    queues.remove();
+                    sendQueues.put(entry.getKey(), queue);
+                }
+                return frame;
             }
         }
-        return Optional.empty();
+        return null;
     }
 
     /**
-     * Add a {@link BlueGigaUniqueCommand} frame to the send queue. The sendQueue is a
-     * FIFO queue. This method queues a {@link BlueGigaCommand} frame without
-     * waiting for a response.
+     * Add a {@link BlueGigaUniqueCommand} frame to the send queue of its connection. The queues are FIFO queues. This
+     * method queues a {@link BlueGigaCommand} frame without waiting for a response.
      *
-     * @param transaction
+     * @param request
      *            {@link BlueGigaUniqueCommand}
      */
     public void queueFrame(BlueGigaUniqueCommand request) {
         logger.trace("Queue TX BLE frame: {}", request);
-        sendQueue.add(request);
-        logger.trace("TX BLE queue size: {}", sendQueue.size());
-    }
-
-    private void sendNextTransactionIfNoOngoing() {
         synchronized (this) {
-            logger.trace("Send next transaction if no ongoing");
-            if (!ongoingTransactionId.isPresent()) {
-                sendNextFrame();
-            }
-        }
-    }
-
-    private void clearOngoingTransactionAndSendNext() {
-        synchronized (this) {
-            logger.trace("Clear ongoing transaction and send next frame from queue");
-            ongoingTransactionId = Optional.empty();
+            Queue<BlueGigaUniqueCommand> queue = sendQueues.computeIfAbsent(request.getConnection(),
+                    connection -> new LinkedList<>());
+            queue.add(request);
+            logger.trace("TX BLE queue size for connection {}: {}", request.getConnection(), queue.size());
             sendNextFrame();
         }
     }
 
-    private void addTransactionListener(BluetoothListener<? extends BlueGigaResponse> listener) {
-        if (transactionListeners.contains(listener)) {
-            return;
-        }
-
-        transactionListeners.add(listener);
-    }
-
-    private void removeTransactionListener(BluetoothListener<?> listener) {
-        transactionListeners.remove(listener);
-    }
-
-    /**
-     * Sends an BlueGiga request without waiting for the response.
-     *
-     * @param bleCommand {@link BlueGigaCommand}
-     * @return response {@link Future} {@link BlueGigaResponse}
-     */
-    private <T extends BlueGigaResponse> Future<T> sendBleRequestAsync(final BlueGigaCommand bleCommand,
-            final Class<T> expected) {
-        class TransactionWaiter implements Callable<T>, BluetoothListener<T> {
-            private volatile boolean complete;
-            private Optional<BlueGigaResponse> response = Optional.empty();
-            private BlueGigaUniqueCommand query = new BlueGigaUniqueCommand(bleCommand,
-                    transactionId.getAndIncrement());
-
-            @SuppressWarnings("unchecked")
-            @Override
-            public T call() throws TimeoutException {
-                // Register a listener
-                addTransactionListener(this);
-
-                // Send the transaction
-                queueFrame(query);
-                sendNextTransactionIfNoOngoing();
-
-                // Wait transaction completed or timeout
-                synchronized (this) {
-                    while (!complete) {
-                        try {
-                            wait();
-                        } catch (InterruptedException e) {
-                            complete = true;
-                        }
-                    }
-                }
-
-                cancelTransactionTimer();
-
-                // Remove the listener
-                removeTransactionListener(this);
-
-                // Send next transaction if any
-                executor.submit(BlueGigaTransactionManager.this::clearOngoingTransactionAndSendNext);
-
-                if (response.isPresent()) {
-                    return (T) response.get();
-                } else {
-                    throw new TimeoutException("No response from BlueGiga controller");
-                }
-
-            }
-
-            @Override
-            public boolean transactionEvent(BlueGigaResponse bleResponse, int transactionId) {
-                logger.trace("Expected transactionId: {}, received transactionId: {}", query.getTransactionId(),
-                        transactionId);
-
-                if (transactionId != query.getTransactionId()) {
-                    logger.trace("Ignore frame as received transaction Id {} doesn't match expected transaction Id {}.",
-                            transactionId, query.getTransactionId());
-                    return false;
-                }
-
-                logger.trace("Expected frame: {}, received frame: {}", expected.getSimpleName(), bleResponse);
-
-                if (bleCommand instanceof BlueGigaDeviceCommand && bleResponse instanceof BlueGigaDeviceResponse) {
-                    BlueGigaDeviceCommand devCommand = (BlueGigaDeviceCommand) bleCommand;
-                    BlueGigaDeviceResponse devResponse = (BlueGigaDeviceResponse) bleResponse;
-
-                    logger.trace("Expected connection id: {}, received connection id: {}", devCommand.getConnection(),
-                            devResponse.getConnection());
-
-                    if (devCommand.getConnection() != devResponse.getConnection()) {
-                        logger.trace("Ignore response as received connection id {} doesn't match expected id {}.",
-                                devResponse.getConnection(), devCommand.getConnection());
-                        return false;
-                    }
-                }
-
-                if (!expected.isInstance(bleResponse)) {
-                    logger.trace("Ignoring {} frame which has not been requested.",
-                            bleResponse.getClass().getSimpleName());
-                    return false;
-                }
-
-                // Response received, notify waiter
-                response = Optional.of(bleResponse);
-                complete = true;
-                logger.debug("Received frame #{}: {}", transactionId, bleResponse);
-                synchronized (this) {
-                    notify();
-                }
-                return true;
-            }
-
-            @Override
-            public boolean transactionTimeout(int transactionId) {
-                if (transactionId != query.getTransactionId()) {
-                    return false;
-                }
-                logger.debug("Timeout, no response received for transaction {}", query.getTransactionId());
-                complete = true;
-                synchronized (this) {
-                    notify();
-                }
-                return true;
-            }
-        }
-
-        Callable<T> worker = new TransactionWaiter();
-        return executor.submit(worker);
-    }
-
     /**
      * Sends a {@link BlueGigaCommand} request to the NCP and waits for the response for specified period of time.
      * The response is correlated with the request and the returned {@link BlueGigaResponse}
@@ -307,11 +272,13 @@ public class BlueGigaTransactionManager implements BlueGigaSerialEventListener {
      */
     public <T extends BlueGigaResponse> T sendTransaction(BlueGigaCommand bleCommand, Class<T> expected, long timeout)
             throws BlueGigaException {
-        Future<T> futureResponse = sendBleRequestAsync(bleCommand, expected);
+        BlueGigaUniqueCommand query = new BlueGigaUniqueCommand(bleCommand, transactionId.getAndIncrement(),
+                expected);
+        queueFrame(query);
         try {
-            return futureResponse.get(timeout, TimeUnit.MILLISECONDS);
+            return expected.cast(query.getResponse().get(timeout, TimeUnit.MILLISECONDS));
         } catch (TimeoutException | InterruptedException | ExecutionException e) {
-            futureResponse.cancel(true);
+            query.getResponse().cancel(false);
             throw new BlueGigaException(String.format("Error sending BLE transaction: %s", e.getMessage()), e);
         }
     }
@@ -327,6 +294,8 @@ public class BlueGigaTransactionManager implements BlueGigaSerialEventListener {
     @Override
     public void bluegigaFrameReceived(BlueGigaResponse event) {
         if (event.isEvent()) {
+            // Release the connection before the listeners get a chance to start the next procedure
+            updateProcedureState(event);
             notifyEventListeners(event);
         } else {
             notifyTransactionComplete(event);
@@ -348,36 +317,131 @@ public class BlueGigaTransactionManager implements BlueGigaSerialEventListener {
     }
 
     /**
-     * Notify any internal transaction listeners when we receive a response.
+     * Completes the ongoing transaction when we receive its response.
      *
      * @param response
      *            the response data received
      */
     private void notifyTransactionComplete(final BlueGigaResponse response) {
-        ongoingTransactionId.ifPresent(id -> {
-            boolean processed = false;
-            for (BluetoothListener<? extends BlueGigaResponse> listener : transactionListeners) {
-                if (listener.transactionEvent(response, id)) {
-                    processed = true;
-                }
+        BlueGigaUniqueCommand frame;
+        synchronized (this) {
+            frame = ongoingTransaction;
+            if (frame == null || !frame.matches(response)) {
+                logger.debug("No transaction found for received response: {}", response);
+                return;
             }
-            if (!processed) {
-                logger.debug("No listener found for received response: {}", response);
+            cancelTransactionTimer();
+            ongoingTransaction = null;
+            if (isProcedure(frame.getMessage()) && isProcedureStarted(response)) {
+                startProcedure(frame);
+            }
+            sendNextFrame();
+        }
+        logger.debug("Received frame #{}: {}", frame.getTransactionId(), response);
+        frame.getResponse().complete(response);
+    }
+
+    private void notifyTransactionTimeout(BlueGigaUniqueCommand frame) {
+        synchronized (this) {
+            if (ongoingTransaction != frame) {
+                return;
             }
-        });
+            logger.debug("Timeout, no response received for transaction {}", frame.getTransactionId());
+            transactionTimeoutTimer = null;
+            ongoingTransaction = null;
+            sendNextFrame();
+        }
+        frame.getResponse().completeExceptionally(new TimeoutException("No response from BlueGiga controller"));
     }
 
-    private void notifyTransactionTimeout(final Optional<Integer> transactionId) {
-        transactionId.ifPresent(id -> {
-            boolean processed = false;
-            for (BluetoothListener<? extends BlueGigaResponse> listener : transactionListeners) {
-                if (listener.transactionTimeout(id)) {
-                    processed = true;
+    private void startProcedure(BlueGigaUniqueCommand frame) {
+        int connection = frame.getConnection();
+        logger.trace("Procedure started by transaction #{} on connection {}", frame.getTransactionId(), connection);
+        Future<?> timer = executor.schedule(() -> {
+            synchronized (this) {
+                OngoingProcedure procedure = ongoingProcedures.get(connection);
+                if (procedure != null && procedure.command == frame) {
+                    logger.debug("Procedure timeout for transaction #{} on connection {}", frame.getTransactionId(),
+                            connection);
+                    ongoingProcedures.remove(connection);
+                    sendNextFrame();
                 }
             }
-            if (!processed) {
-                logger.debug("No listener found for transaction timeout event, transaction id {}", id);
+        }, PROCEDURE_TIMEOUT_PERIOD_MS, TimeUnit.MILLISECONDS);
+        ongoingProcedures.put(connection, new OngoingProcedure(frame, timer));
+    }
+
+    private void updateProcedureState(BlueGigaResponse event) {
+        if (!(event instanceof BlueGigaDeviceResponse)) {
+            return;
+        }
+        int connection = ((BlueGigaDeviceResponse) event).getConnection();
+        synchronized (this) {
+            OngoingProcedure procedure = ongoingProcedures.get(connection);
+            if (procedure == null || !isProcedureEnd(procedure.command.getMessage(), event)) {
+                return;
             }
-        });
+            logger.trace("Procedure completed on connection {}", connection);
+            procedure.timeoutTimer.cancel(false);
+            ongoingProcedures.remove(connection);
+            sendNextFrame();
+        }
+    }
+
+    /**
+     * Checks whether the command starts a GATT procedure which completes with an event
+     */
+    private static boolean isProcedure(BlueGigaCommand command) {
+        return command instanceof BlueGigaFindByTypeValueCommand || command instanceof BlueGigaReadByGroupTypeCommand
+                || command instanceof BlueGigaReadByTypeCommand || command instanceof BlueGigaFindInformationCommand
+                || command instanceof BlueGigaReadByHandleCommand || command instanceof BlueGigaAttributeWriteCommand
+                || command instanceof BlueGigaReadLongCommand || command instanceof BlueGigaPrepareWriteCommand
+                || command instanceof BlueGigaExecuteWriteCommand || command instanceof BlueGigaReadMultipleCommand;
+    }
+
+    /**
+     * Checks whether the controller accepted the procedure. A rejected procedure produces no completion event.
+     */
+    private static boolean isProcedureStarted(BlueGigaResponse response) {
+        BgApiResponse result;
+        if (response instanceof BlueGigaFindByTypeValueResponse) {
+            result = ((BlueGigaFindByTypeValueResponse) response).getResult();
+        } else if (response instanceof BlueGigaReadByGroupTypeResponse) {
+            result = ((BlueGigaReadByGroupTypeResponse) response).getResult();
+        } else if (response instanceof BlueGigaReadByTypeResponse) {
+            result = ((BlueGigaReadByTypeResponse) response).getResult();
+        } else if (response instanceof BlueGigaFindInformationResponse) {
+            result = ((BlueGigaFindInformationResponse) response).getResult();
+        } else if (response instanceof BlueGigaReadByHandleResponse) {
+            result = ((BlueGigaReadByHandleResponse) response).getResult();
+        } else if (response instanceof BlueGigaAttributeWriteResponse) {
+            result = ((BlueGigaAttributeWriteResponse) response).getResult();
+        } else if (response instanceof BlueGigaReadLongResponse) {
+            result = ((BlueGigaReadLongResponse) response).getResult();
+        } else if (response instanceof BlueGigaPrepareWriteResponse) {
+            result = ((BlueGigaPrepareWriteResponse) response).getResult();
+        } else if (response instanceof BlueGigaExecuteWriteResponse) {
+            result = ((BlueGigaExecuteWriteResponse) response).getResult();
+        } else if (response instanceof BlueGigaReadMultipleResponse) {
+            result = ((BlueGigaReadMultipleResponse) response).getResult();
+        } else {
+            return false;
+        }
+        return result == BgApiResponse.SUCCESS;
+    }
+
+    /**
+     * Checks whether the event ends the procedure started by the command on the same connection
+     */
+    private static boolean isProcedureEnd(BlueGigaCommand command, BlueGigaResponse event) {
+        if (event instanceof BlueGigaProcedureCompletedEvent || event instanceof BlueGigaDisconnectedEvent) {
+            return true;
+        }
+        if (command instanceof BlueGigaReadByHandleCommand && event instanceof BlueGigaAttributeValueEvent) {
+            // A successful read by handle completes with the value instead of a procedure completed event
+            return ((BlueGigaAttributeValueEvent) event)
+                    .getType() == AttributeValueType.ATTCLIENT_ATTRIBUTE_VALUE_TYPE_READ;
+        }
+        return command instanceof BlueGigaReadMultipleCommand && event instanceof BlueGigaReadMultipleResponseEvent;
     }
 }
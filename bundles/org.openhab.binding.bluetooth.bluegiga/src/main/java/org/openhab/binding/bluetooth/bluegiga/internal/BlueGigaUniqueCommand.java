@@ -12,22 +12,31 @@
  */
 package org.openhab.binding.bluetooth.bluegiga.internal;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 
 /**
- * Container class to hold {@link BlueGigaCommand} and transaction id.
+ * Container class to hold {@link BlueGigaCommand}, transaction id and the pending response.
  *
  * @author Pauli Anttila - Initial contribution
+ * @author agent - Queue commands per connection
  *
  */
 @NonNullByDefault
 public class BlueGigaUniqueCommand {
     private BlueGigaCommand msg;
     private int transactionId;
+    private int[] payload;
+    private Class<? extends BlueGigaResponse> expected;
+    private CompletableFuture<BlueGigaResponse> response = new CompletableFuture<>();
 
-    BlueGigaUniqueCommand(BlueGigaCommand message, int transactionId) {
+    BlueGigaUniqueCommand(BlueGigaCommand message, int transactionId, Class<? extends BlueGigaResponse> expected) {
         this.msg = message;
         this.transactionId = transactionId;
+        this.expected = expected;
+        // Commands append to their internal buffer on every call, so serialize exactly once
+        this.payload = message.serialize();
     }
 
     int getTransactionId() {
@@ -38,6 +47,53 @@ public class BlueGigaUniqueCommand {
         return msg;
     }
 
+    int[] getPayload() {
+        return payload;
+    }
+
+    int getCommandClass() {
+        return payload[2];
+    }
+
+    int getCommandMethod() {
+        return payload[3];
+    }
+
+    /**
+     * Returns the connection handle this command is addressed to, or
+     * {@link BlueGigaTransactionManager#NO_CONNECTION} if the command is not a device command.
+     *
+     * @return connection handle
+     */
+    int getConnection() {
+        return msg instanceof BlueGigaDeviceCommand ? ((BlueGigaDeviceCommand) msg).getConnection()
+                : BlueGigaTransactionManager.NO_CONNECTION;
+    }
+
+    CompletableFuture<BlueGigaResponse> getResponse() {
+        return response;
+    }
+
+    /**
+     * Checks whether the received response answers this command. Responses are correlated by class and command ID,
+     * and by connection handle for device commands.
+     *
+     * @param bleResponse the received response
+     * @return true if the response belongs to this command
+     */
+    boolean matches(BlueGigaResponse bleResponse) {
+        if (bleResponse.getCommandClass() != getCommandClass()
+                || bleResponse.getCommandMethod() != getCommandMethod()) {
+            return false;
+        }
+        if (msg instanceof BlueGigaDeviceCommand && bleResponse instanceof BlueGigaDeviceResponse) {
+            if (((BlueGigaDeviceResponse) bleResponse).getConnection() != getConnection()) {
+                return false;
+            }
+        }
+        return expected.isInstance(bleResponse);
+    }
+
     @Override
     public String toString() {
         final StringBuilder builder = new StringBuilder();
@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.bluetooth.bluegiga.internal;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaProcedureCompletedEvent;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaReadByHandleCommand;
+import org.openhab.binding.bluetooth.bluegiga.internal.command.attributeclient.BlueGigaReadByHandleResponse;
+
+/**
+ * Tests {@link BlueGigaTransactionManager}.
+ *
+ * @author agent - Initial contribution
+ */
+public class BlueGigaTransactionManagerTest {
+
+    private BlueGigaSerialHandler serialHandler = mock(BlueGigaSerialHandler.class);
+    private ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    private BlueGigaTransactionManager manager;
+
+    @Before
+    public void setUp() {
+        manager = new BlueGigaTransactionManager(serialHandler, executor);
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+        executor.shutdownNow();
+    }
+
+    private BlueGigaUniqueCommand readCommand(int transactionId, int connection) {
+        BlueGigaReadByHandleCommand command = new BlueGigaReadByHandleCommand.CommandBuilder()
+                .withConnection(connection).withChrHandle(0x10 + transactionId).build();
+        return new BlueGigaUniqueCommand(command, transactionId, BlueGigaReadByHandleResponse.class);
+    }
+
+    private BlueGigaResponse readResponse(int connection) {
+        return new BlueGigaReadByHandleResponse(new int[] { 0x00, 0x03, 0x04, 0x04, connection, 0x00, 0x00 });
+    }
+
+    private BlueGigaResponse procedureCompleted(int connection) {
+        return new BlueGigaProcedureCompletedEvent(
+                new int[] { 0x80, 0x05, 0x04, 0x01, connection, 0x00, 0x00, 0x10, 0x00 });
+    }
+
+    @Test
+    public void testProceduresOnDifferentConnectionsRunConcurrently() {
+        BlueGigaUniqueCommand first = readCommand(1, 0);
+        BlueGigaUniqueCommand second = readCommand(2, 1);
+        manager.queueFrame(first);
+        manager.queueFrame(second);
+
+        verify(serialHandler).sendFrame(first.getPayload());
+        verify(serialHandler, never()).sendFrame(second.getPayload());
+
+        manager.bluegigaFrameReceived(readResponse(0));
+        assertTrue(first.getResponse().isDone());
+        verify(serialHandler).sendFrame(second.getPayload());
+
+        manager.bluegigaFrameReceived(readResponse(1));
+        assertTrue(second.getResponse().isDone());
+    }
+
+    @Test
+    public void testOneProcedurePerConnection() {
+        BlueGigaUniqueCommand first = readCommand(1, 0);
+        BlueGigaUniqueCommand second = readCommand(2, 0);
+        manager.queueFrame(first);
+        manager.queueFrame(second);
+
+        manager.bluegigaFrameReceived(readResponse(0));
+        assertTrue(first.getResponse().isDone());
+        verify(serialHandler, never()).sendFrame(second.getPayload());
+
+        manager.bluegigaFrameReceived(procedureCompleted(0));
+        verify(serialHandler).sendFrame(second.getPayload());
+    }
+
+    @Test
+    public void testResponseOfOtherConnectionIsIgnored() {
+        BlueGigaUniqueCommand first = readCommand(1, 0);
+        manager.queueFrame(first);
+
+        manager.bluegigaFrameReceived(readResponse(1));
+        assertFalse(first.getResponse().isDone());
+    }
+
+    @Test
+    public void testTransactionTimeout() throws InterruptedException {
+        BlueGigaUniqueCommand first = readCommand(1, 0);
+        manager.queueFrame(first);
+
+        try {
+            first.getResponse().get(1, TimeUnit.SECONDS);
+            fail("Transaction should have timed out");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        } catch (TimeoutException e) {
+            fail("Transaction timeout was not reported");
+        }
+    }
+}
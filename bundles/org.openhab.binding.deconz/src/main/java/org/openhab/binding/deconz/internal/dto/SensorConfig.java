@@ -23,11 +23,13 @@ import org.eclipse.jdt.annotation.Nullable;
  * https://dresden-elektronik.github.io/deconz-rest-doc/sensors/.
  *
  * @author David Graeff - Initial contribution
+ * @author agent - Attributes not sent by deCONZ are null
  */
 @NonNullByDefault
 public class SensorConfig {
-    public boolean on = true;
-    public boolean reachable = true;
+    // null if not part of the message, e.g. of a websocket event
+    public @Nullable Boolean on;
+    public @Nullable Boolean reachable;
     public @Nullable Integer battery;
     public @Nullable Float temperature;
 }
@@ -38,6 +38,7 @@ import org.eclipse.smarthome.io.net.http.WebSocketFactory;
 import org.openhab.binding.deconz.internal.discovery.ThingDiscoveryService;
 import org.openhab.binding.deconz.internal.dto.ApiKeyMessage;
 import org.openhab.binding.deconz.internal.dto.BridgeFullState;
+import org.openhab.binding.deconz.internal.dto.SensorMessage;
 import org.openhab.binding.deconz.internal.netutils.AsyncHttpClient;
 import org.openhab.binding.deconz.internal.netutils.WebSocketConnection;
 import org.openhab.binding.deconz.internal.netutils.WebSocketConnectionListener;
@@ -52,9 +53,12 @@ import com.google.gson.Gson;
  *
  * It performs the authorization process if necessary.
  *
- * A websocket connection is established to the deCONZ software and kept alive.
+ * A websocket connection is established to the deCONZ software and kept alive. If the connection was lost, events
+ * might have been missed, so the full state is requested once and handed over to all sensors when it is
+ * re-established.
  *
  * @author David Graeff - Initial contribution
+ * @author agent - Resync sensor states after reconnects
  */
 @NonNullByDefault
 public class DeconzBridgeHandler extends BaseBridgeHandler implements WebSocketConnectionListener {
@@ -68,9 +72,16 @@ public class DeconzBridgeHandler extends BaseBridgeHandler implements WebSocketC
     private int websocketPort = 0;
     /** Prevent a dispose/init cycle while this flag is set. Use for property updates */
     private boolean ignoreConfigurationUpdate;
+    /** The last full state, used by sensors instead of requesting their own state while it is recent */
+    private @Nullable BridgeFullState lastFullState;
+    private long lastFullStateTime;
+    /** Set if the websocket connection was lost and events might have been missed */
+    private boolean resyncRequired;
 
     /** The poll frequency for the API Key verification */
     private static final int POLL_FREQUENCY_SEC = 10;
+    /** The time a full state is used instead of requesting the state of a single sensor */
+    private static final long FULL_STATE_MAX_AGE_MS = 30000;
 
     public DeconzBridgeHandler(Bridge thing, WebSocketFactory webSocketFactory, AsyncHttpClient http, Gson gson) {
         super(thing);
@@ -188,6 +199,7 @@ public class DeconzBridgeHandler extends BaseBridgeHandler implements WebSocketC
                         "deCONZ software too old. No websocket support!");
                 return;
             }
+            setLastFullState(fullState);
 
             // Add some information about the bridge
             Map<String, String> editProperties = editProperties();
@@ -211,6 +223,52 @@ public class DeconzBridgeHandler extends BaseBridgeHandler implements WebSocketC
         });
     }
 
+    /**
+     * Perform a single request to the REST API for the full bridge state after the websocket connection was
+     * re-established and hand over the sensors to their handlers, because events might have been missed.
+     */
+    private void resyncFullState() {
+        if (config.apikey == null) {
+            updateStatus(ThingStatus.ONLINE);
+            return;
+        }
+        logger.debug("Websocket connection re-established, requesting full state to catch up on missed events");
+        String url = url(config.getHostWithoutPort(), config.httpPort, config.apikey, null, null);
+        http.get(url, config.timeout).thenApply(this::parseBridgeFullStateResponse).whenComplete((fullState, e) -> {
+            if (e != null) {
+                logger.debug("Get full state for resynchronisation failed", e);
+            }
+            if (fullState != null) {
+                setLastFullState(fullState);
+                websocket.dispatchFullState(fullState.sensors);
+                if (thingDiscoveryService != null) {
+                    thingDiscoveryService.stateRequestFinished(fullState.sensors);
+                }
+            }
+            updateStatus(ThingStatus.ONLINE);
+        });
+    }
+
+    private synchronized void setLastFullState(BridgeFullState fullState) {
+        lastFullState = fullState;
+        lastFullStateTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Return the sensor of the last full state, if it is recent enough to be used instead of requesting the state of
+     * the sensor.
+     *
+     * @param sensorID The sensor ID (API endpoint)
+     * @return The sensor or null
+     */
+    public synchronized @Nullable SensorMessage getRecentSensorState(String sensorID) {
+        BridgeFullState fullState = lastFullState;
+        if (fullState == null || System.currentTimeMillis() - lastFullStateTime > FULL_STATE_MAX_AGE_MS) {
+            return null;
+        }
+        return fullState.sensors.get(sensorID);
+    }
+
     /**
      * Starts the websocket connection.
      * {@link #requestFullState} need to be called first to obtain the websocket port.
@@ -258,6 +316,9 @@ public class DeconzBridgeHandler extends BaseBridgeHandler implements WebSocketC
     public void dispose() {
         stopTimer();
         websocket.close();
+        synchronized (this) {
+            lastFullState = null;
+        }
     }
 
     @Override
@@ -267,6 +328,7 @@ public class DeconzBridgeHandler extends BaseBridgeHandler implements WebSocketC
         } else {
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, "Unknown reason");
         }
+        resyncRequired = true;
         stopTimer();
         // Wait for POLL_FREQUENCY_SEC after a connection error before trying again
         scheduledFuture = scheduler.schedule(this::startWebsocket, POLL_FREQUENCY_SEC, TimeUnit.SECONDS);
@@ -275,12 +337,18 @@ public class DeconzBridgeHandler extends BaseBridgeHandler implements WebSocketC
     @Override
     public void connectionEstablished() {
         stopTimer();
-        updateStatus(ThingStatus.ONLINE);
+        if (resyncRequired) {
+            resyncRequired = false;
+            resyncFullState();
+        } else {
+            updateStatus(ThingStatus.ONLINE);
+        }
     }
 
     @Override
     public void connectionLost(String reason) {
         updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, reason);
+        resyncRequired = true;
         startWebsocket();
     }
 
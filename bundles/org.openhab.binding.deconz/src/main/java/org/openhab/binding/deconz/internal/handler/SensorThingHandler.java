@@ -85,6 +85,7 @@ import com.google.gson.Gson;
  * sensor is published to the framework.
  *
  * @author David Graeff - Initial contribution
+ * @author agent - Merge websocket events into the sensor state
  */
 @NonNullByDefault
 public class SensorThingHandler extends BaseThingHandler implements WebSocketValueUpdateListener {
@@ -190,7 +191,13 @@ public class SensorThingHandler extends BaseThingHandler implements WebSocketVal
         // Real-time data
         webSocketConnection.registerValueListener(config.id, this);
 
-        requestState();
+        // Use the full state of the bridge if it was just requested, instead of requesting the state again
+        SensorMessage recentState = bridgeHandler.getRecentSensorState(config.id);
+        if (recentState != null) {
+            processStateResponse(recentState);
+        } else {
+            requestState();
+        }
     }
 
     /**
@@ -215,82 +222,78 @@ public class SensorThingHandler extends BaseThingHandler implements WebSocketVal
             scheduledFuture = scheduler.schedule(this::requestState, 10, TimeUnit.SECONDS);
 
             return null;
-        }).thenAccept(newState -> {
-            if (newState == null) {
-                return;
-            }
-            SensorConfig newSensorConfig = newState.config;
-            sensorConfig = newSensorConfig != null ? newSensorConfig : new SensorConfig();
-            SensorState newSensorState = newState.state;
-            sensorState = newSensorState != null ? newSensorState : new SensorState();
-
-            // Add some information about the sensor
-            if (!sensorConfig.reachable) {
-                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.GONE, "Not reachable");
-                return;
-            }
+        }).thenAccept(this::processStateResponse);
+    }
 
-            if (!sensorConfig.on) {
-                updateStatus(ThingStatus.OFFLINE);
-                return;
-            }
+    private void processStateResponse(@Nullable SensorMessage newState) {
+        if (newState == null) {
+            return;
+        }
+        SensorConfig newSensorConfig = newState.config;
+        sensorConfig = newSensorConfig != null ? newSensorConfig : new SensorConfig();
+        SensorState newSensorState = newState.state;
+        sensorState = newSensorState != null ? newSensorState : new SensorState();
 
-            Map<String, String> editProperties = editProperties();
-            editProperties.put(Thing.PROPERTY_FIRMWARE_VERSION, newState.swversion);
-            editProperties.put(Thing.PROPERTY_MODEL_ID, newState.modelid);
-            editProperties.put(UNIQUE_ID, newState.uniqueid);
-            ignoreConfigurationUpdate = true;
-            updateProperties(editProperties);
-
-            // Some sensors support optional channels
-            // (see https://github.com/dresden-elektronik/deconz-rest-plugin/wiki/Supported-Devices#sensors)
-            // any battery-powered sensor
-            if (sensorConfig.battery != null) {
-                createChannel(CHANNEL_BATTERY_LEVEL);
-                createChannel(CHANNEL_BATTERY_LOW);
-            }
+        // Add some information about the sensor
+        if (!isAvailable()) {
+            return;
+        }
 
-            // some Xiaomi sensors
-            if (sensorConfig.temperature != null) {
-                createChannel(CHANNEL_TEMPERATURE);
-            }
+        Map<String, String> editProperties = editProperties();
+        editProperties.put(Thing.PROPERTY_FIRMWARE_VERSION, newState.swversion);
+        editProperties.put(Thing.PROPERTY_MODEL_ID, newState.modelid);
+        editProperties.put(UNIQUE_ID, newState.uniqueid);
+        ignoreConfigurationUpdate = true;
+        updateProperties(editProperties);
+
+        // Some sensors support optional channels
+        // (see https://github.com/dresden-elektronik/deconz-rest-plugin/wiki/Supported-Devices#sensors)
+        // any battery-powered sensor
+        if (sensorConfig.battery != null) {
+            createChannel(CHANNEL_BATTERY_LEVEL);
+            createChannel(CHANNEL_BATTERY_LOW);
+        }
 
-            // ZHAPresence - e.g. IKEA TRÅDFRI motion sensor
-            if (sensorState.dark != null) {
-                createChannel(CHANNEL_DARK);
-            }
+        // some Xiaomi sensors
+        if (sensorConfig.temperature != null) {
+            createChannel(CHANNEL_TEMPERATURE);
+        }
 
-            // ZHAConsumption - e.g Bitron 902010/25 or Heiman SmartPlug
-            if (sensorState.power != null) {
-                createChannel(CHANNEL_POWER);
-            }
+        // ZHAPresence - e.g. IKEA TRÅDFRI motion sensor
+        if (sensorState.dark != null) {
+            createChannel(CHANNEL_DARK);
+        }
 
-            // ZHAPower - e.g. Heiman SmartPlug
-            if (sensorState.voltage != null) {
-                createChannel(CHANNEL_VOLTAGE);
-            }
-            if (sensorState.current != null) {
-                createChannel(CHANNEL_CURRENT);
-            }
+        // ZHAConsumption - e.g Bitron 902010/25 or Heiman SmartPlug
+        if (sensorState.power != null) {
+            createChannel(CHANNEL_POWER);
+        }
 
-            // IAS Zone sensor - e.g. Heiman HS1MS motion sensor
-            if (sensorState.tampered != null) {
-                createChannel(CHANNEL_TAMPERED);
-            }
+        // ZHAPower - e.g. Heiman SmartPlug
+        if (sensorState.voltage != null) {
+            createChannel(CHANNEL_VOLTAGE);
+        }
+        if (sensorState.current != null) {
+            createChannel(CHANNEL_CURRENT);
+        }
 
-            // e.g. Aqara Cube
-            if (newState.state.gesture != null) {
-                createChannel(CHANNEL_GESTURE);
-                createChannel(CHANNEL_GESTUREEVENT, ChannelKind.TRIGGER);
-            }
-            ignoreConfigurationUpdate = false;
+        // IAS Zone sensor - e.g. Heiman HS1MS motion sensor
+        if (sensorState.tampered != null) {
+            createChannel(CHANNEL_TAMPERED);
+        }
 
-            // Initial data
-            updateChannels(sensorConfig);
-            updateChannels(sensorState, true);
+        // e.g. Aqara Cube
+        if (newState.state.gesture != null) {
+            createChannel(CHANNEL_GESTURE);
+            createChannel(CHANNEL_GESTUREEVENT, ChannelKind.TRIGGER);
+        }
+        ignoreConfigurationUpdate = false;
 
-            updateStatus(ThingStatus.ONLINE);
-        });
+        // Initial data
+        updateChannels(sensorConfig);
+        updateChannels(sensorState, true);
+
+        updateStatus(ThingStatus.ONLINE);
     }
 
     private @Nullable Channel createChannel(String channelId) {
@@ -429,10 +432,14 @@ public class SensorThingHandler extends BaseThingHandler implements WebSocketVal
                 }
                 break;
             case CHANNEL_DARK:
-                updateState(channelUID, Boolean.TRUE.equals(newState.dark) ? OnOffType.ON : OnOffType.OFF);
+                if (newState.dark != null) {
+                    updateState(channelUID, OnOffType.from(Boolean.TRUE.equals(newState.dark)));
+                }
                 break;
             case CHANNEL_DAYLIGHT:
-                updateState(channelUID, Boolean.TRUE.equals(newState.daylight) ? OnOffType.ON : OnOffType.OFF);
+                if (newState.daylight != null) {
+                    updateState(channelUID, OnOffType.from(Boolean.TRUE.equals(newState.daylight)));
+                }
                 break;
             case CHANNEL_TEMPERATURE:
                 if (temperature != null) {
@@ -465,19 +472,29 @@ public class SensorThingHandler extends BaseThingHandler implements WebSocketVal
                 }
                 break;
             case CHANNEL_WATERLEAKAGE:
-                updateState(channelUID, Boolean.TRUE.equals(newState.water) ? OnOffType.ON : OnOffType.OFF);
+                if (newState.water != null) {
+                    updateState(channelUID, OnOffType.from(Boolean.TRUE.equals(newState.water)));
+                }
                 break;
             case CHANNEL_FIRE:
-                updateState(channelUID, Boolean.TRUE.equals(newState.fire) ? OnOffType.ON : OnOffType.OFF);
+                if (newState.fire != null) {
+                    updateState(channelUID, OnOffType.from(Boolean.TRUE.equals(newState.fire)));
+                }
                 break;
             case CHANNEL_ALARM:
-                updateState(channelUID, Boolean.TRUE.equals(newState.alarm) ? OnOffType.ON : OnOffType.OFF);
+                if (newState.alarm != null) {
+                    updateState(channelUID, OnOffType.from(Boolean.TRUE.equals(newState.alarm)));
+                }
                 break;
             case CHANNEL_TAMPERED:
-                updateState(channelUID, Boolean.TRUE.equals(newState.tampered) ? OnOffType.ON : OnOffType.OFF);
+                if (newState.tampered != null) {
+                    updateState(channelUID, OnOffType.from(Boolean.TRUE.equals(newState.tampered)));
+                }
                 break;
             case CHANNEL_VIBRATION:
-                updateState(channelUID, Boolean.TRUE.equals(newState.vibration) ? OnOffType.ON : OnOffType.OFF);
+                if (newState.vibration != null) {
+                    updateState(channelUID, OnOffType.from(Boolean.TRUE.equals(newState.vibration)));
+                }
                 break;
             case CHANNEL_BUTTON:
                 if (buttonevent != null) {
@@ -510,9 +527,56 @@ public class SensorThingHandler extends BaseThingHandler implements WebSocketVal
         }
     }
 
+    /**
+     * Sets the thing offline if the sensor is switched off or not reachable.
+     *
+     * @return true if the sensor is available
+     */
+    private boolean isAvailable() {
+        if (Boolean.FALSE.equals(sensorConfig.reachable)) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.GONE, "Not reachable");
+            return false;
+        }
+        if (Boolean.FALSE.equals(sensorConfig.on)) {
+            updateStatus(ThingStatus.OFFLINE);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Updates the thing status after the availability of the sensor might have changed. A sensor which became
+     * available again is initialized like a new one, since its channels might not have been created yet.
+     */
+    private void updateAvailability() {
+        if (isAvailable()) {
+            ThingStatusInfo statusInfo = thing.getStatusInfo();
+            if (statusInfo.getStatus() == ThingStatus.OFFLINE
+                    && (statusInfo.getStatusDetail() == ThingStatusDetail.GONE
+                            || statusInfo.getStatusDetail() == ThingStatusDetail.NONE)) {
+                requestState();
+            }
+        }
+    }
+
     @Override
     public void websocketConfigUpdate(String sensorID, SensorConfig newConfig) {
-        sensorConfig = newConfig;
+        // deCONZ only sends the changed attributes
+        if (newConfig.on != null) {
+            sensorConfig.on = newConfig.on;
+        }
+        if (newConfig.reachable != null) {
+            sensorConfig.reachable = newConfig.reachable;
+        }
+        if (newConfig.battery != null) {
+            sensorConfig.battery = newConfig.battery;
+        }
+        if (newConfig.temperature != null) {
+            sensorConfig.temperature = newConfig.temperature;
+        }
+        if (newConfig.on != null || newConfig.reachable != null) {
+            updateAvailability();
+        }
 
         updateChannels(newConfig);
     }
@@ -526,12 +590,52 @@ public class SensorThingHandler extends BaseThingHandler implements WebSocketVal
 
     @Override
     public void websocketStateUpdate(String sensorID, SensorState newState) {
+        // deCONZ only sends the changed attributes, so only the channels of these are updated
+        mergeState(newState);
         updateChannels(newState, false);
     }
 
-    private void updateChannels(SensorState newState, boolean initializing) {
-        sensorState = newState;
+    @Override
+    public void fullStateUpdate(String sensorID, SensorMessage newMessage) {
+        SensorConfig newSensorConfig = newMessage.config;
+        sensorConfig = newSensorConfig != null ? newSensorConfig : new SensorConfig();
+        SensorState newSensorState = newMessage.state;
+        sensorState = newSensorState != null ? newSensorState : new SensorState();
+
+        updateAvailability();
+        updateChannels(sensorConfig);
+        // events might have been missed, but old button events and gestures must not be triggered
+        updateChannels(sensorState, true);
+    }
 
+    private void mergeState(SensorState newState) {
+        SensorState state = sensorState;
+        state.dark = newState.dark != null ? newState.dark : state.dark;
+        state.daylight = newState.daylight != null ? newState.daylight : state.daylight;
+        state.lightlevel = newState.lightlevel != null ? newState.lightlevel : state.lightlevel;
+        state.lux = newState.lux != null ? newState.lux : state.lux;
+        state.temperature = newState.temperature != null ? newState.temperature : state.temperature;
+        state.humidity = newState.humidity != null ? newState.humidity : state.humidity;
+        state.open = newState.open != null ? newState.open : state.open;
+        state.fire = newState.fire != null ? newState.fire : state.fire;
+        state.water = newState.water != null ? newState.water : state.water;
+        state.alarm = newState.alarm != null ? newState.alarm : state.alarm;
+        state.tampered = newState.tampered != null ? newState.tampered : state.tampered;
+        state.vibration = newState.vibration != null ? newState.vibration : state.vibration;
+        state.carbonmonoxide = newState.carbonmonoxide != null ? newState.carbonmonoxide : state.carbonmonoxide;
+        state.pressure = newState.pressure != null ? newState.pressure : state.pressure;
+        state.presence = newState.presence != null ? newState.presence : state.presence;
+        state.power = newState.power != null ? newState.power : state.power;
+        state.consumption = newState.consumption != null ? newState.consumption : state.consumption;
+        state.voltage = newState.voltage != null ? newState.voltage : state.voltage;
+        state.current = newState.current != null ? newState.current : state.current;
+        state.status = newState.status != null ? newState.status : state.status;
+        state.buttonevent = newState.buttonevent != null ? newState.buttonevent : state.buttonevent;
+        state.gesture = newState.gesture != null ? newState.gesture : state.gesture;
+        state.lastupdated = newState.lastupdated != null ? newState.lastupdated : state.lastupdated;
+    }
+
+    private void updateChannels(SensorState newState, boolean initializing) {
         for (Channel channel : thing.getChannels()) {
             valueUpdated(channel.getUID(), newState, initializing);
         }
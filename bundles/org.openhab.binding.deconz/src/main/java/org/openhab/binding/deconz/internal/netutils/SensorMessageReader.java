@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.deconz.internal.netutils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.deconz.internal.dto.SensorConfig;
+import org.openhab.binding.deconz.internal.dto.SensorMessage;
+import org.openhab.binding.deconz.internal.dto.SensorState;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Reads websocket event messages of the deCONZ software with a streaming JSON reader.
+ *
+ * Messages of other resources than sensors and of sensors without a listener are skipped without converting their
+ * state or config. The state and config of a message only contain the attributes sent by deCONZ, all other
+ * attributes are null.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SensorMessageReader {
+    private static final String RESOURCE_SENSORS = "sensors";
+
+    private final Gson gson;
+
+    public SensorMessageReader(Gson gson) {
+        this.gson = gson;
+    }
+
+    /**
+     * Reads a websocket event message.
+     *
+     * @param message The JSON message
+     * @param isRelevant Returns true for the sensor IDs the state and config should be read for
+     * @return The sensor event or null, if the message is not about a relevant sensor
+     * @throws JsonParseException If the message is not valid JSON
+     */
+    public @Nullable SensorMessage read(String message, Predicate<String> isRelevant) {
+        try (JsonReader reader = new JsonReader(new StringReader(message))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return null;
+            }
+            SensorMessage sensorMessage = new SensorMessage();
+            // deCONZ sends the ID before the state and config, but the order of JSON fields is not guaranteed
+            JsonElement state = null;
+            JsonElement config = null;
+            boolean idRead = false;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.skipValue();
+                    continue;
+                }
+                switch (name) {
+                    case "e":
+                        sensorMessage.e = reader.nextString();
+                        break;
+                    case "r":
+                        sensorMessage.r = reader.nextString();
+                        if (!RESOURCE_SENSORS.equals(sensorMessage.r)) {
+                            return null;
+                        }
+                        break;
+                    case "t":
+                        sensorMessage.t = reader.nextString();
+                        break;
+                    case "id":
+                        sensorMessage.id = reader.nextString();
+                        idRead = true;
+                        if (!isRelevant.test(sensorMessage.id)) {
+                            return null;
+                        }
+                        break;
+                    case "uniqueid":
+                        sensorMessage.uniqueid = reader.nextString();
+                        break;
+                    case "state":
+                        if (idRead) {
+                            sensorMessage.state = gson.fromJson(reader, SensorState.class);
+                        } else {
+                            state = gson.fromJson(reader, JsonElement.class);
+                        }
+                        break;
+                    case "config":
+                        if (idRead) {
+                            sensorMessage.config = gson.fromJson(reader, SensorConfig.class);
+                        } else {
+                            config = gson.fromJson(reader, JsonElement.class);
+                        }
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+
+            if (!RESOURCE_SENSORS.equals(sensorMessage.r) || !idRead) {
+                return null;
+            }
+            if (state != null) {
+                sensorMessage.state = gson.fromJson(state, SensorState.class);
+            }
+            if (config != null) {
+                sensorMessage.config = gson.fromJson(config, SensorConfig.class);
+            }
+            return sensorMessage;
+        } catch (IOException | IllegalStateException e) {
+            throw new JsonParseException(e);
+        }
+    }
+}
@@ -13,8 +13,8 @@
 package org.openhab.binding.deconz.internal.netutils;
 
 import java.net.URI;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jetty.websocket.api.Session;
@@ -31,6 +31,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 
 /**
  * Establishes and keeps a websocket connection to the deCONZ software.
@@ -38,6 +39,7 @@ import com.google.gson.Gson;
  * The connection is closed by deCONZ now and then and needs to be re-established.
  *
  * @author David Graeff - Initial contribution
+ * @author agent - Read events with a streaming reader
  */
 @WebSocket
 @NonNullByDefault
@@ -46,15 +48,15 @@ public class WebSocketConnection {
 
     private final WebSocketClient client;
     private final WebSocketConnectionListener connectionListener;
-    private final Map<String, WebSocketValueUpdateListener> valueListener = new HashMap<>();
-    private final Gson gson;
+    private final Map<String, WebSocketValueUpdateListener> valueListener = new ConcurrentHashMap<>();
+    private final SensorMessageReader messageReader;
     private boolean connected = false;
 
     public WebSocketConnection(WebSocketConnectionListener listener, WebSocketClient client, Gson gson) {
         this.connectionListener = listener;
         this.client = client;
         this.client.setMaxIdleTimeout(0);
-        this.gson = gson;
+        this.messageReader = new SensorMessageReader(gson);
     }
 
     public void start(String ip) {
@@ -98,10 +100,32 @@ public class WebSocketConnection {
         connectionListener.connectionEstablished();
     }
 
-    @SuppressWarnings("null")
+    /**
+     * Hands over the sensors of a full state request to their listeners, e.g. after events might have been missed.
+     *
+     * @param sensors The sensors of the full state by sensor ID
+     */
+    public void dispatchFullState(Map<String, SensorMessage> sensors) {
+        valueListener.forEach((sensorID, listener) -> {
+            SensorMessage sensorMessage = sensors.get(sensorID);
+            if (sensorMessage != null) {
+                listener.fullStateUpdate(sensorID, sensorMessage);
+            }
+        });
+    }
+
     @OnWebSocketMessage
     public void onMessage(String message) {
-        SensorMessage changedMessage = gson.fromJson(message, SensorMessage.class);
+        SensorMessage changedMessage;
+        try {
+            changedMessage = messageReader.read(message, valueListener::containsKey);
+        } catch (JsonParseException e) {
+            logger.debug("Invalid websocket message: {}", message, e);
+            return;
+        }
+        if (changedMessage == null) {
+            return;
+        }
         WebSocketValueUpdateListener listener = valueListener.get(changedMessage.id);
         if (listener != null) {
             SensorConfig sensorConfig = changedMessage.config;
@@ -14,12 +14,14 @@ package org.openhab.binding.deconz.internal.netutils;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.openhab.binding.deconz.internal.dto.SensorConfig;
+import org.openhab.binding.deconz.internal.dto.SensorMessage;
 import org.openhab.binding.deconz.internal.dto.SensorState;
 
 /**
  * Informs about updated sensor states
  *
  * @author David Graeff - Initial contribution
+ * @author agent - Added full state updates
  */
 @NonNullByDefault
 public interface WebSocketValueUpdateListener {
@@ -38,4 +40,12 @@ public interface WebSocketValueUpdateListener {
      * @param newState The new state
      */
     void websocketStateUpdate(String sensorID, SensorState newState);
+
+    /**
+     * The full sensor state was requested again, because events might have been missed.
+     *
+     * @param sensorID The sensor ID (API endpoint)
+     * @param newMessage The complete sensor config and state
+     */
+    void fullStateUpdate(String sensorID, SensorMessage newMessage);
 }
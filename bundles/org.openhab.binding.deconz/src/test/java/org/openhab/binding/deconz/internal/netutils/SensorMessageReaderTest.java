@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.deconz.internal.netutils;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.openhab.binding.deconz.internal.dto.SensorConfig;
+import org.openhab.binding.deconz.internal.dto.SensorMessage;
+import org.openhab.binding.deconz.internal.dto.SensorState;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Tests the {@link SensorMessageReader} with websocket events as sent by deCONZ.
+ *
+ * @author agent - Initial contribution
+ */
+public class SensorMessageReaderTest {
+
+    private final SensorMessageReader reader = new SensorMessageReader(new Gson());
+
+    @Test
+    public void testStateEvent() {
+        SensorMessage message = reader.read(
+                "{\"e\":\"changed\",\"id\":\"5\",\"r\":\"sensors\",\"state\":{\"lastupdated\":\"2020-01-01T10:00:00\","
+                        + "\"presence\":true},\"t\":\"event\",\"uniqueid\":\"00:17:88:01:02:03:04:05-02-0406\"}",
+                id -> true);
+
+        assertNotNull(message);
+        assertEquals("changed", message.e);
+        assertEquals("sensors", message.r);
+        assertEquals("event", message.t);
+        assertEquals("5", message.id);
+        assertEquals("00:17:88:01:02:03:04:05-02-0406", message.uniqueid);
+        SensorState state = message.state;
+        assertNotNull(state);
+        assertEquals(Boolean.TRUE, state.presence);
+        assertNull("attributes which are not sent must be null", state.dark);
+        assertNull(message.config);
+    }
+
+    @Test
+    public void testPartialConfigEventContainsOnlySentAttributes() {
+        SensorMessage message = reader.read(
+                "{\"e\":\"changed\",\"id\":\"7\",\"r\":\"sensors\",\"config\":{\"battery\":87},\"t\":\"event\"}",
+                id -> true);
+
+        assertNotNull(message);
+        SensorConfig config = message.config;
+        assertNotNull(config);
+        assertEquals(Integer.valueOf(87), config.battery);
+        assertNull("a missing reachable attribute must not default to true", config.reachable);
+        assertNull("a missing on attribute must not default to true", config.on);
+        assertNull(config.temperature);
+    }
+
+    @Test
+    public void testReachableConfigEvent() {
+        SensorMessage message = reader.read(
+                "{\"e\":\"changed\",\"id\":\"7\",\"r\":\"sensors\",\"config\":{\"reachable\":false},\"t\":\"event\"}",
+                id -> true);
+
+        assertNotNull(message);
+        SensorConfig config = message.config;
+        assertNotNull(config);
+        assertEquals(Boolean.FALSE, config.reachable);
+        assertNull(config.on);
+    }
+
+    @Test
+    public void testStateAndConfigBeforeId() {
+        List<String> testedIds = new ArrayList<>();
+        SensorMessage message = reader.read("{\"state\":{\"buttonevent\":1002},\"config\":{\"on\":false},"
+                + "\"r\":\"sensors\",\"e\":\"changed\",\"id\":\"3\",\"t\":\"event\"}", id -> testedIds.add(id));
+
+        assertNotNull(message);
+        assertEquals(1, testedIds.size());
+        SensorState state = message.state;
+        assertNotNull(state);
+        assertEquals(Integer.valueOf(1002), state.buttonevent);
+        SensorConfig config = message.config;
+        assertNotNull(config);
+        assertEquals(Boolean.FALSE, config.on);
+    }
+
+    @Test
+    public void testIrrelevantSensorIsSkipped() {
+        List<String> testedIds = new ArrayList<>();
+        assertNull(reader.read("{\"e\":\"changed\",\"id\":\"9\",\"r\":\"sensors\",\"state\":{\"presence\":true},"
+                + "\"t\":\"event\"}", id -> testedIds.add(id) && false));
+        assertEquals(1, testedIds.size());
+    }
+
+    @Test
+    public void testOtherResourcesAreSkipped() {
+        assertNull(reader.read("{\"e\":\"changed\",\"id\":\"1\",\"r\":\"lights\",\"state\":{\"on\":true},"
+                + "\"t\":\"event\"}", id -> true));
+        assertNull(reader.read("{\"e\":\"changed\",\"id\":\"1\",\"r\":\"groups\",\"t\":\"event\"}", id -> true));
+        assertNull(reader.read("[]", id -> true));
+    }
+
+    @Test
+    public void testMessageWithoutIdIsSkipped() {
+        assertNull(reader.read("{\"e\":\"changed\",\"r\":\"sensors\",\"state\":{\"presence\":true}}", id -> true));
+    }
+
+    @Test
+    public void testNullAttributesAreIgnored() {
+        SensorMessage message = reader.read("{\"e\":null,\"id\":\"5\",\"r\":\"sensors\",\"config\":null}",
+                id -> true);
+
+        assertNotNull(message);
+        assertEquals("", message.e);
+        assertNull(message.config);
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void testInvalidJson() {
+        reader.read("{\"e\":\"changed\",\"id\":\"5\",\"r\":\"sensors\",\"state\":{", id -> true);
+    }
+}
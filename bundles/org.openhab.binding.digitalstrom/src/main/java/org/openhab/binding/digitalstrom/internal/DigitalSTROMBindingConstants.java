@@ -21,6 +21,7 @@ import org.openhab.binding.digitalstrom.internal.lib.structure.scene.constants.S
  *
  * @author Michael Ochel - Initial contribution
  * @author Mathias Siegele - Initial contribution
+ * @author agent - Added event driven mode and sensor job metrics
  */
 public class DigitalSTROMBindingConstants {
 
@@ -70,6 +71,7 @@ public class DigitalSTROMBindingConstants {
     public static final String TOTAL_POWER_UPDATE_INTERVAL = "totalPowerUpdateInterval";
     public static final String DEFAULT_TRASH_DEVICE_DELETE_TIME_KEY = "defaultTrashBinDeleteTime";
     public static final String SENSOR_WAIT_TIME = "sensorWaitTime";
+    public static final String EVENT_DRIVEN = "eventDriven";
 
     public static final String SERVER_CERT = "serverCert";
 
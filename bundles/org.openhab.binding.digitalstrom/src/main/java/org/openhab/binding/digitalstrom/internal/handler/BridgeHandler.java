@@ -88,6 +88,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Michael Ochel - Initial contribution
  * @author Matthias Siegele - Initial contribution
+ * @author agent - Added event driven mode and sensor job metrics
  */
 public class BridgeHandler extends BaseBridgeHandler
         implements ConnectionListener, TotalPowerConsumptionListener, ManagerStatusListener {
@@ -276,6 +277,9 @@ public class BridgeHandler extends BaseBridgeHandler
             numberExc.add("\"Wait time sensor reading\" ("
                     + thingConfig.get(DigitalSTROMBindingConstants.SENSOR_WAIT_TIME) + ")");
         }
+        if (thingConfig.get(DigitalSTROMBindingConstants.EVENT_DRIVEN) instanceof Boolean) {
+            config.setEventDrivenMode((Boolean) thingConfig.get(DigitalSTROMBindingConstants.EVENT_DRIVEN));
+        }
         if (thingConfig.get(DigitalSTROMBindingConstants.DEFAULT_TRASH_DEVICE_DELETE_TIME_KEY) instanceof BigDecimal) {
             config.setTrashDeviceDeleteTime(
                     ((BigDecimal) thingConfig.get(DigitalSTROMBindingConstants.DEFAULT_TRASH_DEVICE_DELETE_TIME_KEY))
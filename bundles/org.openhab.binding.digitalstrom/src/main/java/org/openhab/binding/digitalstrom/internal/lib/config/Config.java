@@ -17,6 +17,7 @@ package org.openhab.binding.digitalstrom.internal.lib.config;
  *
  * @author Michael Ochel - Initial contribution
  * @author Matthias Siegele - Initial contribution
+ * @author agent - Added event driven mode and sensor job metrics
  */
 public class Config {
 
@@ -94,6 +95,18 @@ public class Config {
     public static final int DEFAULT_POLLING_FREQUENCY = 1000; // in milliseconds
     private int pollingFrequency = DEFAULT_POLLING_FREQUENCY; // in milliseconds
 
+    /**
+     * If true, the {@link Device} states are updated by the digitalSTROM-Events and the structure of all
+     * {@link Device}s is only read in the structure refresh interval, instead of with every poll.
+     */
+    private boolean eventDrivenMode = false;
+
+    /**
+     * Default interval in milliseconds to read the structure of all {@link Device}s in the event driven mode.
+     */
+    public static final int DEFAULT_STRUCTURE_REFRESH_INTERVAL = 60000; // in milliseconds
+    private int structureRefreshInterval = DEFAULT_STRUCTURE_REFRESH_INTERVAL; // in milliseconds
+
     /* Sensordata */
     // Sensodata read config
 
@@ -478,6 +491,43 @@ public class Config {
         this.sensorReadingWaitTime = sensorReadingWaitTime;
     }
 
+    /**
+     * Returns true, if the {@link Device} states are updated by the digitalSTROM-Events and the structure of all
+     * {@link Device}s is only read in the structure refresh interval.
+     *
+     * @return true, if the event driven mode is enabled
+     */
+    public boolean isEventDrivenMode() {
+        return eventDrivenMode;
+    }
+
+    /**
+     * Enables or disables the event driven mode.
+     *
+     * @param eventDrivenMode to set
+     */
+    public void setEventDrivenMode(boolean eventDrivenMode) {
+        this.eventDrivenMode = eventDrivenMode;
+    }
+
+    /**
+     * Returns the interval in milliseconds to read the structure of all {@link Device}s in the event driven mode.
+     *
+     * @return the structure refresh interval in milliseconds
+     */
+    public int getStructureRefreshInterval() {
+        return structureRefreshInterval;
+    }
+
+    /**
+     * Sets the interval in milliseconds to read the structure of all {@link Device}s in the event driven mode.
+     *
+     * @param structureRefreshInterval in milliseconds
+     */
+    public void setStructureRefreshInterval(int structureRefreshInterval) {
+        this.structureRefreshInterval = structureRefreshInterval;
+    }
+
     /**
      * Returns the factor to prioritize medium {@link SensorJob}s in the {@link SensorJobExecutor} down.
      *
@@ -596,6 +646,8 @@ public class Config {
         setTrashDeviceDeleteTime(config.getTrashDeviceDeleteTime());
         setBinCheckTime(config.getBinCheckTime());
         setPollingFrequency(config.getPollingFrequency());
+        setEventDrivenMode(config.isEventDrivenMode());
+        setStructureRefreshInterval(config.getStructureRefreshInterval());
         setSensordataRefreshInterval(config.getSensordataRefreshInterval());
         setTotalPowerUpdateInterval(config.getTotalPowerUpdateInterval());
         setSensorReadingWaitTime(config.getSensorReadingWaitTime());
@@ -613,7 +665,9 @@ public class Config {
                 + ", readTimeout=" + readTimeout + ", sensordataConnectionTimeout=" + sensordataConnectionTimeout
                 + ", sensordataReadTimeout=" + sensordataReadTimeout + ", trustCertPath=" + trustCertPath
                 + ", trashDeviceDeleteTime=" + trashDeviceDeleteTime + ", binCheckTime=" + binCheckTime
-                + ", pollingFrequency=" + pollingFrequency + ", sensordataRefreshInterval=" + sensordataRefreshInterval
+                + ", pollingFrequency=" + pollingFrequency + ", eventDrivenMode=" + eventDrivenMode
+                + ", structureRefreshInterval=" + structureRefreshInterval + ", sensordataRefreshInterval="
+                + sensordataRefreshInterval
                 + ", totalPowerUpdateInterval=" + totalPowerUpdateInterval + ", sensorReadingWaitTime="
                 + sensorReadingWaitTime + ", mediumPriorityFactor=" + mediumPriorityFactor + ", lowPriorityFactor="
                 + lowPriorityFactor + ", eventListenerRefreshinterval=" + eventListenerRefreshinterval
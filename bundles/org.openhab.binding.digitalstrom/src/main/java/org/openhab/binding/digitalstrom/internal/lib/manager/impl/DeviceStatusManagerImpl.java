@@ -76,6 +76,7 @@ import com.google.gson.JsonObject;
  *
  * @author Michael Ochel - Initial contribution
  * @author Matthias Siegele - Initial contribution
+ * @author agent - Added event driven mode and sensor job metrics
  */
 public class DeviceStatusManagerImpl implements DeviceStatusManager {
 
@@ -115,6 +116,7 @@ public class DeviceStatusManagerImpl implements DeviceStatusManager {
     private final List<TrashDevice> trashDevices = new LinkedList<TrashDevice>();
 
     private long lastBinCheck = 0;
+    private volatile boolean structureUpdateRequested = false;
     private ManagerStates state = ManagerStates.STOPPED;
 
     private int tempConsumption = 0;
@@ -233,6 +235,7 @@ public class DeviceStatusManagerImpl implements DeviceStatusManager {
     private class PollingRunnable implements Runnable {
         private boolean devicesLoaded = false;
         private long nextSensorUpdate = 0;
+        private long nextStructureUpdate = 0;
 
         @Override
         public void run() {
@@ -251,8 +254,6 @@ public class DeviceStatusManagerImpl implements DeviceStatusManager {
                 tempDeviceMap = new HashMap<DSID, Device>();
             }
 
-            List<Device> currentDeviceList = getDetailedDevices();
-
             // update the current total power consumption
             if (nextSensorUpdate <= System.currentTimeMillis()) {
                 // check circuits
@@ -273,6 +274,26 @@ public class DeviceStatusManagerImpl implements DeviceStatusManager {
                 nextSensorUpdate = System.currentTimeMillis() + config.getTotalPowerUpdateInterval();
             }
 
+            if (config.isEventDrivenMode() && devicesLoaded && !structureUpdateRequested
+                    && nextStructureUpdate > System.currentTimeMillis()) {
+                // the sensor values and binary inputs are updated by the digitalSTROM-Events, so only the outstanding
+                // commands of the known devices have to be handled until the next structure update
+                for (Device eshDevice : tempDeviceMap.values()) {
+                    if (eshDevice.isPresent()) {
+                        checkDeviceStateUpdates(eshDevice);
+                    }
+                }
+                return;
+            }
+            nextStructureUpdate = System.currentTimeMillis() + config.getStructureRefreshInterval();
+            structureUpdateRequested = false;
+            if (sensorJobExecutor != null) {
+                logger.debug("sensor job backlog: {} waiting jobs, the longest waits since {} ms, {} executed jobs",
+                        sensorJobExecutor.getBacklogSize(), sensorJobExecutor.getBacklogDelay(),
+                        sensorJobExecutor.getExecutedJobs());
+            }
+
+            List<Device> currentDeviceList = getDetailedDevices();
             while (!currentDeviceList.isEmpty()) {
                 Device currentDevice = currentDeviceList.remove(0);
                 DSID currentDeviceDSID = currentDevice.getDSID();
@@ -282,32 +303,7 @@ public class DeviceStatusManagerImpl implements DeviceStatusManager {
                     checkDeviceConfig(currentDevice, eshDevice);
 
                     if (eshDevice.isPresent()) {
-                        // check device state updates
-                        while (!eshDevice.isDeviceUpToDate()) {
-                            DeviceStateUpdate deviceStateUpdate = eshDevice.getNextDeviceUpdateState();
-                            if (deviceStateUpdate != null) {
-                                switch (deviceStateUpdate.getType()) {
-                                    case DeviceStateUpdate.OUTPUT:
-                                    case DeviceStateUpdate.SLAT_ANGLE_INCREASE:
-                                    case DeviceStateUpdate.SLAT_ANGLE_DECREASE:
-                                        filterCommand(deviceStateUpdate, eshDevice);
-                                        break;
-                                    case DeviceStateUpdate.UPDATE_SCENE_CONFIG:
-                                    case DeviceStateUpdate.UPDATE_SCENE_OUTPUT:
-                                        updateSceneData(eshDevice, deviceStateUpdate);
-                                        break;
-                                    case DeviceStateUpdate.UPDATE_OUTPUT_VALUE:
-                                        if (deviceStateUpdate.getValueAsInteger() > -1) {
-                                            readOutputValue(eshDevice);
-                                        } else {
-                                            removeSensorJob(eshDevice, deviceStateUpdate);
-                                        }
-                                        break;
-                                    default:
-                                        sendComandsToDSS(eshDevice, deviceStateUpdate);
-                                }
-                            }
-                        }
+                        checkDeviceStateUpdates(eshDevice);
                     }
 
                 } else {
@@ -402,6 +398,34 @@ public class DeviceStatusManagerImpl implements DeviceStatusManager {
             }
         }
 
+        private void checkDeviceStateUpdates(Device eshDevice) {
+            while (!eshDevice.isDeviceUpToDate()) {
+                DeviceStateUpdate deviceStateUpdate = eshDevice.getNextDeviceUpdateState();
+                if (deviceStateUpdate != null) {
+                    switch (deviceStateUpdate.getType()) {
+                        case DeviceStateUpdate.OUTPUT:
+                        case DeviceStateUpdate.SLAT_ANGLE_INCREASE:
+                        case DeviceStateUpdate.SLAT_ANGLE_DECREASE:
+                            filterCommand(deviceStateUpdate, eshDevice);
+                            break;
+                        case DeviceStateUpdate.UPDATE_SCENE_CONFIG:
+                        case DeviceStateUpdate.UPDATE_SCENE_OUTPUT:
+                            updateSceneData(eshDevice, deviceStateUpdate);
+                            break;
+                        case DeviceStateUpdate.UPDATE_OUTPUT_VALUE:
+                            if (deviceStateUpdate.getValueAsInteger() > -1) {
+                                readOutputValue(eshDevice);
+                            } else {
+                                removeSensorJob(eshDevice, deviceStateUpdate);
+                            }
+                            break;
+                        default:
+                            sendComandsToDSS(eshDevice, deviceStateUpdate);
+                    }
+                }
+            }
+        }
+
         private List<Device> getDetailedDevices() {
             List<Device> deviceList = new LinkedList<Device>();
             JsonObject result = connMan.getDigitalSTROMAPI().query2(connMan.getSessionToken(), GET_DETAILD_DEVICES);
@@ -1296,6 +1320,9 @@ public class DeviceStatusManagerImpl implements DeviceStatusManager {
                         dev.setBinaryInputState(binaryInputType, newState);
                     }
                 }
+            } else if (config.isEventDrivenMode()) {
+                // the event belongs to a device, which is not known yet, so the structure has to be read again
+                structureUpdateRequested = true;
             }
         }
     }
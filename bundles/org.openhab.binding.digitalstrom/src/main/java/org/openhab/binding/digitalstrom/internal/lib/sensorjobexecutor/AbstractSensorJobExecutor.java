@@ -44,6 +44,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Michael Ochel - Initial contribution
  * @author Matthias Siegele - Initial contribution
+ * @author agent - Added event driven mode and sensor job metrics
  *
  */
 public abstract class AbstractSensorJobExecutor {
@@ -71,6 +72,8 @@ public abstract class AbstractSensorJobExecutor {
             SensorJob sensorJob = circuit.getNextSensorJob();
             if (sensorJob != null) {
                 sensorJob.execute(dSAPI, connectionManager.getSessionToken());
+                logger.debug("circuit scheduler with id = {} has {} waiting jobs, the longest waits since {} ms",
+                        circuit.getMeterDSID(), circuit.getBacklogSize(), circuit.getBacklogDelay());
             }
             if (circuit.noMoreJobs()) {
                 logger.debug("no more jobs... stop circuit schedduler with id = {}", circuit.getMeterDSID());
@@ -193,6 +196,53 @@ public abstract class AbstractSensorJobExecutor {
         }
     }
 
+    /**
+     * Returns the number of {@link SensorJob}s waiting for their execution on all circuits.
+     *
+     * @return number of waiting SensorJobs
+     */
+    public int getBacklogSize() {
+        int backlogSize = 0;
+        synchronized (this.circuitSchedulerList) {
+            for (CircuitScheduler circuit : this.circuitSchedulerList) {
+                backlogSize += circuit.getBacklogSize();
+            }
+        }
+        return backlogSize;
+    }
+
+    /**
+     * Returns the time in milliseconds the longest waiting {@link SensorJob} of all circuits is queued or 0, if no
+     * {@link SensorJob} is waiting. Because every circuit executes only one {@link SensorJob} per sensor reading wait
+     * time, this is the lag of the sensor values caused by the read limit of the digitalSTROM-Meters.
+     *
+     * @return waiting time of the longest waiting SensorJob in milliseconds
+     */
+    public long getBacklogDelay() {
+        long backlogDelay = 0;
+        synchronized (this.circuitSchedulerList) {
+            for (CircuitScheduler circuit : this.circuitSchedulerList) {
+                backlogDelay = Math.max(backlogDelay, circuit.getBacklogDelay());
+            }
+        }
+        return backlogDelay;
+    }
+
+    /**
+     * Returns the number of executed {@link SensorJob}s of all circuits.
+     *
+     * @return number of executed SensorJobs
+     */
+    public long getExecutedJobs() {
+        long executedJobs = 0;
+        synchronized (this.circuitSchedulerList) {
+            for (CircuitScheduler circuit : this.circuitSchedulerList) {
+                executedJobs += circuit.getExecutedJobs();
+            }
+        }
+        return executedJobs;
+    }
+
     private CircuitScheduler getCircuitScheduler(DSID dsid) {
         for (CircuitScheduler circuit : this.circuitSchedulerList) {
             if (circuit.getMeterDSID().equals(dsid)) {
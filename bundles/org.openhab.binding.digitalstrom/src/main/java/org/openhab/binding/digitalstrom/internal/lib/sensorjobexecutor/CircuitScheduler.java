@@ -13,7 +13,9 @@
 package org.openhab.binding.digitalstrom.internal.lib.sensorjobexecutor;
 
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.PriorityQueue;
 
 import org.openhab.binding.digitalstrom.internal.lib.config.Config;
@@ -28,6 +30,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Michael Ochel - Initial contribution
  * @author Matthias Siegele - Initial contribution
+ * @author agent - Added event driven mode and sensor job metrics
  */
 public class CircuitScheduler {
 
@@ -45,6 +48,8 @@ public class CircuitScheduler {
     private long nextExecutionTime = System.currentTimeMillis();
     private final PriorityQueue<SensorJob> sensorJobQueue = new PriorityQueue<SensorJob>(10, new SensorJobComparator());
     private final Config config;
+    private final Map<String, Long> queuingTimes = new HashMap<String, Long>();
+    private long executedJobs = 0;
 
     /**
      * Creates a new {@link CircuitScheduler}.
@@ -70,6 +75,7 @@ public class CircuitScheduler {
     public CircuitScheduler(SensorJob sensorJob, Config config) {
         this.meterDSID = sensorJob.getMeterDSID();
         this.sensorJobQueue.add(sensorJob);
+        this.queuingTimes.put(sensorJob.getID(), System.currentTimeMillis());
         this.config = config;
         logger.debug("create circuitScheduler: {} and add sensorJob: {}", this.getMeterDSID(),
                 sensorJob.getDSID().toString());
@@ -93,6 +99,7 @@ public class CircuitScheduler {
         synchronized (sensorJobQueue) {
             if (!this.sensorJobQueue.contains(sensorJob)) {
                 sensorJobQueue.add(sensorJob);
+                queuingTimes.put(sensorJob.getID(), System.currentTimeMillis());
                 logger.debug("Add sensorJob: {} to circuitScheduler: {}", sensorJob.toString(), this.getMeterDSID());
             } else if (checkSensorJobPrio(sensorJob)) {
                 logger.debug("add sensorJob: {} with higher priority to circuitScheduler: {}", sensorJob.toString(),
@@ -129,7 +136,10 @@ public class CircuitScheduler {
         synchronized (sensorJobQueue) {
             if (sensorJobQueue.peek() != null && this.nextExecutionTime <= System.currentTimeMillis()) {
                 nextExecutionTime = System.currentTimeMillis() + config.getSensorReadingWaitTime();
-                return sensorJobQueue.poll();
+                executedJobs++;
+                SensorJob sensorJob = sensorJobQueue.poll();
+                queuingTimes.remove(sensorJob.getID());
+                return sensorJob;
             } else {
                 return null;
             }
@@ -166,6 +176,7 @@ public class CircuitScheduler {
                 SensorJob job = iter.next();
                 if (job.getDSID().equals(dSID)) {
                     iter.remove();
+                    queuingTimes.remove(job.getID());
                     logger.debug("Remove SensorJob with ID {}.", job.getID());
                 }
             }
@@ -183,6 +194,7 @@ public class CircuitScheduler {
                 SensorJob job = iter.next();
                 if (job.getID().equals(id)) {
                     iter.remove();
+                    queuingTimes.remove(id);
                     logger.debug("Remove SensorJob with ID {}.", id);
                     return;
                 }
@@ -191,6 +203,45 @@ public class CircuitScheduler {
         }
     }
 
+    /**
+     * Returns the number of {@link SensorJob}s waiting for their execution.
+     *
+     * @return number of waiting SensorJobs
+     */
+    public int getBacklogSize() {
+        synchronized (sensorJobQueue) {
+            return sensorJobQueue.size();
+        }
+    }
+
+    /**
+     * Returns the time in milliseconds the longest waiting {@link SensorJob} is queued or 0, if no {@link SensorJob}
+     * is waiting.
+     *
+     * @return waiting time of the longest waiting SensorJob in milliseconds
+     */
+    public long getBacklogDelay() {
+        synchronized (sensorJobQueue) {
+            long now = System.currentTimeMillis();
+            long delay = 0;
+            for (Long queuingTime : queuingTimes.values()) {
+                delay = Math.max(delay, now - queuingTime);
+            }
+            return delay;
+        }
+    }
+
+    /**
+     * Returns the number of {@link SensorJob}s executed by this {@link CircuitScheduler}.
+     *
+     * @return number of executed SensorJobs
+     */
+    public long getExecutedJobs() {
+        synchronized (sensorJobQueue) {
+            return executedJobs;
+        }
+    }
+
     /**
      * Returns true, if there are no more {@link SensorJob}s to execute, otherwise false.
      *
@@ -22,6 +22,7 @@ import org.openhab.binding.homematic.internal.model.HmInterface;
  * The main gateway config class.
  *
  * @author Gerhard Riegler - Initial contribution
+ * @author agent - Cache metadata, load devices in parallel and batch setValue calls
  */
 public class HomematicConfig {
     private static final String ISO_ENCODING = "ISO-8859-1";
@@ -54,6 +55,8 @@ public class HomematicConfig {
 
     private int socketMaxAlive = 900;
     private int timeout = 15;
+    private int maxParallelRequests = 2;
+    private boolean batchSetValues = false;
     private int installModeDuration = DEFAULT_INSTALL_MODE_DURATION;
     private long discoveryTimeToLive = -1;
     private boolean unpairOnDeletion = false;
@@ -183,6 +186,34 @@ public class HomematicConfig {
         this.timeout = timeout;
     }
 
+    /**
+     * Returns the maximum number of requests sent to the same interface of a Homematic gateway at a time.
+     */
+    public int getMaxParallelRequests() {
+        return maxParallelRequests;
+    }
+
+    /**
+     * Sets the maximum number of requests sent to the same interface of a Homematic gateway at a time.
+     */
+    public void setMaxParallelRequests(int maxParallelRequests) {
+        this.maxParallelRequests = maxParallelRequests;
+    }
+
+    /**
+     * Returns true, if concurrent setValue calls to the same interface are sent in a single system.multicall.
+     */
+    public boolean isBatchSetValues() {
+        return batchSetValues;
+    }
+
+    /**
+     * Sets if concurrent setValue calls to the same interface are sent in a single system.multicall.
+     */
+    public void setBatchSetValues(boolean batchSetValues) {
+        this.batchSetValues = batchSetValues;
+    }
+
     /**
      * Returns the time to live for discovery results of a Homematic gateway in seconds.
      */
@@ -403,6 +434,7 @@ public class HomematicConfig {
                 .append("binCallbackPort", binCallbackPort).append("gatewayType", gatewayType)
                 .append("rfPort", getRfPort()).append("wiredPort", getWiredPort()).append("hmIpPort", getHmIpPort())
                 .append("cuxdPort", getCuxdPort()).append("groupPort", getGroupPort()).append("timeout", timeout)
+                .append("maxParallelRequests", maxParallelRequests).append("batchSetValues", batchSetValues)
                 .append("discoveryTimeToLive", discoveryTimeToLive).append("installModeDuration", installModeDuration)
                 .append("socketMaxAlive", socketMaxAlive);
         return tsb.toString();
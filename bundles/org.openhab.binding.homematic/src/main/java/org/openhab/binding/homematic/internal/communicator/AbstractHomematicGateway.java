@@ -14,6 +14,7 @@ package org.openhab.binding.homematic.internal.communicator;
 
 import static org.openhab.binding.homematic.internal.misc.HomematicConstants.*;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -23,14 +24,22 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.communicator.client.BinRpcClient;
@@ -38,6 +47,7 @@ import org.openhab.binding.homematic.internal.communicator.client.RpcClient;
 import org.openhab.binding.homematic.internal.communicator.client.TransferMode;
 import org.openhab.binding.homematic.internal.communicator.client.UnknownParameterSetException;
 import org.openhab.binding.homematic.internal.communicator.client.XmlRpcClient;
+import org.openhab.binding.homematic.internal.communicator.parser.GetParamsetDescriptionParser;
 import org.openhab.binding.homematic.internal.communicator.parser.ListBidcosInterfacesParser;
 import org.openhab.binding.homematic.internal.communicator.server.BinRpcServer;
 import org.openhab.binding.homematic.internal.communicator.server.RpcEventListener;
@@ -67,6 +77,7 @@ import org.openhab.binding.homematic.internal.misc.HomematicClientException;
 import org.openhab.binding.homematic.internal.misc.HomematicConstants;
 import org.openhab.binding.homematic.internal.misc.MiscUtils;
 import org.openhab.binding.homematic.internal.misc.DelayedExecuter.DelayedExecuterCallback;
+import org.openhab.binding.homematic.internal.misc.DeviceEventDispatcher;
 import org.openhab.binding.homematic.internal.model.HmChannel;
 import org.openhab.binding.homematic.internal.model.HmDatapoint;
 import org.openhab.binding.homematic.internal.model.HmDatapointConfig;
@@ -84,12 +95,16 @@ import org.slf4j.LoggerFactory;
  * The {@link AbstractHomematicGateway} is the main class for the communication with a Homematic gateway.
  *
  * @author Gerhard Riegler - Initial contribution
+ * @author agent - Cache metadata, load devices in parallel, log RPC latencies and dispatch events per device
  */
 public abstract class AbstractHomematicGateway implements RpcEventListener, HomematicGateway, VirtualGateway {
     private final Logger logger = LoggerFactory.getLogger(AbstractHomematicGateway.class);
     public static final double DEFAULT_DISABLE_DELAY = 2.0;
     private static final long CONNECTION_TRACKER_INTERVAL_SECONDS = 15;
     private static final String GATEWAY_POOL_NAME = "homematicGateway";
+    private static final String METADATA_POOL_NAME = "homematicMetadata";
+    private static final String EVENT_POOL_NAME = "homematicEvents";
+    private static final int EVENT_QUEUE_CAPACITY = 100;
 
     private final Map<TransferMode, RpcClient<?>> rpcClients = new HashMap<TransferMode, RpcClient<?>>();
     private final Map<TransferMode, RpcServer> rpcServers = new HashMap<TransferMode, RpcServer>();
@@ -98,19 +113,22 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     protected HttpClient httpClient;
     private final String id;
     private final HomematicGatewayAdapter gatewayAdapter;
-    private final DelayedExecuter sendDelayedExecutor = new DelayedExecuter();
-    private final DelayedExecuter receiveDelayedExecutor = new DelayedExecuter();
-    private final Set<HmDatapointInfo> echoEvents = Collections.synchronizedSet(new HashSet<HmDatapointInfo>());
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(GATEWAY_POOL_NAME);
+    private final DelayedExecuter sendDelayedExecutor = new DelayedExecuter(scheduler);
+    private final DelayedExecuter receiveDelayedExecutor = new DelayedExecuter(scheduler);
+    private final Set<HmDatapointInfo> echoEvents = ConcurrentHashMap.newKeySet();
+    private final DeviceEventDispatcher eventDispatcher = new DeviceEventDispatcher(
+            ThreadPoolManager.getPool(EVENT_POOL_NAME), EVENT_QUEUE_CAPACITY);
     private ScheduledFuture<?> connectionTrackerFuture;
     private ConnectionTrackerThread connectionTrackerThread;
     private final Map<String, HmDevice> devices = Collections.synchronizedMap(new HashMap<String, HmDevice>());
     private final Map<HmInterface, TransferMode> availableInterfaces = new TreeMap<HmInterface, TransferMode>();
     private static List<VirtualDatapointHandler> virtualDatapointHandlers = new ArrayList<VirtualDatapointHandler>();
-    private boolean cancelLoadAllMetadata;
-    private boolean initialized;
+    private volatile boolean cancelLoadAllMetadata;
+    private volatile boolean initialized;
     private boolean newDeviceEventsEnabled;
     private ScheduledFuture<?> enableNewDeviceFuture;
-    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(GATEWAY_POOL_NAME);
+    private final ParamsetDescriptionCache paramsetDescriptionCache;
 
     static {
         // loads all virtual datapoints
@@ -139,11 +157,14 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         this.config = config;
         this.gatewayAdapter = gatewayAdapter;
         this.httpClient = httpClient;
+        this.paramsetDescriptionCache = new ParamsetDescriptionCache(new File(ConfigConstants.getUserDataFolder()
+                + File.separator + "homematic" + File.separator + id + "-paramsets.json"));
     }
 
     @Override
     public void initialize() throws IOException {
         logger.debug("Initializing gateway with id '{}'", id);
+        eventDispatcher.start();
 
         HmGatewayInfo gatewayInfo = config.getGatewayInfo();
         if (gatewayInfo.isHomegear()) {
@@ -210,6 +231,7 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         }
         newDeviceEventsEnabled = false;
         stopWatchdogs();
+        eventDispatcher.stop();
         sendDelayedExecutor.stop();
         receiveDelayedExecutor.stop();
         stopServers();
@@ -371,61 +393,184 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         // load all device descriptions
         List<HmDevice> deviceDescriptions = getDeviceDescriptions();
 
-        // loading datapoints for all channels
+        // loading datapoints for all channels, in parallel for each interface
         Set<String> loadedDevices = new HashSet<String>();
-        Map<String, Collection<HmDatapoint>> datapointsByChannelIdCache = new HashMap<String, Collection<HmDatapoint>>();
+        Map<String, Collection<HmDatapoint>> datapointsByChannelIdCache = new ConcurrentHashMap<>();
+        Map<HmDevice, CompletableFuture<Void>> deviceFutures = startDeviceMetadataLoaders(deviceDescriptions,
+                datapointsByChannelIdCache);
         for (HmDevice device : deviceDescriptions) {
             if (!cancelLoadAllMetadata) {
                 try {
-                    logger.trace("Loading metadata for device '{}' of type '{}'", device.getAddress(),
-                            device.getType());
-                    if (device.isGatewayExtras()) {
-                        loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_VARIABLE));
-                        loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_SCRIPT));
-                    } else {
-                        for (HmChannel channel : device.getChannels()) {
-                            logger.trace("  Loading channel {}", channel);
-                            // speed up metadata generation a little bit for equal channels in the gateway devices
-                            if ((DEVICE_TYPE_VIRTUAL.equals(device.getType())
-                                    || DEVICE_TYPE_VIRTUAL_WIRED.equals(device.getType())) && channel.getNumber() > 1) {
-                                HmChannel previousChannel = device.getChannel(channel.getNumber() - 1);
-                                cloneAllDatapointsIntoChannel(channel, previousChannel.getDatapoints());
-                            } else {
-                                String channelId = String.format("%s:%s:%s", channel.getDevice().getType(),
-                                        channel.getDevice().getFirmware(), channel.getNumber());
-                                Collection<HmDatapoint> cachedDatapoints = datapointsByChannelIdCache.get(channelId);
-                                if (cachedDatapoints != null) {
-                                    // clone all datapoints
-                                    cloneAllDatapointsIntoChannel(channel, cachedDatapoints);
-                                } else {
-                                    logger.trace("    Loading datapoints into channel {}", channel);
-                                    addChannelDatapoints(channel, HmParamsetType.MASTER);
-                                    addChannelDatapoints(channel, HmParamsetType.VALUES);
-
-                                    // Make sure to only cache non-reconfigurable channels. For reconfigurable channels,
-                                    // the data point set might change depending on the selected mode.
-                                    if (!channel.isReconfigurable()) {
-                                        datapointsByChannelIdCache.put(channelId, channel.getDatapoints());
-                                    }
-                                }
-                            }
-                        }
-                    }
+                    deviceFutures.get(device).get();
                     prepareDevice(device);
                     loadedDevices.add(device.getAddress());
                     gatewayAdapter.onDeviceLoaded(device);
-                } catch (IOException ex) {
+                } catch (ExecutionException ex) {
                     logger.warn("Can't load device with address '{}' from gateway '{}': {}", device.getAddress(), id,
-                            ex.getMessage());
+                            ex.getCause().getMessage());
+                } catch (CancellationException ex) {
+                    // loading has been canceled in the meantime
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    cancelLoadAllMetadata = true;
                 }
             }
         }
         if (!cancelLoadAllMetadata) {
             devices.keySet().retainAll(loadedDevices);
         }
+        paramsetDescriptionCache.save();
         initialized = true;
     }
 
+    /**
+     * Starts loading the metadata of all devices. The devices of each interface are loaded by at most
+     * {@link HomematicConfig#getMaxParallelRequests()} loaders in parallel, different interfaces are loaded
+     * independently. Returns a future for each device, which completes when its metadata has been loaded.
+     */
+    private Map<HmDevice, CompletableFuture<Void>> startDeviceMetadataLoaders(List<HmDevice> deviceDescriptions,
+            Map<String, Collection<HmDatapoint>> datapointsByChannelIdCache) {
+        Map<HmInterface, Queue<HmDevice>> queues = new HashMap<HmInterface, Queue<HmDevice>>();
+        Map<HmDevice, CompletableFuture<Void>> deviceFutures = new HashMap<HmDevice, CompletableFuture<Void>>();
+        for (HmDevice device : deviceDescriptions) {
+            queues.computeIfAbsent(device.getHmInterface(), hmInterface -> new ConcurrentLinkedQueue<HmDevice>())
+                    .add(device);
+            deviceFutures.put(device, new CompletableFuture<Void>());
+        }
+
+        ExecutorService executor = ThreadPoolManager.getPool(METADATA_POOL_NAME);
+        for (Queue<HmDevice> queue : queues.values()) {
+            int loaders = Math.min(queue.size(), Math.max(1, config.getMaxParallelRequests()));
+            for (int i = 0; i < loaders; i++) {
+                executor.execute(() -> {
+                    HmDevice device;
+                    while ((device = queue.poll()) != null) {
+                        CompletableFuture<Void> future = deviceFutures.get(device);
+                        if (cancelLoadAllMetadata) {
+                            future.cancel(false);
+                            continue;
+                        }
+                        try {
+                            loadDeviceMetadata(device, datapointsByChannelIdCache);
+                            future.complete(null);
+                        } catch (Exception ex) {
+                            future.completeExceptionally(ex);
+                        }
+                    }
+                });
+            }
+        }
+        return deviceFutures;
+    }
+
+    /**
+     * Loads the datapoint metadata of all channels of the device. Channels equal to an already loaded channel are
+     * cloned, all others are restored from the metadata cache or loaded from the gateway.
+     */
+    private void loadDeviceMetadata(HmDevice device, Map<String, Collection<HmDatapoint>> datapointsByChannelIdCache)
+            throws IOException {
+        logger.trace("Loading metadata for device '{}' of type '{}'", device.getAddress(), device.getType());
+        if (device.isGatewayExtras()) {
+            loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_VARIABLE));
+            loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_SCRIPT));
+            return;
+        }
+
+        List<HmChannel> channelsToLoad = new ArrayList<HmChannel>();
+        for (HmChannel channel : device.getChannels()) {
+            logger.trace("  Loading channel {}", channel);
+            // speed up metadata generation a little bit for equal channels in the gateway devices
+            if ((DEVICE_TYPE_VIRTUAL.equals(device.getType()) || DEVICE_TYPE_VIRTUAL_WIRED.equals(device.getType()))
+                    && channel.getNumber() > 1) {
+                continue;
+            }
+            Collection<HmDatapoint> cachedDatapoints = datapointsByChannelIdCache.get(getChannelId(channel));
+            if (cachedDatapoints != null) {
+                // clone all datapoints
+                cloneAllDatapointsIntoChannel(channel, cachedDatapoints);
+            } else {
+                channelsToLoad.add(channel);
+            }
+        }
+
+        Map<HmChannel, Map<String, Object>> masterDescriptions = getParamsetDescriptions(device, channelsToLoad,
+                HmParamsetType.MASTER);
+        Map<HmChannel, Map<String, Object>> valuesDescriptions = getParamsetDescriptions(device, channelsToLoad,
+                HmParamsetType.VALUES);
+        for (HmChannel channel : channelsToLoad) {
+            logger.trace("    Loading datapoints into channel {}", channel);
+            addChannelDatapoints(channel, HmParamsetType.MASTER, masterDescriptions.get(channel), true);
+            // Make sure to only cache non-reconfigurable channels. For reconfigurable channels, the data point set
+            // might change depending on the selected mode.
+            boolean cacheable = !channel.isReconfigurable();
+            addChannelDatapoints(channel, HmParamsetType.VALUES, valuesDescriptions.get(channel), cacheable);
+            if (cacheable) {
+                datapointsByChannelIdCache.put(getChannelId(channel), channel.getDatapoints());
+            }
+        }
+
+        if (DEVICE_TYPE_VIRTUAL.equals(device.getType()) || DEVICE_TYPE_VIRTUAL_WIRED.equals(device.getType())) {
+            for (HmChannel channel : device.getChannels()) {
+                if (channel.getNumber() > 1) {
+                    HmChannel previousChannel = device.getChannel(channel.getNumber() - 1);
+                    cloneAllDatapointsIntoChannel(channel, previousChannel.getDatapoints());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the id of a channel within the metadata of the device type.
+     */
+    private String getChannelId(HmChannel channel) {
+        return String.format("%s:%s:%s", channel.getDevice().getType(), channel.getDevice().getFirmware(),
+                channel.getNumber());
+    }
+
+    /**
+     * Returns the raw paramset descriptions of the channels of the device, either from the metadata cache or loaded
+     * from the gateway. Descriptions which could not be loaded are missing in the result.
+     */
+    private Map<HmChannel, Map<String, Object>> getParamsetDescriptions(HmDevice device, List<HmChannel> channels,
+            HmParamsetType paramsetType) throws IOException {
+        Map<HmChannel, Map<String, Object>> descriptions = new HashMap<HmChannel, Map<String, Object>>();
+        List<HmChannel> uncachedChannels = new ArrayList<HmChannel>();
+        for (HmChannel channel : channels) {
+            Map<String, Object> description = paramsetDescriptionCache.get(channel, paramsetType);
+            if (description != null) {
+                descriptions.put(channel, description);
+            } else {
+                uncachedChannels.add(channel);
+            }
+        }
+        if (!uncachedChannels.isEmpty()) {
+            List<Map<String, Object>> loadedDescriptions = getRpcClient(device.getHmInterface())
+                    .getParamsetDescriptions(device.getHmInterface(), uncachedChannels, paramsetType);
+            for (int i = 0; i < uncachedChannels.size(); i++) {
+                if (loadedDescriptions.get(i) != null) {
+                    descriptions.put(uncachedChannels.get(i), loadedDescriptions.get(i));
+                }
+            }
+        }
+        return descriptions;
+    }
+
+    /**
+     * Adds the datapoints of the given paramset description to the channel, and optionally stores the description in
+     * the metadata cache. Without a description, the datapoints are loaded from the gateway.
+     */
+    private void addChannelDatapoints(HmChannel channel, HmParamsetType paramsetType, Map<String, Object> description,
+            boolean cacheDescription) throws IOException {
+        if (description == null) {
+            addChannelDatapoints(channel, paramsetType);
+        } else {
+            new GetParamsetDescriptionParser(channel, paramsetType).parse(new Object[] { description });
+            if (cacheDescription) {
+                paramsetDescriptionCache.put(channel, paramsetType, description);
+            }
+        }
+    }
+
     /**
      * Loads all datapoints from the gateway.
      */
@@ -720,6 +865,11 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         }
     }
 
+    /**
+     * Handles an event of the gateway. Echo events and pongs are handled immediately, all other events are queued per
+     * device and handled asynchronously, so that the RPC server thread returns to the gateway without waiting for the
+     * handlers.
+     */
     @Override
     public void eventReceived(HmDatapointInfo dpInfo, Object newValue) {
         String className = newValue == null ? "Unknown" : newValue.getClass().getSimpleName();
@@ -729,26 +879,47 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         if (echoEvents.remove(dpInfo)) {
             logger.debug("Echo event detected, ignoring '{}'", dpInfo);
         } else {
-            try {
-                if (connectionTrackerThread != null && dpInfo.isPong() && id.equals(newValue)) {
-                    connectionTrackerThread.pongReceived();
-                }
-                if (initialized) {
-                    final HmDatapoint dp = getDatapoint(dpInfo);
-                    HmDatapointConfig config = gatewayAdapter.getDatapointConfig(dp);
-                    receiveDelayedExecutor.start(dpInfo, config.getReceiveDelay(), () -> {
-                        dp.setValue(newValue);
+            if (connectionTrackerThread != null && dpInfo.isPong() && id.equals(newValue)) {
+                connectionTrackerThread.pongReceived();
+            }
+            if (initialized) {
+                eventDispatcher.dispatch(dpInfo.getAddress(), dpInfo, () -> handleEvent(dpInfo, newValue));
+            }
+        }
+    }
 
-                        gatewayAdapter.onStateUpdated(dp);
-                        handleVirtualDatapointEvent(dp, true);
-                        if (dp.isPressDatapoint() && MiscUtils.isTrueValue(dp.getValue())) {
-                            disableDatapoint(dp, DEFAULT_DISABLE_DELAY);
-                        }
-                    });
-                }
-            } catch (HomematicClientException | IOException ex) {
-                // ignore
+    /**
+     * Updates the datapoint of the event, either immediately or after the receive delay of the datapoint.
+     */
+    private void handleEvent(HmDatapointInfo dpInfo, Object newValue) {
+        if (!initialized) {
+            return;
+        }
+        try {
+            final HmDatapoint dp = getDatapoint(dpInfo);
+            double receiveDelay = gatewayAdapter.getDatapointConfig(dp).getReceiveDelay();
+            if (receiveDelay > 0.0) {
+                // the delayed update is queued again behind the events received in the meantime
+                receiveDelayedExecutor.start(dpInfo, receiveDelay, () -> eventDispatcher
+                        .dispatch(dpInfo.getAddress(), dpInfo, () -> updateDatapoint(dp, newValue)));
+            } else {
+                updateDatapoint(dp, newValue);
             }
+        } catch (HomematicClientException | IOException ex) {
+            // ignore
+        }
+    }
+
+    /**
+     * Sets the received value of the datapoint and publishes it.
+     */
+    private void updateDatapoint(HmDatapoint dp, Object newValue) {
+        dp.setValue(newValue);
+
+        gatewayAdapter.onStateUpdated(dp);
+        handleVirtualDatapointEvent(dp, true);
+        if (dp.isPressDatapoint() && MiscUtils.isTrueValue(dp.getValue())) {
+            disableDatapoint(dp, DEFAULT_DISABLE_DELAY);
         }
     }
 
@@ -756,23 +927,30 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     public void newDevices(List<String> adresses) {
         if (initialized && newDeviceEventsEnabled) {
             for (String address : adresses) {
-                try {
-                    logger.debug("New device '{}' detected on gateway with id '{}'", address, id);
-                    List<HmDevice> deviceDescriptions = getDeviceDescriptions();
-                    for (HmDevice device : deviceDescriptions) {
-                        if (device.getAddress().equals(address)) {
-                            for (HmChannel channel : device.getChannels()) {
-                                addChannelDatapoints(channel, HmParamsetType.MASTER);
-                                addChannelDatapoints(channel, HmParamsetType.VALUES);
-                            }
-                            prepareDevice(device);
-                            gatewayAdapter.onNewDevice(device);
-                        }
+                eventDispatcher.dispatch(address, () -> addNewDevice(address));
+            }
+        }
+    }
+
+    /**
+     * Loads the metadata of a new device and publishes it.
+     */
+    private void addNewDevice(String address) {
+        try {
+            logger.debug("New device '{}' detected on gateway with id '{}'", address, id);
+            List<HmDevice> deviceDescriptions = getDeviceDescriptions();
+            for (HmDevice device : deviceDescriptions) {
+                if (device.getAddress().equals(address)) {
+                    for (HmChannel channel : device.getChannels()) {
+                        addChannelDatapoints(channel, HmParamsetType.MASTER);
+                        addChannelDatapoints(channel, HmParamsetType.VALUES);
                     }
-                } catch (Exception ex) {
-                    logger.error("{}", ex.getMessage(), ex);
+                    prepareDevice(device);
+                    gatewayAdapter.onNewDevice(device);
                 }
             }
+        } catch (Exception ex) {
+            logger.error("{}", ex.getMessage(), ex);
         }
     }
 
@@ -780,11 +958,13 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     public void deleteDevices(List<String> addresses) {
         if (initialized) {
             for (String address : addresses) {
-                logger.debug("Device '{}' removed from gateway with id '{}'", address, id);
-                HmDevice device = devices.remove(address);
-                if (device != null) {
-                    gatewayAdapter.onDeviceDeleted(device);
-                }
+                eventDispatcher.dispatch(address, () -> {
+                    logger.debug("Device '{}' removed from gateway with id '{}'", address, id);
+                    HmDevice device = devices.remove(address);
+                    if (device != null) {
+                        gatewayAdapter.onDeviceDeleted(device);
+                    }
+                });
             }
         }
     }
@@ -926,6 +1106,16 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
                 } catch (IOException e) {
                     logger.debug("Could not read the duty cycle ratio: {}", e.getMessage());
                 }
+
+                if (logger.isTraceEnabled()) {
+                    for (TransferMode mode : new HashSet<>(availableInterfaces.values())) {
+                        RpcClient<?> rpcClient = rpcClients.get(mode);
+                        if (rpcClient != null) {
+                            logger.trace("{} latencies on gateway '{}': {}", mode, id,
+                                    rpcClient.getLatencyStatistics());
+                        }
+                    }
+                }
             } catch (IOException ex) {
                 try {
                     handleInvalidConnection("IOException " + ex.getMessage());
@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openhab.binding.homematic.internal.model.HmChannel;
+import org.openhab.binding.homematic.internal.model.HmDevice;
+import org.openhab.binding.homematic.internal.model.HmParamsetType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Persistent cache of the raw paramset descriptions returned by a Homematic gateway. The descriptions only depend on
+ * the device type, the firmware of the device and the channel, so the descriptions of all known device types can be
+ * restored after a restart without asking the gateway.
+ * <p>
+ * The descriptions are stored as JSON together with a format version, a file with another version is ignored. The
+ * values keep the types of the RPC protocols: whole numbers are read back as Integer, other numbers as Double and
+ * arrays as Object[].
+ *
+ * @author agent - Initial contribution
+ */
+public class ParamsetDescriptionCache {
+    private final Logger logger = LoggerFactory.getLogger(ParamsetDescriptionCache.class);
+    private static final int FORMAT_VERSION = 2;
+
+    private final File file;
+    private Map<String, Map<String, Object>> descriptions = new HashMap<>();
+    private boolean loaded;
+    private boolean modified;
+
+    public ParamsetDescriptionCache(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the cached paramset description of the channel or null, if it is not cached.
+     */
+    public synchronized Map<String, Object> get(HmChannel channel, HmParamsetType paramsetType) {
+        load();
+        return descriptions.get(getKey(channel, paramsetType));
+    }
+
+    /**
+     * Adds the paramset description of the channel to the cache.
+     */
+    public synchronized void put(HmChannel channel, HmParamsetType paramsetType, Map<String, Object> description) {
+        load();
+        descriptions.put(getKey(channel, paramsetType), description);
+        modified = true;
+    }
+
+    /**
+     * Writes the cache to disk, if it has been modified since it was loaded.
+     */
+    public synchronized void save() {
+        if (!modified) {
+            return;
+        }
+        File folder = file.getParentFile();
+        if (folder != null && !folder.exists() && !folder.mkdirs()) {
+            logger.warn("Can't create folder '{}' for the Homematic metadata cache", folder);
+            return;
+        }
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(file.getAbsoluteFile().getParentFile().toPath(), file.getName(), ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8);
+                    JsonWriter jsonWriter = new JsonWriter(writer)) {
+                jsonWriter.beginObject();
+                jsonWriter.name("version").value(FORMAT_VERSION);
+                jsonWriter.name("descriptions");
+                writeValue(jsonWriter, descriptions);
+                jsonWriter.endObject();
+            }
+            Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            modified = false;
+            logger.debug("Saved {} paramset descriptions to '{}'", descriptions.size(), file);
+        } catch (IOException ex) {
+            logger.warn("Can't save the Homematic metadata cache to '{}': {}", file, ex.getMessage());
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads the cache from disk on first access.
+     */
+    @SuppressWarnings("unchecked")
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!file.exists()) {
+            return;
+        }
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8);
+                JsonReader jsonReader = new JsonReader(reader)) {
+            Integer version = null;
+            Map<String, Map<String, Object>> loadedDescriptions = null;
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                String name = jsonReader.nextName();
+                if ("version".equals(name)) {
+                    version = jsonReader.nextInt();
+                } else if ("descriptions".equals(name) && Integer.valueOf(FORMAT_VERSION).equals(version)) {
+                    loadedDescriptions = (Map<String, Map<String, Object>>) readValue(jsonReader);
+                } else {
+                    jsonReader.skipValue();
+                }
+            }
+            jsonReader.endObject();
+            if (loadedDescriptions != null) {
+                descriptions = loadedDescriptions;
+                logger.debug("Loaded {} paramset descriptions from '{}'", descriptions.size(), file);
+            } else {
+                logger.debug("Ignoring Homematic metadata cache '{}' with unknown format", file);
+            }
+        } catch (IOException | JsonParseException | IllegalStateException | ClassCastException ex) {
+            logger.warn("Can't load the Homematic metadata cache from '{}', ignoring it: {}", file, ex.getMessage());
+            descriptions = new HashMap<>();
+        }
+    }
+
+    /**
+     * Writes a value of a paramset description as JSON.
+     */
+    private void writeValue(JsonWriter writer, Object value) throws IOException {
+        if (value == null) {
+            writer.nullValue();
+        } else if (value instanceof Map) {
+            writer.beginObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                writer.name(String.valueOf(entry.getKey()));
+                writeValue(writer, entry.getValue());
+            }
+            writer.endObject();
+        } else if (value instanceof Object[] || value instanceof Collection) {
+            writer.beginArray();
+            for (Object element : value instanceof Object[] ? (Object[]) value : ((Collection<?>) value).toArray()) {
+                writeValue(writer, element);
+            }
+            writer.endArray();
+        } else if (value instanceof Boolean) {
+            writer.value((Boolean) value);
+        } else if (value instanceof Number) {
+            writer.value((Number) value);
+        } else {
+            writer.value(value.toString());
+        }
+    }
+
+    /**
+     * Reads a value of a paramset description written by {@link #writeValue(JsonWriter, Object)}.
+     */
+    private Object readValue(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        switch (token) {
+            case BEGIN_OBJECT:
+                Map<String, Object> map = new LinkedHashMap<>();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    map.put(reader.nextName(), readValue(reader));
+                }
+                reader.endObject();
+                return map;
+            case BEGIN_ARRAY:
+                List<Object> list = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    list.add(readValue(reader));
+                }
+                reader.endArray();
+                return list.toArray();
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NUMBER:
+                String number = reader.nextString();
+                if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                    try {
+                        return Integer.valueOf(number);
+                    } catch (NumberFormatException ex) {
+                        // not an int, read as double
+                    }
+                }
+                return Double.valueOf(number);
+            case NULL:
+                reader.nextNull();
+                return null;
+            case STRING:
+                return reader.nextString();
+            default:
+                throw new JsonParseException("Unexpected JSON token " + token);
+        }
+    }
+
+    /**
+     * Returns the cache key of a paramset description.
+     */
+    private String getKey(HmChannel channel, HmParamsetType paramsetType) {
+        HmDevice device = channel.getDevice();
+        return String.format("%s:%s:%s:%s:%s", device.getHmInterface(), device.getType(), device.getFirmware(),
+                channel.getNumber(), paramsetType);
+    }
+}
@@ -27,6 +27,7 @@ import org.slf4j.LoggerFactory;
  * Client implementation for sending messages via BIN-RPC to the Homematic server.
  *
  * @author Gerhard Riegler - Initial contribution
+ * @author agent - Pool the sockets and record RPC latencies
  */
 public class BinRpcClient extends RpcClient<byte[]> {
     private final Logger logger = LoggerFactory.getLogger(BinRpcClient.class);
@@ -40,6 +41,7 @@ public class BinRpcClient extends RpcClient<byte[]> {
 
     @Override
     public void dispose() {
+        super.dispose();
         socketHandler.flush();
     }
 
@@ -60,14 +62,21 @@ public class BinRpcClient extends RpcClient<byte[]> {
     }
 
     /**
-     * Sends a BIN-RPC message and parses the response to see if there was an error.
+     * Sends a BIN-RPC message and parses the response to see if there was an error. Each message uses its own socket
+     * from the pool, so at most {@link HomematicConfig#getMaxParallelRequests()} messages are sent to the same port
+     * at the same time.
      */
     @Override
-    protected synchronized Object[] sendMessage(int port, RpcRequest<byte[]> request) throws IOException {
+    protected Object[] sendMessage(int port, RpcRequest<byte[]> request) throws IOException {
         if (logger.isTraceEnabled()) {
             logger.trace("Client BinRpcRequest:\n{}", request);
         }
-        return sendMessage(port, request, 0);
+        long start = System.nanoTime();
+        try {
+            return sendMessage(port, request, 0);
+        } finally {
+            latencyStatistics.record(request.getMethodName(), System.nanoTime() - start);
+        }
     }
 
     /**
@@ -75,12 +84,16 @@ public class BinRpcClient extends RpcClient<byte[]> {
      */
     private Object[] sendMessage(int port, RpcRequest<byte[]> request, int rpcRetryCounter) throws IOException {
         BinRpcMessage resp = null;
+        SocketInfo socketInfo = null;
         try {
-            Socket socket = socketHandler.getSocket(port);
+            socketInfo = socketHandler.borrowSocket(port);
+            Socket socket = socketInfo.getSocket();
             socket.getOutputStream().write(request.createMessage());
             resp = new BinRpcMessage(socket.getInputStream(), false, config.getEncoding());
+            socketHandler.returnSocket(port, socketInfo);
+            socketInfo = null;
             return new RpcResponseParser(request).parse(resp.getResponseData());
-        } catch (UnknownRpcFailureException | UnknownParameterSetException rpcEx) {
+        } catch (UnknownRpcFailureException | UnknownParameterSetException | UnknownMethodException rpcEx) {
             // throw immediately, don't retry the message
             throw rpcEx;
         } catch (IOException ioEx) {
@@ -90,10 +103,17 @@ public class BinRpcClient extends RpcClient<byte[]> {
                 rpcRetryCounter++;
                 logger.debug("BinRpcMessage socket failure, sending message again {}/{}", rpcRetryCounter,
                         MAX_RPC_RETRY);
-                socketHandler.removeSocket(port);
+                if (socketInfo != null) {
+                    socketHandler.invalidateSocket(port, socketInfo);
+                    socketInfo = null;
+                }
                 return sendMessage(port, request, rpcRetryCounter);
             }
         } finally {
+            if (socketInfo != null) {
+                // the response could not be read completely, the socket is not reusable
+                socketHandler.invalidateSocket(port, socketInfo);
+            }
             if (logger.isTraceEnabled()) {
                 logger.trace("Client BinRpcResponse:\n{}", resp == null ? "null" : resp.toString());
             }
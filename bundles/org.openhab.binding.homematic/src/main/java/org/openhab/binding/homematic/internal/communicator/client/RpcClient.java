@@ -15,10 +15,16 @@ package org.openhab.binding.homematic.internal.communicator.client;
 import static org.openhab.binding.homematic.internal.HomematicBindingConstants.*;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.lang.StringUtils;
 import org.openhab.binding.homematic.internal.HomematicBindingConstants;
@@ -33,6 +39,7 @@ import org.openhab.binding.homematic.internal.communicator.parser.GetValueParser
 import org.openhab.binding.homematic.internal.communicator.parser.HomegearLoadDeviceNamesParser;
 import org.openhab.binding.homematic.internal.communicator.parser.ListBidcosInterfacesParser;
 import org.openhab.binding.homematic.internal.communicator.parser.ListDevicesParser;
+import org.openhab.binding.homematic.internal.communicator.parser.RpcResponseParser;
 import org.openhab.binding.homematic.internal.communicator.parser.RssiInfoParser;
 import org.openhab.binding.homematic.internal.model.HmChannel;
 import org.openhab.binding.homematic.internal.model.HmDatapoint;
@@ -48,12 +55,16 @@ import org.slf4j.LoggerFactory;
  * Client implementation for sending messages via BIN-RPC to a Homematic gateway.
  *
  * @author Gerhard Riegler - Initial contribution
+ * @author agent - Cache metadata, load devices in parallel, batch setValue calls and record latencies
  */
 public abstract class RpcClient<T> {
     private final Logger logger = LoggerFactory.getLogger(RpcClient.class);
     protected static final int MAX_RPC_RETRY = 1;
 
     protected HomematicConfig config;
+    protected final RpcLatencyStatistics latencyStatistics = new RpcLatencyStatistics();
+    private final Map<Integer, Boolean> multicallSupport = new ConcurrentHashMap<>();
+    private final Map<Integer, SetValueBatch> setValueBatches = new ConcurrentHashMap<>();
 
     public RpcClient(HomematicConfig config) {
         this.config = config;
@@ -62,7 +73,18 @@ public abstract class RpcClient<T> {
     /**
      * Disposes the client.
      */
-    public abstract void dispose();
+    public void dispose() {
+        if (!latencyStatistics.isEmpty()) {
+            logger.debug("RPC latencies: {}", latencyStatistics);
+        }
+    }
+
+    /**
+     * Returns the latency histograms of the requests sent by this client, one per RPC method.
+     */
+    public RpcLatencyStatistics getLatencyStatistics() {
+        return latencyStatistics;
+    }
 
     /**
      * Returns a RpcRequest for this client.
@@ -182,6 +204,174 @@ public abstract class RpcClient<T> {
         new GetParamsetDescriptionParser(channel, paramsetType).parse(sendMessage(config.getRpcPort(channel), request));
     }
 
+    /**
+     * Returns the raw paramset descriptions of the given channels in the same order. If the interface supports
+     * system.multicall, all descriptions are loaded with a single request. Descriptions which could not be loaded are
+     * null, they can be loaded with {@link #addChannelDatapoints(HmChannel, HmParamsetType)} instead.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> getParamsetDescriptions(HmInterface hmInterface, List<HmChannel> channels,
+            HmParamsetType paramsetType) throws IOException {
+        List<HmChannel> requestedChannels = new ArrayList<>();
+        List<Object[]> argLists = new ArrayList<>();
+        for (HmChannel channel : channels) {
+            // The configuration channel only has a MASTER Paramset, see addChannelDatapoints
+            if (!isConfigurationChannel(channel) || paramsetType == HmParamsetType.MASTER) {
+                requestedChannels.add(channel);
+                argLists.add(new Object[] {
+                        getRpcAddress(channel.getDevice().getAddress()) + getChannelSuffix(channel),
+                        paramsetType.toString() });
+            }
+        }
+
+        Map<HmChannel, Map<String, Object>> descriptionsByChannel = new HashMap<>();
+        List<Object> results = sendMessages(hmInterface, "getParamsetDescription", argLists);
+        for (int i = 0; i < results.size(); i++) {
+            Object result = results.get(i);
+            if (result instanceof Object[] && ((Object[]) result).length > 0
+                    && ((Object[]) result)[0] instanceof Map) {
+                descriptionsByChannel.put(requestedChannels.get(i), (Map<String, Object>) ((Object[]) result)[0]);
+            } else if (result instanceof IOException) {
+                logger.trace("Can't load paramset description for device: {}, channel: {}, paramset: {}: {}",
+                        requestedChannels.get(i).getDevice().getAddress(), requestedChannels.get(i).getNumber(),
+                        paramsetType, ((IOException) result).getMessage());
+            }
+        }
+
+        List<Map<String, Object>> descriptions = new ArrayList<>();
+        for (HmChannel channel : channels) {
+            descriptions.add(descriptionsByChannel.get(channel));
+        }
+        return descriptions;
+    }
+
+    /**
+     * Sends several calls of the same RPC method to the interface and returns the result of each call in the order of
+     * the argument lists. If the interface supports system.multicall, all calls are sent with a single request,
+     * otherwise one by one. A failed call does not affect the others, its IOException is returned in place of the
+     * result. If the system.multicall fails, the calls are sent again one by one, so only use it for calls which may be
+     * executed twice.
+     */
+    protected List<Object> sendMessages(HmInterface hmInterface, String methodName, List<Object[]> argLists)
+            throws IOException {
+        return sendMessages(config.getRpcPort(hmInterface), methodName, argLists);
+    }
+
+    /**
+     * Sends several calls of the same RPC method to the given port, see
+     * {@link #sendMessages(HmInterface, String, List)}.
+     */
+    private List<Object> sendMessages(int port, String methodName, List<Object[]> argLists) throws IOException {
+        if (argLists.size() > 1 && isMulticallSupported(port)) {
+            try {
+                return sendMulticall(port, methodName, argLists);
+            } catch (IOException ex) {
+                logger.debug("system.multicall failed on port {}, sending the calls one by one: {}", port,
+                        ex.getMessage());
+            }
+        }
+        return sendSingleCalls(port, methodName, argLists);
+    }
+
+    /**
+     * Sends several calls of the same RPC method in a single system.multicall request and returns the result or
+     * IOException of each call in the order of the argument lists. Multicall is disabled for the port, if the RPC
+     * server does not know system.multicall.
+     *
+     * @throws IOException if the request failed, the calls may or may not have been executed
+     */
+    private List<Object> sendMulticall(int port, String methodName, List<Object[]> argLists) throws IOException {
+        List<Map<String, Object>> calls = new ArrayList<>();
+        for (Object[] args : argLists) {
+            Map<String, Object> call = new HashMap<>();
+            call.put("methodName", methodName);
+            call.put("params", Arrays.asList(args));
+            calls.add(call);
+        }
+        RpcRequest<T> request = createRpcRequest("system.multicall");
+        request.addArg(calls);
+
+        Object[] response;
+        try {
+            response = sendMessage(port, request);
+        } catch (UnknownMethodException ex) {
+            logger.debug("system.multicall is not known on port {}, disabling multicall", port);
+            multicallSupport.put(port, Boolean.FALSE);
+            throw ex;
+        }
+        if (response.length == 0 || !(response[0] instanceof Object[])
+                || ((Object[]) response[0]).length != argLists.size()) {
+            throw new IOException("Unexpected system.multicall response from port " + port);
+        }
+
+        List<Object> results = new ArrayList<>();
+        for (Object callResult : (Object[]) response[0]) {
+            results.add(parseMulticallResult(methodName, callResult));
+        }
+        return results;
+    }
+
+    /**
+     * Sends several calls of the same RPC method one by one and returns the result or IOException of each call in the
+     * order of the argument lists.
+     */
+    private List<Object> sendSingleCalls(int port, String methodName, List<Object[]> argLists) {
+        List<Object> results = new ArrayList<>();
+        for (Object[] args : argLists) {
+            RpcRequest<T> request = createRpcRequest(methodName);
+            for (Object arg : args) {
+                request.addArg(arg);
+            }
+            try {
+                results.add(sendMessage(port, request));
+            } catch (IOException ex) {
+                results.add(ex);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Converts the result of a single call within a system.multicall response to the result of a regular call, or the
+     * IOException if the call failed.
+     */
+    private Object parseMulticallResult(String methodName, Object callResult) {
+        RpcRequest<T> request = createRpcRequest(methodName);
+        try {
+            if (callResult instanceof Object[]) {
+                // successful calls are wrapped in an array with one element
+                return new RpcResponseParser(request).parse((Object[]) callResult);
+            }
+            return new RpcResponseParser(request).parse(new Object[] { callResult });
+        } catch (IOException ex) {
+            return ex;
+        }
+    }
+
+    /**
+     * Returns true, if the RPC server on the given port supports system.multicall. The result is cached per port, if
+     * the methods could be listed.
+     */
+    private boolean isMulticallSupported(int port) {
+        Boolean supported = multicallSupport.get(port);
+        if (supported == null) {
+            try {
+                Object[] result = sendMessage(port, createRpcRequest("system.listMethods"));
+                supported = result.length > 0 && result[0] instanceof Object[]
+                        && Arrays.asList((Object[]) result[0]).contains("system.multicall");
+                logger.debug("system.multicall is {}supported on port {}", supported ? "" : "not ", port);
+            } catch (UnknownMethodException ex) {
+                logger.debug("system.listMethods is not known on port {}, disabling multicall", port);
+                supported = false;
+            } catch (IOException ex) {
+                logger.debug("Can't list the methods supported on port {}: {}", port, ex.getMessage());
+                return false;
+            }
+            multicallSupport.put(port, supported);
+        }
+        return supported;
+    }
+
     /**
      * Sets all datapoint values for the given channel.
      */
@@ -315,6 +505,18 @@ public abstract class RpcClient<T> {
             value = ((Number) value).intValue();
         }
 
+        if (HmParamsetType.VALUES == dp.getParamsetType() && config.isBatchSetValues()) {
+            List<Object> args = new ArrayList<>();
+            args.add(getRpcAddress(dp.getChannel().getDevice().getAddress()) + getChannelSuffix(dp.getChannel()));
+            args.add(dp.getName());
+            args.add(value);
+            if (RX_BURST_MODE.equals(rxMode) || RX_WAKEUP_MODE.equals(rxMode)) {
+                args.add(rxMode);
+            }
+            sendBatchedSetValue(config.getRpcPort(dp.getChannel()), args.toArray());
+            return;
+        }
+
         RpcRequest<T> request;
         if (HmParamsetType.VALUES == dp.getParamsetType()) {
             request = createRpcRequest("setValue");
@@ -334,6 +536,83 @@ public abstract class RpcClient<T> {
         sendMessage(config.getRpcPort(dp.getChannel()), request);
     }
 
+    /**
+     * Sends a setValue call together with the setValue calls of other threads to the same port. The calls which are
+     * queued while a batch is being sent are sent with the next batch in a single system.multicall, in the order they
+     * were queued. A call which is not batched with others is sent as a regular setValue request. If the
+     * system.multicall fails, all calls of the batch fail, they are not sent again one by one because some of the
+     * values may have been set already.
+     */
+    private void sendBatchedSetValue(int port, Object[] args) throws IOException {
+        SetValueBatch batch = setValueBatches.computeIfAbsent(port, key -> new SetValueBatch());
+        PendingSetValue pending = new PendingSetValue(args);
+        batch.queue.add(pending);
+
+        batch.lock.lock();
+        try {
+            // another thread may have sent the call while this thread was waiting for the lock
+            if (!pending.result.isDone()) {
+                List<PendingSetValue> calls = new ArrayList<>();
+                PendingSetValue call;
+                while ((call = batch.queue.poll()) != null) {
+                    calls.add(call);
+                }
+                List<Object[]> argLists = new ArrayList<>();
+                for (PendingSetValue batchedCall : calls) {
+                    argLists.add(batchedCall.args);
+                }
+                try {
+                    List<Object> results;
+                    if (calls.size() > 1 && isMulticallSupported(port)) {
+                        logger.trace("Sending {} setValue calls to port {} in one request", calls.size(), port);
+                        results = sendMulticall(port, "setValue", argLists);
+                    } else {
+                        results = sendSingleCalls(port, "setValue", argLists);
+                    }
+                    for (int i = 0; i < calls.size(); i++) {
+                        calls.get(i).result.complete(results.get(i));
+                    }
+                } catch (IOException ex) {
+                    for (PendingSetValue batchedCall : calls) {
+                        batchedCall.result.complete(ex);
+                    }
+                } finally {
+                    // no caller may be left without a result, even if sending failed unexpectedly
+                    for (PendingSetValue batchedCall : calls) {
+                        batchedCall.result.complete(new IOException("setValue was not sent to port " + port));
+                    }
+                }
+            }
+        } finally {
+            batch.lock.unlock();
+        }
+
+        Object result = pending.result.getNow(null);
+        if (result instanceof IOException) {
+            throw (IOException) result;
+        }
+    }
+
+    /**
+     * The setValue calls waiting to be sent to a port, only one batch per port is sent at a time.
+     */
+    private static class SetValueBatch {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ConcurrentLinkedQueue<PendingSetValue> queue = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * A queued setValue call with its result or IOException.
+     */
+    private static class PendingSetValue {
+        private final Object[] args;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private PendingSetValue(Object[] args) {
+            this.args = args;
+        }
+    }
+
     protected void configureRxMode(RpcRequest<T> request, String rxMode) {
         if (rxMode != null) {
             if (RX_BURST_MODE.equals(rxMode) || RX_WAKEUP_MODE.equals(rxMode)) {
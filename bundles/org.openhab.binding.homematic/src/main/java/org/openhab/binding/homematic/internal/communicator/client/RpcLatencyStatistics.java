@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator.client;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms of the RPC requests sent to a Homematic gateway, one per RPC method. The buckets grow in powers
+ * of two from one millisecond up to about two minutes, recording a request does not block.
+ *
+ * @author agent - Initial contribution
+ */
+public class RpcLatencyStatistics {
+    private static final int BUCKETS = 18;
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Records the duration of a request.
+     */
+    public void record(String methodName, long durationNanos) {
+        histograms.computeIfAbsent(methodName, key -> new Histogram()).record(durationNanos);
+    }
+
+    /**
+     * Returns the number of recorded requests of the RPC method.
+     */
+    public long getCount(String methodName) {
+        Histogram histogram = histograms.get(methodName);
+        return histogram == null ? 0 : histogram.count.sum();
+    }
+
+    /**
+     * Returns the upper bound in milliseconds of the bucket which contains the given percentile (0 to 100) of the
+     * requests of the RPC method, or 0 if there are none.
+     */
+    public long getPercentileMillis(String methodName, double percentile) {
+        Histogram histogram = histograms.get(methodName);
+        return histogram == null ? 0 : histogram.getPercentileMillis(percentile);
+    }
+
+    /**
+     * Removes all recorded requests.
+     */
+    public void clear() {
+        histograms.clear();
+    }
+
+    /**
+     * Returns true, if no requests have been recorded.
+     */
+    public boolean isEmpty() {
+        return histograms.isEmpty();
+    }
+
+    /**
+     * Returns a summary of all RPC methods, sorted by the method name.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            Histogram histogram = entry.getValue();
+            long count = histogram.count.sum();
+            if (count == 0) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(String.format("%s[count=%d, avg=%dms, p50<=%dms, p95<=%dms, p99<=%dms, max=%dms]",
+                    entry.getKey(), count, TimeUnit.NANOSECONDS.toMillis(histogram.totalNanos.sum() / count),
+                    histogram.getPercentileMillis(50), histogram.getPercentileMillis(95),
+                    histogram.getPercentileMillis(99), TimeUnit.NANOSECONDS.toMillis(histogram.maxNanos.get())));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the index of the bucket for the duration, bucket i holds durations up to 2^i milliseconds.
+     */
+    static int getBucket(long durationNanos) {
+        // round up to full milliseconds
+        long millis = (Math.max(0, durationNanos) + TimeUnit.MILLISECONDS.toNanos(1) - 1) / 1_000_000;
+        int bucket = millis <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(millis - 1);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    private static class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private void record(long durationNanos) {
+            buckets.incrementAndGet(getBucket(durationNanos));
+            count.increment();
+            totalNanos.add(durationNanos);
+            maxNanos.accumulate(durationNanos);
+        }
+
+        private long getPercentileMillis(double percentile) {
+            long total = 0;
+            long[] snapshot = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = buckets.get(i);
+                total += snapshot[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * percentile / 100);
+            long cumulated = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                cumulated += snapshot[i];
+                if (cumulated >= rank) {
+                    return 1L << i;
+                }
+            }
+            return 1L << (BUCKETS - 1);
+        }
+    }
+}
@@ -15,22 +15,29 @@ package org.openhab.binding.homematic.internal.communicator.client;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
 
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Simple socket cache class.
+ * Socket pool with a bounded number of sockets per port. A socket is borrowed for one request and returned afterwards,
+ * idle sockets are kept open and reused until their max alive time is reached. At most
+ * {@link HomematicConfig#getMaxParallelRequests()} sockets are borrowed per port at the same time, further requests
+ * wait for one of them to be returned.
  *
  * @author Gerhard Riegler - Initial contribution
+ * @author agent - Pool several sockets per port
  */
 public class SocketHandler {
     private final Logger logger = LoggerFactory.getLogger(SocketHandler.class);
 
-    private Map<Integer, SocketInfo> socketsPerPort = new HashMap<Integer, SocketInfo>();
+    private final Map<Integer, ConcurrentLinkedDeque<SocketInfo>> idleSocketsPerPort = new ConcurrentHashMap<>();
+    private final Map<Integer, Semaphore> permitsPerPort = new ConcurrentHashMap<>();
     private HomematicConfig config;
 
     public SocketHandler(HomematicConfig config) {
@@ -38,56 +45,106 @@ public class SocketHandler {
     }
 
     /**
-     * Returns a socket for the given port, (re)creates it if required.
+     * Borrows a socket for the given port, waits if all sockets of the port are in use. The most recently used idle
+     * socket is reused, a new socket is created if there is none. The socket must be passed back to
+     * {@link #returnSocket(int, SocketInfo)} or {@link #invalidateSocket(int, SocketInfo)}.
      */
-    public Socket getSocket(int port) throws IOException {
-        SocketInfo socketInfo = socketsPerPort.get(port);
-        if (socketInfo == null) {
+    public SocketInfo borrowSocket(int port) throws IOException {
+        Semaphore permits = permitsPerPort.computeIfAbsent(port,
+                key -> new Semaphore(Math.max(1, config.getMaxParallelRequests()), true));
+        try {
+            permits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a socket on port " + port, ex);
+        }
+
+        try {
+            ConcurrentLinkedDeque<SocketInfo> idleSockets = getIdleSockets(port);
+            SocketInfo socketInfo;
+            while ((socketInfo = idleSockets.pollFirst()) != null) {
+                if (isMaxAliveReached(socketInfo)) {
+                    logger.debug("Max alive time reached for socket on port {}", port);
+                    closeSilent(socketInfo.getSocket());
+                } else {
+                    logger.trace("Returning socket for port {}", port);
+                    return socketInfo;
+                }
+            }
+
             logger.trace("Creating new socket for port {}", port);
             Socket socket = new Socket();
-            socket.setSoTimeout(config.getTimeout() * 1000);
-            socket.setReuseAddress(true);
-            socket.connect(new InetSocketAddress(config.getGatewayAddress(), port), socket.getSoTimeout());
-            socketInfo = new SocketInfo(socket);
-            socketsPerPort.put(port, socketInfo);
-        } else {
-            boolean isMaxAliveReached = System.currentTimeMillis()
-                    - socketInfo.getCreated() > (config.getSocketMaxAlive() * 1000);
-
-            if (isMaxAliveReached) {
-                logger.debug("Max alive time reached for socket on port {}", port);
-                removeSocket(port);
-                return getSocket(port);
+            try {
+                socket.setSoTimeout(config.getTimeout() * 1000);
+                socket.setReuseAddress(true);
+                socket.connect(new InetSocketAddress(config.getGatewayAddress(), port), socket.getSoTimeout());
+            } catch (IOException ex) {
+                closeSilent(socket);
+                throw ex;
             }
-            logger.trace("Returning socket for port {}", port);
+            return new SocketInfo(socket);
+        } catch (IOException | RuntimeException ex) {
+            permits.release();
+            throw ex;
         }
-        return socketInfo.getSocket();
     }
 
     /**
-     * Removes the socket for the given port from the cache.
+     * Returns a borrowed socket to the pool, it is reused by the next request to the port.
+     */
+    public void returnSocket(int port, SocketInfo socketInfo) {
+        getIdleSockets(port).offerFirst(socketInfo);
+        releasePermit(port);
+    }
+
+    /**
+     * Closes a borrowed socket after a failure, it is not reused. All idle sockets of the port are closed as well,
+     * they most likely have been closed by the gateway, too.
+     */
+    public void invalidateSocket(int port, SocketInfo socketInfo) {
+        closeSilent(socketInfo.getSocket());
+        removeSocket(port);
+        releasePermit(port);
+    }
+
+    /**
+     * Closes all idle sockets for the given port.
      */
     public void removeSocket(int port) {
-        SocketInfo socketInfo = socketsPerPort.get(port);
-        if (socketInfo != null) {
-            logger.trace("Closing Socket on port {}", port);
-            socketsPerPort.remove(port);
-            closeSilent(socketInfo.getSocket());
+        ConcurrentLinkedDeque<SocketInfo> idleSockets = idleSocketsPerPort.get(port);
+        if (idleSockets != null) {
+            SocketInfo socketInfo;
+            while ((socketInfo = idleSockets.pollFirst()) != null) {
+                logger.trace("Closing Socket on port {}", port);
+                closeSilent(socketInfo.getSocket());
+            }
         }
     }
 
     /**
-     * Removes all cached sockets.
+     * Closes all idle sockets.
      */
     public void flush() {
-        synchronized (SocketHandler.class) {
-            Integer[] portsToRemove = socketsPerPort.keySet().toArray(new Integer[0]);
-            for (Integer key : portsToRemove) {
-                removeSocket(key);
-            }
+        for (Integer port : idleSocketsPerPort.keySet()) {
+            removeSocket(port);
         }
     }
 
+    private ConcurrentLinkedDeque<SocketInfo> getIdleSockets(int port) {
+        return idleSocketsPerPort.computeIfAbsent(port, key -> new ConcurrentLinkedDeque<>());
+    }
+
+    private void releasePermit(int port) {
+        Semaphore permits = permitsPerPort.get(port);
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    private boolean isMaxAliveReached(SocketInfo socketInfo) {
+        return System.currentTimeMillis() - socketInfo.getCreated() > (config.getSocketMaxAlive() * 1000L);
+    }
+
     /**
      * Silently closes the given socket.
      */
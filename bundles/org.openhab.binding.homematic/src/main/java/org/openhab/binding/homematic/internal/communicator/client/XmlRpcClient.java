@@ -14,6 +14,9 @@ package org.openhab.binding.homematic.internal.communicator.client;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jetty.client.HttpClient;
@@ -32,10 +35,12 @@ import org.slf4j.LoggerFactory;
  * Client implementation for sending messages via XML-RPC to the Homematic server.
  *
  * @author Gerhard Riegler - Initial contribution
+ * @author agent - Cache metadata, load devices in parallel and record RPC latencies
  */
 public class XmlRpcClient extends RpcClient<String> {
     private final Logger logger = LoggerFactory.getLogger(XmlRpcClient.class);
     private HttpClient httpClient;
+    private final Map<Integer, Semaphore> requestPermits = new ConcurrentHashMap<>();
 
     public XmlRpcClient(HomematicConfig config, HttpClient httpClient) throws IOException {
         super(config);
@@ -44,6 +49,7 @@ public class XmlRpcClient extends RpcClient<String> {
 
     @Override
     public void dispose() {
+        super.dispose();
     }
 
     @Override
@@ -59,18 +65,37 @@ public class XmlRpcClient extends RpcClient<String> {
         return "http://" + config.getCallbackHost() + ":" + config.getXmlCallbackPort();
     }
 
+    /**
+     * Sends the message. At most {@link HomematicConfig#getMaxParallelRequests()} messages are sent to the same port
+     * at the same time, further messages wait for one of them to complete. The connections are kept alive and reused
+     * by the connection pool of the HttpClient.
+     */
     @Override
-    protected synchronized Object[] sendMessage(int port, RpcRequest<String> request) throws IOException {
+    protected Object[] sendMessage(int port, RpcRequest<String> request) throws IOException {
         if (logger.isTraceEnabled()) {
             logger.trace("Client XmlRpcRequest (port {}):\n{}", port, request);
         }
-        return sendMessage(port, request, 0);
+        Semaphore permits = requestPermits.computeIfAbsent(port,
+                key -> new Semaphore(Math.max(1, config.getMaxParallelRequests()), true));
+        try {
+            permits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to send " + request.getMethodName(), ex);
+        }
+        long start = System.nanoTime();
+        try {
+            return sendMessage(port, request, 0);
+        } finally {
+            permits.release();
+            latencyStatistics.record(request.getMethodName(), System.nanoTime() - start);
+        }
     }
 
     /**
      * Sends the message, retries if there was an error.
      */
-    private synchronized Object[] sendMessage(int port, RpcRequest<String> request, int rpcRetryCounter)
+    private Object[] sendMessage(int port, RpcRequest<String> request, int rpcRetryCounter)
             throws IOException {
         try {
             BytesContentProvider content = new BytesContentProvider(
@@ -91,7 +116,7 @@ public class XmlRpcClient extends RpcClient<String> {
             Object[] data = new XmlRpcResponse(new ByteArrayInputStream(response.getContent()),
                     config.getEncoding()).getResponseData();
             return new RpcResponseParser(request).parse(data);
-        } catch (UnknownRpcFailureException | UnknownParameterSetException ex) {
+        } catch (UnknownRpcFailureException | UnknownParameterSetException | UnknownMethodException ex) {
             throw ex;
         } catch (Exception ex) {
             if ("init".equals(request.getMethodName()) || rpcRetryCounter >= MAX_RPC_RETRY) {
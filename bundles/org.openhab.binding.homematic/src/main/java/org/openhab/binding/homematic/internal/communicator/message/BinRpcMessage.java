@@ -19,17 +19,16 @@ import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
-import org.apache.commons.lang.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,6 +36,7 @@ import org.slf4j.LoggerFactory;
  * Handles BIN-RPC request and response messages to communicate with a Homematic gateway.
  *
  * @author Gerhard Riegler - Initial contribution
+ * @author agent - Added ByteBuffer codec
  */
 public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     private final Logger logger = LoggerFactory.getLogger(BinRpcMessage.class);
@@ -46,9 +46,10 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
         RESPONSE
     }
 
+    private static final int HEADER_LENGTH = 8;
+
     private Object[] messageData;
-    private byte binRpcData[];
-    private int offset;
+    private ByteBuffer binRpcData;
 
     private String methodName;
     private TYPE type;
@@ -74,87 +75,105 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
      */
     public BinRpcMessage(InputStream is, boolean methodHeader, String encoding) throws IOException {
         this.encoding = encoding;
-        byte sig[] = new byte[8];
-        int length = is.read(sig, 0, 4);
+        byte header[] = new byte[HEADER_LENGTH];
+        int length = read(is, header, 0, 4);
         if (length != 4) {
             throw new EOFException("Only " + length + " bytes received reading signature");
         }
-        validateBinXSignature(sig);
-        length = is.read(sig, 4, 4);
+        validateBinXSignature(ByteBuffer.wrap(header));
+        length = read(is, header, 4, 4);
         if (length != 4) {
             throw new EOFException("Only " + length + " bytes received reading message length");
         }
-        int datasize = (new BigInteger(ArrayUtils.subarray(sig, 4, 8))).intValue();
-        byte payload[] = new byte[datasize];
-        int offset = 0;
-        int currentLength;
-
-        while (offset < datasize && (currentLength = is.read(payload, offset, datasize - offset)) != -1) {
-            offset += currentLength;
+        int datasize = ByteBuffer.wrap(header).getInt(4);
+        if (datasize < 0) {
+            throw new IOException("Invalid message length " + datasize);
         }
+        // the payload is read right behind the header, so the message is decoded without copying it again
+        byte message[] = Arrays.copyOf(header, HEADER_LENGTH + datasize);
+        int offset = read(is, message, HEADER_LENGTH, datasize);
         if (offset != datasize) {
-            throw new EOFException("Only " + offset + " bytes received while reading message payload, expected "
-                    + datasize + " bytes");
-        }
-        byte[] message = ArrayUtils.addAll(sig, payload);
-        decodeMessage(message, methodHeader);
-    }
-
-    private void validateBinXSignature(byte[] sig) throws UnsupportedEncodingException {
-        if (sig[0] != 'B' || sig[1] != 'i' || sig[2] != 'n') {
-            throw new UnsupportedEncodingException("No BinX signature");
+            throw new EOFException("Only " + Math.max(offset, 0)
+                    + " bytes received while reading message payload, expected " + datasize + " bytes");
         }
+        decodeMessage(ByteBuffer.wrap(message), methodHeader);
     }
 
     /**
      * Decodes a BIN-RPC message from the given byte array.
      */
     public BinRpcMessage(byte[] message, boolean methodHeader, String encoding) throws IOException, ParseException {
+        this(ByteBuffer.wrap(message), methodHeader, encoding);
+    }
+
+    /**
+     * Decodes a BIN-RPC message from the remaining bytes of the given buffer, without copying them. The position of the
+     * buffer is not changed and the buffer is not referenced after decoding, so it can be reused for the next message.
+     */
+    public BinRpcMessage(ByteBuffer message, boolean methodHeader, String encoding) throws IOException {
         this.encoding = encoding;
-        if (message.length < 8) {
-            throw new EOFException("Only " + message.length + " bytes received");
+        if (message.remaining() < HEADER_LENGTH) {
+            throw new EOFException("Only " + message.remaining() + " bytes received");
         }
-        validateBinXSignature(message);
-        decodeMessage(message, methodHeader);
+        ByteBuffer data = message.slice();
+        validateBinXSignature(data);
+        decodeMessage(data, methodHeader);
     }
 
-    private void decodeMessage(byte[] message, boolean methodHeader) throws IOException {
-        binRpcData = message;
+    /**
+     * Reads up to length bytes from the stream, returns the number of bytes read or -1 if the stream ended before
+     * reading anything.
+     */
+    private static int read(InputStream is, byte[] buffer, int offset, int length) throws IOException {
+        int total = 0;
+        int currentLength;
+        while (total < length && (currentLength = is.read(buffer, offset + total, length - total)) != -1) {
+            total += currentLength;
+        }
+        return total == 0 && length > 0 ? -1 : total;
+    }
 
-        offset = 8;
+    private void validateBinXSignature(ByteBuffer data) throws UnsupportedEncodingException {
+        if (data.get(0) != 'B' || data.get(1) != 'i' || data.get(2) != 'n') {
+            throw new UnsupportedEncodingException("No BinX signature");
+        }
+    }
 
+    private void decodeMessage(ByteBuffer data, boolean methodHeader) throws IOException {
+        data.position(HEADER_LENGTH);
         if (methodHeader) {
-            methodName = readString();
-            readInt();
+            methodName = readString(data);
+            readInt(data);
         }
-        generateResponseData();
+        messageData = readRpcValues(data);
     }
 
     public void setType(TYPE type) {
-        binRpcData[3] = type == TYPE.RESPONSE ? (byte) 1 : (byte) 0;
+        binRpcData.put(3, type == TYPE.RESPONSE ? (byte) 1 : (byte) 0);
     }
 
-    private void generateResponseData() throws IOException {
-        offset = 8 + (methodName != null ? methodName.length() + 8 : 0);
+    private Object[] readRpcValues(ByteBuffer data) throws IOException {
         List<Object> values = new ArrayList<>();
-        while (offset < binRpcData.length) {
-            values.add(readRpcValue());
+        try {
+            while (data.hasRemaining()) {
+                values.add(readRpcValue(data));
+            }
+        } catch (RuntimeException ex) {
+            throw new EOFException("Truncated BIN-RPC message: " + ex.getMessage());
         }
-        messageData = values.toArray();
-        values.clear();
+        return values.toArray();
     }
 
     private void createHeader() {
-        binRpcData = new byte[256];
+        binRpcData = ByteBuffer.allocate(256);
         addString("Bin ");
         setType(type);
         addInt(0); // placeholder content length
         if (methodName != null) {
-            addInt(methodName.length());
-            addString(methodName);
+            addString(methodName, true);
             addInt(0); // placeholder arguments
         }
-        setInt(4, offset - 8);
+        setInt(4, binRpcData.position() - HEADER_LENGTH);
     }
 
     /**
@@ -163,10 +182,10 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     @Override
     public void addArg(Object argument) {
         addObject(argument);
-        setInt(4, offset - 8);
+        setInt(4, binRpcData.position() - HEADER_LENGTH);
 
         if (methodName != null) {
-            setInt(12 + methodName.length(), ++args);
+            setInt(binRpcData.getInt(HEADER_LENGTH) + 12, ++args);
         }
     }
 
@@ -181,14 +200,7 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
 
     @Override
     public byte[] createMessage() {
-        trimBinRpcData();
-        return binRpcData;
-    }
-
-    private void trimBinRpcData() {
-        byte[] trimmed = new byte[offset];
-        System.arraycopy(binRpcData, 0, trimmed, 0, offset);
-        binRpcData = trimmed;
+        return Arrays.copyOf(binRpcData.array(), binRpcData.position());
     }
 
     @Override
@@ -197,82 +209,97 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     }
 
     // read rpc values
-    private int readInt() {
-        byte bi[] = new byte[4];
-        System.arraycopy(binRpcData, offset, bi, 0, 4);
-        offset += 4;
-        return (new BigInteger(bi)).intValue();
+    private int readInt(ByteBuffer data) {
+        return data.getInt();
     }
 
-    private String readString() throws UnsupportedEncodingException {
-        int len = readInt();
-        offset += len;
-        return new String(binRpcData, offset - len, len, encoding);
+    private String readString(ByteBuffer data) throws UnsupportedEncodingException {
+        int len = readInt(data);
+        if (len < 0 || len > data.remaining()) {
+            throw new IndexOutOfBoundsException("string length " + len + " exceeds message");
+        }
+        String string;
+        if (data.hasArray()) {
+            string = new String(data.array(), data.arrayOffset() + data.position(), len, encoding);
+            data.position(data.position() + len);
+        } else {
+            byte bytes[] = new byte[len];
+            data.get(bytes);
+            string = new String(bytes, encoding);
+        }
+        return string;
     }
 
-    private Object readRpcValue() throws IOException {
-        int type = readInt();
+    private Object readRpcValue(ByteBuffer data) throws IOException {
+        int type = readInt(data);
         switch (type) {
             case 1:
-                return new Integer(readInt());
+                return Integer.valueOf(readInt(data));
             case 2:
-                return binRpcData[offset++] != 0 ? Boolean.TRUE : Boolean.FALSE;
+                return data.get() != 0 ? Boolean.TRUE : Boolean.FALSE;
             case 3:
-                return readString();
+                return readString(data);
             case 4:
-                int mantissa = readInt();
-                int exponent = readInt();
+                int mantissa = readInt(data);
+                int exponent = readInt(data);
                 BigDecimal bd = new BigDecimal((double) mantissa / (double) (1 << 30) * Math.pow(2, exponent));
                 return bd.setScale(6, RoundingMode.HALF_DOWN).doubleValue();
             case 5:
-                return new Date(readInt() * 1000);
+                return new Date(readInt(data) * 1000);
             case 0x100:
                 // Array
-                int numElements = readInt();
-                Collection<Object> array = new ArrayList<>();
-                while (numElements-- > 0) {
-                    array.add(readRpcValue());
+                int numElements = readInt(data);
+                // every element takes at least four bytes
+                if (numElements < 0 || numElements > data.remaining() / 4) {
+                    throw new IOException("Invalid array length " + numElements);
+                }
+                Object[] array = new Object[numElements];
+                for (int i = 0; i < numElements; i++) {
+                    array[i] = readRpcValue(data);
                 }
-                return array.toArray();
+                return array;
             case 0x101:
                 // Struct
-                numElements = readInt();
+                numElements = readInt(data);
                 Map<String, Object> struct = new TreeMap<>();
                 while (numElements-- > 0) {
-                    String name = readString();
-                    struct.put(name, readRpcValue());
+                    String name = readString(data);
+                    struct.put(name, readRpcValue(data));
                 }
                 return struct;
 
             default:
-                for (int i = 0; i < binRpcData.length; i++) {
-                    logger.info("{} {}", Integer.toHexString(binRpcData[i]), (char) binRpcData[i]);
+                if (logger.isInfoEnabled()) {
+                    for (int i = 0; i < data.limit(); i++) {
+                        logger.info("{} {}", Integer.toHexString(data.get(i)), (char) data.get(i));
+                    }
                 }
                 throw new IOException("Unknown data type " + type);
         }
     }
 
     private void setInt(int position, int value) {
-        int temp = offset;
-        offset = position;
-        addInt(value);
-        offset = temp;
+        binRpcData.putInt(position, value);
     }
 
-    private void addByte(byte b) {
-        if (offset == binRpcData.length) {
-            byte newdata[] = new byte[binRpcData.length * 2];
-            System.arraycopy(binRpcData, 0, newdata, 0, binRpcData.length);
+    private void ensureCapacity(int length) {
+        if (binRpcData.remaining() < length) {
+            int capacity = Math.max(binRpcData.capacity() * 2, binRpcData.position() + length);
+            ByteBuffer newdata = ByteBuffer.allocate(capacity);
+            binRpcData.flip();
+            newdata.put(binRpcData);
             binRpcData = newdata;
         }
-        binRpcData[offset++] = b;
+    }
+
+    private void addByte(byte b) {
+        ensureCapacity(1);
+        binRpcData.put(b);
     }
 
     private void addInt(int value) {
-        addByte((byte) (value >> 24));
-        addByte((byte) (value >> 16));
-        addByte((byte) (value >> 8));
-        addByte((byte) (value));
+        ensureCapacity(4);
+        binRpcData.putInt(value);
     }
 
     private void addDouble(double value) {
@@ -298,15 +325,24 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     }
 
     private void addString(String string) {
+        addString(string, false);
+    }
+
+    /**
+     * Adds the encoded string, optionally prefixed with its length in bytes.
+     */
+    private void addString(String string, boolean withLength) {
         byte sd[];
         try {
             sd = string.getBytes(encoding);
         } catch (UnsupportedEncodingException use) {
             sd = string.getBytes();
         }
-        for (byte ch : sd) {
-            addByte(ch);
+        ensureCapacity(sd.length + 4);
+        if (withLength) {
+            binRpcData.putInt(sd.length);
         }
+        binRpcData.put(sd);
     }
 
     private void addList(Collection<?> collection) {
@@ -318,9 +354,7 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     private void addObject(Object object) {
         if (object.getClass() == String.class) {
             addInt(3);
-            String string = (String) object;
-            addInt(string.length());
-            addString(string);
+            addString((String) object, true);
         } else if (object.getClass() == Boolean.class) {
             addInt(2);
             addByte(((Boolean) object).booleanValue() ? (byte) 1 : (byte) 0);
@@ -355,9 +389,8 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
             for (Map.Entry<?, ?> entry : map.entrySet()) {
                 String key = (String) entry.getKey();
                 if (key != null) {
-                    addInt(key.length());
-                    addString(key);
-                    addList(Collections.singleton(entry.getValue()));
+                    addString(key, true);
+                    addObject(entry.getValue());
                 }
             }
         }
@@ -370,8 +403,11 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     @Override
     public String toString() {
         try {
-            trimBinRpcData();
-            generateResponseData();
+            if (binRpcData != null) {
+                ByteBuffer data = ByteBuffer.wrap(binRpcData.array(), 0, binRpcData.position());
+                data.position(HEADER_LENGTH + (methodName != null ? data.getInt(HEADER_LENGTH) + 8 : 0));
+                messageData = readRpcValues(data);
+            }
             return RpcUtils.dumpRpcMessage(methodName, messageData);
         } catch (Exception e) {
             throw new RuntimeException(e.getMessage(), e);
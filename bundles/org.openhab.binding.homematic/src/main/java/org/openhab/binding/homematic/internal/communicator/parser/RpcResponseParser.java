@@ -16,6 +16,7 @@ import java.io.IOException;
 import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
+import org.openhab.binding.homematic.internal.communicator.client.UnknownMethodException;
 import org.openhab.binding.homematic.internal.communicator.client.UnknownParameterSetException;
 import org.openhab.binding.homematic.internal.communicator.client.UnknownRpcFailureException;
 import org.openhab.binding.homematic.internal.communicator.message.RpcRequest;
@@ -24,8 +25,12 @@ import org.openhab.binding.homematic.internal.communicator.message.RpcRequest;
  * Parses the response from a RPC call, throws exception if fault response.
  *
  * @author Gerhard Riegler - Initial contribution
+ * @author agent - Throw an UnknownMethodException if the method is not known
  */
 public class RpcResponseParser extends CommonRpcParser<Object[], Object[]> {
+    /** Fault code of XML-RPC servers for a method which is not known */
+    private static final int FAULT_METHOD_NOT_FOUND = -32601;
+
     private RpcRequest<?> request;
 
     public RpcResponseParser(RpcRequest<?> request) {
@@ -47,6 +52,9 @@ public class RpcResponseParser extends CommonRpcParser<Object[], Object[]> {
                         throw new UnknownRpcFailureException(faultMessage);
                     } else if (faultCode.intValue() == -3 && StringUtils.equals("Unknown paramset", faultString)) {
                         throw new UnknownParameterSetException(faultMessage);
+                    } else if (faultCode.intValue() == FAULT_METHOD_NOT_FOUND
+                            || StringUtils.contains(StringUtils.lowerCase(faultString), "unknown method")) {
+                        throw new UnknownMethodException(faultMessage);
                     }
                     throw new IOException(faultMessage);
                 }
@@ -14,28 +14,52 @@ package org.openhab.binding.homematic.internal.communicator.server;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage;
 import org.openhab.binding.homematic.internal.communicator.message.RpcRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Waits for a message from the Homematic gateway and starts the RpcCallbackHandler to handle the message.
+ * Waits for messages from the Homematic gateway and handles them with the RpcResponseHandler.
+ *
+ * All connections are served by a single selector thread, which reads and decodes the messages. The method calls are
+ * handled in a thread pool, one at a time per connection, and the connections are kept open for further messages
+ * until the gateway closes them or the socketMaxAlive time is reached.
  *
  * @author Gerhard Riegler - Initial contribution
+ * @author agent - Serve callbacks with a selector
  */
 public class BinRpcNetworkService implements Runnable {
+    private final Logger logger = LoggerFactory.getLogger(BinRpcNetworkService.class);
+
     private static final byte BIN_EMPTY_STRING[] = { 'B', 'i', 'n', 1, 0, 0, 0, 8, 0, 0, 0, 3, 0, 0, 0, 0 };
     private static final byte BIN_EMPTY_ARRAY[] = { 'B', 'i', 'n', 1, 0, 0, 0, 8, 0, 0, 1, 0, 0, 0, 0, 0 };
     private static final byte BIN_EMPTY_EVENT_LIST[] = { 'B', 'i', 'n', 1, 0, 0, 0, 21, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0,
             3, 0, 0, 0, 5, 'e', 'v', 'e', 'n', 't' };
 
     private static final String RPC_POOL_NAME = "homematicRpc";
-    private ServerSocket serverSocket;
-    private boolean accept = true;
+    private static final int HEADER_LENGTH = 8;
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean accept = true;
     private HomematicConfig config;
     private RpcResponseHandler<byte[]> rpcResponseHandler;
 
@@ -45,9 +69,17 @@ public class BinRpcNetworkService implements Runnable {
     public BinRpcNetworkService(RpcEventListener listener, HomematicConfig config) throws IOException {
         this.config = config;
 
-        serverSocket = new ServerSocket();
-        serverSocket.setReuseAddress(true);
-        serverSocket.bind(new InetSocketAddress(config.getBindAddress(), config.getBinCallbackPort()));
+        selector = Selector.open();
+        try {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.socket().setReuseAddress(true);
+            serverChannel.bind(new InetSocketAddress(config.getBindAddress(), config.getBinCallbackPort()));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException ex) {
+            selector.close();
+            throw ex;
+        }
 
         this.rpcResponseHandler = new RpcResponseHandler<byte[]>(listener) {
 
@@ -73,19 +105,64 @@ public class BinRpcNetworkService implements Runnable {
         };
     }
 
+    /**
+     * Returns the port the service is listening on.
+     */
+    public int getLocalPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
     /**
      * Listening for events and starts the callbackHandler if a event received.
      */
     @Override
     public void run() {
-        while (accept) {
-            try {
-                Socket cs = serverSocket.accept();
-                BinRpcResponseHandler rpcHandler = new BinRpcResponseHandler(cs, rpcResponseHandler, config);
-                ThreadPoolManager.getPool(RPC_POOL_NAME).execute(rpcHandler);
-            } catch (IOException ex) {
-                // ignore
+        try {
+            while (accept) {
+                selector.select();
+                Runnable task;
+                while ((task = selectorTasks.poll()) != null) {
+                    task.run();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        acceptConnection();
+                    } else {
+                        Connection connection = (Connection) key.attachment();
+                        if (key.isReadable()) {
+                            connection.read();
+                        } else if (key.isWritable()) {
+                            connection.write();
+                        }
+                    }
+                }
             }
+        } catch (IOException | ClosedSelectorException ex) {
+            if (accept) {
+                logger.warn("BIN-RPC server stopped unexpectedly: {}", ex.getMessage());
+            }
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void acceptConnection() {
+        try {
+            SocketChannel channel = serverChannel.accept();
+            if (channel != null) {
+                channel.configureBlocking(false);
+                Connection connection = new Connection(channel);
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                connections.add(connection);
+            }
+        } catch (IOException ex) {
+            // ignore
         }
     }
 
@@ -95,10 +172,160 @@ public class BinRpcNetworkService implements Runnable {
     public void shutdown() {
         accept = false;
         try {
-            serverSocket.close();
+            // closing the selector deregisters the channels, so they are closed immediately
+            selector.close();
+        } catch (IOException ioe) {
+            // ignore
+        }
+        try {
+            serverChannel.close();
         } catch (IOException ioe) {
             // ignore
         }
+        for (Connection connection : connections) {
+            connection.close();
+        }
     }
 
+    /**
+     * A connection from the Homematic gateway. The gateway waits for the result of each method call before sending the
+     * next one, so only one call per connection is handled at a time.
+     */
+    private class Connection {
+        private final SocketChannel channel;
+        private final long created = System.currentTimeMillis();
+        private SelectionKey key;
+        private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        private ByteBuffer writeBuffer;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Reads the available bytes and handles the message, once it has been received completely.
+         */
+        private void read() {
+            try {
+                if (channel.read(readBuffer) < 0) {
+                    close();
+                    return;
+                }
+                handleReceivedMessage();
+            } catch (IOException ex) {
+                logger.debug("Error reading BIN-RPC message: {}", ex.getMessage());
+                close();
+            }
+        }
+
+        /**
+         * Decodes a completely received message in the read buffer and starts handling the method call.
+         */
+        private void handleReceivedMessage() throws IOException {
+            readBuffer.flip();
+            try {
+                if (readBuffer.remaining() < HEADER_LENGTH) {
+                    return;
+                }
+                int length = readBuffer.getInt(readBuffer.position() + 4);
+                if (length < 0) {
+                    throw new IOException("Invalid message length " + length);
+                }
+                int messageLength = HEADER_LENGTH + length;
+                if (readBuffer.remaining() < messageLength) {
+                    if (readBuffer.capacity() < messageLength) {
+                        readBuffer = ByteBuffer.allocate(messageLength).put(readBuffer);
+                        readBuffer.flip();
+                    }
+                    return;
+                }
+
+                ByteBuffer messageBuffer = readBuffer.slice();
+                messageBuffer.limit(messageLength);
+                BinRpcMessage message = new BinRpcMessage(messageBuffer, true, config.getEncoding());
+                readBuffer.position(readBuffer.position() + messageLength);
+                if (readBuffer.capacity() > INITIAL_BUFFER_SIZE && readBuffer.remaining() <= INITIAL_BUFFER_SIZE) {
+                    // release the buffer of a large message
+                    readBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE).put(readBuffer);
+                    readBuffer.flip();
+                }
+
+                key.interestOps(0);
+                ThreadPoolManager.getPool(RPC_POOL_NAME).execute(() -> handleMethodCall(message));
+            } finally {
+                readBuffer.compact();
+            }
+        }
+
+        /**
+         * Handles the method call and passes the result to the selector thread for sending.
+         */
+        private void handleMethodCall(BinRpcMessage message) {
+            try {
+                logger.trace("Event BinRpcMessage: {}", message);
+                byte[] returnValue = rpcResponseHandler.handleMethodCall(message.getMethodName(),
+                        message.getResponseData());
+                selectorTasks.add(() -> sendResult(returnValue));
+                selector.wakeup();
+            } catch (Exception e) {
+                logger.warn("{}", e.getMessage(), e);
+                close();
+            }
+        }
+
+        private void sendResult(byte[] returnValue) {
+            if (!key.isValid()) {
+                // closed in the meantime
+                return;
+            }
+            if (returnValue != null) {
+                writeBuffer = ByteBuffer.wrap(returnValue);
+                write();
+            } else {
+                resumeReading();
+            }
+        }
+
+        private void write() {
+            try {
+                channel.write(writeBuffer);
+                if (writeBuffer.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_WRITE);
+                } else {
+                    writeBuffer = null;
+                    resumeReading();
+                }
+            } catch (IOException ex) {
+                logger.debug("Error writing BIN-RPC result: {}", ex.getMessage());
+                close();
+            }
+        }
+
+        /**
+         * Waits for the next message, unless the connection is open for longer than socketMaxAlive.
+         */
+        private void resumeReading() {
+            if (System.currentTimeMillis() - created > (config.getSocketMaxAlive() * 1000)) {
+                close();
+                return;
+            }
+            try {
+                key.interestOps(SelectionKey.OP_READ);
+                // the next message may have been received already
+                handleReceivedMessage();
+            } catch (IOException ex) {
+                logger.debug("Error reading BIN-RPC message: {}", ex.getMessage());
+                close();
+            }
+        }
+
+        private void close() {
+            connections.remove(this);
+            try {
+                channel.close();
+            } catch (IOException ioe) {
+                // ignore
+            }
+        }
+    }
 }
@@ -13,24 +13,32 @@
 package org.openhab.binding.homematic.internal.misc;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.openhab.binding.homematic.internal.model.HmDatapointInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Executes a callback method either immediately or after a given delay for a datapoint.
+ * Executes a callback method either immediately or after a given delay for a datapoint. A delayed callback replaces
+ * the pending callback of the same datapoint.
  *
  * @author Gerhard Riegler - Initial contribution
+ * @author agent - Run the delayed callbacks on a scheduler instead of a timer per event
  */
 public class DelayedExecuter {
     private final Logger logger = LoggerFactory.getLogger(DelayedExecuter.class);
 
-    private Map<HmDatapointInfo, Timer> delayedEvents = new HashMap<HmDatapointInfo, Timer>();
+    private final Map<HmDatapointInfo, DelayedEvent> delayedEvents = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    public DelayedExecuter(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
 
     /**
      * Executes a callback method either immediately or after a given delay.
@@ -38,29 +46,14 @@ public class DelayedExecuter {
     public void start(final HmDatapointInfo dpInfo, final double delay, final DelayedExecuterCallback callback)
             throws IOException, HomematicClientException {
         if (delay > 0.0) {
-            synchronized (DelayedExecuter.class) {
-                logger.debug("Delaying event for {} seconds: '{}'", delay, dpInfo);
+            logger.debug("Delaying event for {} seconds: '{}'", delay, dpInfo);
 
-                Timer timer = delayedEvents.get(dpInfo);
-                if (timer != null) {
-                    timer.cancel();
-                }
-
-                timer = new Timer();
-                delayedEvents.put(dpInfo, timer);
-                timer.schedule(new TimerTask() {
-                    @Override
-                    public void run() {
-                        logger.debug("Executing delayed event for '{}'", dpInfo);
-                        delayedEvents.remove(dpInfo);
-                        try {
-                            callback.execute();
-                        } catch (Exception ex) {
-                            logger.error("{}", ex.getMessage(), ex);
-                        }
-                    }
-                }, (long) (delay * 1000));
+            DelayedEvent event = new DelayedEvent(dpInfo, callback);
+            DelayedEvent previousEvent = delayedEvents.put(dpInfo, event);
+            if (previousEvent != null) {
+                previousEvent.cancel();
             }
+            event.future = scheduler.schedule(event, (long) (delay * 1000), TimeUnit.MILLISECONDS);
         } else {
             callback.execute();
         }
@@ -70,10 +63,43 @@ public class DelayedExecuter {
      * Stops all delayed events.
      */
     public void stop() {
-        for (Timer timer : delayedEvents.values()) {
-            timer.cancel();
+        for (DelayedEvent event : delayedEvents.values()) {
+            delayedEvents.remove(event.dpInfo, event);
+            event.cancel();
+        }
+    }
+
+    /**
+     * A pending callback, it is only executed if it has not been replaced or stopped in the meantime.
+     */
+    private class DelayedEvent implements Runnable {
+        private final HmDatapointInfo dpInfo;
+        private final DelayedExecuterCallback callback;
+        private volatile ScheduledFuture<?> future;
+
+        private DelayedEvent(HmDatapointInfo dpInfo, DelayedExecuterCallback callback) {
+            this.dpInfo = dpInfo;
+            this.callback = callback;
+        }
+
+        @Override
+        public void run() {
+            if (delayedEvents.remove(dpInfo, this)) {
+                logger.debug("Executing delayed event for '{}'", dpInfo);
+                try {
+                    callback.execute();
+                } catch (Exception ex) {
+                    logger.error("{}", ex.getMessage(), ex);
+                }
+            }
+        }
+
+        private void cancel() {
+            ScheduledFuture<?> scheduledFuture = future;
+            if (scheduledFuture != null) {
+                scheduledFuture.cancel(false);
+            }
         }
-        delayedEvents.clear();
     }
 
     /**
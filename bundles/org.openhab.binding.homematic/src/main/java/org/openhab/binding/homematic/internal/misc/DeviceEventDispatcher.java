@@ -0,0 +1,220 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.misc;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Handles the events of a Homematic gateway asynchronously, so that the RPC server threads return to the gateway
+ * immediately. The events of each device are queued in the order they were received and handled one after the other,
+ * the events of different devices are handled in parallel. If the queue of a device is full, the oldest event of a
+ * datapoint which has a newer event queued is dropped, so that the latest value of each datapoint wins. The only queued
+ * event of a datapoint and events of the device itself are never dropped, the queue grows beyond its capacity
+ * instead. Queueing an event does not block.
+ *
+ * @author agent - Initial contribution
+ */
+public class DeviceEventDispatcher {
+    private final Logger logger = LoggerFactory.getLogger(DeviceEventDispatcher.class);
+
+    // the number of events handled in a row before the thread is handed over to the other devices
+    private static final int MAX_EVENTS_PER_RUN = 16;
+
+    private final Map<String, DeviceQueue> queues = new ConcurrentHashMap<>();
+    private final Executor executor;
+    private final int capacity;
+    private volatile boolean stopped;
+
+    public DeviceEventDispatcher(Executor executor, int capacity) {
+        this.executor = executor;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Queues an event of the device itself, it is handled after all events of the device which have been queued before
+     * and it is never dropped.
+     *
+     * @return false, if the event has been rejected because the dispatcher is stopped
+     */
+    public boolean dispatch(String address, Runnable event) {
+        return dispatch(address, null, event);
+    }
+
+    /**
+     * Queues the event of a datapoint of the device, it is handled after all events of the device which have been
+     * queued before. If the queue is full, it may be dropped once a newer event of the same datapoint is queued.
+     *
+     * @param datapoint identifies the datapoint, events with equal datapoints supersede each other. If null, the event
+     *            is never dropped.
+     * @return false, if the event has been rejected because the dispatcher is stopped
+     */
+    public boolean dispatch(String address, Object datapoint, Runnable event) {
+        if (stopped) {
+            return false;
+        }
+        queues.computeIfAbsent(address, DeviceQueue::new).offer(datapoint, event);
+        return true;
+    }
+
+    /**
+     * Returns the number of queued events of the device.
+     */
+    public int getQueuedEvents(String address) {
+        DeviceQueue queue = queues.get(address);
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * Accepts events again after the dispatcher has been stopped.
+     */
+    public void start() {
+        stopped = false;
+    }
+
+    /**
+     * Discards all queued events and rejects further events, events which are currently handled are completed.
+     */
+    public void stop() {
+        stopped = true;
+        for (DeviceQueue queue : queues.values()) {
+            queue.clear();
+        }
+        queues.clear();
+    }
+
+    /**
+     * A queued event and the datapoint it belongs to, if any.
+     */
+    private static class Event {
+        private final Object datapoint;
+        private final Runnable handler;
+
+        private Event(Object datapoint, Runnable handler) {
+            this.datapoint = datapoint;
+            this.handler = handler;
+        }
+    }
+
+    /**
+     * The queued events of a device, at most one thread handles them at a time.
+     */
+    private class DeviceQueue implements Runnable {
+        private final String address;
+        // guarded by this
+        private final ArrayDeque<Event> events = new ArrayDeque<>();
+        // the number of queued events of each datapoint, guarded by this
+        private final Map<Object, Integer> pending = new HashMap<>();
+        // guarded by this
+        private boolean scheduled;
+
+        private DeviceQueue(String address) {
+            this.address = address;
+        }
+
+        private void offer(Object datapoint, Runnable handler) {
+            synchronized (this) {
+                if (events.size() >= capacity && dropSuperseded()) {
+                    logger.warn("Event queue of device '{}' is full, dropping a superseded event", address);
+                }
+                events.add(new Event(datapoint, handler));
+                if (datapoint != null) {
+                    pending.merge(datapoint, 1, Integer::sum);
+                }
+            }
+            schedule();
+        }
+
+        /**
+         * Removes the oldest event of a datapoint which has a newer event queued.
+         *
+         * @return false, if there is no such event
+         */
+        private boolean dropSuperseded() {
+            for (Iterator<Event> it = events.iterator(); it.hasNext();) {
+                Event event = it.next();
+                if (event.datapoint != null && pending.get(event.datapoint) > 1) {
+                    it.remove();
+                    pending.merge(event.datapoint, -1, Integer::sum);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private synchronized Event poll() {
+            Event event = events.poll();
+            if (event != null && event.datapoint != null) {
+                pending.computeIfPresent(event.datapoint, (datapoint, count) -> count > 1 ? count - 1 : null);
+            }
+            return event;
+        }
+
+        private synchronized int size() {
+            return events.size();
+        }
+
+        private synchronized void clear() {
+            events.clear();
+            pending.clear();
+        }
+
+        private void schedule() {
+            synchronized (this) {
+                if (scheduled || events.isEmpty()) {
+                    return;
+                }
+                scheduled = true;
+            }
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException ex) {
+                synchronized (this) {
+                    scheduled = false;
+                }
+                logger.warn("Can't handle the events of device '{}': {}", address, ex.getMessage());
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Event event;
+                int handled = 0;
+                while (handled < MAX_EVENTS_PER_RUN && !stopped && (event = poll()) != null) {
+                    handled++;
+                    try {
+                        event.handler.run();
+                    } catch (RuntimeException ex) {
+                        logger.error("Error handling event of device '{}': {}", address, ex.getMessage(), ex);
+                    }
+                }
+            } finally {
+                synchronized (this) {
+                    scheduled = false;
+                }
+            }
+            if (!stopped) {
+                schedule();
+            }
+        }
+    }
+}
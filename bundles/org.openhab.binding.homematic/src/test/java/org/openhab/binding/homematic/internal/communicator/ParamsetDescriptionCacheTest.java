@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openhab.binding.homematic.internal.model.HmChannel;
+import org.openhab.binding.homematic.internal.model.HmDevice;
+import org.openhab.binding.homematic.internal.model.HmInterface;
+import org.openhab.binding.homematic.internal.model.HmParamsetType;
+
+/**
+ * Tests for the persistence of the {@link ParamsetDescriptionCache}.
+ *
+ * @author agent - Initial contribution
+ */
+public class ParamsetDescriptionCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private HmChannel channel;
+
+    @Before
+    public void setup() {
+        file = new File(folder.getRoot(), "homematic" + File.separator + "gateway-paramsets.json");
+        HmDevice device = new HmDevice("NEQ0000001", HmInterface.RF, "HM-LC-Sw1-Pl", "gateway", null, "2.5");
+        channel = new HmChannel("SWITCH", 1);
+        channel.setDevice(device);
+    }
+
+    @Test
+    public void descriptionsKeepTheirValueTypesAcrossRestarts() {
+        Map<String, Object> state = new HashMap<>();
+        state.put("TYPE", "ENUM");
+        state.put("MIN", 0);
+        state.put("MAX", 2);
+        state.put("DEFAULT", 0.5);
+        state.put("OPERATIONS", 7);
+        state.put("VALUE_LIST", new Object[] { "CLOSED", "OPEN", "TILTED" });
+        state.put("UNIT", "");
+        state.put("SPECIAL", null);
+        Map<String, Object> description = new HashMap<>();
+        description.put("STATE", state);
+
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file);
+        cache.put(channel, HmParamsetType.VALUES, description);
+        cache.save();
+
+        Map<String, Object> restored = new ParamsetDescriptionCache(file).get(channel, HmParamsetType.VALUES);
+        assertThat(restored, is(notNullValue()));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> restoredState = (Map<String, Object>) restored.get("STATE");
+        assertThat(restoredState.get("TYPE"), is("ENUM"));
+        assertThat(restoredState.get("MIN"), is(0));
+        assertThat(restoredState.get("MAX"), is(2));
+        assertThat(restoredState.get("DEFAULT"), is(0.5));
+        assertThat(restoredState.get("OPERATIONS"), is(7));
+        assertThat(restoredState.get("VALUE_LIST"), is(new Object[] { "CLOSED", "OPEN", "TILTED" }));
+        assertThat(restoredState.get("UNIT"), is(""));
+        assertThat(restoredState.containsKey("SPECIAL"), is(true));
+        assertThat(restoredState.get("SPECIAL"), is(nullValue()));
+    }
+
+    @Test
+    public void descriptionsOfOtherChannelsAndFirmwaresAreNotReturned() {
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file);
+        cache.put(channel, HmParamsetType.VALUES, new HashMap<>());
+
+        HmChannel otherChannel = new HmChannel("SWITCH", 2);
+        otherChannel.setDevice(channel.getDevice());
+        HmChannel otherFirmware = new HmChannel("SWITCH", 1);
+        otherFirmware.setDevice(new HmDevice("NEQ0000002", HmInterface.RF, "HM-LC-Sw1-Pl", "gateway", null, "2.6"));
+
+        assertThat(cache.get(channel, HmParamsetType.MASTER), is(nullValue()));
+        assertThat(cache.get(otherChannel, HmParamsetType.VALUES), is(nullValue()));
+        assertThat(cache.get(otherFirmware, HmParamsetType.VALUES), is(nullValue()));
+    }
+
+    @Test
+    public void fileWithAnotherFormatVersionIsIgnored() throws IOException {
+        file.getParentFile().mkdirs();
+        String key = "RF:HM-LC-Sw1-Pl:2.5:1:VALUES";
+        Files.write(file.toPath(), ("{\"version\":1,\"descriptions\":{\"" + key + "\":{}}}")
+                .getBytes(StandardCharsets.UTF_8));
+
+        assertThat(new ParamsetDescriptionCache(file).get(channel, HmParamsetType.VALUES), is(nullValue()));
+    }
+
+    @Test
+    public void corruptFileIsIgnored() throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), new byte[] { (byte) 0xac, (byte) 0xed, 0, 5, 'w', 4 });
+
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file);
+        assertThat(cache.get(channel, HmParamsetType.VALUES), is(nullValue()));
+
+        cache.put(channel, HmParamsetType.VALUES, new HashMap<>());
+        cache.save();
+        assertThat(new ParamsetDescriptionCache(file).get(channel, HmParamsetType.VALUES), is(notNullValue()));
+    }
+}
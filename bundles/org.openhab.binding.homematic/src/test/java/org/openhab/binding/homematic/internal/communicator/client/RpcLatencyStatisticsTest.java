@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator.client;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link RpcLatencyStatistics}.
+ *
+ * @author agent - Initial contribution
+ */
+public class RpcLatencyStatisticsTest {
+
+    @Test
+    public void durationsAreRoundedUpToPowersOfTwoMilliseconds() {
+        assertThat(RpcLatencyStatistics.getBucket(0), is(0));
+        assertThat(RpcLatencyStatistics.getBucket(TimeUnit.MICROSECONDS.toNanos(300)), is(0));
+        assertThat(RpcLatencyStatistics.getBucket(TimeUnit.MILLISECONDS.toNanos(1)), is(0));
+        assertThat(RpcLatencyStatistics.getBucket(TimeUnit.MILLISECONDS.toNanos(1) + 1), is(1));
+        assertThat(RpcLatencyStatistics.getBucket(TimeUnit.MILLISECONDS.toNanos(4)), is(2));
+        assertThat(RpcLatencyStatistics.getBucket(TimeUnit.MILLISECONDS.toNanos(5)), is(3));
+        assertThat(RpcLatencyStatistics.getBucket(TimeUnit.HOURS.toNanos(1)), is(17));
+    }
+
+    @Test
+    public void percentilesArePerMethod() {
+        RpcLatencyStatistics statistics = new RpcLatencyStatistics();
+        for (int i = 0; i < 95; i++) {
+            statistics.record("setValue", TimeUnit.MILLISECONDS.toNanos(3));
+        }
+        for (int i = 0; i < 5; i++) {
+            statistics.record("setValue", TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        statistics.record("ping", TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertThat(statistics.getCount("setValue"), is(100L));
+        assertThat(statistics.getPercentileMillis("setValue", 50), is(4L));
+        assertThat(statistics.getPercentileMillis("setValue", 95), is(4L));
+        assertThat(statistics.getPercentileMillis("setValue", 99), is(128L));
+        assertThat(statistics.getCount("ping"), is(1L));
+        assertThat(statistics.getPercentileMillis("ping", 99), is(1L));
+        assertThat(statistics.getCount("getValue"), is(0L));
+        assertThat(statistics.getPercentileMillis("getValue", 50), is(0L));
+        assertThat(statistics.toString(), containsString("setValue[count=100,"));
+    }
+
+    @Test
+    public void clearRemovesAllMethods() {
+        RpcLatencyStatistics statistics = new RpcLatencyStatistics();
+        statistics.record("ping", 1);
+        statistics.clear();
+
+        assertThat(statistics.isEmpty(), is(true));
+        assertThat(statistics.toString(), is(""));
+    }
+}
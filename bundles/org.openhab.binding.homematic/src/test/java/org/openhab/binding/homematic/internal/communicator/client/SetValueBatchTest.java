@@ -0,0 +1,298 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator.client;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.homematic.internal.common.HomematicConfig;
+import org.openhab.binding.homematic.internal.communicator.message.RpcRequest;
+import org.openhab.binding.homematic.internal.communicator.parser.RpcResponseParser;
+import org.openhab.binding.homematic.internal.model.HmChannel;
+import org.openhab.binding.homematic.internal.model.HmDatapoint;
+import org.openhab.binding.homematic.internal.model.HmDevice;
+import org.openhab.binding.homematic.internal.model.HmParamsetType;
+import org.openhab.binding.homematic.internal.model.HmValueType;
+
+/**
+ * Tests the batching of concurrent setValue calls into a system.multicall.
+ *
+ * @author agent - Initial contribution
+ */
+public class SetValueBatchTest {
+    private static final int CALLS = 5;
+
+    private HomematicConfig config;
+    private BatchRpcClient rpcClient;
+
+    @Before
+    public void setup() {
+        config = new HomematicConfig();
+        config.setBatchSetValues(true);
+        rpcClient = new BatchRpcClient(config);
+    }
+
+    @Test
+    public void concurrentSetValuesAreSentInOneMulticall() throws Exception {
+        List<Throwable> failures = setValuesConcurrently();
+
+        assertThat(failures, is(Arrays.asList(new Throwable[CALLS])));
+        assertThat(rpcClient.calls("setValue"), is(1));
+        assertThat(rpcClient.calls("system.multicall"), is(1));
+        assertThat(rpcClient.multicallSize, is(CALLS - 1));
+    }
+
+    @Test
+    public void failedMulticallFailsAllBatchedCallsWithoutSendingThemAgain() throws Exception {
+        rpcClient.multicallException = new IOException("Connection reset");
+        List<Throwable> failures = setValuesConcurrently();
+
+        assertThat(failures.get(0), is(nullValue()));
+        for (Throwable failure : failures.subList(1, CALLS)) {
+            assertThat(failure, is((Throwable) rpcClient.multicallException));
+        }
+        assertThat("the batched calls must not be sent again", rpcClient.calls("setValue"), is(1));
+
+        // multicall is still used for the next batch
+        rpcClient.multicallException = null;
+        assertThat(setValuesConcurrently(), is(Arrays.asList(new Throwable[CALLS])));
+        assertThat(rpcClient.calls("setValue"), is(2));
+        assertThat(rpcClient.calls("system.multicall"), is(2));
+    }
+
+    @Test
+    public void unknownMulticallDisablesMulticall() throws Exception {
+        rpcClient.multicallUnknown = true;
+        List<Throwable> failures = setValuesConcurrently();
+
+        for (Throwable failure : failures.subList(1, CALLS)) {
+            assertThat(failure, is(instanceOf(UnknownMethodException.class)));
+        }
+        assertThat(rpcClient.calls("setValue"), is(1));
+
+        // the next batch is sent one by one
+        assertThat(setValuesConcurrently(), is(Arrays.asList(new Throwable[CALLS])));
+        assertThat(rpcClient.calls("setValue"), is(1 + CALLS));
+        assertThat(rpcClient.calls("system.multicall"), is(1));
+    }
+
+    @Test
+    public void unexpectedErrorCompletesAllBatchedCalls() throws Exception {
+        rpcClient.multicallError = new IllegalStateException("unexpected");
+        List<Throwable> failures = setValuesConcurrently();
+
+        int errors = 0;
+        for (Throwable failure : failures.subList(1, CALLS)) {
+            if (failure == rpcClient.multicallError) {
+                // the thread which sent the batch
+                errors++;
+            } else {
+                assertThat(failure, is(instanceOf(IOException.class)));
+            }
+        }
+        assertThat(errors, is(1));
+    }
+
+    @Test
+    public void failedListMethodsIsNotCached() throws Exception {
+        rpcClient.listMethodsException = new IOException("Connection refused");
+        setValuesConcurrently();
+        assertThat(rpcClient.calls("system.multicall"), is(0));
+
+        rpcClient.listMethodsException = null;
+        setValuesConcurrently();
+        assertThat(rpcClient.calls("system.listMethods"), is(2));
+        assertThat(rpcClient.calls("system.multicall"), is(1));
+    }
+
+    @Test(expected = IOException.class)
+    public void faultOfSetValueIsThrown() throws IOException {
+        rpcClient.failingAddress = "ABC0000003:1";
+        rpcClient.setDatapointValue(createDatapoint(3), 1.0, null);
+    }
+
+    /**
+     * Sets values from several threads. The first call is sent alone and blocks until the other calls are queued, so
+     * that they are sent in one batch.
+     *
+     * @return the failure of each call or null
+     */
+    private List<Throwable> setValuesConcurrently() throws InterruptedException {
+        rpcClient.firstCallStarted = new CountDownLatch(1);
+        rpcClient.releaseFirstCall = new CountDownLatch(1);
+        Throwable[] failures = new Throwable[CALLS];
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < CALLS; i++) {
+            int index = i;
+            HmDatapoint dp = createDatapoint(i);
+            Thread thread = new Thread(() -> {
+                try {
+                    rpcClient.setDatapointValue(dp, 1.0, null);
+                } catch (Throwable t) {
+                    failures[index] = t;
+                }
+            });
+            threads.add(thread);
+            thread.start();
+            if (i == 0) {
+                assertThat(rpcClient.firstCallStarted.await(5, TimeUnit.SECONDS), is(true));
+            }
+        }
+        waitUntilWaiting(threads.subList(1, CALLS));
+        rpcClient.releaseFirstCall.countDown();
+        for (Thread thread : threads) {
+            thread.join(5000);
+            assertThat("every call must be completed", thread.isAlive(), is(false));
+        }
+        return Arrays.asList(failures);
+    }
+
+    private static void waitUntilWaiting(List<Thread> threads) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5000;
+        for (Thread thread : threads) {
+            while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < end) {
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private static HmDatapoint createDatapoint(int index) {
+        HmDevice device = new HmDevice("ABC000000" + index, null, "HM-LC-Dim1-Pl3", "CCU2", "", "1");
+        HmChannel channel = new HmChannel("HM-LC-Dim1-Pl3", 1);
+        channel.setDevice(device);
+        HmDatapoint dp = new HmDatapoint("LEVEL", "", HmValueType.FLOAT, null, false, HmParamsetType.VALUES);
+        dp.setChannel(channel);
+        return dp;
+    }
+
+    /**
+     * Client which supports system.multicall and blocks the first setValue call until it is released.
+     */
+    private static class BatchRpcClient extends RpcClient<String> {
+        private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        private volatile CountDownLatch firstCallStarted = new CountDownLatch(1);
+        private volatile CountDownLatch releaseFirstCall = new CountDownLatch(1);
+        private volatile int multicallSize;
+        private volatile String failingAddress;
+        private volatile IOException listMethodsException;
+        private volatile IOException multicallException;
+        private volatile RuntimeException multicallError;
+        private volatile boolean multicallUnknown;
+
+        private BatchRpcClient(HomematicConfig config) {
+            super(config);
+        }
+
+        private int calls(String methodName) {
+            AtomicInteger count = calls.get(methodName);
+            return count == null ? 0 : count.get();
+        }
+
+        private static Object[] fault(RpcRequest<String> request, int faultCode, String faultString)
+                throws IOException {
+            Map<String, Object> fault = new ConcurrentHashMap<>();
+            fault.put("faultCode", faultCode);
+            fault.put("faultString", faultString);
+            // the real clients parse the response and throw faults
+            return new RpcResponseParser(request).parse(new Object[] { fault });
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Object[] sendMessage(int port, RpcRequest<String> request) throws IOException {
+            calls.computeIfAbsent(request.getMethodName(), key -> new AtomicInteger()).incrementAndGet();
+            List<Object> args = ((MockRequest) request).args;
+            switch (request.getMethodName()) {
+                case "system.listMethods":
+                    if (listMethodsException != null) {
+                        throw listMethodsException;
+                    }
+                    return new Object[] { new Object[] { "setValue", "system.multicall" } };
+                case "system.multicall":
+                    if (multicallException != null) {
+                        throw multicallException;
+                    } else if (multicallError != null) {
+                        throw multicallError;
+                    } else if (multicallUnknown) {
+                        return fault(request, -32601, "Requested method not found.");
+                    }
+                    List<Map<String, Object>> multicalls = (List<Map<String, Object>>) args.get(0);
+                    multicallSize = multicalls.size();
+                    Object[] results = new Object[multicalls.size()];
+                    for (int i = 0; i < results.length; i++) {
+                        results[i] = new Object[] { "" };
+                    }
+                    return new Object[] { results };
+                case "setValue":
+                    if (args.get(0).equals(failingAddress)) {
+                        return fault(request, -2, "Unknown instance");
+                    }
+                    firstCallStarted.countDown();
+                    try {
+                        releaseFirstCall.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new Object[] { "" };
+                default:
+                    return new Object[] { "" };
+            }
+        }
+
+        @Override
+        protected RpcRequest<String> createRpcRequest(String methodName) {
+            return new MockRequest(methodName);
+        }
+
+        @Override
+        protected String getRpcCallbackUrl() {
+            return null;
+        }
+    }
+
+    private static class MockRequest implements RpcRequest<String> {
+        private final String methodName;
+        private final List<Object> args = new ArrayList<>();
+
+        private MockRequest(String methodName) {
+            this.methodName = methodName;
+        }
+
+        @Override
+        public void addArg(Object arg) {
+            args.add(arg);
+        }
+
+        @Override
+        public String createMessage() {
+            return methodName + args;
+        }
+
+        @Override
+        public String getMethodName() {
+            return methodName;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator.client;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.homematic.internal.common.HomematicConfig;
+
+/**
+ * Tests for the socket pool of the {@link SocketHandler}.
+ *
+ * @author agent - Initial contribution
+ */
+public class SocketHandlerTest {
+    private ServerSocket serverSocket;
+    private final List<Socket> acceptedSockets = new ArrayList<>();
+    private HomematicConfig config;
+    private SocketHandler socketHandler;
+    private int port;
+
+    @Before
+    public void setup() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        port = serverSocket.getLocalPort();
+        Thread acceptor = new Thread(() -> {
+            try {
+                while (true) {
+                    Socket socket = serverSocket.accept();
+                    synchronized (acceptedSockets) {
+                        acceptedSockets.add(socket);
+                    }
+                }
+            } catch (IOException e) {
+                // server socket closed
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        config = new HomematicConfig();
+        config.setGatewayAddress(InetAddress.getLoopbackAddress().getHostAddress());
+        config.setTimeout(1);
+        config.setMaxParallelRequests(2);
+        socketHandler = new SocketHandler(config);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        socketHandler.flush();
+        serverSocket.close();
+        synchronized (acceptedSockets) {
+            for (Socket socket : acceptedSockets) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    public void returnedSocketIsReused() throws IOException {
+        SocketInfo first = socketHandler.borrowSocket(port);
+        socketHandler.returnSocket(port, first);
+        SocketInfo second = socketHandler.borrowSocket(port);
+
+        assertThat(second, is(sameInstance(first)));
+    }
+
+    @Test
+    public void parallelRequestsUseDifferentSockets() throws IOException {
+        SocketInfo first = socketHandler.borrowSocket(port);
+        SocketInfo second = socketHandler.borrowSocket(port);
+
+        assertThat(second, is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void invalidatedSocketIsClosed() throws IOException {
+        SocketInfo first = socketHandler.borrowSocket(port);
+        socketHandler.invalidateSocket(port, first);
+        SocketInfo second = socketHandler.borrowSocket(port);
+
+        assertThat(first.getSocket().isClosed(), is(true));
+        assertThat(second, is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void socketIsNotReusedAfterMaxAlive() throws Exception {
+        config.setSocketMaxAlive(0);
+        SocketInfo first = socketHandler.borrowSocket(port);
+        socketHandler.returnSocket(port, first);
+        Thread.sleep(5);
+        SocketInfo second = socketHandler.borrowSocket(port);
+
+        assertThat(first.getSocket().isClosed(), is(true));
+        assertThat(second, is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void borrowWaitsIfAllSocketsAreInUse() throws Exception {
+        SocketInfo first = socketHandler.borrowSocket(port);
+        socketHandler.borrowSocket(port);
+
+        CompletableFuture<SocketInfo> third = CompletableFuture.supplyAsync(() -> {
+            try {
+                return socketHandler.borrowSocket(port);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(200);
+        assertThat(third.isDone(), is(false));
+
+        socketHandler.returnSocket(port, first);
+        assertThat(third.get(5, TimeUnit.SECONDS), is(sameInstance(first)));
+    }
+}
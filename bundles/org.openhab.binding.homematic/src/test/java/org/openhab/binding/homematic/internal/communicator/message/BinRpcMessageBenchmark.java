@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator.message;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the time and the allocated bytes to encode and decode the BIN-RPC messages a gateway sends to the callback
+ * server: a single event and a system.multicall with 20 events, like the CCU sends after a burst of state changes.
+ * The messages are decoded from a byte array, from a stream and from a ByteBuffer as the callback server does.
+ *
+ * Usage: java org.openhab.binding.homematic.internal.communicator.message.BinRpcMessageBenchmark [iterations]
+ *
+ * @author agent - Initial contribution
+ */
+public class BinRpcMessageBenchmark {
+    private static final String ENCODING = "ISO-8859-1";
+    private static final int OPERATIONS_PER_ITERATION = 1000;
+
+    private interface Operation {
+        Object run() throws Exception;
+    }
+
+    // prevents the JIT from removing the operations
+    private static int sink;
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+        Object[] event = createEvent(1);
+        List<Object> calls = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Map<String, Object> call = new HashMap<>();
+            call.put("methodName", "event");
+            call.put("params", Arrays.asList(createEvent(i)));
+            calls.add(call);
+        }
+        Object[] multicall = new Object[] { calls };
+
+        System.out.println("Iterations: " + iterations + ", operations per iteration: " + OPERATIONS_PER_ITERATION);
+        benchmark("event", event, iterations);
+        benchmark("system.multicall", multicall, iterations);
+    }
+
+    private static Object[] createEvent(int device) {
+        return new Object[] { "BidCos-RF", String.format("OEQ%07d:1", device), "LEVEL", 0.75 };
+    }
+
+    private static void benchmark(String methodName, Object[] args, int iterations) throws Exception {
+        byte[] bytes = encode(methodName, args);
+        System.out.println(methodName + " (" + bytes.length + " bytes)");
+        run("encode", iterations, () -> encode(methodName, args));
+        run("decode byte[]", iterations, () -> new BinRpcMessage(bytes, true, ENCODING));
+        run("decode stream", iterations, () -> new BinRpcMessage(new ByteArrayInputStream(bytes), true, ENCODING));
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        run("decode buffer", iterations, () -> new BinRpcMessage(buffer, true, ENCODING));
+    }
+
+    private static byte[] encode(String methodName, Object[] args) {
+        BinRpcMessage message = new BinRpcMessage(methodName, ENCODING);
+        for (Object arg : args) {
+            message.addArg(arg);
+        }
+        return message.createMessage();
+    }
+
+    private static void run(String name, int iterations, Operation operation) throws Exception {
+        // warm up the JIT
+        for (int i = 0; i < iterations; i++) {
+            for (int op = 0; op < OPERATIONS_PER_ITERATION; op++) {
+                sink += operation.run().hashCode();
+            }
+        }
+
+        long[] times = new long[iterations];
+        long allocatedBefore = getAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            for (int op = 0; op < OPERATIONS_PER_ITERATION; op++) {
+                sink += operation.run().hashCode();
+            }
+            times[i] = (System.nanoTime() - start) / OPERATIONS_PER_ITERATION;
+        }
+        long allocated = getAllocatedBytes() - allocatedBefore;
+        Arrays.sort(times);
+        System.out.println(String.format("  %-14s median %6d ns, p95 %6d ns, allocated %s", name,
+                times[iterations / 2], times[(int) (iterations * 0.95)],
+                allocated < 0 ? "n/a" : allocated / ((long) iterations * OPERATIONS_PER_ITERATION) + " bytes"));
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread, or -1 if the JVM can't tell.
+     */
+    private static long getAllocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator.message;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link BinRpcMessage}.
+ *
+ * @author agent - Initial contribution
+ */
+public class BinRpcMessageTest {
+    private static final String ISO_ENCODING = "ISO-8859-1";
+    private static final String UTF_ENCODING = "UTF-8";
+
+    private byte[] createEvent(String address, String key, Object value, String encoding) {
+        BinRpcMessage message = new BinRpcMessage("event", encoding);
+        message.addArg("BidCos-RF");
+        message.addArg(address);
+        message.addArg(key);
+        message.addArg(value);
+        return message.createMessage();
+    }
+
+    @Test
+    public void eventIsDecodedFromByteArray() throws IOException, ParseException {
+        BinRpcMessage message = new BinRpcMessage(createEvent("OEQ0000001:1", "STATE", Boolean.TRUE, ISO_ENCODING),
+                true, ISO_ENCODING);
+
+        assertThat(message.getMethodName(), is("event"));
+        assertThat(Arrays.asList(message.getResponseData()),
+                is(Arrays.asList("BidCos-RF", "OEQ0000001:1", "STATE", Boolean.TRUE)));
+    }
+
+    @Test
+    public void allValueTypesAreEncodedAndDecoded() throws IOException, ParseException {
+        Map<String, Object> struct = new HashMap<>();
+        struct.put("LEVEL", 0.5);
+        struct.put("WORKING", Boolean.FALSE);
+        BinRpcMessage request = new BinRpcMessage("putParamset", ISO_ENCODING);
+        request.addArg(42);
+        request.addArg(-21.25);
+        request.addArg("text");
+        request.addArg(Arrays.asList("a", 1));
+        request.addArg(struct);
+        assertThat(request.getArgCount(), is(5));
+
+        Object[] data = new BinRpcMessage(request.createMessage(), true, ISO_ENCODING).getResponseData();
+
+        assertThat(data[0], is(42));
+        assertThat(data[1], is(-21.25));
+        assertThat(data[2], is("text"));
+        assertThat(Arrays.asList((Object[]) data[3]), is(Arrays.asList("a", 1)));
+        Map<?, ?> decodedStruct = (Map<?, ?>) data[4];
+        assertThat(decodedStruct.get("LEVEL"), is(0.5));
+        assertThat(decodedStruct.get("WORKING"), is(Boolean.FALSE));
+    }
+
+    @Test
+    public void eventIsDecodedFromPartOfBuffer() throws IOException {
+        byte[] event = createEvent("OEQ0000001:1", "LEVEL", 0.75, ISO_ENCODING);
+        ByteBuffer buffer = ByteBuffer.allocate(event.length + 10);
+        buffer.position(3);
+        buffer.put(event);
+        buffer.limit(buffer.position());
+        buffer.position(3);
+
+        BinRpcMessage message = new BinRpcMessage(buffer, true, ISO_ENCODING);
+
+        assertThat(message.getResponseData()[3], is(0.75));
+        assertThat(buffer.position(), is(3));
+    }
+
+    @Test
+    public void multiByteCharactersAreEncodedWithTheirByteLength() throws IOException, ParseException {
+        BinRpcMessage message = new BinRpcMessage(createEvent("", "Küche", "Wärme", UTF_ENCODING), true,
+                UTF_ENCODING);
+
+        assertThat(message.getResponseData()[2], is("Küche"));
+        assertThat(message.getResponseData()[3], is("Wärme"));
+    }
+
+    @Test
+    public void consecutiveMessagesAreDecodedFromStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(createEvent("OEQ0000001:1", "STATE", Boolean.TRUE, ISO_ENCODING));
+        out.write(createEvent("OEQ0000002:1", "STATE", Boolean.FALSE, ISO_ENCODING));
+        InputStream in = new ByteArrayInputStream(out.toByteArray());
+
+        assertThat(new BinRpcMessage(in, true, ISO_ENCODING).getResponseData()[1], is("OEQ0000001:1"));
+        assertThat(new BinRpcMessage(in, true, ISO_ENCODING).getResponseData()[1], is("OEQ0000002:1"));
+    }
+
+    @Test(expected = EOFException.class)
+    public void truncatedMessageIsRejected() throws IOException {
+        byte[] event = createEvent("OEQ0000001:1", "STATE", Boolean.TRUE, ISO_ENCODING);
+        new BinRpcMessage(new ByteArrayInputStream(event, 0, event.length - 1), true, ISO_ENCODING);
+    }
+}
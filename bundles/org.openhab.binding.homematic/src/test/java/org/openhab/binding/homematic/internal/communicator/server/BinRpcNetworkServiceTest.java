@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator.server;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.homematic.internal.common.HomematicConfig;
+import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage;
+import org.openhab.binding.homematic.internal.model.HmDatapointInfo;
+import org.openhab.binding.homematic.internal.model.HmParamsetType;
+
+/**
+ * Tests for {@link BinRpcNetworkService}.
+ *
+ * @author agent - Initial contribution
+ */
+public class BinRpcNetworkServiceTest {
+    private static final byte BIN_EMPTY_STRING[] = { 'B', 'i', 'n', 1, 0, 0, 0, 8, 0, 0, 0, 3, 0, 0, 0, 0 };
+
+    private RpcEventListener listener;
+    private HomematicConfig config;
+    private BinRpcNetworkService networkService;
+
+    @Before
+    public void setup() throws IOException {
+        listener = mock(RpcEventListener.class);
+        config = new HomematicConfig();
+        config.setBindAddress(InetAddress.getLoopbackAddress().getHostAddress());
+        config.setBinCallbackPort(0);
+        networkService = new BinRpcNetworkService(listener, config);
+        new Thread(networkService).start();
+    }
+
+    @After
+    public void tearDown() {
+        networkService.shutdown();
+    }
+
+    private byte[] createEvent(String address, String key, Object value) {
+        BinRpcMessage message = new BinRpcMessage("event", config.getEncoding());
+        message.addArg("BidCos-RF");
+        message.addArg(address);
+        message.addArg(key);
+        message.addArg(value);
+        return message.createMessage();
+    }
+
+    private byte[] readResult(DataInputStream in) throws IOException {
+        byte[] result = new byte[BIN_EMPTY_STRING.length];
+        in.readFully(result);
+        return result;
+    }
+
+    @Test
+    public void eventsAreHandledOnKeptAliveConnection() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), networkService.getLocalPort())) {
+            OutputStream out = socket.getOutputStream();
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+
+            out.write(createEvent("OEQ0000001:1", "STATE", Boolean.TRUE));
+            assertThat(Arrays.equals(readResult(in), BIN_EMPTY_STRING), is(true));
+
+            // second event split into several packets on the same connection
+            byte[] event = createEvent("OEQ0000002:3", "LEVEL", 0.5);
+            out.write(event, 0, 5);
+            out.flush();
+            out.write(event, 5, event.length - 5);
+            assertThat(Arrays.equals(readResult(in), BIN_EMPTY_STRING), is(true));
+        }
+
+        verify(listener, timeout(1000)).eventReceived(
+                eq(new HmDatapointInfo("OEQ0000001", HmParamsetType.VALUES, 1, "STATE")), eq(Boolean.TRUE));
+        verify(listener, timeout(1000))
+                .eventReceived(eq(new HmDatapointInfo("OEQ0000002", HmParamsetType.VALUES, 3, "LEVEL")), eq(0.5));
+    }
+
+    @Test
+    public void consecutiveEventsInOnePacketAreHandledInOrder() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), networkService.getLocalPort())) {
+            ByteArrayOutputStream events = new ByteArrayOutputStream();
+            for (int i = 0; i < 3; i++) {
+                events.write(createEvent("OEQ0000001:1", "LEVEL", i));
+            }
+            socket.getOutputStream().write(events.toByteArray());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            for (int i = 0; i < 3; i++) {
+                assertThat(Arrays.equals(readResult(in), BIN_EMPTY_STRING), is(true));
+            }
+        }
+
+        for (int i = 0; i < 3; i++) {
+            verify(listener, timeout(1000))
+                    .eventReceived(eq(new HmDatapointInfo("OEQ0000001", HmParamsetType.VALUES, 1, "LEVEL")), eq(i));
+        }
+    }
+}
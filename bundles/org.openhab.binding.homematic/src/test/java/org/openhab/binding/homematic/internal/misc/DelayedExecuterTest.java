@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.misc;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.homematic.internal.model.HmDatapointInfo;
+import org.openhab.binding.homematic.internal.model.HmParamsetType;
+
+/**
+ * Tests for {@link DelayedExecuter}.
+ *
+ * @author agent - Initial contribution
+ */
+public class DelayedExecuterTest {
+    private static final HmDatapointInfo DP_INFO = new HmDatapointInfo("ABC0000001", HmParamsetType.VALUES, 1,
+            "STATE");
+
+    private ScheduledExecutorService scheduler;
+    private DelayedExecuter delayedExecuter;
+
+    @Before
+    public void setup() {
+        scheduler = Executors.newScheduledThreadPool(2);
+        delayedExecuter = new DelayedExecuter(scheduler);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void callbackWithoutDelayIsExecutedImmediately() throws Exception {
+        AtomicInteger executed = new AtomicInteger();
+        delayedExecuter.start(DP_INFO, 0, executed::incrementAndGet);
+
+        assertThat(executed.get(), is(1));
+    }
+
+    @Test
+    public void delayedCallbackReplacesPendingCallback() throws Exception {
+        AtomicInteger first = new AtomicInteger();
+        CountDownLatch second = new CountDownLatch(1);
+        delayedExecuter.start(DP_INFO, 0.1, first::incrementAndGet);
+        delayedExecuter.start(DP_INFO, 0.1, second::countDown);
+
+        assertThat(second.await(5, TimeUnit.SECONDS), is(true));
+        Thread.sleep(200);
+        assertThat(first.get(), is(0));
+    }
+
+    @Test
+    public void stopCancelsPendingCallbacks() throws Exception {
+        AtomicInteger executed = new AtomicInteger();
+        delayedExecuter.start(DP_INFO, 0.1, executed::incrementAndGet);
+        delayedExecuter.stop();
+
+        Thread.sleep(300);
+        assertThat(executed.get(), is(0));
+    }
+}
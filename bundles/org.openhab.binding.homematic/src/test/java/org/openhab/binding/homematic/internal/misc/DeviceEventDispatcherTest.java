@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.misc;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link DeviceEventDispatcher}.
+ *
+ * @author agent - Initial contribution
+ */
+public class DeviceEventDispatcherTest {
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void eventsOfADeviceAreHandledInOrder() throws InterruptedException {
+        DeviceEventDispatcher dispatcher = new DeviceEventDispatcher(executor, 1000);
+        List<Integer> handled = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(500);
+        for (int i = 0; i < 500; i++) {
+            int event = i;
+            dispatcher.dispatch("ABC0000001", () -> {
+                handled.add(event);
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        for (int i = 0; i < 500; i++) {
+            assertThat(handled.get(i), is(i));
+        }
+    }
+
+    @Test
+    public void slowDeviceDoesNotBlockOtherDevices() throws InterruptedException {
+        DeviceEventDispatcher dispatcher = new DeviceEventDispatcher(executor, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherHandled = new CountDownLatch(1);
+        dispatcher.dispatch("SLOW000001", () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        dispatcher.dispatch("FAST000001", otherHandled::countDown);
+
+        assertThat(otherHandled.await(5, TimeUnit.SECONDS), is(true));
+        release.countDown();
+    }
+
+    /**
+     * Occupies the handler thread of the device until the returned latch is released.
+     */
+    private CountDownLatch blockDevice(DeviceEventDispatcher dispatcher, String address) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.dispatch(address, () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+        return release;
+    }
+
+    private void dispatch(DeviceEventDispatcher dispatcher, String datapoint, String event, List<String> handled,
+            CountDownLatch done) {
+        dispatcher.dispatch("ABC0000001", datapoint, () -> {
+            handled.add(event);
+            done.countDown();
+        });
+    }
+
+    @Test
+    public void supersededEventIsDroppedIfQueueIsFull() throws InterruptedException {
+        DeviceEventDispatcher dispatcher = new DeviceEventDispatcher(executor, 3);
+        CountDownLatch release = blockDevice(dispatcher, "ABC0000001");
+        List<String> handled = Collections.synchronizedList(new ArrayList<>());
+
+        CountDownLatch done = new CountDownLatch(3);
+        dispatch(dispatcher, "LEVEL", "level1", handled, done);
+        dispatch(dispatcher, "STATE", "state1", handled, done);
+        dispatch(dispatcher, "LEVEL", "level2", handled, done);
+        dispatch(dispatcher, "LEVEL", "level3", handled, done);
+        dispatch(dispatcher, "STATE", "state2", handled, done);
+        assertThat(dispatcher.getQueuedEvents("ABC0000001"), is(3));
+        release.countDown();
+
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(handled, is(Arrays.asList("state1", "level3", "state2")));
+    }
+
+    @Test
+    public void onlyEventOfADatapointIsNeverDropped() throws InterruptedException {
+        DeviceEventDispatcher dispatcher = new DeviceEventDispatcher(executor, 2);
+        CountDownLatch release = blockDevice(dispatcher, "ABC0000001");
+        List<String> handled = Collections.synchronizedList(new ArrayList<>());
+
+        CountDownLatch done = new CountDownLatch(4);
+        dispatch(dispatcher, "LEVEL", "level1", handled, done);
+        dispatch(dispatcher, "STATE", "state1", handled, done);
+        dispatch(dispatcher, "LEVEL", "level2", handled, done);
+        dispatch(dispatcher, "WORKING", "working1", handled, done);
+        dispatcher.dispatch("ABC0000001", () -> {
+            handled.add("device");
+            done.countDown();
+        });
+        assertThat(dispatcher.getQueuedEvents("ABC0000001"), is(4));
+        release.countDown();
+
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(handled, is(Arrays.asList("state1", "level2", "working1", "device")));
+    }
+
+    @Test
+    public void stoppedDispatcherRejectsEvents() {
+        DeviceEventDispatcher dispatcher = new DeviceEventDispatcher(executor, 10);
+        dispatcher.stop();
+
+        assertThat(dispatcher.dispatch("ABC0000001", () -> {
+        }), is(false));
+
+        dispatcher.start();
+        assertThat(dispatcher.dispatch("ABC0000001", () -> {
+        }), is(true));
+    }
+}
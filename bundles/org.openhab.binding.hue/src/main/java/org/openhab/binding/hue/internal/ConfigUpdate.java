@@ -23,6 +23,7 @@ import java.util.ArrayList;
  * @author Denis Dudnik - moved Jue library source code inside the smarthome Hue binding, minor code cleanup
  * @author Samuel Leisering - Added support for sensor API
  * @author Christoph Weitkamp - Added support for sensor API
+ * @author agent - Rate-limit and coalesce commands
  */
 public class ConfigUpdate {
 
@@ -39,12 +40,4 @@ public class ConfigUpdate {
     public String toJson() {
         return commands.stream().map(c -> c.toJson()).collect(joining(",", "{", "}"));
     }
-
-    /**
-     * Returns the message delay recommended by Philips
-     * Regarding to this article: https://developers.meethue.com/documentation/hue-system-performance
-     */
-    public long getMessageDelay() {
-        return commands.size() * 40L;
-    }
 }
@@ -23,9 +23,12 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 
@@ -55,6 +58,7 @@ import com.google.gson.JsonParser;
  * @author Andre Fuechsel - search for lights with given serial number added
  * @author Denis Dudnik - moved Jue library source code inside the smarthome Hue binding, minor code cleanup
  * @author Samuel Leisering - added cached config and API-Version
+ * @author agent - Rate-limit and coalesce commands, poll by delta
  */
 @NonNullByDefault
 public class HueBridge {
@@ -69,7 +73,7 @@ public class HueBridge {
 
     private final Gson gson = new GsonBuilder().setDateFormat(DATE_FORMAT).create();
     private HttpClient http = new HttpClient();
-    private final ScheduledExecutorService scheduler;
+    private final HueCommandScheduler commandScheduler;
 
     @Nullable
     private Config cachedConfig;
@@ -92,7 +96,23 @@ public class HueBridge {
             baseUrl = protocol + "://" + ip + ":" + port + "/api";
         }
         this.baseUrl = baseUrl;
-        this.scheduler = scheduler;
+        this.commandScheduler = new HueCommandScheduler(new HueCommandScheduler.BridgeAccess() {
+            @Override
+            public Result put(String path, String body) throws IOException {
+                return http.put(getRelativeURL(path), body);
+            }
+
+            @Override
+            public Map<String, Set<String>> getGroupLights() throws IOException, ApiException {
+                Map<String, Set<String>> groupLights = new HashMap<>();
+                for (FullGroup group : getFullGroups()) {
+                    Set<String> lightIds = new HashSet<>();
+                    group.getLights().forEach(light -> lightIds.add(light.getId()));
+                    groupLights.put(group.getId(), lightIds);
+                }
+                return groupLights;
+            }
+        }, scheduler);
     }
 
     /**
@@ -122,6 +142,22 @@ public class HueBridge {
         http.setTimeout(timeout);
     }
 
+    /**
+     * Returns the scheduler which sends state and config updates to the bridge.
+     *
+     * @return command scheduler of the bridge
+     */
+    public HueCommandScheduler getCommandScheduler() {
+        return commandScheduler;
+    }
+
+    /**
+     * Fails all state and config updates which have not been sent yet.
+     */
+    public void dispose() {
+        commandScheduler.shutdown();
+    }
+
     /**
      * Returns the IP address of the bridge.
      *
@@ -215,6 +251,51 @@ public class HueBridge {
         return lightList;
     }
 
+    /**
+     * Returns the lights known to the bridge, and those of them which changed since the previous call with the same
+     * change detector.
+     *
+     * @param changeDetector change detector holding the lights of the previous call
+     * @return ids of all lights and the new or changed lights as {@link FullLight}s
+     * @throws UnauthorizedException thrown if the user no longer exists
+     */
+    public HueObjectChangeDetector.Changes<FullLight> getFullLightChanges(
+            HueObjectChangeDetector<FullLight> changeDetector) throws IOException, ApiException {
+        return getChanges("lights", changeDetector);
+    }
+
+    /**
+     * Returns the sensors known to the bridge, and those of them which changed since the previous call with the same
+     * change detector.
+     *
+     * @param changeDetector change detector holding the sensors of the previous call
+     * @return ids of all sensors and the new or changed sensors
+     * @throws UnauthorizedException thrown if the user no longer exists
+     */
+    public HueObjectChangeDetector.Changes<FullSensor> getSensorChanges(
+            HueObjectChangeDetector<FullSensor> changeDetector) throws IOException, ApiException {
+        return getChanges("sensors", changeDetector);
+    }
+
+    private <T extends HueObject> HueObjectChangeDetector.Changes<T> getChanges(String path,
+            HueObjectChangeDetector<T> changeDetector) throws IOException, ApiException {
+        requireAuthentication();
+
+        Result result = http.get(getRelativeURL(path));
+
+        handleErrors(result);
+
+        try {
+            JsonElement objects = new JsonParser().parse(result.getBody());
+            if (!objects.isJsonObject()) {
+                throw new ApiException("API returned unexpected result: " + result.getBody());
+            }
+            return changeDetector.detectChanges(gson, objects.getAsJsonObject());
+        } catch (JsonParseException e) {
+            throw new ApiException("API returned unexpected result: " + e.getMessage());
+        }
+    }
+
     /**
      * Returns a list of sensors known to the bridge
      *
@@ -358,9 +439,7 @@ public class HueBridge {
     public CompletableFuture<Result> setLightState(FullLight light, StateUpdate update) {
         requireAuthentication();
 
-        String body = update.toJson();
-        return http.putAsync(getRelativeURL("lights/" + enc(light.getId()) + "/state"), body, update.getMessageDelay(),
-                scheduler);
+        return commandScheduler.submit("lights/" + enc(light.getId()) + "/state", light.getId(), update);
     }
 
     /**
@@ -376,9 +455,7 @@ public class HueBridge {
     public CompletableFuture<Result> setSensorState(FullSensor sensor, StateUpdate update) {
         requireAuthentication();
 
-        String body = update.toJson();
-        return http.putAsync(getRelativeURL("sensors/" + enc(sensor.getId()) + "/state"), body, update.getMessageDelay(),
-                scheduler);
+        return commandScheduler.submit("sensors/" + enc(sensor.getId()) + "/state", null, update);
     }    
     
     /**
@@ -393,9 +470,7 @@ public class HueBridge {
     public CompletableFuture<Result> updateSensorConfig(FullSensor sensor, ConfigUpdate update) {
         requireAuthentication();
 
-        String body = update.toJson();
-        return http.putAsync(getRelativeURL("sensors/" + enc(sensor.getId()) + "/config"), body,
-                update.getMessageDelay(), scheduler);
+        return commandScheduler.submit("sensors/" + enc(sensor.getId()) + "/config", null, update);
     }
 
     /**
@@ -436,6 +511,31 @@ public class HueBridge {
         return groupList;
     }
 
+    /**
+     * Returns the list of groups with their lights, excluding the all lights group.
+     *
+     * @return list of groups
+     * @throws UnauthorizedException thrown if the user no longer exists
+     */
+    public List<FullGroup> getFullGroups() throws IOException, ApiException {
+        requireAuthentication();
+
+        Result result = http.get(getRelativeURL("groups"));
+
+        handleErrors(result);
+
+        Map<String, FullGroup> groupMap = safeFromJson(result.getBody(), FullGroup.GSON_TYPE);
+        ArrayList<FullGroup> groupList = new ArrayList<>();
+
+        for (String id : groupMap.keySet()) {
+            FullGroup group = groupMap.get(id);
+            group.setId(id);
+            groupList.add(group);
+        }
+
+        return groupList;
+    }
+
     /**
      * Creates a new group and returns it.
      * Due to API limitations, the name of the returned object
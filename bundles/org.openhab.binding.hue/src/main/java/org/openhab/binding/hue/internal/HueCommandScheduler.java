@@ -0,0 +1,432 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import static java.util.stream.Collectors.joining;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.hue.internal.HttpClient.Result;
+import org.openhab.binding.hue.internal.exceptions.ApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends state and config updates to a Hue bridge without exceeding its command rate.
+ *
+ * Updates are queued per resource. An update for a resource which is still queued is merged into the queued one, the
+ * latest value of each attribute wins. The queue is drained at the rate recommended by Philips, about 10 commands
+ * per second and 40 ms per attribute of a command, without bursts. When several queued light updates set the same
+ * state and there is a group on the bridge consisting of exactly these lights, one group action is sent instead of the
+ * single light updates. Group actions are limited to one per second.
+ *
+ * See https://developers.meethue.com/develop/application-design-guidance/hue-system-performance/
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class HueCommandScheduler {
+
+    /**
+     * Access to the bridge used by the scheduler.
+     */
+    public interface BridgeAccess {
+        /**
+         * Sends a PUT request to the given path relative to the user URL.
+         */
+        Result put(String path, String body) throws IOException;
+
+        /**
+         * Returns the ids of the lights of each group, by group id.
+         */
+        Map<String, Set<String>> getGroupLights() throws IOException, ApiException;
+    }
+
+    /**
+     * Simple token bucket, which is filled continuously up to its capacity.
+     */
+    static class TokenBucket {
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(double tokensPerSecond, double capacity, long now) {
+            this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        /**
+         * Returns the time in nanoseconds until a token is available, 0 if there is one now.
+         */
+        long getDelay(long now) {
+            refill(now);
+            return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+
+        /**
+         * Takes the given number of tokens, even if fewer are available. The missing tokens delay the next token.
+         */
+        void take(long now, int count) {
+            refill(now);
+            tokens -= count;
+        }
+
+        /**
+         * Takes a token, if available.
+         */
+        boolean tryTake(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens--;
+                return true;
+            }
+            return false;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+        }
+    }
+
+    private static class QueuedUpdate {
+        private final String path;
+        private final @Nullable String lightId;
+        private final Map<String, Command> commands = new LinkedHashMap<>();
+        private final List<CompletableFuture<Result>> futures = new ArrayList<>();
+        private final long queued;
+
+        private QueuedUpdate(String path, @Nullable String lightId, long queued) {
+            this.path = path;
+            this.lightId = lightId;
+            this.queued = queued;
+        }
+
+        private String toJson() {
+            return commands.values().stream().map(c -> c.toJson()).collect(joining(",", "{", "}"));
+        }
+    }
+
+    static final double COMMANDS_PER_SECOND = 10;
+    static final double ATTRIBUTES_PER_SECOND = 25;
+    static final double GROUP_COMMANDS_PER_SECOND = 1;
+    private static final long GROUP_REFRESH_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+
+    private final Logger logger = LoggerFactory.getLogger(HueCommandScheduler.class);
+
+    private final BridgeAccess bridge;
+    private final ScheduledExecutorService scheduler;
+    private final LongSupplier clock;
+    private final TokenBucket commandBucket;
+    private final TokenBucket attributeBucket;
+    private final TokenBucket groupCommandBucket;
+
+    // guarded by this
+    private final Map<String, QueuedUpdate> queue = new LinkedHashMap<>();
+    private boolean processing;
+    private @Nullable Future<?> job;
+    private boolean shutdown;
+
+    // only accessed by the processing task
+    private Map<String, Set<String>> groupLights = Collections.emptyMap();
+    private long groupLightsRefreshed;
+    private boolean groupLightsLoaded;
+
+    // statistics, guarded by this
+    private long submittedUpdates;
+    private long coalescedUpdates;
+    private long sentRequests;
+    private long sentUpdates;
+    private long groupActions;
+    private long totalQueueDelay;
+    private long maxQueueDelay;
+
+    public HueCommandScheduler(BridgeAccess bridge, ScheduledExecutorService scheduler) {
+        this(bridge, scheduler, System::nanoTime);
+    }
+
+    HueCommandScheduler(BridgeAccess bridge, ScheduledExecutorService scheduler, LongSupplier clock) {
+        this.bridge = bridge;
+        this.scheduler = scheduler;
+        this.clock = clock;
+        long now = clock.getAsLong();
+        // a capacity of one token spaces the commands evenly instead of allowing a burst after an idle period
+        this.commandBucket = new TokenBucket(COMMANDS_PER_SECOND, 1, now);
+        this.attributeBucket = new TokenBucket(ATTRIBUTES_PER_SECOND, 1, now);
+        this.groupCommandBucket = new TokenBucket(GROUP_COMMANDS_PER_SECOND, 1, now);
+    }
+
+    /**
+     * Queues an update for the resource with the given path.
+     *
+     * @param path path of the resource relative to the user URL, e.g. lights/1/state
+     * @param lightId id of the light, if the update is a state update of a light, otherwise null
+     * @param update the update
+     * @return the result of the request which sent the update
+     */
+    public CompletableFuture<Result> submit(String path, @Nullable String lightId, ConfigUpdate update) {
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        synchronized (this) {
+            if (shutdown) {
+                future.completeExceptionally(new IllegalStateException("bridge has been disposed"));
+                return future;
+            }
+            submittedUpdates++;
+            QueuedUpdate queuedUpdate = queue.get(path);
+            if (queuedUpdate == null) {
+                queuedUpdate = new QueuedUpdate(path, lightId, clock.getAsLong());
+                queue.put(path, queuedUpdate);
+            } else {
+                coalescedUpdates++;
+            }
+            for (Command command : update.commands) {
+                // remove first, so the attributes are sent in the order they were set last
+                queuedUpdate.commands.remove(command.key);
+                queuedUpdate.commands.put(command.key, command);
+            }
+            queuedUpdate.futures.add(future);
+            if (!processing) {
+                processing = true;
+                job = scheduler.submit(this::processQueue);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Fails all queued updates and rejects further updates.
+     */
+    public void shutdown() {
+        List<QueuedUpdate> updates;
+        synchronized (this) {
+            shutdown = true;
+            Future<?> job = this.job;
+            if (job != null) {
+                job.cancel(false);
+            }
+            updates = new ArrayList<>(queue.values());
+            queue.clear();
+        }
+        IllegalStateException e = new IllegalStateException("bridge has been disposed");
+        updates.forEach(update -> update.futures.forEach(future -> future.completeExceptionally(e)));
+    }
+
+    private void processQueue() {
+        while (true) {
+            QueuedUpdate update;
+            List<QueuedUpdate> sameStateUpdates = new ArrayList<>();
+            String body;
+            synchronized (this) {
+                if (queue.isEmpty() || shutdown) {
+                    processing = false;
+                    job = null;
+                    logStatistics();
+                    return;
+                }
+                long now = clock.getAsLong();
+                long delay = Math.max(commandBucket.getDelay(now), attributeBucket.getDelay(now));
+                if (delay > 0) {
+                    job = scheduler.schedule(this::processQueue, delay, TimeUnit.NANOSECONDS);
+                    return;
+                }
+                commandBucket.tryTake(now);
+
+                Iterator<QueuedUpdate> iterator = queue.values().iterator();
+                update = iterator.next();
+                iterator.remove();
+                attributeBucket.take(now, update.commands.size());
+                body = update.toJson();
+                if (update.lightId != null) {
+                    for (QueuedUpdate other : queue.values()) {
+                        if (other.lightId != null && body.equals(other.toJson())) {
+                            sameStateUpdates.add(other);
+                        }
+                    }
+                }
+            }
+
+            String groupId = sameStateUpdates.isEmpty() ? null : findGroup(update, sameStateUpdates);
+            if (groupId != null) {
+                sendGroupAction(groupId, update, sameStateUpdates, body);
+            } else {
+                send(update.path, body, Collections.singletonList(update));
+            }
+        }
+    }
+
+    /**
+     * Returns the id of the largest group which contains the light of the update and only lights of updates setting
+     * the same state, or null if there is none or no group action may be sent now.
+     */
+    private @Nullable String findGroup(QueuedUpdate update, List<QueuedUpdate> sameStateUpdates) {
+        long now = clock.getAsLong();
+        if (groupCommandBucket.getDelay(now) > 0) {
+            return null;
+        }
+        if (!groupLightsLoaded || now - groupLightsRefreshed > GROUP_REFRESH_INTERVAL) {
+            groupLightsLoaded = true;
+            groupLightsRefreshed = now;
+            try {
+                groupLights = bridge.getGroupLights();
+            } catch (IOException | ApiException e) {
+                logger.debug("Failed to load the groups of the bridge: {}", e.getMessage());
+                groupLights = Collections.emptyMap();
+            }
+        }
+
+        Set<@Nullable String> lightIds = new HashSet<>();
+        lightIds.add(update.lightId);
+        sameStateUpdates.forEach(other -> lightIds.add(other.lightId));
+        String bestGroupId = null;
+        int bestSize = 1;
+        for (Entry<String, Set<String>> group : groupLights.entrySet()) {
+            Set<String> members = group.getValue();
+            if (members.size() > bestSize && members.contains(update.lightId) && lightIds.containsAll(members)) {
+                bestGroupId = group.getKey();
+                bestSize = members.size();
+            }
+        }
+        if (bestGroupId != null) {
+            groupCommandBucket.tryTake(now);
+        }
+        return bestGroupId;
+    }
+
+    private void sendGroupAction(String groupId, QueuedUpdate update, List<QueuedUpdate> sameStateUpdates,
+            String body) {
+        Set<String> members = groupLights.getOrDefault(groupId, Collections.emptySet());
+        List<QueuedUpdate> updates = new ArrayList<>();
+        updates.add(update);
+        synchronized (this) {
+            for (QueuedUpdate other : sameStateUpdates) {
+                // updates merged with newer updates in the meantime are sent on their own afterwards
+                if (members.contains(other.lightId) && queue.get(other.path) == other && body.equals(other.toJson())) {
+                    queue.remove(other.path);
+                    updates.add(other);
+                }
+            }
+            groupActions++;
+        }
+        logger.debug("Sending state of {} lights as action of group {}: {}", updates.size(), groupId, body);
+        send("groups/" + groupId + "/action", body, updates);
+    }
+
+    private void send(String path, String body, List<QueuedUpdate> updates) {
+        logger.debug("Sending put to {}: {}", path, body);
+        Result result = null;
+        IOException exception = null;
+        try {
+            result = bridge.put(path, body);
+        } catch (IOException e) {
+            exception = e;
+        }
+
+        long now = clock.getAsLong();
+        synchronized (this) {
+            sentRequests++;
+            for (QueuedUpdate update : updates) {
+                long delay = now - update.queued;
+                sentUpdates += update.futures.size();
+                totalQueueDelay += delay * update.futures.size();
+                maxQueueDelay = Math.max(maxQueueDelay, delay);
+            }
+        }
+        for (QueuedUpdate update : updates) {
+            for (CompletableFuture<Result> future : update.futures) {
+                if (result != null) {
+                    future.complete(result);
+                } else {
+                    future.completeExceptionally(exception);
+                }
+            }
+        }
+    }
+
+    private void logStatistics() {
+        if (logger.isDebugEnabled()) {
+            logger.debug(
+                    "Command queue drained: {} updates submitted, {} coalesced, {} requests sent ({} group actions), "
+                            + "queue delay avg {} ms, max {} ms",
+                    submittedUpdates, coalescedUpdates, sentRequests, groupActions, getAverageQueueDelay(),
+                    getMaxQueueDelay());
+        }
+    }
+
+    /**
+     * Returns the number of updates waiting to be sent.
+     */
+    public synchronized int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the number of updates submitted so far.
+     */
+    public synchronized long getSubmittedUpdates() {
+        return submittedUpdates;
+    }
+
+    /**
+     * Returns the number of updates merged into an update which was still queued.
+     */
+    public synchronized long getCoalescedUpdates() {
+        return coalescedUpdates;
+    }
+
+    /**
+     * Returns the number of requests sent to the bridge, including group actions.
+     */
+    public synchronized long getSentRequests() {
+        return sentRequests;
+    }
+
+    /**
+     * Returns the number of group actions sent instead of single light updates.
+     */
+    public synchronized long getGroupActions() {
+        return groupActions;
+    }
+
+    /**
+     * Returns the average time in milliseconds a submitted update waited until it was sent.
+     */
+    public synchronized long getAverageQueueDelay() {
+        return sentUpdates == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalQueueDelay / sentUpdates);
+    }
+
+    /**
+     * Returns the maximum time in milliseconds a submitted update waited until it was sent.
+     */
+    public synchronized long getMaxQueueDelay() {
+        return TimeUnit.NANOSECONDS.toMillis(maxQueueDelay);
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+
+/**
+ * Detects which of the lights or sensors polled from the bridge have changed since the previous poll.
+ *
+ * The JSON of each object is kept from poll to poll. Only objects whose JSON differs are converted to their Java
+ * representation, so unchanged objects cost neither deserialization nor listener calls.
+ *
+ * @author agent - Initial contribution
+ *
+ * @param <T> type of the polled objects
+ */
+@NonNullByDefault
+public class HueObjectChangeDetector<T extends HueObject> {
+
+    /**
+     * The result of a poll.
+     */
+    public static class Changes<T> {
+        private final Set<String> ids;
+        private final Map<String, T> changedObjects;
+
+        Changes(Set<String> ids, Map<String, T> changedObjects) {
+            this.ids = ids;
+            this.changedObjects = changedObjects;
+        }
+
+        /**
+         * Returns the ids of all objects known to the bridge.
+         *
+         * @return ids of all objects
+         */
+        public Set<String> getIds() {
+            return ids;
+        }
+
+        /**
+         * Returns the objects which are new or have changed since the previous poll, by id.
+         *
+         * @return new or changed objects
+         */
+        public Map<String, T> getChangedObjects() {
+            return changedObjects;
+        }
+    }
+
+    private final Class<T> type;
+    private final Map<String, JsonElement> lastObjects = new HashMap<>();
+
+    public HueObjectChangeDetector(Class<T> type) {
+        this.type = type;
+    }
+
+    /**
+     * Compares the objects to the objects of the previous poll and converts the new and changed ones.
+     *
+     * @param gson Gson to convert the objects with
+     * @param objects JSON object mapping ids to objects, as returned by the bridge
+     * @return ids of all objects and the new or changed objects
+     * @throws JsonParseException if a changed object cannot be converted
+     */
+    public synchronized Changes<T> detectChanges(Gson gson, JsonObject objects) {
+        Set<String> ids = new LinkedHashSet<>();
+        Map<String, T> changedObjects = new LinkedHashMap<>();
+        Map<String, JsonElement> previousObjects = new HashMap<>(lastObjects);
+        lastObjects.clear();
+        for (Entry<String, JsonElement> entry : objects.entrySet()) {
+            String id = entry.getKey();
+            JsonElement json = entry.getValue();
+            ids.add(id);
+            JsonElement previousJson = previousObjects.get(id);
+            if (previousJson == null || previousJson.hashCode() != json.hashCode() || !previousJson.equals(json)) {
+                T object = gson.fromJson(json, type);
+                object.setId(id);
+                changedObjects.put(id, object);
+            }
+            lastObjects.put(id, json);
+        }
+        return new Changes<>(ids, changedObjects);
+    }
+
+    /**
+     * Forgets the objects of the previous poll, so all objects are reported as changed by the next poll.
+     */
+    public synchronized void reset() {
+        lastObjects.clear();
+    }
+}
@@ -50,6 +50,8 @@ import org.openhab.binding.hue.internal.FullConfig;
 import org.openhab.binding.hue.internal.FullLight;
 import org.openhab.binding.hue.internal.FullSensor;
 import org.openhab.binding.hue.internal.HueBridge;
+import org.openhab.binding.hue.internal.HueObjectChangeDetector;
+import org.openhab.binding.hue.internal.HueObjectChangeDetector.Changes;
 import org.openhab.binding.hue.internal.HueConfigStatusMessage;
 import org.openhab.binding.hue.internal.State;
 import org.openhab.binding.hue.internal.StateUpdate;
@@ -76,6 +78,7 @@ import org.slf4j.LoggerFactory;
  * @author Denis Dudnik - switched to internally integrated source of Jue library
  * @author Samuel Leisering - Added support for sensor API
  * @author Christoph Weitkamp - Added support for sensor API
+ * @author agent - Rate-limit and coalesce commands, poll by delta
  */
 @NonNullByDefault
 public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueClient {
@@ -83,6 +86,10 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
     private long lightPollingInterval = TimeUnit.SECONDS.toSeconds(10);
     private long sensorPollingInterval = TimeUnit.MILLISECONDS.toMillis(500);
 
+    // after a command, lights are polled more often for a short time to pick up the resulting state quickly
+    private static final long FAST_LIGHT_POLLING_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+    private static final long FAST_LIGHT_POLLING_DURATION = TimeUnit.SECONDS.toMillis(10);
+
     final ReentrantLock pollingLock = new ReentrantLock();
 
     abstract class PollingRunnable implements Runnable {
@@ -161,6 +168,10 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
 
     private final Map<String, FullLight> lastLightStates = new ConcurrentHashMap<>();
     private final Map<String, FullSensor> lastSensorStates = new ConcurrentHashMap<>();
+    private final HueObjectChangeDetector<FullLight> lightChangeDetector = new HueObjectChangeDetector<>(
+            FullLight.class);
+    private final HueObjectChangeDetector<FullSensor> sensorChangeDetector = new HueObjectChangeDetector<>(
+            FullSensor.class);
 
     private boolean lastBridgeConnectionState = false;
 
@@ -170,6 +181,8 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
     private final List<SensorStatusListener> sensorStatusListeners = new CopyOnWriteArrayList<>();
 
     private @Nullable ScheduledFuture<?> lightPollingJob;
+    private @Nullable ScheduledFuture<?> fastLightPollingJob;
+    private volatile long fastLightPollingEnd;
     private @Nullable ScheduledFuture<?> sensorPollingJob;
 
     private @NonNullByDefault({}) HueBridge hueBridge = null;
@@ -180,7 +193,12 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
         protected void doConnectedRun() throws IOException, ApiException {
             Map<String, FullSensor> lastSensorStateCopy = new HashMap<>(lastSensorStates);
 
-            for (final FullSensor sensor : hueBridge.getSensors()) {
+            Changes<FullSensor> changes = hueBridge.getSensorChanges(sensorChangeDetector);
+            // unchanged sensors are neither converted nor dispatched
+            lastSensorStateCopy.keySet().removeIf(sensorId -> changes.getIds().contains(sensorId)
+                    && !changes.getChangedObjects().containsKey(sensorId));
+
+            for (final FullSensor sensor : changes.getChangedObjects().values()) {
                 String sensorId = sensor.getId();
                 if (lastSensorStateCopy.containsKey(sensorId)) {
                     final FullSensor lastFullSensor = lastSensorStateCopy.remove(sensorId);
@@ -218,9 +236,13 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
         protected void doConnectedRun() throws IOException, ApiException {
             Map<String, FullLight> lastLightStateCopy = new HashMap<>(lastLightStates);
 
-            List<FullLight> lights;
+            Collection<FullLight> lights;
             if (ApiVersionUtils.supportsFullLights(hueBridge.getVersion())) {
-                lights = hueBridge.getFullLights();
+                Changes<FullLight> changes = hueBridge.getFullLightChanges(lightChangeDetector);
+                // unchanged lights are neither converted nor dispatched
+                lastLightStateCopy.keySet().removeIf(lightId -> changes.getIds().contains(lightId)
+                        && !changes.getChangedObjects().containsKey(lightId));
+                lights = changes.getChangedObjects().values();
             } else {
                 lights = hueBridge.getFullConfig().getLights();
             }
@@ -272,6 +294,7 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
             hueBridge.setLightState(light, stateUpdate).thenAccept(result -> {
                 try {
                     hueBridge.handleErrors(result);
+                    startFastLightPolling();
                 } catch (Exception e) {
                     handleStateUpdateException(light, stateUpdate, e);
                 }
@@ -389,6 +412,36 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
             lightPollingJob.cancel(true);
             lightPollingJob = null;
         }
+        stopFastLightPolling();
+    }
+
+    /**
+     * Polls the lights every second for a short time, unless the polling interval is that short anyway. Restarting it
+     * while it is running extends the time.
+     */
+    private synchronized void startFastLightPolling() {
+        if (lightPollingJob == null || TimeUnit.SECONDS.toMillis(lightPollingInterval) <= FAST_LIGHT_POLLING_INTERVAL) {
+            return;
+        }
+        fastLightPollingEnd = System.currentTimeMillis() + FAST_LIGHT_POLLING_DURATION;
+        ScheduledFuture<?> job = fastLightPollingJob;
+        if (job == null || job.isDone()) {
+            fastLightPollingJob = scheduler.scheduleWithFixedDelay(() -> {
+                if (System.currentTimeMillis() > fastLightPollingEnd) {
+                    stopFastLightPolling();
+                } else {
+                    lightPollingRunnable.run();
+                }
+            }, FAST_LIGHT_POLLING_INTERVAL, FAST_LIGHT_POLLING_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void stopFastLightPolling() {
+        ScheduledFuture<?> job = fastLightPollingJob;
+        if (job != null) {
+            job.cancel(false);
+            fastLightPollingJob = null;
+        }
     }
 
     private void startSensorPolling() {
@@ -417,6 +470,7 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
         stopLightPolling();
         stopSensorPolling();
         if (hueBridge != null) {
+            hueBridge.dispose();
             hueBridge = null;
         }
     }
@@ -473,6 +527,10 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
     private void onConnectionResumed() throws IOException, ApiException {
         logger.debug("Bridge connection resumed. Updating thing status to ONLINE.");
 
+        // compare all lights and sensors in full after the connection has been lost
+        lightChangeDetector.reset();
+        sensorChangeDetector.reset();
+
         if (!propertiesInitializedSuccessfully) {
             FullConfig fullConfig = hueBridge.getFullConfig();
             Config config = fullConfig.getConfig();
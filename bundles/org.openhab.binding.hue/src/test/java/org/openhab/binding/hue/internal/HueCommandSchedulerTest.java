@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.hue.internal.HttpClient.Result;
+import org.openhab.binding.hue.internal.HueCommandScheduler.TokenBucket;
+
+/**
+ * Tests for {@link HueCommandScheduler}.
+ *
+ * @author agent - Initial contribution
+ */
+public class HueCommandSchedulerTest {
+
+    private static final Result SUCCESS = new Result("[]", 200);
+
+    private ScheduledExecutorService scheduler;
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+    private final List<Long> requestTimes = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, Set<String>> groupLights = new HashMap<>();
+    private final CountDownLatch firstRequestStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstRequest = new CountDownLatch(1);
+    private HueCommandScheduler commandScheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        commandScheduler = new HueCommandScheduler(new HueCommandScheduler.BridgeAccess() {
+            @Override
+            public Result put(String path, String body) {
+                if (requests.isEmpty()) {
+                    firstRequestStarted.countDown();
+                    try {
+                        releaseFirstRequest.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                requests.add(path + " " + body);
+                requestTimes.add(System.nanoTime());
+                return SUCCESS;
+            }
+
+            @Override
+            public Map<String, Set<String>> getGroupLights() {
+                return groupLights;
+            }
+        }, scheduler);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private CompletableFuture<Result> setLightState(String lightId, StateUpdate update) {
+        return commandScheduler.submit("lights/" + lightId + "/state", lightId, update);
+    }
+
+    /**
+     * Sends a first update and waits until it blocks in the bridge, so further updates stay queued.
+     */
+    private CompletableFuture<Result> blockQueue() throws InterruptedException {
+        CompletableFuture<Result> future = setLightState("1", new StateUpdate().setOn(true));
+        assertTrue(firstRequestStarted.await(5, TimeUnit.SECONDS));
+        return future;
+    }
+
+    @Test
+    public void queuedUpdatesOfTheSameLightAreMerged() throws Exception {
+        blockQueue();
+        CompletableFuture<Result> first = setLightState("2", new StateUpdate().setOn(true).setBrightness(100));
+        CompletableFuture<Result> second = setLightState("2", new StateUpdate().setBrightness(200));
+        releaseFirstRequest.countDown();
+
+        assertSame(SUCCESS, first.get(5, TimeUnit.SECONDS));
+        assertSame(SUCCESS, second.get(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("lights/1/state {\"on\":true}", "lights/2/state {\"on\":true,\"bri\":200}"),
+                requests);
+        assertEquals(1, commandScheduler.getCoalescedUpdates());
+        assertEquals(2, commandScheduler.getSentRequests());
+    }
+
+    @Test
+    public void sameStateOfAllLightsOfAGroupIsSentAsGroupAction() throws Exception {
+        groupLights.put("5", new HashSet<>(Arrays.asList("2", "3")));
+        groupLights.put("6", new HashSet<>(Arrays.asList("2", "3", "4")));
+        groupLights.put("7", new HashSet<>(Arrays.asList("2", "3", "4", "9")));
+
+        blockQueue();
+        List<CompletableFuture<Result>> futures = new ArrayList<>();
+        for (String lightId : Arrays.asList("2", "3", "4")) {
+            futures.add(setLightState(lightId, new StateUpdate().setOn(false)));
+        }
+        futures.add(setLightState("8", new StateUpdate().setOn(false)));
+        releaseFirstRequest.countDown();
+
+        for (CompletableFuture<Result> future : futures) {
+            assertSame(SUCCESS, future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(Arrays.asList("lights/1/state {\"on\":true}", "groups/6/action {\"on\":false}",
+                "lights/8/state {\"on\":false}"), requests);
+        assertEquals(1, commandScheduler.getGroupActions());
+    }
+
+    @Test
+    public void differentStatesAreSentToEachLight() throws Exception {
+        groupLights.put("5", new HashSet<>(Arrays.asList("2", "3")));
+
+        blockQueue();
+        CompletableFuture<Result> second = setLightState("2", new StateUpdate().setBrightness(10));
+        CompletableFuture<Result> third = setLightState("3", new StateUpdate().setBrightness(20));
+        releaseFirstRequest.countDown();
+
+        second.get(5, TimeUnit.SECONDS);
+        third.get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("lights/1/state {\"on\":true}", "lights/2/state {\"bri\":10}",
+                "lights/3/state {\"bri\":20}"), requests);
+        assertEquals(0, commandScheduler.getGroupActions());
+    }
+
+    /**
+     * Sends an update to each light at once and returns the minimum time between two requests in milliseconds.
+     */
+    private long minimumRequestGap(List<StateUpdate> updates) throws Exception {
+        releaseFirstRequest.countDown();
+        List<CompletableFuture<Result>> futures = new ArrayList<>();
+        for (int i = 0; i < updates.size(); i++) {
+            futures.add(setLightState(String.valueOf(i + 1), updates.get(i)));
+        }
+        for (CompletableFuture<Result> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        long minimumGap = Long.MAX_VALUE;
+        for (int i = 1; i < requestTimes.size(); i++) {
+            minimumGap = Math.min(minimumGap, requestTimes.get(i) - requestTimes.get(i - 1));
+        }
+        assertEquals(updates.size(), requests.size());
+        return TimeUnit.NANOSECONDS.toMillis(minimumGap);
+    }
+
+    @Test
+    public void commandsAreSpacedWithoutBurst() throws Exception {
+        List<StateUpdate> updates = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            updates.add(new StateUpdate().setBrightness(10 * (i + 1)));
+        }
+        // 100 ms per command, less a margin for the timer
+        assertTrue(minimumRequestGap(updates) >= 90);
+    }
+
+    @Test
+    public void commandsWithSeveralAttributesAreSpacedPerAttribute() throws Exception {
+        List<StateUpdate> updates = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            updates.add(new StateUpdate().setOn(true).setBrightness(10 * (i + 1)).setHue(100).setSat(200));
+        }
+        // 40 ms per attribute, less a margin for the timer
+        assertTrue(minimumRequestGap(updates) >= 150);
+    }
+
+    @Test
+    public void queuedUpdatesFailAfterShutdown() throws Exception {
+        blockQueue();
+        CompletableFuture<Result> queued = setLightState("2", new StateUpdate().setOn(true));
+        commandScheduler.shutdown();
+        releaseFirstRequest.countDown();
+
+        try {
+            queued.get(5, TimeUnit.SECONDS);
+            fail("Expected failure");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertTrue(setLightState("3", new StateUpdate().setOn(true)).isCompletedExceptionally());
+    }
+
+    @Test
+    public void tokenBucketLimitsRate() {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        TokenBucket bucket = new TokenBucket(10, 10, 0);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(bucket.tryTake(0));
+        }
+        assertFalse(bucket.tryTake(0));
+        assertEquals(second / 10, bucket.getDelay(0));
+        assertEquals(second / 20, bucket.getDelay(second / 20));
+        assertTrue(bucket.tryTake(second / 10));
+
+        // does not fill up beyond its capacity
+        for (int i = 0; i < 10; i++) {
+            assertTrue(bucket.tryTake(10 * second));
+        }
+        assertFalse(bucket.tryTake(10 * second));
+    }
+
+    @Test
+    public void tokenBucketTakesMoreTokensThanAvailable() {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        TokenBucket bucket = new TokenBucket(25, 1, 0);
+        assertEquals(0, bucket.getDelay(0));
+        bucket.take(0, 4);
+
+        // the three missing tokens and the next one
+        assertEquals(4 * second / 25, bucket.getDelay(0));
+        assertEquals(0, bucket.getDelay(4 * second / 25));
+        assertTrue(bucket.tryTake(4 * second / 25));
+        assertFalse(bucket.tryTake(4 * second / 25));
+    }
+}
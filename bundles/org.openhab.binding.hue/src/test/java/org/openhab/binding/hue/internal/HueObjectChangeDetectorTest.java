@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Test;
+import org.openhab.binding.hue.internal.HueObjectChangeDetector.Changes;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Tests for {@link HueObjectChangeDetector}.
+ *
+ * @author agent - Initial contribution
+ */
+public class HueObjectChangeDetectorTest {
+
+    private final Gson gson = new Gson();
+    private final HueObjectChangeDetector<FullLight> detector = new HueObjectChangeDetector<>(FullLight.class);
+
+    private static JsonObject lights(String json) {
+        return new JsonParser().parse(json).getAsJsonObject();
+    }
+
+    @Test
+    public void firstPollReportsAllObjects() {
+        Changes<FullLight> changes = detector
+                .detectChanges(gson, lights("{\"1\":{\"name\":\"Kitchen\"},\"2\":{\"name\":\"Hall\"}}"));
+
+        assertEquals(new HashSet<>(Arrays.asList("1", "2")), changes.getIds());
+        assertEquals(2, changes.getChangedObjects().size());
+        assertEquals("1", changes.getChangedObjects().get("1").getId());
+        assertEquals("Hall", changes.getChangedObjects().get("2").getName());
+    }
+
+    @Test
+    public void onlyChangedObjectsAreReported() {
+        detector.detectChanges(gson, lights("{\"1\":{\"state\":{\"on\":true}},\"2\":{\"state\":{\"on\":true}}}"));
+
+        Changes<FullLight> changes = detector
+                .detectChanges(gson, lights("{\"1\":{\"state\":{\"on\":true}},\"2\":{\"state\":{\"on\":false}}}"));
+
+        assertEquals(new HashSet<>(Arrays.asList("1", "2")), changes.getIds());
+        assertEquals(Collections.singleton("2"), changes.getChangedObjects().keySet());
+        assertFalse(changes.getChangedObjects().get("2").getState().isOn());
+    }
+
+    @Test
+    public void removedObjectsAreMissingFromTheIds() {
+        detector.detectChanges(gson, lights("{\"1\":{\"name\":\"Kitchen\"},\"2\":{\"name\":\"Hall\"}}"));
+
+        Changes<FullLight> changes = detector.detectChanges(gson, lights("{\"1\":{\"name\":\"Kitchen\"}}"));
+
+        assertEquals(Collections.singleton("1"), changes.getIds());
+        assertTrue(changes.getChangedObjects().isEmpty());
+    }
+
+    @Test
+    public void allObjectsAreReportedAfterReset() {
+        detector.detectChanges(gson, lights("{\"1\":{\"name\":\"Kitchen\"}}"));
+        detector.reset();
+
+        Changes<FullLight> changes = detector.detectChanges(gson, lights("{\"1\":{\"name\":\"Kitchen\"}}"));
+
+        assertEquals(Collections.singleton("1"), changes.getChangedObjects().keySet());
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.internal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+
+/**
+ * Detects changes in the slices of polled data read by individual consumers.
+ *
+ * For each consumer, a hash of the raw registers (or bits) last passed to it is kept. Data is considered worth passing
+ * on when the hash differs, when nothing has been passed yet, or when the forced refresh interval has elapsed since the
+ * last time data was passed.
+ *
+ * @author agent - Initial contribution
+ *
+ * @param <K> type of the consumer key
+ */
+@NonNullByDefault
+public class PolledDataChangeDetector<K> {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Offset and length of the polled data read by a consumer. Offset and length are in registers with register
+     * polls, and in bits with coil and discrete input polls.
+     */
+    public static class Range {
+        private final int offset;
+        private final int length;
+
+        public Range(int offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        @Override
+        public String toString() {
+            return "Range [offset=" + offset + ", length=" + length + "]";
+        }
+    }
+
+    private static class Fingerprint {
+        private final long hash;
+        private final long stamp;
+
+        private Fingerprint(long hash, long stamp) {
+            this.hash = hash;
+            this.stamp = stamp;
+        }
+    }
+
+    private final long forcedRefreshMillis;
+    private final Map<K, Fingerprint> fingerprints = new ConcurrentHashMap<>();
+
+    /**
+     * Construct new change detector
+     *
+     * @param forcedRefreshMillis interval after which unchanged data is passed on nevertheless. Zero or negative
+     *            disables change detection, i.e. all data is passed on.
+     */
+    public PolledDataChangeDetector(long forcedRefreshMillis) {
+        this.forcedRefreshMillis = forcedRefreshMillis;
+    }
+
+    /**
+     * Whether change detection is enabled
+     */
+    public boolean isEnabled() {
+        return forcedRefreshMillis > 0;
+    }
+
+    /**
+     * Check whether the registers read by the consumer should be passed to it. The registers are remembered as passed
+     * when true is returned.
+     *
+     * @param key consumer
+     * @param range registers read by the consumer. With null, the whole array is considered.
+     * @param registers polled registers
+     * @param now current time in milliseconds
+     * @return whether the registers should be passed to the consumer
+     */
+    public boolean shouldPass(K key, @Nullable Range range, ModbusRegisterArray registers, long now) {
+        if (!isEnabled()) {
+            return true;
+        }
+        int from = range == null ? 0 : Math.max(0, range.getOffset());
+        int to = range == null ? registers.size() : Math.min(registers.size(), from + range.getLength());
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = from; i < to; i++) {
+            int value = registers.getRegister(i).getValue();
+            hash = (hash ^ (value >>> 8)) * FNV_PRIME;
+            hash = (hash ^ (value & 0xff)) * FNV_PRIME;
+        }
+        return check(key, hash, now);
+    }
+
+    /**
+     * Check whether the bits read by the consumer should be passed to it. The bits are remembered as passed when true
+     * is returned.
+     *
+     * @param key consumer
+     * @param range bits read by the consumer. With null, the whole array is considered.
+     * @param bits polled bits
+     * @param now current time in milliseconds
+     * @return whether the bits should be passed to the consumer
+     */
+    public boolean shouldPass(K key, @Nullable Range range, BitArray bits, long now) {
+        if (!isEnabled()) {
+            return true;
+        }
+        int from = range == null ? 0 : Math.max(0, range.getOffset());
+        int to = range == null ? bits.size() : Math.min(bits.size(), from + range.getLength());
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = from; i < to; i++) {
+            hash = (hash ^ (bits.getBit(i) ? 1 : 0)) * FNV_PRIME;
+        }
+        return check(key, hash, now);
+    }
+
+    private boolean check(K key, long hash, long now) {
+        Fingerprint previous = fingerprints.get(key);
+        if (previous != null && previous.hash == hash && now - previous.stamp < forcedRefreshMillis) {
+            return false;
+        }
+        fingerprints.put(key, new Fingerprint(hash, now));
+        return true;
+    }
+
+    /**
+     * Forget the data passed to the consumer, so that next data is passed in any case
+     *
+     * @param key consumer
+     */
+    public void forget(K key) {
+        fingerprints.remove(key);
+    }
+
+    /**
+     * Forget the data passed to all consumers
+     */
+    public void reset() {
+        fingerprints.clear();
+    }
+}
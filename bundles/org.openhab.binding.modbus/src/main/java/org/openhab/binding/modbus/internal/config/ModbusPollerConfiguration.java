@@ -19,6 +19,7 @@ import org.eclipse.jdt.annotation.Nullable;
  * Configuration for poller thing
  *
  * @author Sami Salonen - Initial contribution
+ * @author agent - Skip processing of unchanged data
  *
  */
 @NonNullByDefault
@@ -30,6 +31,7 @@ public class ModbusPollerConfiguration {
     private String type;
     private int maxTries = 3;// backwards compatibility and tests
     private long cacheMillis = 50L;
+    private long updateUnchangedDataEveryMillis;
 
     /**
      * Gets refresh period in milliseconds
@@ -117,4 +119,22 @@ public class ModbusPollerConfiguration {
         this.cacheMillis = cacheMillis;
     }
 
+    /**
+     * Gets interval for passing unchanged data to child things, in milliseconds.
+     *
+     * Polled data is passed to child things only when the data read by the thing has changed, or when this interval
+     * has elapsed. Zero disables the change detection.
+     */
+    public long getUpdateUnchangedDataEveryMillis() {
+        return updateUnchangedDataEveryMillis;
+    }
+
+    /**
+     * Sets interval for passing unchanged data to child things, in milliseconds
+     *
+     */
+    public void setUpdateUnchangedDataEveryMillis(long updateUnchangedDataEveryMillis) {
+        this.updateUnchangedDataEveryMillis = updateUnchangedDataEveryMillis;
+    }
+
 }
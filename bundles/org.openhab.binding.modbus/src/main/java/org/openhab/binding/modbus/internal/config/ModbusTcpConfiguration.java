@@ -19,6 +19,7 @@ import org.eclipse.jdt.annotation.Nullable;
  * Configuration for tcp thing
  *
  * @author Sami Salonen - Initial contribution
+ * @author agent - Added pipelined transactions
  *
  */
 @NonNullByDefault
@@ -33,6 +34,7 @@ public class ModbusTcpConfiguration {
     private int reconnectAfterMillis;
     private int connectTimeoutMillis;
     private boolean enableDiscovery;
+    private int maxInFlightTransactions = 1;
 
     public @Nullable String getHost() {
         return host;
@@ -106,4 +108,12 @@ public class ModbusTcpConfiguration {
         this.enableDiscovery = enableDiscovery;
     }
 
+    public int getMaxInFlightTransactions() {
+        return maxInFlightTransactions;
+    }
+
+    public void setMaxInFlightTransactions(int maxInFlightTransactions) {
+        this.maxInFlightTransactions = maxInFlightTransactions;
+    }
+
 }
@@ -58,6 +58,7 @@ import org.openhab.binding.modbus.handler.EndpointNotInitializedException;
 import org.openhab.binding.modbus.handler.ModbusEndpointThingHandler;
 import org.openhab.binding.modbus.internal.ModbusBindingConstantsInternal;
 import org.openhab.binding.modbus.internal.ModbusConfigurationException;
+import org.openhab.binding.modbus.internal.PolledDataChangeDetector;
 import org.openhab.binding.modbus.internal.Transformation;
 import org.openhab.binding.modbus.internal.config.ModbusDataConfiguration;
 import org.openhab.io.transport.modbus.BasicModbusWriteCoilRequestBlueprint;
@@ -95,6 +96,7 @@ import org.slf4j.LoggerFactory;
  * to avoid data race conditions.
  *
  * @author Sami Salonen - Initial contribution
+ * @author agent - Skip processing of unchanged data
  */
 @NonNullByDefault
 public class ModbusDataThingHandler extends BaseThingHandler implements ModbusReadCallback, ModbusWriteCallback {
@@ -365,6 +367,9 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
                 pollTask = null;
             } else {
                 pollerHandler = (ModbusPollerThingHandler) bridgeHandler;
+                // the poller is not notified when only the configuration of this thing changes. The data must be
+                // processed again with the new configuration, even if it is unchanged.
+                pollerHandler.forgetPolledData(this);
                 PollTask pollTask = pollerHandler.getPollTask();
                 this.pollTask = pollTask;
                 if (pollTask == null) {
@@ -651,6 +656,32 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
         });
     }
 
+    /**
+     * Get the slice of polled data read by this thing.
+     *
+     * Used by the poller to detect whether the data relevant to this thing has changed. With register polls, the
+     * range is in registers, and with coil and discrete input polls, in bits.
+     *
+     * @return range of polled data read by this thing, or null if the range is not known (e.g. thing is not reading)
+     */
+    public PolledDataChangeDetector.@Nullable Range getReadRange() {
+        PollTask pollTask = this.pollTask;
+        ValueType readValueType = this.readValueType;
+        Optional<Integer> readIndex = this.readIndex;
+        if (!isReadEnabled || pollTask == null || readValueType == null || !readIndex.isPresent()) {
+            return null;
+        }
+        int offset = readIndex.get() - pollStart;
+        switch (pollTask.getRequest().getFunctionCode()) {
+            case READ_COILS:
+            case READ_INPUT_DISCRETES:
+                return new PolledDataChangeDetector.Range(offset, 1);
+            default:
+                // e.g. int32 spans two registers, while 8bit and bit types are within single register
+                return new PolledDataChangeDetector.Range(offset, Math.max(1, readValueType.getBits() / 16));
+        }
+    }
+
     @Override
     public synchronized void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
         if (hasConfigurationError()) {
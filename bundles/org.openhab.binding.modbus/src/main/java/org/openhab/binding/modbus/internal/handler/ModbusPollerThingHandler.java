@@ -17,12 +17,14 @@ import java.util.function.Supplier;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.io.transport.modbus.ModbusManager;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
 import org.openhab.io.transport.modbus.PollTask;
 
 /**
  * Interface for poller thing handlers
  *
  * @author Sami Salonen - Initial contribution
+ * @author agent - Forget the data passed to a reinitialized child
  *
  */
 @NonNullByDefault
@@ -49,4 +51,11 @@ public interface ModbusPollerThingHandler {
      */
     public void refresh();
 
+    /**
+     * Forget the data last passed to the child, so that the next poll is passed to it even if the data is unchanged
+     *
+     * @param child child that needs the next data, e.g. after its configuration changed
+     */
+    public void forgetPolledData(ModbusReadCallback child);
+
 }
@@ -37,6 +37,7 @@ import org.openhab.binding.modbus.handler.EndpointNotInitializedException;
 import org.openhab.binding.modbus.handler.ModbusEndpointThingHandler;
 import org.openhab.binding.modbus.internal.AtomicStampedKeyValue;
 import org.openhab.binding.modbus.internal.ModbusBindingConstantsInternal;
+import org.openhab.binding.modbus.internal.PolledDataChangeDetector;
 import org.openhab.binding.modbus.internal.config.ModbusPollerConfiguration;
 import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
 import org.openhab.io.transport.modbus.BasicPollTaskImpl;
@@ -56,6 +57,7 @@ import org.slf4j.LoggerFactory;
  * child thing handlers inheriting from {@link ModbusReadCallback} -- in practice: {@link ModbusDataThingHandler}.
  *
  * @author Sami Salonen - Initial contribution
+ * @author agent - Skip processing of unchanged data
  */
 @NonNullByDefault
 public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements ModbusPollerThingHandler {
@@ -92,7 +94,17 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
             }
             logger.debug("Thing {} received registers {} for request {}", thing.getUID(), registers, request);
             resetCommunicationError();
-            childCallbacks.forEach(handler -> handler.onRegisters(request, registers));
+            PolledDataChangeDetector<ModbusReadCallback> detector = changeDetector;
+            if (!detector.isEnabled()) {
+                childCallbacks.forEach(handler -> handler.onRegisters(request, registers));
+                return;
+            }
+            long now = System.currentTimeMillis();
+            childCallbacks.forEach(handler -> {
+                if (detector.shouldPass(handler, getReadRange(handler), registers, now)) {
+                    handler.onRegisters(request, registers);
+                }
+            });
         }
 
         @Override
@@ -111,7 +123,17 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
             }
             logger.debug("Thing {} received coils {} for request {}", thing.getUID(), coils, request);
             resetCommunicationError();
-            childCallbacks.forEach(handler -> handler.onBits(request, coils));
+            PolledDataChangeDetector<ModbusReadCallback> detector = changeDetector;
+            if (!detector.isEnabled()) {
+                childCallbacks.forEach(handler -> handler.onBits(request, coils));
+                return;
+            }
+            long now = System.currentTimeMillis();
+            childCallbacks.forEach(handler -> {
+                if (detector.shouldPass(handler, getReadRange(handler), coils, now)) {
+                    handler.onBits(request, coils);
+                }
+            });
         }
 
         @Override
@@ -129,6 +151,8 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
                 }
             }
             logger.debug("Thing {} received error {} for request {}", thing.getUID(), error, request);
+            // Pass the data following the error in any case, to bring children back online
+            changeDetector.reset();
             childCallbacks.forEach(handler -> handler.onError(request, error));
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
                     String.format("Error with read: %s: %s", error.getClass().getName(), error.getMessage()));
@@ -142,6 +166,14 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
             }
         }
 
+        private PolledDataChangeDetector.@Nullable Range getReadRange(ModbusReadCallback handler) {
+            if (handler instanceof ModbusDataThingHandler) {
+                return ((ModbusDataThingHandler) handler).getReadRange();
+            }
+            // Unknown consumer, consider all the polled data
+            return null;
+        }
+
         private ThingUID getThingUID() {
             return getThing().getUID();
         }
@@ -257,6 +289,7 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
     private volatile List<ModbusReadCallback> childCallbacks = new CopyOnWriteArrayList<>();
 
     private ReadCallbackDelegator callbackDelegator = new ReadCallbackDelegator();
+    private volatile PolledDataChangeDetector<ModbusReadCallback> changeDetector = new PolledDataChangeDetector<>(0);
 
     public ModbusPollerThingHandlerImpl(Bridge bridge, Supplier<ModbusManager> managerRef) {
         super(bridge);
@@ -307,6 +340,7 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
         try {
             config = getConfigAs(ModbusPollerConfiguration.class);
             cacheMillis = this.config.getCacheMillis();
+            changeDetector = new PolledDataChangeDetector<>(this.config.getUpdateUnchangedDataEveryMillis());
             registerPollTask();
         } catch (EndpointNotInitializedException e) {
             logger.debug("Exception during initialization", e);
@@ -324,6 +358,7 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
         disposed = true;
         unregisterPollTask();
         this.callbackDelegator.resetCache();
+        this.changeDetector.reset();
     }
 
     /**
@@ -406,6 +441,7 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
     public void childHandlerInitialized(ThingHandler childHandler, Thing childThing) {
         if (childHandler instanceof ModbusReadCallback) {
             this.childCallbacks.add((ModbusReadCallback) childHandler);
+            forgetPolledData((ModbusReadCallback) childHandler);
         }
     }
 
@@ -414,9 +450,15 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
     public void childHandlerDisposed(ThingHandler childHandler, Thing childThing) {
         if (childHandler instanceof ModbusReadCallback) {
             this.childCallbacks.remove(childHandler);
+            forgetPolledData((ModbusReadCallback) childHandler);
         }
     }
 
+    @Override
+    public void forgetPolledData(ModbusReadCallback child) {
+        this.changeDetector.forget(child);
+    }
+
     @Override
     public Supplier<ModbusManager> getManagerRef() {
         return managerRef;
@@ -450,6 +492,8 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
             // cache expired, poll new data
             logger.debug("Poller {} received refresh() but the cache is not applicable. Polling new data",
                     getThing().getUID());
+            // Explicit refresh, pass the new data to children even when it has not changed
+            changeDetector.reset();
             managerRef.get().submitOneTimePoll(pollTask);
         }
     }
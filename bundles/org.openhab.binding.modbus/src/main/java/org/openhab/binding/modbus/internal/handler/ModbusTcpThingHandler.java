@@ -33,6 +33,7 @@ import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
  * Endpoint thing handler for TCP slaves
  *
  * @author Sami Salonen - Initial contribution
+ * @author agent - Added pipelined transactions
  */
 @NonNullByDefault
 public class ModbusTcpThingHandler
@@ -61,6 +62,7 @@ public class ModbusTcpThingHandler
         poolConfiguration.setInterConnectDelayMillis(config.getTimeBetweenReconnectMillis());
         poolConfiguration.setInterTransactionDelayMillis(config.getTimeBetweenTransactionsMillis());
         poolConfiguration.setReconnectAfterMillis(config.getReconnectAfterMillis());
+        poolConfiguration.setMaxInFlightTransactions(config.getMaxInFlightTransactions());
     }
 
     @Override
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.internal;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.openhab.binding.modbus.internal.PolledDataChangeDetector.Range;
+import org.openhab.io.transport.modbus.BasicBitArray;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class PolledDataChangeDetectorTest {
+
+    @Test
+    public void testDisabledPassesEverything() {
+        PolledDataChangeDetector<String> detector = new PolledDataChangeDetector<>(0);
+        BasicModbusRegisterArray registers = new BasicModbusRegisterArray(1, 2, 3);
+        assertFalse(detector.isEnabled());
+        assertTrue(detector.shouldPass("a", null, registers, 0));
+        assertTrue(detector.shouldPass("a", null, registers, 1));
+    }
+
+    @Test
+    public void testOnlyChangedRangeIsPassed() {
+        PolledDataChangeDetector<String> detector = new PolledDataChangeDetector<>(1000);
+        Range first = new Range(0, 2);
+        Range last = new Range(2, 1);
+        assertTrue(detector.shouldPass("first", first, new BasicModbusRegisterArray(1, 2, 3), 0));
+        assertTrue(detector.shouldPass("last", last, new BasicModbusRegisterArray(1, 2, 3), 0));
+
+        // only the register read by "last" changes
+        assertFalse(detector.shouldPass("first", first, new BasicModbusRegisterArray(1, 2, 4), 10));
+        assertTrue(detector.shouldPass("last", last, new BasicModbusRegisterArray(1, 2, 4), 10));
+        assertFalse(detector.shouldPass("last", last, new BasicModbusRegisterArray(1, 2, 4), 20));
+
+        // byte order within the register matters
+        assertTrue(detector.shouldPass("first", first, new BasicModbusRegisterArray(0x0100, 2, 4), 30));
+    }
+
+    @Test
+    public void testUnchangedDataIsPassedAfterInterval() {
+        PolledDataChangeDetector<String> detector = new PolledDataChangeDetector<>(1000);
+        BasicModbusRegisterArray registers = new BasicModbusRegisterArray(5);
+        assertTrue(detector.shouldPass("a", null, registers, 0));
+        assertFalse(detector.shouldPass("a", null, registers, 999));
+        assertTrue(detector.shouldPass("a", null, registers, 1000));
+        assertFalse(detector.shouldPass("a", null, registers, 1500));
+    }
+
+    @Test
+    public void testForgetAndReset() {
+        PolledDataChangeDetector<String> detector = new PolledDataChangeDetector<>(1000);
+        BasicModbusRegisterArray registers = new BasicModbusRegisterArray(5);
+        assertTrue(detector.shouldPass("a", null, registers, 0));
+        assertTrue(detector.shouldPass("b", null, registers, 0));
+
+        detector.forget("a");
+        assertTrue(detector.shouldPass("a", null, registers, 1));
+        assertFalse(detector.shouldPass("b", null, registers, 1));
+
+        detector.reset();
+        assertTrue(detector.shouldPass("a", null, registers, 2));
+        assertTrue(detector.shouldPass("b", null, registers, 2));
+    }
+
+    @Test
+    public void testBits() {
+        PolledDataChangeDetector<String> detector = new PolledDataChangeDetector<>(1000);
+        Range second = new Range(1, 1);
+        assertTrue(detector.shouldPass("a", second, new BasicBitArray(true, false, true), 0));
+        assertFalse(detector.shouldPass("a", second, new BasicBitArray(false, false, false), 10));
+        assertTrue(detector.shouldPass("a", second, new BasicBitArray(false, true, false), 20));
+    }
+}
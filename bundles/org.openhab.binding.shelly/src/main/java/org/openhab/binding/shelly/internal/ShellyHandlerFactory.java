@@ -21,6 +21,7 @@ import java.util.concurrent.CopyOnWriteArraySet;
 import org.apache.commons.lang.Validate;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.smarthome.core.net.HttpServiceUtil;
 import org.eclipse.smarthome.core.net.NetworkAddressService;
 import org.eclipse.smarthome.core.thing.Thing;
@@ -28,6 +29,7 @@ import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.thing.binding.BaseThingHandlerFactory;
 import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.thing.binding.ThingHandlerFactory;
+import org.eclipse.smarthome.io.net.http.HttpClientFactory;
 import org.openhab.binding.shelly.internal.coap.ShellyCoapServer;
 import org.openhab.binding.shelly.internal.config.ShellyBindingConfiguration;
 import org.openhab.binding.shelly.internal.handler.ShellyBaseHandler;
@@ -48,12 +50,14 @@ import io.reactivex.annotations.NonNull;
  * The {@link ShellyHandlerFactory} is responsible for creating things and thing handlers.
  *
  * @author Markus Michels - Initial contribution
+ * @author agent - Added CoIoT-only status mode and keep-alive connections
  */
 @NonNullByDefault
 @Component(service = { ThingHandlerFactory.class, ShellyHandlerFactory.class }, configurationPid = "binding.shelly")
 public class ShellyHandlerFactory extends BaseThingHandlerFactory {
     private final Logger logger = LoggerFactory.getLogger(ShellyHandlerFactory.class);
     private final ShellyCoapServer coapServer;
+    private final HttpClient httpClient;
     private final Set<ShellyDeviceListener> deviceListeners = new CopyOnWriteArraySet<>();
 
     private static final Set<ThingTypeUID> SUPPORTED_THING_TYPES_UIDS = ShellyBindingConstants.SUPPORTED_THING_TYPES_UIDS;
@@ -64,15 +68,19 @@ public class ShellyHandlerFactory extends BaseThingHandlerFactory {
     /**
      * Activate the bundle: save properties
      *
+     * @param networkAddressService
+     * @param httpClientFactory provides the shared http client
      * @param componentContext
      * @param configProperties set of properties from cfg (use same names as in
      *            thing config)
      */
     @Activate
     public ShellyHandlerFactory(@Reference NetworkAddressService networkAddressService,
-            ComponentContext componentContext, Map<String, @Nullable Object> configProperties) {
+            @Reference HttpClientFactory httpClientFactory, ComponentContext componentContext,
+            Map<String, @Nullable Object> configProperties) {
         logger.debug("Activate Shelly HandlerFactory");
         super.activate(componentContext);
+        this.httpClient = httpClientFactory.getCommonHttpClient();
 
         this.coapServer = new ShellyCoapServer();
         Validate.notNull(coapServer, "coapServer creation failed!");
@@ -103,15 +111,15 @@ public class ShellyHandlerFactory extends BaseThingHandlerFactory {
 
         if (thingType.equals(THING_TYPE_SHELLYPROTECTED_STR)) {
             logger.debug("Create new thing of type {} using ShellyRelayHandler", thingTypeUID.getId());
-            handler = new ShellyProtectedHandler(thing, bindingConfig, coapServer, localIP, httpPort);
+            handler = new ShellyProtectedHandler(thing, bindingConfig, coapServer, localIP, httpPort, httpClient);
         } else if (thingType.equals(THING_TYPE_SHELLYBULB.getId())
                 || thingType.equals(THING_TYPE_SHELLYRGBW2_COLOR.getId())
                 || thingType.equals(THING_TYPE_SHELLYRGBW2_WHITE.getId())) {
             logger.debug("Create new thing of type {} using ShellyLightHandler", thingTypeUID.getId());
-            handler = new ShellyLightHandler(thing, bindingConfig, coapServer, localIP, httpPort);
+            handler = new ShellyLightHandler(thing, bindingConfig, coapServer, localIP, httpPort, httpClient);
         } else if (SUPPORTED_THING_TYPES_UIDS.contains(thingTypeUID)) {
             logger.debug("Create new thing of type {} using ShellyRelayHandler", thingTypeUID.getId());
-            handler = new ShellyRelayHandler(thing, bindingConfig, coapServer, localIP, httpPort);
+            handler = new ShellyRelayHandler(thing, bindingConfig, coapServer, localIP, httpPort, httpClient);
         }
 
         if (handler != null) {
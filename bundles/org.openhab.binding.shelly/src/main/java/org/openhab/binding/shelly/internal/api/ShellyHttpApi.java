@@ -20,15 +20,19 @@ import java.io.IOException;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Properties;
-
-import javax.ws.rs.HttpMethod;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.Validate;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
-import org.eclipse.smarthome.io.net.http.HttpUtil;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.ContentResponse;
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.http.HttpStatus;
 import org.openhab.binding.shelly.internal.api.ShellyApiJsonDTO.ShellyControlRoller;
 import org.openhab.binding.shelly.internal.api.ShellyApiJsonDTO.ShellySendKeyList;
 import org.openhab.binding.shelly.internal.api.ShellyApiJsonDTO.ShellySenseKeyCode;
@@ -50,11 +54,13 @@ import com.google.gson.Gson;
  * cloud api).
  *
  * @author Markus Michels - Initial contribution
+ * @author agent - Added CoIoT-only status mode and keep-alive connections
  */
 @NonNullByDefault
 public class ShellyHttpApi {
     private final Logger logger = LoggerFactory.getLogger(ShellyHttpApi.class);
     private final ShellyThingConfiguration config;
+    private final HttpClient httpClient;
     private final String thingName = "";
     private int timeoutErrors = 0;
     private int timeoutsRecovered = 0;
@@ -62,9 +68,16 @@ public class ShellyHttpApi {
 
     private @Nullable ShellyDeviceProfile profile;
 
-    public ShellyHttpApi(ShellyThingConfiguration config) {
+    /**
+     * Constructor
+     *
+     * @param config thing configuration
+     * @param httpClient shared http client, which keeps the connections to the device alive between requests
+     */
+    public ShellyHttpApi(ShellyThingConfiguration config, HttpClient httpClient) {
         Validate.notNull(config, "Shelly Http Api: Config must not be null!");
         this.config = config;
+        this.httpClient = httpClient;
     }
 
     @Nullable
@@ -508,19 +521,34 @@ public class ShellyHttpApi {
         String url = "http://" + config.deviceIp + uri;
         logger.trace("{}: HTTP GET for {}", thingName, url);
 
-        Properties headers = new Properties();
+        Request request = httpClient.newRequest(url).method(HttpMethod.GET).timeout(SHELLY_API_TIMEOUT_MS,
+                TimeUnit.MILLISECONDS);
         if (!config.userId.isEmpty()) {
             String value = config.userId + ":" + config.password;
-            headers.put(HTTP_HEADER_AUTH,
+            request.header(HTTP_HEADER_AUTH,
                     HTTP_AUTH_TYPE_BASIC + " " + Base64.getEncoder().encodeToString(value.getBytes()));
         }
 
-        httpResponse = HttpUtil.executeUrl(HttpMethod.GET, url, headers, null, "", SHELLY_API_TIMEOUT_MS);
+        // requests are sent through the shared client, which keeps the connection to the device open for the next one
+        ContentResponse response;
+        try {
+            response = request.send();
+        } catch (TimeoutException e) {
+            throw new IOException("Timeout", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new IOException(cause.toString(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Request interrupted", e);
+        }
+        httpResponse = response.getContentAsString();
         Validate.notNull(httpResponse, "httpResponse must not be null");
         // all api responses are returning the result in Json format. If we are getting
         // something else it must
         // be an error message, e.g. http result code
-        if (httpResponse.contains(APIERR_HTTP_401_UNAUTHORIZED)) {
+        if ((response.getStatus() == HttpStatus.UNAUTHORIZED_401)
+                || httpResponse.contains(APIERR_HTTP_401_UNAUTHORIZED)) {
             throw new IOException(
                     APIERR_HTTP_401_UNAUTHORIZED + ", set/correct userid and password in the thing/binding config");
         }
@@ -59,6 +59,7 @@ import com.google.gson.GsonBuilder;
  * The {@link ShellyCoapHandler} handles the CoIoT/Coap registration and events.
  *
  * @author Markus Michels - Initial contribution
+ * @author agent - Route CoIoT packets by source address, CoIoT-only status mode
  */
 @NonNullByDefault
 public class ShellyCoapHandler implements ShellyCoapListener {
@@ -104,7 +105,7 @@ public class ShellyCoapHandler implements ShellyCoapListener {
 
             if (statusClient == null) {
                 coapServer.init(config.localIp);
-                coapServer.addListener(this);
+                coapServer.addListener(config.deviceIp, this);
 
                 statusClient = new CoapClient(completeUrl(config.deviceIp, COLOIT_URI_DEVSTATUS))
                         .setTimeout((long) SHELLY_API_TIMEOUT_MS).useNONs().setEndpoint(coapServer.getEndpoint());
@@ -142,7 +143,7 @@ public class ShellyCoapHandler implements ShellyCoapListener {
         int serial = 0;
         try {
             logger.debug("{}: CoIoT Message from {}: {}", thingName, response.getSourceContext().getPeerAddress(),
-                    response.toString());
+                    response);
             if (response.isCanceled() || response.isDuplicate() || response.isRejected()) {
                 logger.debug("{} ({}): Packet was canceled, rejected or is a duplicate -> discard", thingName, devId);
                 return;
@@ -203,7 +204,14 @@ public class ShellyCoapHandler implements ShellyCoapListener {
                     handleDeviceDescription(devId, payload);
                 } else if (uri.equalsIgnoreCase(COLOIT_URI_DEVSTATUS)
                         || (uri.isEmpty() && payload.contains(COIOT_TAG_GENERIC))) {
-                    handleStatusUpdate(devId, payload, serial);
+                    if (payload.equals(lastPayload)) {
+                        // sensor values are unchanged, no need to decode them again
+                        logger.debug("{}: Payload of serial {} is unchanged, ignore update", thingName, serial);
+                        thingHandler.coiotUpdateReceived(isSerialGap(serial));
+                        lastSerial = serial;
+                    } else {
+                        handleStatusUpdate(devId, payload, serial);
+                    }
                 }
             } else {
                 // error handling
@@ -507,7 +515,7 @@ public class ShellyCoapHandler implements ShellyCoapListener {
                 i++;
             }
 
-            if (!profile.isSensor) {
+            if (!profile.isSensor && !config.eventsCoIoTOnly) {
                 // For now the Coap interface is not providing all updates, e.g. currentWatts yes, but not the average
                 // values for the 3 mins
                 // To prevent confusing the user we schedule a regular REST update shortly
@@ -518,6 +526,8 @@ public class ShellyCoapHandler implements ShellyCoapListener {
             }
         }
 
+        thingHandler.coiotUpdateReceived(isSerialGap(serial));
+
         // Remeber serial, new packets with same serial will be ignored
         lastSerial = serial;
         lastPayload = payload;
@@ -687,6 +697,17 @@ public class ShellyCoapHandler implements ShellyCoapListener {
 
     }
 
+    /**
+     * The serial is incremented by the device for each status change, so a step by more than one means that status
+     * updates were lost.
+     *
+     * @param serial serial of the received status update
+     * @return true: one or more updates are missing since the last processed one
+     */
+    private boolean isSerialGap(int serial) {
+        return (lastSerial != -1) && (((serial - lastSerial) & 0xffff) > 1);
+    }
+
     private void resetSerial() {
         lastSerial = -1;
         lastPayload = "";
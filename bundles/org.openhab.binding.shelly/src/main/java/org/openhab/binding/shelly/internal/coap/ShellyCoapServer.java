@@ -17,8 +17,8 @@ import static org.openhab.binding.shelly.internal.ShellyBindingConstants.COIOT_P
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang.Validate;
 import org.eclipse.californium.core.CoapResource;
@@ -41,6 +41,7 @@ import org.slf4j.LoggerFactory;
  * The {@link ShellyCoapServer} implements the UDP listener and status event processor (for /cit/s messages)
  *
  * @author Markus Michels - Initial contribution
+ * @author agent - Route CoIoT packets by source address
  */
 @NonNullByDefault
 public class ShellyCoapServer {
@@ -50,7 +51,7 @@ public class ShellyCoapServer {
     private @Nullable UdpMulticastConnector statusConnector;
     private @Nullable CoapServer server;
     boolean started = false;
-    private final Set<ShellyCoapListener> coapListeners = new CopyOnWriteArraySet<>();
+    private final Map<String, ShellyCoapListener> coapListeners = new ConcurrentHashMap<>();
 
     @SuppressWarnings("null")
     @NonNullByDefault
@@ -81,12 +82,20 @@ public class ShellyCoapServer {
 
     }
 
-    public void addListener(ShellyCoapListener listener) {
-        coapListeners.add(listener);
+    /**
+     * Register a listener for the status packets sent by a device. Each packet is only passed to the listener
+     * registered for its source address.
+     *
+     * @param deviceIp IP address or host name of the device
+     * @param listener listener processing the packets of this device
+     * @throws UnknownHostException if the host name can't be resolved
+     */
+    public void addListener(String deviceIp, ShellyCoapListener listener) throws UnknownHostException {
+        coapListeners.put(InetAddress.getByName(deviceIp).getHostAddress(), listener);
     }
 
     public void removeListener(ShellyCoapListener listener) {
-        coapListeners.remove(listener);
+        coapListeners.values().remove(listener);
     }
 
     @SuppressWarnings("null")
@@ -119,7 +128,13 @@ public class ShellyCoapServer {
     }
 
     protected void processResponse(Response response) {
-        coapListeners.forEach(listener -> listener.processResponse(response));
+        InetAddress address = response.getSourceContext().getPeerAddress().getAddress();
+        ShellyCoapListener listener = address != null ? coapListeners.get(address.getHostAddress()) : null;
+        if (listener != null) {
+            listener.processResponse(response);
+        } else {
+            logger.trace("Ignore CoIoT packet from unknown device {}", address);
+        }
     }
 
     public static Response createResponse(Request request) {
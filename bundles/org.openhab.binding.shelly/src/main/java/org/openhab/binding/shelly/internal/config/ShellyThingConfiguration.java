@@ -18,6 +18,7 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
  * The {@link ShellyThingConfiguration} class contains fields mapping thing configuration parameters.
  *
  * @author Markus Michels - Initial contribution
+ * @author agent - Added CoIoT-only status mode and keep-alive connections
  */
 @NonNullByDefault
 public class ShellyThingConfiguration {
@@ -34,6 +35,7 @@ public class ShellyThingConfiguration {
     public boolean eventsPush = true; // true: register for short/long push events
     public boolean eventsSensorReport = true; // true: register for sensor events
     public boolean eventsCoIoT = false; // true: use CoIoT events (based on COAP)
+    public boolean eventsCoIoTOnly = false; // true: CoIoT events replace the periodic status update
 
     public String localIp = ""; // local ip addresses used to create callback url
     public Integer httpPort = 0;
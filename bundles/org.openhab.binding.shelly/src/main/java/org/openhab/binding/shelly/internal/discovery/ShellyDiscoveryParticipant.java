@@ -26,11 +26,13 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.Validate;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.smarthome.config.discovery.DiscoveryResult;
 import org.eclipse.smarthome.config.discovery.DiscoveryResultBuilder;
 import org.eclipse.smarthome.config.discovery.mdns.MDNSDiscoveryParticipant;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.io.net.http.HttpClientFactory;
 import org.openhab.binding.shelly.internal.ShellyHandlerFactory;
 import org.openhab.binding.shelly.internal.api.ShellyDeviceProfile;
 import org.openhab.binding.shelly.internal.api.ShellyHttpApi;
@@ -51,6 +53,7 @@ import org.slf4j.LoggerFactory;
  * This class identifies Shelly devices by their mDNS service information.
  *
  * @author Hans-Jörg Merk - Initial contribution
+ * @author agent - Added CoIoT-only status mode and keep-alive connections
  */
 @NonNullByDefault
 @Component(service = MDNSDiscoveryParticipant.class, immediate = true)
@@ -58,6 +61,7 @@ public class ShellyDiscoveryParticipant implements MDNSDiscoveryParticipant {
     private final Logger logger = LoggerFactory.getLogger(ShellyDiscoveryParticipant.class);
     private @Nullable ShellyBindingConfiguration bindingConfig = new ShellyBindingConfiguration();
     private @Nullable ShellyHandlerFactory handlerFactory;
+    private @Nullable HttpClient httpClient;
 
     @Override
     public Set<ThingTypeUID> getSupportedThingTypeUIDs() {
@@ -127,7 +131,12 @@ public class ShellyDiscoveryParticipant implements MDNSDiscoveryParticipant {
             config.deviceIp = address;
             config.userId = bindingConfig.defaultUserId;
             config.password = bindingConfig.defaultPassword;
-            ShellyHttpApi api = new ShellyHttpApi(config);
+            HttpClient httpClient = this.httpClient;
+            if (httpClient == null) {
+                logger.debug("Shelly device {} discovered while no HTTP client is available", name);
+                return null;
+            }
+            ShellyHttpApi api = new ShellyHttpApi(config, httpClient);
 
             try {
                 profile = api.getDeviceProfile(thingType);
@@ -185,6 +194,15 @@ public class ShellyDiscoveryParticipant implements MDNSDiscoveryParticipant {
         return ShellyThingCreator.getThingUID(service.getName().toLowerCase(), "", false);
     }
 
+    @Reference
+    protected void setHttpClientFactory(HttpClientFactory httpClientFactory) {
+        this.httpClient = httpClientFactory.getCommonHttpClient();
+    }
+
+    protected void unsetHttpClientFactory(HttpClientFactory httpClientFactory) {
+        this.httpClient = null;
+    }
+
     @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
     public void setShellyHandlerFactory(ShellyHandlerFactory handlerFactory) {
         this.handlerFactory = handlerFactory;
@@ -28,6 +28,7 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.Validate;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.library.unit.SmartHomeUnits;
@@ -57,6 +58,7 @@ import org.slf4j.LoggerFactory;
  * sent to one of the channels.
  *
  * @author Markus Michels - Initial contribution
+ * @author agent - Added CoIoT-only status mode and keep-alive connections
  */
 @NonNullByDefault
 public class ShellyBaseHandler extends BaseThingHandler implements ShellyDeviceListener {
@@ -81,6 +83,7 @@ public class ShellyBaseHandler extends BaseThingHandler implements ShellyDeviceL
     private int skipUpdate = 0;
     public int scheduledUpdates = 0;
     private int skipCount = UPDATE_SKIP_COUNT;
+    private volatile long lastCoIoTUpdate = 0;
 
     // force settings refresh every x seconds
     private int refreshCount = UPDATE_SETTINGS_INTERVAL_SECONDS / UPDATE_STATUS_INTERVAL_SECONDS;
@@ -93,6 +96,7 @@ public class ShellyBaseHandler extends BaseThingHandler implements ShellyDeviceL
 
     String localIP = "";
     int httpPort = -1;
+    private final HttpClient httpClient;
 
     /**
      * Constructor
@@ -103,15 +107,17 @@ public class ShellyBaseHandler extends BaseThingHandler implements ShellyDeviceL
      * @param coapServer coap server instance
      * @param localIP local IP address from networkAddressService
      * @param httpPort from httpService
+     * @param httpClient shared http client to access the device
      */
     public ShellyBaseHandler(Thing thing, ShellyBindingConfiguration bindingConfig,
-            @Nullable ShellyCoapServer coapServer, String localIP, int httpPort) {
+            @Nullable ShellyCoapServer coapServer, String localIP, int httpPort, HttpClient httpClient) {
         super(thing);
 
         this.bindingConfig = bindingConfig;
         this.coapServer = coapServer;
         this.localIP = localIP;
         this.httpPort = httpPort;
+        this.httpClient = httpClient;
     }
 
     /**
@@ -188,7 +194,7 @@ public class ShellyBaseHandler extends BaseThingHandler implements ShellyDeviceL
         }
 
         // Initialize API access, exceptions will be catched by initialize()
-        api = new ShellyHttpApi(config);
+        api = new ShellyHttpApi(config, httpClient);
         ShellyDeviceProfile tmpPrf = api.getDeviceProfile(thingType);
         thingName = (!thingName.isEmpty() ? thingName : tmpPrf.hostname).toLowerCase();
         Validate.isTrue(!thingName.isEmpty(), "initializeThing(): thingName must not be empty!");
@@ -273,6 +279,10 @@ public class ShellyBaseHandler extends BaseThingHandler implements ShellyDeviceL
     public void handleCommand(ChannelUID channelUID, Command command) {
         try {
             if (command instanceof RefreshType) {
+                if (isCoIoTStatusActive() && (scheduledUpdates == 0)) {
+                    // status is not polled regularly, fetch it once on request
+                    requestUpdates(1, false);
+                }
                 return;
             }
 
@@ -331,12 +341,14 @@ public class ShellyBaseHandler extends BaseThingHandler implements ShellyDeviceL
                 return;
             }
 
+            // while CoIoT updates are arriving, they replace the regular status and settings updates
+            boolean coiotActive = isCoIoTStatusActive();
             if ((skipUpdate % refreshCount == 0) && (profile != null)
-                    && (getThing().getStatus() == ThingStatus.ONLINE)) {
+                    && (getThing().getStatus() == ThingStatus.ONLINE) && !coiotActive) {
                 refreshSettings |= !profile.hasBattery;
             }
 
-            if (refreshSettings || (scheduledUpdates > 0) || (skipUpdate % skipCount == 0)) {
+            if (refreshSettings || (scheduledUpdates > 0) || ((skipUpdate % skipCount == 0) && !coiotActive)) {
                 if ((profile == null) || ((getThing().getStatus() == ThingStatus.OFFLINE)
                         && (getThing().getStatusInfo().getStatusDetail() != ThingStatusDetail.CONFIGURATION_ERROR))) {
                     logger.debug("{}: Status update triggered thing initialization", thingName);
@@ -643,6 +655,30 @@ public class ShellyBaseHandler extends BaseThingHandler implements ShellyDeviceL
         }
     }
 
+    /**
+     * Called by the CoIoT handler when a status update has been received from the device
+     *
+     * @param missedUpdates true: updates have been lost since the previous one, the status needs to be queried
+     */
+    public void coiotUpdateReceived(boolean missedUpdates) {
+        lastCoIoTUpdate = System.currentTimeMillis();
+        if (missedUpdates && isCoIoTStatusActive()) {
+            logger.debug("{}: CoIoT updates have been missed, request status update", thingName);
+            requestUpdates(1, false);
+        }
+    }
+
+    /**
+     * Checks if the status is taken from CoIoT updates rather than polled over HTTP. This is the case, if enabled in
+     * the thing configuration and the last CoIoT update is not older than the update interval.
+     *
+     * @return true: skip the regular status update
+     */
+    public boolean isCoIoTStatusActive() {
+        return config.eventsCoIoT && config.eventsCoIoTOnly
+                && (System.currentTimeMillis() - lastCoIoTUpdate < TimeUnit.SECONDS.toMillis(config.updateInterval));
+    }
+
     /**
      * Start the background updates
      */
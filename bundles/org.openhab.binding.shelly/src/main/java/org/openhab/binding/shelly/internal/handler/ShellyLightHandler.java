@@ -23,6 +23,7 @@ import java.util.Map;
 import org.apache.commons.lang.Validate;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.HSBType;
 import org.eclipse.smarthome.core.library.types.IncreaseDecreaseType;
@@ -47,6 +48,7 @@ import org.slf4j.LoggerFactory;
  * routet of the generic thing handler.
  *
  * @author Markus Michels - Initial contribution
+ * @author agent - Added CoIoT-only status mode and keep-alive connections
  */
 @NonNullByDefault
 public class ShellyLightHandler extends ShellyBaseHandler {
@@ -61,10 +63,11 @@ public class ShellyLightHandler extends ShellyBaseHandler {
      * @param coapServer coap server instance
      * @param localIP local IP of the openHAB host
      * @param httpPort port of the openHAB HTTP API
+     * @param httpClient shared http client to access the device
      */
     public ShellyLightHandler(Thing thing, ShellyBindingConfiguration bindingConfig,
-            @Nullable ShellyCoapServer coapServer, String localIP, int httpPort) {
-        super(thing, bindingConfig, coapServer, localIP, httpPort);
+            @Nullable ShellyCoapServer coapServer, String localIP, int httpPort, HttpClient httpClient) {
+        super(thing, bindingConfig, coapServer, localIP, httpPort, httpClient);
         channelColors = new HashMap<Integer, ShellyColorUtils>();
     }
 
@@ -14,6 +14,7 @@ package org.openhab.binding.shelly.internal.handler;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.openhab.binding.shelly.internal.coap.ShellyCoapServer;
 import org.openhab.binding.shelly.internal.config.ShellyBindingConfiguration;
@@ -24,6 +25,7 @@ import org.slf4j.LoggerFactory;
  * The {@link ShellyProtectedHandler} implements a dummy handler for password protected devices.
  *
  * @author Markus Michels - Initial contribution
+ * @author agent - Added CoIoT-only status mode and keep-alive connections
  */
 @NonNullByDefault
 public class ShellyProtectedHandler extends ShellyBaseHandler {
@@ -37,10 +39,11 @@ public class ShellyProtectedHandler extends ShellyBaseHandler {
      * @param coapServer coap server instance
      * @param localIP local IP of the openHAB host
      * @param httpPort port of the openHAB HTTP API
+     * @param httpClient shared http client to access the device
      */
     public ShellyProtectedHandler(Thing thing, ShellyBindingConfiguration bindingConfig,
-            @Nullable ShellyCoapServer coapServer, String localIP, int httpPort) {
-        super(thing, bindingConfig, coapServer, localIP, httpPort);
+            @Nullable ShellyCoapServer coapServer, String localIP, int httpPort, HttpClient httpClient) {
+        super(thing, bindingConfig, coapServer, localIP, httpPort, httpClient);
     }
 
     @Override
@@ -17,6 +17,7 @@ package org.openhab.binding.smartmeter;
  * thing configuration.
  *
  * @author Matthias Steigenberger - Initial contribution
+ * @author agent - Added continuous reading
  */
 public class SmartMeterConfiguration {
 
@@ -27,4 +28,5 @@ public class SmartMeterConfiguration {
     public String baudrate;
     public String mode;
     public String conformity;
+    public Boolean continuous;
 }
@@ -34,6 +34,7 @@ import io.reactivex.schedulers.Schedulers;
  *
  * @author Matthias Steigenberger - Initial contribution
  * @author Mathias Gilhuber - Also-By
+ * @author agent - Added continuous reading
  */
 @NonNullByDefault
 public abstract class ConnectorBase<T> implements IMeterReaderConnector<T> {
@@ -73,6 +74,15 @@ public abstract class ConnectorBase<T> implements IMeterReaderConnector<T> {
         return false;
     }
 
+    /**
+     * The strategy to apply if values are emitted faster than they can be consumed.
+     *
+     * @return the {@link BackpressureStrategy} for the emitted values
+     */
+    protected BackpressureStrategy getBackpressureStrategy() {
+        return BackpressureStrategy.DROP;
+    }
+
     /**
      * Whether to apply a retry handling whenever the read out failed.
      *
@@ -122,7 +132,7 @@ public abstract class ConnectorBase<T> implements IMeterReaderConnector<T> {
     public Publisher<T> getMeterValues(byte @Nullable [] initMessage, Duration period, ExecutorService executor) {
         Flowable<T> itemPublisher = Flowable.<T> create((emitter) -> {
             emitValues(initMessage, emitter);
-        }, BackpressureStrategy.DROP);
+        }, getBackpressureStrategy());
 
         Flowable<T> result;
         if (applyPeriod()) {
@@ -19,6 +19,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -46,6 +47,7 @@ import io.reactivex.schedulers.Schedulers;
  * {@link #readValues(ScheduledExecutorService, Duration)}
  *
  * @author Matthias Steigenberger - Initial contribution
+ * @author agent - Added continuous reading
  *
  * @param <T> The type of Payload which is read from the device.
  */
@@ -72,6 +74,14 @@ public abstract class MeterDevice<T> {
      */
     IMeterReaderConnector<T> connector;
     private List<MeterValueListener> valueChangeListeners;
+    /**
+     * Whether the meter pushes values continuously. Only changed values are notified in that case.
+     */
+    private boolean continuous;
+    /**
+     * The values last notified to the listeners, used to detect changes in continuous mode.
+     */
+    private final Map<String, MeterValue<?>> notifiedValues = new ConcurrentHashMap<>();
 
     public MeterDevice(Supplier<SerialPortManager> serialPortManagerSupplier, String deviceId, String serialPort,
             byte @Nullable [] initMessage, int baudrate, int baudrateChangeDelay, ProtocolMode protocolMode) {
@@ -102,6 +112,26 @@ public abstract class MeterDevice<T> {
     protected abstract IMeterReaderConnector<T> createConnector(Supplier<SerialPortManager> serialPortManagerSupplier,
             String serialPort, int baudrate, int baudrateChangeDelay, ProtocolMode protocolMode);
 
+    /**
+     * Gets the connector which handles the serial port communication.
+     *
+     * @return the connector of this device.
+     */
+    protected IMeterReaderConnector<T> getConnector() {
+        return connector;
+    }
+
+    /**
+     * Sets whether the meter pushes its values continuously. In that case only values which changed since the last
+     * notification are notified to the listeners.
+     *
+     * @param continuous true if values are pushed continuously.
+     */
+    public void setContinuous(boolean continuous) {
+        this.continuous = continuous;
+        this.notifiedValues.clear();
+    }
+
     /**
      * Gets the configured deviceId.
      *
@@ -161,7 +191,7 @@ public abstract class MeterDevice<T> {
      *
      */
     public Disposable readValues(long timeout, ScheduledExecutorService executorService, Duration period) {
-        return Flowable.fromPublisher(connector.getMeterValues(initMessage, period, executorService))
+        Flowable<T> values = Flowable.fromPublisher(connector.getMeterValues(initMessage, period, executorService))
                 .timeout(timeout + period.toMillis(), TimeUnit.MILLISECONDS, Schedulers.from(executorService))
                 .doOnSubscribe(sub -> {
                     logger.info("Opening connection to {}", getDeviceId());
@@ -178,16 +208,21 @@ public abstract class MeterDevice<T> {
                 }).doOnCancel(connector::closeConnection).doOnComplete(connector::closeConnection).share()
                 .retryWhen(
                         publisher -> publisher.delay(RETRY_DELAY, TimeUnit.SECONDS, Schedulers.from(executorService)))
-                .subscribeOn(Schedulers.from(executorService), true).subscribe((value) -> {
-                    Map<String, MeterValue<?>> obisCodes = new HashMap<>(valueCache);
-                    clearValueCache();
-                    populateValueCache(value);
-                    printInfo();
-                    Collection<String> newObisCodes = getObisCodes();
-                    // notify every removed obis code.
-                    obisCodes.values().stream().filter((val) -> !newObisCodes.contains(val.getObisCode()))
-                            .forEach((val) -> notifyValuesRemoved(val));
-                });
+                .subscribeOn(Schedulers.from(executorService), true);
+        if (continuous) {
+            // process values apart from the reading thread and skip outdated ones if processing falls behind
+            values = values.observeOn(Schedulers.from(executorService), false, 1);
+        }
+        return values.subscribe((value) -> {
+            Map<String, MeterValue<?>> obisCodes = new HashMap<>(valueCache);
+            clearValueCache();
+            populateValueCache(value);
+            printInfo();
+            Collection<String> newObisCodes = getObisCodes();
+            // notify every removed obis code.
+            obisCodes.values().stream().filter((val) -> !newObisCodes.contains(val.getObisCode()))
+                    .forEach((val) -> notifyValuesRemoved(val));
+        });
     }
 
     /**
@@ -213,8 +248,11 @@ public abstract class MeterDevice<T> {
      * @param value The value to add.
      */
     protected <Q extends Quantity<Q>> void addObisCache(MeterValue<Q> value) {
-        logger.debug("Value changed: {}", value);
         this.valueCache.put(value.getObisCode(), value);
+        if (continuous && value.equals(notifiedValues.put(value.getObisCode(), value))) {
+            return;
+        }
+        logger.debug("Value changed: {}", value);
         this.valueChangeListeners.forEach((listener) -> {
             try {
                 listener.valueChanged(value);
@@ -257,10 +295,13 @@ public abstract class MeterDevice<T> {
     }
 
     private <Q extends Quantity<Q>> void notifyValuesRemoved(MeterValue<Q> value) {
+        this.notifiedValues.remove(value.getObisCode());
         this.valueChangeListeners.forEach((listener) -> listener.valueRemoved(value));
     }
 
     private void notifyReadingError(Throwable e) {
+        // values have to be notified again once reading recovered
+        this.notifiedValues.clear();
         this.valueChangeListeners.forEach((listener) -> listener.errorOccurred(e));
     }
 
@@ -54,6 +54,7 @@ import org.openhab.binding.smartmeter.SmartMeterBindingConstants;
 import org.openhab.binding.smartmeter.SmartMeterConfiguration;
 import org.openhab.binding.smartmeter.internal.conformity.Conformity;
 import org.openhab.binding.smartmeter.internal.helper.Baudrate;
+import org.openhab.binding.smartmeter.internal.sml.SmlMeterReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,6 +65,7 @@ import io.reactivex.disposables.Disposable;
  * sent to one of the channels.
  *
  * @author Matthias Steigenberger - Initial contribution
+ * @author agent - Added continuous reading
  */
 @NonNullByDefault({ DefaultLocation.ARRAY_CONTENTS, DefaultLocation.PARAMETER, DefaultLocation.RETURN_TYPE,
         DefaultLocation.TYPE_ARGUMENT })
@@ -111,6 +113,13 @@ public class SmartMeterHandler extends BaseThingHandler {
             this.conformity = config.conformity == null ? Conformity.NONE : Conformity.valueOf(config.conformity);
             this.smlDevice = MeterDeviceFactory.getDevice(serialPortManagerSupplier, config.mode,
                     this.thing.getUID().getAsString(), config.port, pullSequence, baudrate, config.baudrateChangeDelay);
+            boolean continuous = Boolean.TRUE.equals(config.continuous);
+            if (continuous && !(this.smlDevice instanceof SmlMeterReader)) {
+                logger.warn("Continuous reading is only supported in SML mode, the meter on {} is polled instead",
+                        config.port);
+                continuous = false;
+            }
+            this.smlDevice.setContinuous(continuous);
             updateStatus(ThingStatus.UNKNOWN, ThingStatusDetail.HANDLER_CONFIGURATION_PENDING,
                     "Waiting for messages from device");
 
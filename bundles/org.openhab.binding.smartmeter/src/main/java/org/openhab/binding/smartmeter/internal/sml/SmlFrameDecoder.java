@@ -0,0 +1,269 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.smartmeter.internal.sml;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openmuc.jsml.structures.SmlFile;
+import org.openmuc.jsml.structures.SmlMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Incremental decoder for the SML transport protocol (version 1).
+ *
+ * Bytes can be fed in arbitrary chunks as they arrive from the serial port. Whenever a complete frame with a valid
+ * checksum has been received, its payload is handed to the frame consumer. The decoder keeps its buffers between
+ * frames, so a meter pushing a frame every second causes no allocation besides the payload itself.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SmlFrameDecoder {
+
+    private static final int ESCAPE = 0x1b1b1b1b;
+    private static final int START = 0x01010101;
+    private static final int END_MARKER = 0x1a;
+    private static final int MAX_FRAME_LENGTH = 8192;
+
+    private static final int[] CRC_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0x8408 : crc >>> 1;
+            }
+            CRC_TABLE[i] = crc;
+        }
+    }
+
+    private enum State {
+        HUNT,
+        BODY,
+        ESCAPE
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(SmlFrameDecoder.class);
+
+    private final Consumer<byte[]> frameConsumer;
+
+    /**
+     * Ring of the last 8 bytes while hunting for the start sequence.
+     */
+    private final byte[] huntRing = new byte[8];
+    private int huntPosition;
+    private long huntCount;
+
+    private final byte[] payload = new byte[MAX_FRAME_LENGTH];
+    private int payloadLength;
+
+    private int word;
+    private int wordLength;
+    private int crc;
+
+    private State state = State.HUNT;
+
+    private long frameCount;
+    private long errorCount;
+
+    /**
+     * Creates a new decoder.
+     *
+     * @param frameConsumer receives the payload of every valid frame (padding and escaping removed).
+     */
+    public SmlFrameDecoder(Consumer<byte[]> frameConsumer) {
+        this.frameConsumer = frameConsumer;
+    }
+
+    /**
+     * Feeds received bytes into the decoder.
+     *
+     * @param data the buffer holding the received bytes
+     * @param offset the offset of the first received byte
+     * @param length the number of received bytes
+     */
+    public void decode(byte[] data, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            decode(data[i]);
+        }
+    }
+
+    private void decode(byte value) {
+        if (state == State.HUNT) {
+            huntRing[huntPosition] = value;
+            huntPosition = (huntPosition + 1) & 7;
+            huntCount++;
+            if (huntCount >= 8 && isStartSequence()) {
+                startFrame();
+            }
+            return;
+        }
+
+        word = (word << 8) | (value & 0xff);
+        wordLength++;
+        if (wordLength < 4) {
+            return;
+        }
+        int currentWord = word;
+        wordLength = 0;
+        word = 0;
+
+        if (state == State.BODY) {
+            updateCrc(currentWord);
+            if (currentWord == ESCAPE) {
+                state = State.ESCAPE;
+            } else {
+                appendPayload(currentWord);
+            }
+        } else if (currentWord == ESCAPE) {
+            // escaped escape sequence within the payload
+            updateCrc(currentWord);
+            appendPayload(currentWord);
+            state = State.BODY;
+        } else if (currentWord == START) {
+            logger.debug("SML start sequence within frame, restarting frame");
+            startFrame();
+        } else if ((currentWord >>> 24) == END_MARKER) {
+            endFrame(currentWord);
+        } else {
+            logger.debug("Invalid SML escape sequence {}", Integer.toHexString(currentWord));
+            reset(true);
+        }
+    }
+
+    private boolean isStartSequence() {
+        for (int i = 0; i < 8; i++) {
+            byte expected = (byte) (i < 4 ? 0x1b : 0x01);
+            if (huntRing[(huntPosition + i) & 7] != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void startFrame() {
+        state = State.BODY;
+        payloadLength = 0;
+        word = 0;
+        wordLength = 0;
+        crc = 0xffff;
+        updateCrc(ESCAPE);
+        updateCrc(START);
+    }
+
+    private void endFrame(int endWord) {
+        int padding = (endWord >>> 16) & 0xff;
+        // the escape sequence has already been added in BODY state
+        crc = updateCrc(crc, END_MARKER);
+        crc = updateCrc(crc, padding);
+        int checksum = crc ^ 0xffff;
+        // the checksum is transmitted least significant byte first
+        int received = ((endWord & 0xff) << 8) | ((endWord >>> 8) & 0xff);
+
+        if (checksum != received) {
+            logger.debug("SML frame checksum mismatch: expected {}, received {}", Integer.toHexString(checksum),
+                    Integer.toHexString(received));
+            reset(true);
+        } else if (padding > 3 || padding > payloadLength) {
+            logger.debug("Invalid SML frame padding {}", padding);
+            reset(true);
+        } else {
+            frameCount++;
+            byte[] frame = Arrays.copyOf(payload, payloadLength - padding);
+            reset(false);
+            frameConsumer.accept(frame);
+        }
+    }
+
+    private void appendPayload(int value) {
+        if (payloadLength + 4 > payload.length) {
+            logger.debug("SML frame exceeds {} bytes, dropping it", MAX_FRAME_LENGTH);
+            reset(true);
+            return;
+        }
+        payload[payloadLength++] = (byte) (value >>> 24);
+        payload[payloadLength++] = (byte) (value >>> 16);
+        payload[payloadLength++] = (byte) (value >>> 8);
+        payload[payloadLength++] = (byte) value;
+    }
+
+    private void updateCrc(int value) {
+        crc = updateCrc(crc, value >>> 24);
+        crc = updateCrc(crc, value >>> 16);
+        crc = updateCrc(crc, value >>> 8);
+        crc = updateCrc(crc, value);
+    }
+
+    private static int updateCrc(int crc, int value) {
+        return (crc >>> 8) ^ CRC_TABLE[(crc ^ value) & 0xff];
+    }
+
+    /**
+     * Discards any partially received frame and starts hunting for the next start sequence.
+     */
+    public void reset() {
+        reset(false);
+    }
+
+    private void reset(boolean error) {
+        if (error) {
+            errorCount++;
+        }
+        state = State.HUNT;
+        huntCount = 0;
+        payloadLength = 0;
+        word = 0;
+        wordLength = 0;
+    }
+
+    /**
+     * @return the number of valid frames decoded so far.
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * @return the number of frames dropped because of framing or checksum errors.
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Decodes the SML messages of a frame payload.
+     *
+     * @param frame the frame payload as delivered to the frame consumer.
+     * @return The {@link SmlFile} holding all messages of the frame.
+     * @throws IOException if the payload contains an invalid message.
+     */
+    public static SmlFile toSmlFile(byte[] frame) throws IOException {
+        SmlFile smlFile = new SmlFile();
+        try (DataInputStream is = new DataInputStream(new ByteArrayInputStream(frame))) {
+            while (is.available() > 0) {
+                SmlMessage message = new SmlMessage();
+                if (!message.decode(is)) {
+                    throw new IOException("Could not decode SML message");
+                }
+                smlFile.add(message);
+            }
+        }
+        return smlFile;
+    }
+}
@@ -38,6 +38,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Matthias Steigenberger - Initial contribution
  * @author Mathias Gilhuber - Also-By
+ * @author agent - Added continuous reading
  */
 @NonNullByDefault
 public final class SmlMeterReader extends MeterDevice<SmlFile> {
@@ -149,6 +150,12 @@ public final class SmlMeterReader extends MeterDevice<SmlFile> {
         return null;
     }
 
+    @Override
+    public void setContinuous(boolean continuous) {
+        super.setContinuous(continuous);
+        ((SmlSerialConnector) getConnector()).setContinuous(continuous);
+    }
+
     @Override
     protected IMeterReaderConnector<SmlFile> createConnector(Supplier<SerialPortManager> serialPortManagerSupplier,
             String serialPort, int baudrate, int baudrateChangeDelay, ProtocolMode protocolMode) {
@@ -19,6 +19,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.Stack;
+import java.util.TooManyListenersException;
 import java.util.function.Supplier;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -26,6 +27,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.util.HexUtils;
 import org.eclipse.smarthome.io.transport.serial.PortInUseException;
 import org.eclipse.smarthome.io.transport.serial.SerialPort;
+import org.eclipse.smarthome.io.transport.serial.SerialPortEvent;
 import org.eclipse.smarthome.io.transport.serial.SerialPortIdentifier;
 import org.eclipse.smarthome.io.transport.serial.SerialPortManager;
 import org.eclipse.smarthome.io.transport.serial.UnsupportedCommOperationException;
@@ -35,11 +37,15 @@ import org.openhab.binding.smartmeter.internal.helper.SerialParameter;
 import org.openmuc.jsml.structures.SmlFile;
 import org.openmuc.jsml.transport.Transport;
 
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.FlowableEmitter;
+
 /**
  * Represents a serial SML device connector.
  *
  * @author Matthias Steigenberger - Initial contribution
  * @author Mathias Gilhuber - Also-By
+ * @author agent - Added continuous reading
  */
 @NonNullByDefault
 public final class SmlSerialConnector extends ConnectorBase<SmlFile> {
@@ -54,6 +60,8 @@ public final class SmlSerialConnector extends ConnectorBase<SmlFile> {
     @Nullable
     private DataOutputStream os;
     private int baudrate;
+    private boolean continuous;
+    private final byte[] readBuffer = new byte[512];
 
     /**
      * Constructor to create a serial connector instance.
@@ -78,6 +86,16 @@ public final class SmlSerialConnector extends ConnectorBase<SmlFile> {
         this.baudrate = baudrate;
     }
 
+    /**
+     * Sets whether the serial port shall be kept open and SML files shall be decoded continuously as the meter
+     * pushes them, instead of reading the most recent SML file once per period.
+     *
+     * @param continuous true to decode continuously
+     */
+    public void setContinuous(boolean continuous) {
+        this.continuous = continuous;
+    }
+
     @Override
     protected SmlFile readNext(byte @Nullable [] initMessage) throws IOException {
         if (initMessage != null) {
@@ -101,6 +119,66 @@ public final class SmlSerialConnector extends ConnectorBase<SmlFile> {
         return smlFiles.pop();
     }
 
+    @Override
+    protected void emitValues(byte @Nullable [] initMessage, FlowableEmitter<@Nullable SmlFile> emitter)
+            throws IOException {
+        if (!continuous) {
+            super.emitValues(initMessage, emitter);
+            return;
+        }
+        DataInputStream is = this.is;
+        DataOutputStream os = this.os;
+        if (is == null || serialPort == null) {
+            throw new IOException(getPortName() + " : Serial port is not open");
+        }
+        if (initMessage != null && os != null) {
+            logger.debug("Writing init message: {}", HexUtils.bytesToHex(initMessage, " "));
+            os.write(initMessage);
+            os.flush();
+        }
+
+        SmlFrameDecoder decoder = new SmlFrameDecoder(frame -> {
+            try {
+                emitter.onNext(SmlFrameDecoder.toSmlFile(frame));
+            } catch (IOException e) {
+                logger.debug("{} : Failed to decode SML frame: {}", getPortName(), e.getMessage());
+            }
+        });
+        try {
+            serialPort.addEventListener(event -> {
+                if (event.getEventType() != SerialPortEvent.DATA_AVAILABLE || emitter.isCancelled()) {
+                    return;
+                }
+                try {
+                    while (is.available() > 0) {
+                        int length = is.read(readBuffer);
+                        if (length <= 0) {
+                            break;
+                        }
+                        decoder.decode(readBuffer, 0, length);
+                    }
+                } catch (IOException e) {
+                    if (!emitter.isCancelled()) {
+                        emitter.tryOnError(e);
+                    }
+                }
+            });
+        } catch (TooManyListenersException e) {
+            throw new IOException(getPortName() + " : Unable to listen for SML data", e);
+        }
+        emitter.setCancellable(() -> {
+            if (serialPort != null) {
+                serialPort.removeEventListener();
+            }
+        });
+    }
+
+    @Override
+    protected BackpressureStrategy getBackpressureStrategy() {
+        // only the most recent SML file is of interest if values can't be processed as fast as they are pushed
+        return continuous ? BackpressureStrategy.LATEST : super.getBackpressureStrategy();
+    }
+
     @Override
     public void openConnection() throws IOException {
         closeConnection();
@@ -167,7 +245,7 @@ public final class SmlSerialConnector extends ConnectorBase<SmlFile> {
 
     @Override
     protected boolean applyPeriod() {
-        return true;
+        return !continuous;
     }
 
 }
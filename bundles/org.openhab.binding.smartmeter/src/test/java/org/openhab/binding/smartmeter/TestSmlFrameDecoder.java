@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.smartmeter;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.openhab.binding.smartmeter.internal.sml.SmlFrameDecoder;
+import org.openmuc.jsml.transport.Transport;
+
+/**
+ * Tests the {@link SmlFrameDecoder} against frames encoded by the jSML transport.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class TestSmlFrameDecoder {
+
+    private static final byte[] PAYLOAD = new byte[] { 0x76, 0x05, 0x01, 0x02, 0x03, 0x04, 0x62, 0x00, 0x62, 0x00,
+            0x72, 0x63, 0x01, 0x01, 0x1b, 0x1b, 0x1b, 0x1b, 0x76, 0x01 };
+
+    private final List<byte[]> frames = new ArrayList<>();
+    private final SmlFrameDecoder decoder = new SmlFrameDecoder(frames::add);
+
+    private static byte[] encode(byte[] payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream os = new DataOutputStream(bytes)) {
+            new Transport().send(os, payload);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testDecodeFrame() throws IOException {
+        byte[] frame = encode(PAYLOAD);
+        decoder.decode(frame, 0, frame.length);
+
+        assertEquals(1, frames.size());
+        assertArrayEquals(PAYLOAD, frames.get(0));
+        assertEquals(0, decoder.getErrorCount());
+    }
+
+    @Test
+    public void testDecodeFrameInChunksWithLeadingGarbage() throws IOException {
+        byte[] frame = encode(PAYLOAD);
+        byte[] stream = new byte[frame.length * 2 + 3];
+        stream[0] = 0x1b;
+        stream[1] = 0x42;
+        stream[2] = 0x01;
+        System.arraycopy(frame, 0, stream, 3, frame.length);
+        System.arraycopy(frame, 0, stream, 3 + frame.length, frame.length);
+
+        for (int i = 0; i < stream.length; i += 5) {
+            decoder.decode(stream, i, Math.min(5, stream.length - i));
+        }
+
+        assertEquals(2, frames.size());
+        assertArrayEquals(PAYLOAD, frames.get(0));
+        assertArrayEquals(PAYLOAD, frames.get(1));
+    }
+
+    @Test
+    public void testDropFrameWithWrongChecksum() throws IOException {
+        byte[] frame = encode(PAYLOAD);
+        frame[frame.length - 1] ^= 0x01;
+        decoder.decode(frame, 0, frame.length);
+
+        assertTrue(frames.isEmpty());
+        assertEquals(1, decoder.getErrorCount());
+
+        byte[] validFrame = encode(PAYLOAD);
+        decoder.decode(validFrame, 0, validFrame.length);
+        assertEquals(1, frames.size());
+    }
+}
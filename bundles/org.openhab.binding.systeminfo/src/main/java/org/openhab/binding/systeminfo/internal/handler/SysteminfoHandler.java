@@ -48,6 +48,7 @@ import org.slf4j.LoggerFactory;
  * @author Svilen Valkanov - Initial contribution
  * @author Lyubomir Papzov - Separate the creation of the systeminfo object and its initialization
  * @author Wouter Born - Add null annotations
+ * @author agent - Read the channels of each refresh from one snapshot
  */
 @NonNullByDefault
 public class SysteminfoHandler extends BaseThingHandler {
@@ -240,17 +241,25 @@ public class SysteminfoHandler extends BaseThingHandler {
     }
 
     private void publishData(Set<ChannelUID> channels) {
-        Iterator<ChannelUID> iter = channels.iterator();
-        while (iter.hasNext()) {
-            ChannelUID channeUID = iter.next();
-            if (isLinked(channeUID.getId())) {
-                publishDataForChannel(channeUID);
+        // The systeminfo service is locked, so that the channels of the other priority are not refreshed in between
+        // and all channels are read from the same snapshot
+        synchronized (systeminfo) {
+            systeminfo.takeSnapshot();
+            Iterator<ChannelUID> iter = channels.iterator();
+            while (iter.hasNext()) {
+                ChannelUID channeUID = iter.next();
+                if (isLinked(channeUID.getId())) {
+                    publishDataForChannel(channeUID);
+                }
             }
         }
     }
 
     private void publishDataForChannel(ChannelUID channelUID) {
-        State state = getInfoForChannel(channelUID);
+        State state;
+        synchronized (systeminfo) {
+            state = getInfoForChannel(channelUID);
+        }
         String channelID = channelUID.getId();
         updateState(channelID, state);
     }
@@ -314,6 +323,9 @@ public class SysteminfoHandler extends BaseThingHandler {
                 case CHANNEL_SENSORS_FAN_SPEED:
                     state = systeminfo.getSensorsFanSpeed(deviceIndex);
                     break;
+                case CHANNEL_CPU_LOAD:
+                    state = systeminfo.getCpuLoad();
+                    break;
                 case CHANNEL_CPU_LOAD_1:
                     state = systeminfo.getCpuLoad1();
                     break;
@@ -416,6 +428,12 @@ public class SysteminfoHandler extends BaseThingHandler {
                 case CHANNEL_NETWORK_DATA_RECEIVED:
                     state = systeminfo.getNetworkDataReceived(deviceIndex);
                     break;
+                case CHANNEL_NETWORK_DATA_SENT_RATE:
+                    state = systeminfo.getNetworkDataSentRate(deviceIndex);
+                    break;
+                case CHANNEL_NETWORK_DATA_RECEIVED_RATE:
+                    state = systeminfo.getNetworkDataReceivedRate(deviceIndex);
+                    break;
                 case CHANNEL_NETWORK_PACKETS_RECEIVED:
                     state = systeminfo.getNetworkPacketsReceived(deviceIndex);
                     break;
@@ -0,0 +1,251 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.systeminfo.internal.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Reads the system wide counters directly from the Linux /proc file system. Each method reads a single small file,
+ * while OSHI reads one or more files for every single value.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class LinuxProcReader {
+
+    /**
+     * Number of CPU tick types read from /proc/stat (user, nice, system, idle, iowait, irq, softirq, steal), the same
+     * order as the tick types of OSHI
+     */
+    public static final int CPU_TICK_TYPES = 8;
+
+    public static final int CPU_TICK_IDLE = 3;
+    public static final int CPU_TICK_IOWAIT = 4;
+
+    /** Indexes of the counters returned by {@link #readNetworkCounters()} */
+    public static final int NETWORK_BYTES_RECEIVED = 0;
+    public static final int NETWORK_PACKETS_RECEIVED = 1;
+    public static final int NETWORK_BYTES_SENT = 2;
+    public static final int NETWORK_PACKETS_SENT = 3;
+
+    /** Indexes of the values returned by {@link #readMemory()} */
+    public static final int MEMORY_TOTAL = 0;
+    public static final int MEMORY_AVAILABLE = 1;
+    public static final int SWAP_TOTAL = 2;
+    public static final int SWAP_FREE = 3;
+
+    private static final String PROC = "/proc";
+
+    private final Path stat;
+    private final Path meminfo;
+    private final Path loadavg;
+    private final Path netDev;
+
+    public LinuxProcReader() {
+        this(Paths.get(PROC));
+    }
+
+    LinuxProcReader(Path proc) {
+        stat = proc.resolve("stat");
+        meminfo = proc.resolve("meminfo");
+        loadavg = proc.resolve("loadavg");
+        netDev = proc.resolve("net").resolve("dev");
+    }
+
+    /**
+     * Checks if the files of the /proc file system can be read
+     *
+     * @return true if all files are readable
+     */
+    public boolean isAvailable() {
+        return Files.isReadable(stat) && Files.isReadable(meminfo) && Files.isReadable(loadavg)
+                && Files.isReadable(netDev);
+    }
+
+    /**
+     * Reads the ticks spent by all CPUs in each state since boot from the first line of /proc/stat
+     *
+     * @return the ticks, see {@link #CPU_TICK_TYPES}
+     * @throws IOException if the file cannot be read or parsed
+     */
+    public long[] readCpuTicks() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(stat, StandardCharsets.US_ASCII)) {
+            String line = reader.readLine();
+            if (line == null || !line.startsWith("cpu ")) {
+                throw new IOException("Unexpected format of " + stat);
+            }
+            String[] fields = split(line);
+            long[] ticks = new long[CPU_TICK_TYPES];
+            // kernels before 2.6.11 do not report all tick types
+            for (int i = 0; i < CPU_TICK_TYPES && i + 1 < fields.length; i++) {
+                ticks[i] = parseLong(fields[i + 1], stat);
+            }
+            return ticks;
+        }
+    }
+
+    /**
+     * Reads the total and available memory and swap space from /proc/meminfo
+     *
+     * @return the sizes in bytes, see {@link #MEMORY_TOTAL}, {@link #MEMORY_AVAILABLE}, {@link #SWAP_TOTAL} and
+     *         {@link #SWAP_FREE}
+     * @throws IOException if the file cannot be read or parsed
+     */
+    public long[] readMemory() throws IOException {
+        long total = -1;
+        long available = -1;
+        long free = 0;
+        long buffers = 0;
+        long cached = 0;
+        long swapTotal = -1;
+        long swapFree = -1;
+        try (BufferedReader reader = Files.newBufferedReader(meminfo, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int colon = line.indexOf(':');
+                if (colon < 0) {
+                    continue;
+                }
+                switch (line.substring(0, colon)) {
+                    case "MemTotal":
+                        total = parseKilobytes(line, colon);
+                        break;
+                    case "MemAvailable":
+                        available = parseKilobytes(line, colon);
+                        break;
+                    case "MemFree":
+                        free = parseKilobytes(line, colon);
+                        break;
+                    case "Buffers":
+                        buffers = parseKilobytes(line, colon);
+                        break;
+                    case "Cached":
+                        cached = parseKilobytes(line, colon);
+                        break;
+                    case "SwapTotal":
+                        swapTotal = parseKilobytes(line, colon);
+                        break;
+                    case "SwapFree":
+                        swapFree = parseKilobytes(line, colon);
+                        break;
+                    default:
+                        break;
+                }
+                if (total >= 0 && available >= 0 && swapTotal >= 0 && swapFree >= 0) {
+                    break;
+                }
+            }
+        }
+        if (total < 0 || swapTotal < 0 || swapFree < 0) {
+            throw new IOException("Unexpected format of " + meminfo);
+        }
+        if (available < 0) {
+            // kernels before 3.14 do not report the available memory
+            available = free + buffers + cached;
+        }
+        return new long[] { total, available, swapTotal, swapFree };
+    }
+
+    /**
+     * Reads the system load averages for the last 1, 5 and 15 minutes from /proc/loadavg
+     *
+     * @return the load averages
+     * @throws IOException if the file cannot be read or parsed
+     */
+    public double[] readLoadAverage() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(loadavg, StandardCharsets.US_ASCII)) {
+            String line = reader.readLine();
+            String[] fields = line == null ? new String[0] : split(line);
+            if (fields.length < 3) {
+                throw new IOException("Unexpected format of " + loadavg);
+            }
+            double[] loadAverage = new double[3];
+            for (int i = 0; i < loadAverage.length; i++) {
+                try {
+                    loadAverage[i] = Double.parseDouble(fields[i]);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Unexpected format of " + loadavg, e);
+                }
+            }
+            return loadAverage;
+        }
+    }
+
+    /**
+     * Reads the counters of all network interfaces from /proc/net/dev
+     *
+     * @return the counters by interface name, see {@link #NETWORK_BYTES_RECEIVED}, {@link #NETWORK_PACKETS_RECEIVED},
+     *         {@link #NETWORK_BYTES_SENT} and {@link #NETWORK_PACKETS_SENT}
+     * @throws IOException if the file cannot be read or parsed
+     */
+    public Map<String, long[]> readNetworkCounters() throws IOException {
+        Map<String, long[]> counters = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(netDev, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // the two header lines do not contain a colon
+                int colon = line.indexOf(':');
+                if (colon < 0) {
+                    continue;
+                }
+                String[] fields = split(line.substring(colon + 1));
+                if (fields.length < 10) {
+                    throw new IOException("Unexpected format of " + netDev);
+                }
+                // 8 receive columns (bytes, packets, errs, drop, fifo, frame, compressed, multicast) are followed by
+                // the transmit columns (bytes, packets, ...)
+                long[] values = new long[4];
+                values[NETWORK_BYTES_RECEIVED] = parseLong(fields[0], netDev);
+                values[NETWORK_PACKETS_RECEIVED] = parseLong(fields[1], netDev);
+                values[NETWORK_BYTES_SENT] = parseLong(fields[8], netDev);
+                values[NETWORK_PACKETS_SENT] = parseLong(fields[9], netDev);
+                counters.put(line.substring(0, colon).trim(), values);
+            }
+        }
+        return counters;
+    }
+
+    private static long parseKilobytes(String line, int colon) throws IOException {
+        String[] fields = split(line.substring(colon + 1));
+        if (fields.length == 0) {
+            throw new IOException("Missing value in line: " + line);
+        }
+        try {
+            return Long.parseLong(fields[0]) * 1024;
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid value in line: " + line, e);
+        }
+    }
+
+    private static long parseLong(String value, Path file) throws IOException {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IOException("Unexpected format of " + file, e);
+        }
+    }
+
+    private static String[] split(String line) {
+        String trimmed = line.trim();
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+    }
+}
@@ -12,7 +12,13 @@
  */
 package org.openhab.binding.systeminfo.internal.model;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang.ArrayUtils;
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -23,6 +29,7 @@ import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import oshi.PlatformEnum;
 import oshi.SystemInfo;
 import oshi.hardware.CentralProcessor;
 import oshi.hardware.ComputerSystem;
@@ -33,6 +40,7 @@ import oshi.hardware.HardwareAbstractionLayer;
 import oshi.hardware.NetworkIF;
 import oshi.hardware.PowerSource;
 import oshi.hardware.Sensors;
+import oshi.hardware.VirtualMemory;
 import oshi.software.os.OSFileStore;
 import oshi.software.os.OSProcess;
 import oshi.software.os.OperatingSystem;
@@ -48,6 +56,7 @@ import oshi.util.EdidUtil;
  * @author Christoph Weitkamp - Update to OSHI 3.13.0 - Replaced deprecated method
  *         CentralProcessor#getSystemSerialNumber()
  * @author Wouter Born - Update to OSHI 4.0.0 and add null annotations
+ * @author agent - Read the dynamic information once per snapshot and calculate rates
  *
  * @see <a href="https://github.com/oshi/oshi">OSHI github repository</a>
  */
@@ -75,11 +84,143 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     public static final int PRECISION_AFTER_DECIMAL_SIGN = 1;
 
+    /**
+     * Minimum time between the two readings of counters a rate is calculated from, in nanoseconds. Readings of counters
+     * that follow the previous reading more closely are not used for rates.
+     */
+    private static final long MIN_RATE_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Returns the time the counters are read at, in nanoseconds
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Reads the memory, load and counters directly from /proc on Linux, null on other operating systems
+     */
+    private @Nullable LinuxProcReader procReader;
+
+    /**
+     * The number of the current snapshot, see {@link #takeSnapshot()}
+     */
+    private int snapshot;
+
+    // Dynamic information, read at most once per snapshot
+    private final Sampled<MemorySample> memorySample = new Sampled<>(this::readMemory);
+    private final Sampled<double[]> loadAverageSample = new Sampled<>(this::readLoadAverage);
+    private final Sampled<long[]> cpuTicksSample = new Sampled<>(this::readCpuTicks);
+    private final Sampled<Long> uptimeSample = new Sampled<>(() -> operatingSystem.getSystemUptime());
+    private final Sampled<Integer> threadCountSample = new Sampled<>(() -> operatingSystem.getThreadCount());
+    private final Sampled<NetworkIF[]> networkSample = new Sampled<>(() -> networks = hal.getNetworkIFs());
+    private final Sampled<Map<String, long[]>> networkCounterSample = new Sampled<>(this::readNetworkCounters);
+    private final Sampled<OSFileStore[]> fileStoreSample = new Sampled<>(
+            () -> fileStores = operatingSystem.getFileSystem().getFileStores());
+    private final Sampled<PowerSource[]> powerSourceSample = new Sampled<>(
+            () -> powerSources = hal.getPowerSources());
+    private final Sampled<Map<Integer, OSProcess>> processSample = new Sampled<>(HashMap::new);
+
+    // The last readings of the counters rates are calculated from
+    private final CounterHistory cpuTickHistory = new CounterHistory();
+    private final Map<String, CounterHistory> networkCounterHistory = new HashMap<>();
+
+    /**
+     * A dynamic value that is read at most once per snapshot
+     *
+     * @param <T> the type of the value
+     */
+    private class Sampled<T> {
+        private final Supplier<T> reader;
+        private @Nullable T value;
+        private int valueSnapshot = -1;
+
+        private Sampled(Supplier<T> reader) {
+            this.reader = reader;
+        }
+
+        private T get() {
+            synchronized (OSHISysteminfo.this) {
+                T localValue = value;
+                if (localValue == null || valueSnapshot != snapshot) {
+                    localValue = reader.get();
+                    value = localValue;
+                    valueSnapshot = snapshot;
+                }
+                return localValue;
+            }
+        }
+    }
+
+    /**
+     * The memory and swap space in bytes
+     */
+    private static class MemorySample {
+        private final long total;
+        private final long available;
+        private final long swapTotal;
+        private final long swapUsed;
+
+        private MemorySample(long total, long available, long swapTotal, long swapUsed) {
+            this.total = total;
+            this.available = available;
+            this.swapTotal = swapTotal;
+            this.swapUsed = swapUsed;
+        }
+    }
+
+    /**
+     * The last two readings of monotonic counters with the time they were read, used to calculate rates
+     */
+    private static class CounterHistory {
+        private long @Nullable [] previous;
+        private long previousTime;
+        private long @Nullable [] current;
+        private long currentTime;
+
+        private void add(long[] counters, long time) {
+            if (current != null && time - currentTime < MIN_RATE_INTERVAL) {
+                return;
+            }
+            previous = current;
+            previousTime = currentTime;
+            current = counters;
+            currentTime = time;
+        }
+
+        /**
+         * Returns the difference of the two readings of a counter
+         *
+         * @param index the index of the counter
+         * @return the difference or a negative value, if there are no two readings or the counter was reset
+         */
+        private long getDelta(int index) {
+            long[] localPrevious = previous;
+            long[] localCurrent = current;
+            if (localPrevious == null || localCurrent == null) {
+                return -1;
+            }
+            return localCurrent[index] - localPrevious[index];
+        }
+
+        private double getSeconds() {
+            return (currentTime - previousTime) / (double) TimeUnit.SECONDS.toNanos(1);
+        }
+    }
+
     /**
      * Some of the methods used in this constructor execute native code and require execute permissions
      *
      */
     public OSHISysteminfo() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * Creates the service with the clock the readings of counters are timed with
+     *
+     * @param clock returns the current time in nanoseconds
+     */
+    OSHISysteminfo(LongSupplier clock) {
+        this.clock = clock;
         logger.debug("OSHISysteminfo service is created");
     }
 
@@ -88,7 +229,25 @@ public class OSHISysteminfo implements SysteminfoInterface {
         logger.debug("OSHISysteminfo service starts initializing");
 
         SystemInfo systemInfo = new SystemInfo();
-        hal = systemInfo.getHardware();
+        LinuxProcReader linuxProcReader = new LinuxProcReader();
+        if (SystemInfo.getCurrentPlatformEnum() == PlatformEnum.LINUX && linuxProcReader.isAvailable()) {
+            logger.debug("Memory, load and network counters are read from /proc");
+        } else {
+            linuxProcReader = null;
+        }
+        initializeSysteminfo(systemInfo.getHardware(), systemInfo.getOperatingSystem(), linuxProcReader);
+    }
+
+    /**
+     * Initializes the service with the given hardware and operating system
+     *
+     * @param hal the hardware abstraction layer of OSHI
+     * @param operatingSystem the operating system of OSHI
+     * @param linuxProcReader reads the memory, load and counters from /proc or null, if OSHI is used for them
+     */
+    void initializeSysteminfo(HardwareAbstractionLayer hal, OperatingSystem operatingSystem,
+            @Nullable LinuxProcReader linuxProcReader) {
+        this.hal = hal;
 
         // Doesn't need regular update, they may be queried repeatedly
         memory = hal.getMemory();
@@ -99,12 +258,18 @@ public class OSHISysteminfo implements SysteminfoInterface {
         // see https://github.com/oshi/oshi/issues/310
         // TODO: Once the issue is resolved in OSHI , remove unnecessary object recreations from the public get methods
         computerSystem = hal.getComputerSystem();
-        operatingSystem = systemInfo.getOperatingSystem();
+        this.operatingSystem = operatingSystem;
         networks = hal.getNetworkIFs();
         displays = hal.getDisplays();
         fileStores = operatingSystem.getFileSystem().getFileStores();
         powerSources = hal.getPowerSources();
         drives = hal.getDiskStores();
+        procReader = linuxProcReader;
+    }
+
+    @Override
+    public synchronized void takeSnapshot() {
+        snapshot++;
     }
 
     private Object getDevice(Object @Nullable [] devices, int index) throws DeviceNotFoundException {
@@ -114,10 +279,15 @@ public class OSHISysteminfo implements SysteminfoInterface {
         return devices[index];
     }
 
-    private OSProcess getProcess(int pid) throws DeviceNotFoundException {
-        OSProcess process = operatingSystem.getProcess(pid);
+    private synchronized OSProcess getProcess(int pid) throws DeviceNotFoundException {
+        Map<Integer, OSProcess> processes = processSample.get();
+        OSProcess process = processes.get(pid);
         if (process == null) {
-            throw new DeviceNotFoundException("Error while getting information for process with PID " + pid);
+            process = operatingSystem.getProcess(pid);
+            if (process == null) {
+                throw new DeviceNotFoundException("Error while getting information for process with PID " + pid);
+            }
+            processes.put(pid, process);
         }
         return process;
     }
@@ -175,22 +345,23 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getMemoryTotal() {
-        long totalMemory = memory.getTotal();
+        long totalMemory = memorySample.get().total;
         totalMemory = getSizeInMB(totalMemory);
         return new DecimalType(totalMemory);
     }
 
     @Override
     public DecimalType getMemoryAvailable() {
-        long availableMemory = memory.getAvailable();
+        long availableMemory = memorySample.get().available;
         availableMemory = getSizeInMB(availableMemory);
         return new DecimalType(availableMemory);
     }
 
     @Override
     public DecimalType getMemoryUsed() {
-        long totalMemory = memory.getTotal();
-        long availableMemory = memory.getAvailable();
+        MemorySample sample = memorySample.get();
+        long totalMemory = sample.total;
+        long availableMemory = sample.available;
         long usedMemory = totalMemory - availableMemory;
         usedMemory = getSizeInMB(usedMemory);
         return new DecimalType(usedMemory);
@@ -198,9 +369,9 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getStorageTotal(int index) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the storage data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        fileStores = operatingSystem.getFileSystem().getFileStores();
+        // In the current OSHI version a new query is required for the storage data values to be updated, it is made
+        // once per snapshot
+        fileStoreSample.get();
         OSFileStore fileStore = (OSFileStore) getDevice(fileStores, index);
         long totalSpace = fileStore.getTotalSpace();
         totalSpace = getSizeInMB(totalSpace);
@@ -209,9 +380,9 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getStorageAvailable(int index) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the storage data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        fileStores = operatingSystem.getFileSystem().getFileStores();
+        // In the current OSHI version a new query is required for the storage data values to be updated, it is made
+        // once per snapshot
+        fileStoreSample.get();
         OSFileStore fileStore = (OSFileStore) getDevice(fileStores, index);
         long freeSpace = fileStore.getUsableSpace();
         freeSpace = getSizeInMB(freeSpace);
@@ -220,9 +391,9 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getStorageUsed(int index) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the storage data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        fileStores = operatingSystem.getFileSystem().getFileStores();
+        // In the current OSHI version a new query is required for the storage data values to be updated, it is made
+        // once per snapshot
+        fileStoreSample.get();
         OSFileStore fileStore = (OSFileStore) getDevice(fileStores, index);
         long totalSpace = fileStore.getTotalSpace();
         long freeSpace = fileStore.getUsableSpace();
@@ -233,9 +404,9 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getStorageAvailablePercent(int deviceIndex) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the storage data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        fileStores = operatingSystem.getFileSystem().getFileStores();
+        // In the current OSHI version a new query is required for the storage data values to be updated, it is made
+        // once per snapshot
+        fileStoreSample.get();
         OSFileStore fileStore = (OSFileStore) getDevice(fileStores, deviceIndex);
         long totalSpace = fileStore.getTotalSpace();
         long freeSpace = fileStore.getUsableSpace();
@@ -250,9 +421,9 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getStorageUsedPercent(int deviceIndex) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the storage data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        fileStores = operatingSystem.getFileSystem().getFileStores();
+        // In the current OSHI version a new query is required for the storage data values to be updated, it is made
+        // once per snapshot
+        fileStoreSample.get();
         OSFileStore fileStore = (OSFileStore) getDevice(fileStores, deviceIndex);
         long totalSpace = fileStore.getTotalSpace();
         long freeSpace = fileStore.getUsableSpace();
@@ -289,9 +460,9 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public StringType getNetworkIp(int index) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the network data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        networks = hal.getNetworkIFs();
+        // In the current OSHI version a new query is required for the network data values to be updated, it is made
+        // once per snapshot
+        networkSample.get();
         NetworkIF netInterface = (NetworkIF) getDevice(networks, index);
         String[] ipAddresses = netInterface.getIPv4addr();
         String ipv4 = (String) getDevice(ipAddresses, 0);
@@ -351,9 +522,9 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getBatteryRemainingTime(int index) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the battery data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        powerSources = hal.getPowerSources();
+        // In the current OSHI version a new query is required for the battery data values to be updated, it is made
+        // once per snapshot
+        powerSourceSample.get();
         PowerSource powerSource = (PowerSource) getDevice(powerSources, index);
         double remainingTimeInSeconds = powerSource.getTimeRemaining();
         // The getTimeRemaining() method returns (-1.0) if is calculating or (-2.0) if the time is unlimited.
@@ -363,9 +534,9 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getBatteryRemainingCapacity(int index) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the battery data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        powerSources = hal.getPowerSources();
+        // In the current OSHI version a new query is required for the battery data values to be updated, it is made
+        // once per snapshot
+        powerSourceSample.get();
         PowerSource powerSource = (PowerSource) getDevice(powerSources, index);
         double remainingCapacity = powerSource.getRemainingCapacity();
         BigDecimal remainingCapacityPercents = getPercentsValue(remainingCapacity);
@@ -381,8 +552,9 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getMemoryAvailablePercent() {
-        long availableMemory = memory.getAvailable();
-        long totalMemory = memory.getTotal();
+        MemorySample sample = memorySample.get();
+        long availableMemory = sample.available;
+        long totalMemory = sample.total;
         if (totalMemory > 0) {
             double freePercentDecimal = (double) availableMemory / (double) totalMemory;
             BigDecimal freePercent = getPercentsValue(freePercentDecimal);
@@ -394,8 +566,9 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getMemoryUsedPercent() {
-        long availableMemory = memory.getAvailable();
-        long totalMemory = memory.getTotal();
+        MemorySample sample = memorySample.get();
+        long availableMemory = sample.available;
+        long totalMemory = sample.total;
         long usedMemory = totalMemory - availableMemory;
         if (totalMemory > 0) {
             double usedPercentDecimal = (double) usedMemory / (double) totalMemory;
@@ -429,15 +602,16 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getSwapTotal() {
-        long swapTotal = memory.getVirtualMemory().getSwapTotal();
+        long swapTotal = memorySample.get().swapTotal;
         swapTotal = getSizeInMB(swapTotal);
         return swapTotal > 0 ? new DecimalType(swapTotal) : null;
     }
 
     @Override
     public @Nullable DecimalType getSwapAvailable() {
-        long swapTotal = memory.getVirtualMemory().getSwapTotal();
-        long swapUsed = memory.getVirtualMemory().getSwapUsed();
+        MemorySample sample = memorySample.get();
+        long swapTotal = sample.swapTotal;
+        long swapUsed = sample.swapUsed;
         long swapAvaialble = swapTotal - swapUsed;
         swapAvaialble = getSizeInMB(swapAvaialble);
         return swapAvaialble > 0 ? new DecimalType(swapAvaialble) : null;
@@ -445,15 +619,16 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getSwapUsed() {
-        long swapTotal = memory.getVirtualMemory().getSwapUsed();
+        long swapTotal = memorySample.get().swapUsed;
         swapTotal = getSizeInMB(swapTotal);
         return swapTotal > 0 ? new DecimalType(swapTotal) : null;
     }
 
     @Override
     public @Nullable DecimalType getSwapAvailablePercent() {
-        long usedSwap = memory.getVirtualMemory().getSwapUsed();
-        long totalSwap = memory.getVirtualMemory().getSwapTotal();
+        MemorySample sample = memorySample.get();
+        long usedSwap = sample.swapUsed;
+        long totalSwap = sample.swapTotal;
         long freeSwap = totalSwap - usedSwap;
         if (totalSwap > 0) {
             double freePercentDecimal = (double) freeSwap / (double) totalSwap;
@@ -466,8 +641,9 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getSwapUsedPercent() {
-        long usedSwap = memory.getVirtualMemory().getSwapUsed();
-        long totalSwap = memory.getVirtualMemory().getSwapTotal();
+        MemorySample sample = memorySample.get();
+        long usedSwap = sample.swapUsed;
+        long totalSwap = sample.swapTotal;
         if (totalSwap > 0) {
             double usedPercentDecimal = (double) usedSwap / (double) totalSwap;
             BigDecimal usedPercent = getPercentsValue(usedPercentDecimal);
@@ -477,6 +653,109 @@ public class OSHISysteminfo implements SysteminfoInterface {
         }
     }
 
+    private MemorySample readMemory() {
+        LinuxProcReader localProcReader = procReader;
+        if (localProcReader != null) {
+            try {
+                long[] values = localProcReader.readMemory();
+                return new MemorySample(values[LinuxProcReader.MEMORY_TOTAL], values[LinuxProcReader.MEMORY_AVAILABLE],
+                        values[LinuxProcReader.SWAP_TOTAL],
+                        values[LinuxProcReader.SWAP_TOTAL] - values[LinuxProcReader.SWAP_FREE]);
+            } catch (IOException e) {
+                logger.debug("Cannot read the memory information from /proc, falling back to OSHI", e);
+            }
+        }
+        VirtualMemory virtualMemory = memory.getVirtualMemory();
+        return new MemorySample(memory.getTotal(), memory.getAvailable(), virtualMemory.getSwapTotal(),
+                virtualMemory.getSwapUsed());
+    }
+
+    private double[] readLoadAverage() {
+        LinuxProcReader localProcReader = procReader;
+        if (localProcReader != null) {
+            try {
+                return localProcReader.readLoadAverage();
+            } catch (IOException e) {
+                logger.debug("Cannot read the load average from /proc, falling back to OSHI", e);
+            }
+        }
+        return cpu.getSystemLoadAverage(3);
+    }
+
+    private long[] readCpuTicks() {
+        long[] ticks = null;
+        LinuxProcReader localProcReader = procReader;
+        if (localProcReader != null) {
+            try {
+                ticks = localProcReader.readCpuTicks();
+            } catch (IOException e) {
+                logger.debug("Cannot read the CPU ticks from /proc, falling back to OSHI", e);
+            }
+        }
+        if (ticks == null) {
+            // OSHI uses the same order of the tick types as /proc/stat
+            ticks = cpu.getSystemCpuLoadTicks();
+        }
+        cpuTickHistory.add(ticks, clock.getAsLong());
+        return ticks;
+    }
+
+    private Map<String, long[]> readNetworkCounters() {
+        long time = clock.getAsLong();
+        Map<String, long[]> counters = null;
+        LinuxProcReader localProcReader = procReader;
+        if (localProcReader != null) {
+            try {
+                counters = localProcReader.readNetworkCounters();
+            } catch (IOException e) {
+                logger.debug("Cannot read the network counters from /proc, falling back to OSHI", e);
+            }
+        }
+        if (counters == null) {
+            counters = new HashMap<>();
+            for (NetworkIF network : networks) {
+                network.updateAttributes();
+                long[] values = new long[4];
+                values[LinuxProcReader.NETWORK_BYTES_RECEIVED] = network.getBytesRecv();
+                values[LinuxProcReader.NETWORK_PACKETS_RECEIVED] = network.getPacketsRecv();
+                values[LinuxProcReader.NETWORK_BYTES_SENT] = network.getBytesSent();
+                values[LinuxProcReader.NETWORK_PACKETS_SENT] = network.getPacketsSent();
+                counters.put(network.getName(), values);
+            }
+        }
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            networkCounterHistory.computeIfAbsent(entry.getKey(), name -> new CounterHistory()).add(entry.getValue(),
+                    time);
+        }
+        return counters;
+    }
+
+    private long[] getNetworkCounters(int networkIndex) throws DeviceNotFoundException {
+        NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
+        long[] counters = networkCounterSample.get().get(network.getName());
+        if (counters == null) {
+            throw new DeviceNotFoundException("No counters for network " + network.getName());
+        }
+        return counters;
+    }
+
+    private synchronized @Nullable DecimalType getNetworkRate(int networkIndex, int counterIndex)
+            throws DeviceNotFoundException {
+        NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
+        networkCounterSample.get();
+        CounterHistory history = networkCounterHistory.get(network.getName());
+        if (history == null) {
+            throw new DeviceNotFoundException("No counters for network " + network.getName());
+        }
+        long bytes = history.getDelta(counterIndex);
+        if (bytes < 0) {
+            return null;
+        }
+        BigDecimal rate = new BigDecimal(bytes / history.getSeconds() / 1024);
+        rate = rate.setScale(PRECISION_AFTER_DECIMAL_SIGN, BigDecimal.ROUND_HALF_UP);
+        return new DecimalType(rate);
+    }
+
     private long getSizeInMB(long sizeInBytes) {
         return Math.round(sizeInBytes / (1024D * 1024));
     }
@@ -542,21 +821,45 @@ public class OSHISysteminfo implements SysteminfoInterface {
             default:
                 index = 2;
         }
-        double processorLoads[] = cpu.getSystemLoadAverage(index + 1);
+        double processorLoads[] = loadAverageSample.get();
         BigDecimal result = new BigDecimal(processorLoads[index]);
         result = result.setScale(PRECISION_AFTER_DECIMAL_SIGN, BigDecimal.ROUND_HALF_UP);
         return result;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The CPU time includes all CPUs, the load is 100 % if all CPUs were busy.
+     */
+    @Override
+    public synchronized @Nullable DecimalType getCpuLoad() {
+        cpuTicksSample.get();
+        long total = 0;
+        for (int i = 0; i < LinuxProcReader.CPU_TICK_TYPES; i++) {
+            long delta = cpuTickHistory.getDelta(i);
+            if (delta < 0) {
+                return null;
+            }
+            total += delta;
+        }
+        if (total == 0) {
+            return null;
+        }
+        long idle = cpuTickHistory.getDelta(LinuxProcReader.CPU_TICK_IDLE)
+                + cpuTickHistory.getDelta(LinuxProcReader.CPU_TICK_IOWAIT);
+        return new DecimalType(getPercentsValue(1 - (double) idle / total));
+    }
+
     @Override
     public DecimalType getCpuUptime() {
-        long seconds = operatingSystem.getSystemUptime();
+        long seconds = uptimeSample.get();
         return new DecimalType(getTimeInMinutes(seconds));
     }
 
     @Override
     public DecimalType getCpuThreads() {
-        int threadCount = operatingSystem.getThreadCount();
+        int threadCount = threadCountSample.get();
         return new DecimalType(threadCount);
     }
 
@@ -569,48 +872,38 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getNetworkPacketsReceived(int networkIndex) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the network data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        networks = hal.getNetworkIFs();
-        NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateAttributes();
-        long packRecv = network.getPacketsRecv();
+        long packRecv = getNetworkCounters(networkIndex)[LinuxProcReader.NETWORK_PACKETS_RECEIVED];
         return new DecimalType(packRecv);
     }
 
     @Override
     public DecimalType getNetworkPacketsSent(int networkIndex) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the network data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        networks = hal.getNetworkIFs();
-        NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateAttributes();
-        long packSent = network.getPacketsSent();
+        long packSent = getNetworkCounters(networkIndex)[LinuxProcReader.NETWORK_PACKETS_SENT];
         return new DecimalType(packSent);
     }
 
     @Override
     public DecimalType getNetworkDataSent(int networkIndex) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the network data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        networks = hal.getNetworkIFs();
-        NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateAttributes();
-        long bytesSent = network.getBytesSent();
+        long bytesSent = getNetworkCounters(networkIndex)[LinuxProcReader.NETWORK_BYTES_SENT];
         return new DecimalType(getSizeInMB(bytesSent));
     }
 
     @Override
     public DecimalType getNetworkDataReceived(int networkIndex) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the network data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        networks = hal.getNetworkIFs();
-        NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateAttributes();
-        long bytesRecv = network.getBytesRecv();
+        long bytesRecv = getNetworkCounters(networkIndex)[LinuxProcReader.NETWORK_BYTES_RECEIVED];
         return new DecimalType(getSizeInMB(bytesRecv));
     }
 
+    @Override
+    public @Nullable DecimalType getNetworkDataSentRate(int networkIndex) throws DeviceNotFoundException {
+        return getNetworkRate(networkIndex, LinuxProcReader.NETWORK_BYTES_SENT);
+    }
+
+    @Override
+    public @Nullable DecimalType getNetworkDataReceivedRate(int networkIndex) throws DeviceNotFoundException {
+        return getNetworkRate(networkIndex, LinuxProcReader.NETWORK_BYTES_RECEIVED);
+    }
+
     @Override
     public @Nullable StringType getProcessName(int pid) throws DeviceNotFoundException {
         if (pid > 0) {
@@ -22,6 +22,7 @@ import org.eclipse.smarthome.core.library.types.StringType;
  *
  * @author Svilen Valkanov - Initial contribution
  * @author Wouter Born - Add null annotations
+ * @author agent - Add snapshots, the CPU load and network rates
  */
 @NonNullByDefault
 public interface SysteminfoInterface {
@@ -31,6 +32,13 @@ public interface SysteminfoInterface {
      */
     public void initializeSysteminfo();
 
+    /**
+     * Takes a new snapshot of the dynamic system information. All following calls return values of this snapshot
+     * until the next snapshot is taken, so that the channels of one refresh read the system only once. Rates are
+     * calculated from the difference between two snapshots.
+     */
+    public void takeSnapshot();
+
     // Operating system info
     /**
      * Get the Family of the operating system /e.g. Windows,Unix,.../
@@ -92,6 +100,13 @@ public interface SysteminfoInterface {
      */
     public @Nullable DecimalType getCpuLoad15();
 
+    /**
+     * Returns the recent CPU load, calculated from the CPU time spent since the previous snapshot.
+     *
+     * @return the load in percent or null, if no previous snapshot is available
+     */
+    public @Nullable DecimalType getCpuLoad();
+
     /**
      * Get the System uptime (time since boot).
      *
@@ -336,6 +351,25 @@ public interface SysteminfoInterface {
      */
     public DecimalType getNetworkDataReceived(int networkIndex) throws DeviceNotFoundException;
 
+    /**
+     * Get the rate of data sent in kB/s for this network, calculated from the data sent since the previous snapshot
+     *
+     * @param networkIndex - the index of the network
+     * @return the rate or null, if no previous snapshot is available
+     * @throws DeviceNotFoundException
+     */
+    public @Nullable DecimalType getNetworkDataSentRate(int networkIndex) throws DeviceNotFoundException;
+
+    /**
+     * Get the rate of data received in kB/s for this network, calculated from the data received since the previous
+     * snapshot
+     *
+     * @param networkIndex - the index of the network
+     * @return the rate or null, if no previous snapshot is available
+     * @throws DeviceNotFoundException
+     */
+    public @Nullable DecimalType getNetworkDataReceivedRate(int networkIndex) throws DeviceNotFoundException;
+
     // Display info
     /**
      * Get information about the display device as product number, manufacturer, serial number, width and height in cm";
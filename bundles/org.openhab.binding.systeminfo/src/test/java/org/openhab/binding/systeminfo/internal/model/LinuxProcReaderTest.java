@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.systeminfo.internal.model;
+
+import static org.junit.Assert.*;
+import static org.openhab.binding.systeminfo.internal.model.LinuxProcReader.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the {@link LinuxProcReader} with the files of a /proc file system.
+ *
+ * @author agent - Initial contribution
+ */
+public class LinuxProcReaderTest {
+
+    private static final String STAT = "cpu  10132153 290696 3084719 46828483 16683 0 25195 0 175628 0\n"
+            + "cpu0 1393280 32966 572056 13343292 6130 0 17875 0 23933 0\n"
+            + "intr 1462898 0 0 0 0 0 0 0 0 1 0 0 0 0 0 0 0 0 0\n" //
+            + "ctxt 2435345\n" //
+            + "btime 1588617722\n";
+
+    private static final String MEMINFO = "MemTotal:        8040420 kB\n" //
+            + "MemFree:          404608 kB\n" //
+            + "MemAvailable:    3215184 kB\n" //
+            + "Buffers:          252016 kB\n" //
+            + "Cached:          2796348 kB\n" //
+            + "SwapCached:        28616 kB\n" //
+            + "SwapTotal:       2097148 kB\n" //
+            + "SwapFree:        1847036 kB\n";
+
+    private static final String LOADAVG = "0.52 0.58 0.59 2/1234 5678\n";
+
+    private static final String NET_DEV = "Inter-|   Receive                                                "
+            + "|  Transmit\n" //
+            + " face |bytes    packets errs drop fifo frame compressed multicast|bytes    packets errs drop fifo colls "
+            + "carrier compressed\n"
+            + "    lo:  113240    1276    0    0    0     0          0         0   113240    1276    0    0    0     0 "
+            + "      0          0\n"
+            + "  eth0:9876543210 8765432    0   12    0     0          0      4321 1234567890 2345678    0    0    0 "
+            + "    0       0          0\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path proc;
+    private LinuxProcReader reader;
+
+    @Before
+    public void setUp() throws IOException {
+        proc = folder.getRoot().toPath();
+        Files.createDirectory(proc.resolve("net"));
+        reader = new LinuxProcReader(proc);
+    }
+
+    private void write(String file, String content) throws IOException {
+        Files.write(proc.resolve(file), content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testIsAvailable() throws IOException {
+        write("stat", STAT);
+        write("meminfo", MEMINFO);
+        write("loadavg", LOADAVG);
+        assertFalse(reader.isAvailable());
+
+        write("net/dev", NET_DEV);
+        assertTrue(reader.isAvailable());
+    }
+
+    @Test
+    public void testReadCpuTicks() throws IOException {
+        write("stat", STAT);
+        assertArrayEquals(new long[] { 10132153, 290696, 3084719, 46828483, 16683, 0, 25195, 0 },
+                reader.readCpuTicks());
+    }
+
+    @Test
+    public void testReadCpuTicksOfOldKernels() throws IOException {
+        write("stat", "cpu  1000 20 300 4000\ncpu0 1000 20 300 4000\n");
+        long[] ticks = reader.readCpuTicks();
+        assertEquals(CPU_TICK_TYPES, ticks.length);
+        assertEquals(4000, ticks[CPU_TICK_IDLE]);
+        assertEquals(0, ticks[CPU_TICK_IOWAIT]);
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadCpuTicksWithoutCpuLine() throws IOException {
+        write("stat", "intr 1462898 0 0\n");
+        reader.readCpuTicks();
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadCpuTicksWithInvalidValue() throws IOException {
+        write("stat", "cpu  1000 20 x 4000\n");
+        reader.readCpuTicks();
+    }
+
+    @Test
+    public void testReadMemory() throws IOException {
+        write("meminfo", MEMINFO);
+        long[] memory = reader.readMemory();
+        assertEquals(8040420L * 1024, memory[MEMORY_TOTAL]);
+        assertEquals(3215184L * 1024, memory[MEMORY_AVAILABLE]);
+        assertEquals(2097148L * 1024, memory[SWAP_TOTAL]);
+        assertEquals(1847036L * 1024, memory[SWAP_FREE]);
+    }
+
+    @Test
+    public void testReadMemoryWithoutAvailable() throws IOException {
+        write("meminfo", MEMINFO.replace("MemAvailable:    3215184 kB\n", ""));
+        long[] memory = reader.readMemory();
+        assertEquals((404608L + 252016 + 2796348) * 1024, memory[MEMORY_AVAILABLE]);
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadMemoryWithoutSwap() throws IOException {
+        write("meminfo", "MemTotal:        8040420 kB\nMemAvailable:    3215184 kB\n");
+        reader.readMemory();
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadMemoryWithInvalidValue() throws IOException {
+        write("meminfo", MEMINFO.replace("8040420", "8040x20"));
+        reader.readMemory();
+    }
+
+    @Test
+    public void testReadLoadAverage() throws IOException {
+        write("loadavg", LOADAVG);
+        assertArrayEquals(new double[] { 0.52, 0.58, 0.59 }, reader.readLoadAverage(), 0);
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadLoadAverageWithMissingValues() throws IOException {
+        write("loadavg", "0.52 0.58\n");
+        reader.readLoadAverage();
+    }
+
+    @Test
+    public void testReadNetworkCounters() throws IOException {
+        write("net/dev", NET_DEV);
+        Map<String, long[]> counters = reader.readNetworkCounters();
+        assertEquals(2, counters.size());
+
+        assertArrayEquals(new long[] { 113240, 1276, 113240, 1276 }, counters.get("lo"));
+
+        // the bytes follow the colon without a space if the counter is large
+        long[] eth0 = counters.get("eth0");
+        assertEquals(9876543210L, eth0[NETWORK_BYTES_RECEIVED]);
+        assertEquals(8765432, eth0[NETWORK_PACKETS_RECEIVED]);
+        assertEquals(1234567890, eth0[NETWORK_BYTES_SENT]);
+        assertEquals(2345678, eth0[NETWORK_PACKETS_SENT]);
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadNetworkCountersWithMissingColumns() throws IOException {
+        write("net/dev", "  eth0: 1 2 3 4\n");
+        reader.readNetworkCounters();
+    }
+}
@@ -0,0 +1,258 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.systeminfo.internal.model;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import oshi.hardware.CentralProcessor;
+import oshi.hardware.HardwareAbstractionLayer;
+import oshi.hardware.NetworkIF;
+import oshi.software.os.FileSystem;
+import oshi.software.os.OperatingSystem;
+
+/**
+ * Tests the rates the {@link OSHISysteminfo} calculates from the counters of two snapshots, read from a /proc file
+ * system or from OSHI.
+ *
+ * @author agent - Initial contribution
+ */
+public class OSHISysteminfoTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private static final String NET_DEV_HEADER = "Inter-|   Receive                            |  Transmit\n"
+            + " face |bytes    packets errs drop fifo frame compressed multicast|bytes    packets errs drop\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path proc;
+    private long time = 1000 * SECOND;
+
+    private final HardwareAbstractionLayer hal = mock(HardwareAbstractionLayer.class);
+    private final CentralProcessor cpu = mock(CentralProcessor.class);
+    private final NetworkIF network = mock(NetworkIF.class);
+    private final OperatingSystem operatingSystem = mock(OperatingSystem.class);
+
+    private final OSHISysteminfo systeminfo = new OSHISysteminfo(() -> time);
+
+    @Before
+    public void setUp() throws IOException {
+        proc = folder.getRoot().toPath();
+        Files.createDirectory(proc.resolve("net"));
+
+        when(network.getName()).thenReturn("eth0");
+        when(hal.getProcessor()).thenReturn(cpu);
+        when(hal.getNetworkIFs()).thenReturn(new NetworkIF[] { network });
+        when(operatingSystem.getFileSystem()).thenReturn(mock(FileSystem.class));
+    }
+
+    private void initializeWithProc() {
+        systeminfo.initializeSysteminfo(hal, operatingSystem, new LinuxProcReader(proc));
+    }
+
+    private void writeCpuTicks(long user, long system, long idle, long iowait) throws IOException {
+        String cpu = "cpu  " + user + " 0 " + system + " " + idle + " " + iowait + " 0 0 0 0 0\n";
+        Files.write(proc.resolve("stat"), (cpu + cpu.replace("cpu ", "cpu0") + "ctxt 2435345\n")
+                .getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void writeNetworkCounters(long received, long sent) throws IOException {
+        String counters = NET_DEV_HEADER //
+                + "    lo:  113240    1276    0    0    0     0          0         0   113240    1276    0    0\n"
+                + "  eth0: " + received + " 100 0 0 0 0 0 0 " + sent + " 200 0 0 0 0 0 0\n";
+        Files.write(proc.resolve("net").resolve("dev"), counters.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Takes a snapshot after the given time has passed
+     */
+    private void snapshotAfter(long nanos) {
+        time += nanos;
+        systeminfo.takeSnapshot();
+    }
+
+    private static void assertRate(double expected, DecimalType actual) {
+        assertNotNull(actual);
+        assertEquals(expected, actual.doubleValue(), 0.001);
+    }
+
+    @Test
+    public void testCpuLoadOfTwoSnapshots() throws IOException {
+        initializeWithProc();
+
+        writeCpuTicks(1000, 500, 8000, 100);
+        snapshotAfter(0);
+        assertNull("the load needs two readings", systeminfo.getCpuLoad());
+
+        // 150 of 500 ticks were busy
+        writeCpuTicks(1100, 550, 8300, 150);
+        snapshotAfter(2 * SECOND);
+        assertRate(30, systeminfo.getCpuLoad());
+
+        // the ticks are read once per snapshot
+        writeCpuTicks(1600, 550, 8300, 150);
+        assertRate(30, systeminfo.getCpuLoad());
+
+        snapshotAfter(2 * SECOND);
+        assertRate(100, systeminfo.getCpuLoad());
+    }
+
+    @Test
+    public void testCpuLoadWithoutTicks() throws IOException {
+        initializeWithProc();
+
+        writeCpuTicks(1000, 500, 8000, 100);
+        snapshotAfter(0);
+        systeminfo.getCpuLoad();
+
+        snapshotAfter(2 * SECOND);
+        assertNull("no ticks have passed", systeminfo.getCpuLoad());
+    }
+
+    @Test
+    public void testCpuLoadIgnoresReadingsLessThanASecondApart() throws IOException {
+        initializeWithProc();
+
+        writeCpuTicks(1000, 500, 8000, 100);
+        snapshotAfter(0);
+        systeminfo.getCpuLoad();
+        writeCpuTicks(1100, 550, 8300, 150);
+        snapshotAfter(SECOND);
+        assertRate(30, systeminfo.getCpuLoad());
+
+        // the rate of the last two readings at least a second apart is kept
+        writeCpuTicks(1600, 550, 8300, 150);
+        snapshotAfter(SECOND / 2);
+        assertRate(30, systeminfo.getCpuLoad());
+
+        // the ignored reading is not used as the start of the next rate either
+        writeCpuTicks(1600, 550, 8800, 150);
+        snapshotAfter(SECOND / 2);
+        assertRate(50, systeminfo.getCpuLoad());
+    }
+
+    @Test
+    public void testCpuLoadAfterCounterReset() throws IOException {
+        initializeWithProc();
+
+        writeCpuTicks(1000, 500, 8000, 100);
+        snapshotAfter(0);
+        systeminfo.getCpuLoad();
+
+        writeCpuTicks(100, 50, 800, 10);
+        snapshotAfter(2 * SECOND);
+        assertNull("a reset counter has no rate", systeminfo.getCpuLoad());
+
+        writeCpuTicks(200, 50, 1100, 10);
+        snapshotAfter(2 * SECOND);
+        assertRate(25, systeminfo.getCpuLoad());
+    }
+
+    @Test
+    public void testNetworkRatesOfTwoSnapshots() throws Exception {
+        initializeWithProc();
+
+        writeNetworkCounters(1_000_000, 500_000);
+        snapshotAfter(0);
+        assertNull("the rate needs two readings", systeminfo.getNetworkDataReceivedRate(0));
+        assertNull(systeminfo.getNetworkDataSentRate(0));
+
+        writeNetworkCounters(1_000_000 + 4096, 500_000 + 3072);
+        snapshotAfter(2 * SECOND);
+        assertRate(2, systeminfo.getNetworkDataReceivedRate(0));
+        assertRate(1.5, systeminfo.getNetworkDataSentRate(0));
+        assertEquals("the counters are in MB", new DecimalType(1), systeminfo.getNetworkDataReceived(0));
+    }
+
+    @Test
+    public void testNetworkRatesIgnoreReadingsLessThanASecondApart() throws Exception {
+        initializeWithProc();
+
+        writeNetworkCounters(0, 0);
+        snapshotAfter(0);
+        systeminfo.getNetworkDataReceivedRate(0);
+        writeNetworkCounters(10240, 0);
+        snapshotAfter(SECOND);
+        assertRate(10, systeminfo.getNetworkDataReceivedRate(0));
+
+        writeNetworkCounters(10240 + 102400, 0);
+        snapshotAfter(SECOND / 10);
+        assertRate(10, systeminfo.getNetworkDataReceivedRate(0));
+
+        snapshotAfter(SECOND);
+        assertRate(90.9, systeminfo.getNetworkDataReceivedRate(0));
+    }
+
+    @Test
+    public void testNetworkRatesAfterCounterReset() throws Exception {
+        initializeWithProc();
+
+        writeNetworkCounters(1_000_000, 500_000);
+        snapshotAfter(0);
+        systeminfo.getNetworkDataReceivedRate(0);
+
+        // the interface was reset, the sent bytes have wrapped around
+        writeNetworkCounters(2048, 500_000 + 1024);
+        snapshotAfter(SECOND);
+        assertNull("a reset counter has no rate", systeminfo.getNetworkDataReceivedRate(0));
+        assertRate(1, systeminfo.getNetworkDataSentRate(0));
+
+        writeNetworkCounters(2048 + 1024, 500_000 + 1024);
+        snapshotAfter(SECOND);
+        assertRate(1, systeminfo.getNetworkDataReceivedRate(0));
+        assertRate(0, systeminfo.getNetworkDataSentRate(0));
+    }
+
+    @Test(expected = DeviceNotFoundException.class)
+    public void testNetworkRateOfMissingInterface() throws Exception {
+        initializeWithProc();
+        writeNetworkCounters(0, 0);
+        snapshotAfter(0);
+        systeminfo.getNetworkDataReceivedRate(1);
+    }
+
+    @Test
+    public void testRatesFromOshi() throws Exception {
+        systeminfo.initializeSysteminfo(hal, operatingSystem, null);
+
+        when(cpu.getSystemCpuLoadTicks()).thenReturn(new long[] { 1000, 0, 500, 8000, 100, 0, 0, 0 });
+        when(network.getBytesRecv()).thenReturn(0L);
+        when(network.getBytesSent()).thenReturn(0L);
+        snapshotAfter(0);
+        assertNull(systeminfo.getCpuLoad());
+        assertNull(systeminfo.getNetworkDataReceivedRate(0));
+
+        when(cpu.getSystemCpuLoadTicks()).thenReturn(new long[] { 1100, 0, 550, 8300, 150, 0, 0, 0 });
+        when(network.getBytesRecv()).thenReturn(4096L);
+        when(network.getBytesSent()).thenReturn(2048L);
+        snapshotAfter(2 * SECOND);
+        assertRate(30, systeminfo.getCpuLoad());
+        assertRate(2, systeminfo.getNetworkDataReceivedRate(0));
+        assertRate(1, systeminfo.getNetworkDataSentRate(0));
+        verify(network, times(2)).updateAttributes();
+    }
+}
@@ -0,0 +1,477 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.tradfri.internal;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.eclipse.californium.core.CoapObserveRelation;
+import org.eclipse.californium.core.network.CoapEndpoint;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.thing.ThingStatus;
+import org.eclipse.smarthome.core.thing.ThingStatusDetail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonElement;
+
+/**
+ * The {@link TradfriCoapSession} manages the CoAP traffic of all devices of a gateway over the single DTLS endpoint
+ * of the gateway.
+ *
+ * The gateway does not cope well with many requests at once, so
+ * <ul>
+ * <li>at most {@link #MAX_PENDING_REQUESTS} observation registrations and GET requests, including refreshes, are
+ * outstanding at a time, the others wait in a queue. This also spreads the observations of all devices over time,
+ * when they are re-established after the connection to the gateway was lost.</li>
+ * <li>commands of all devices are sent in order and paced by a token bucket.</li>
+ * </ul>
+ * For each device, the time from a command to the next notification of the device is measured.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class TradfriCoapSession {
+
+    static final int MAX_PENDING_REQUESTS = 4;
+    static final long REQUEST_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    static final int COMMANDS_PER_SECOND = 5;
+
+    private static final String OBSERVE = "observe/";
+    private static final String DETAILS = "details/";
+    private static final String REFRESH = "refresh/";
+
+    private final Logger logger = LoggerFactory.getLogger(TradfriCoapSession.class);
+
+    private final String gatewayURI;
+    private final @Nullable CoapEndpoint endpoint;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<String, TradfriCoapClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, CoapObserveRelation> observations = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<String>> detailRequests = new ConcurrentHashMap<>();
+
+    // requests waiting for a free slot by key, so a request for the same device is queued only once
+    private final Map<String, Consumer<Runnable>> pendingRequests = new LinkedHashMap<>();
+    private int runningRequests;
+
+    private final Deque<Command> commands = new ArrayDeque<>();
+    private final TokenBucket commandBucket = new TokenBucket(COMMANDS_PER_SECOND, COMMANDS_PER_SECOND,
+            System.nanoTime());
+    private @Nullable Future<?> commandJob;
+
+    private final Map<String, Long> commandTimes = new ConcurrentHashMap<>();
+    private final Map<String, NotificationLatency> latencies = new ConcurrentHashMap<>();
+
+    private volatile boolean shutdown;
+
+    /**
+     * Creates a session.
+     *
+     * @param gatewayURI URI of the devices resource of the gateway
+     * @param endpoint DTLS endpoint shared by all requests
+     * @param scheduler scheduler to send commands and to detect lost responses
+     */
+    public TradfriCoapSession(String gatewayURI, @Nullable CoapEndpoint endpoint,
+            ScheduledExecutorService scheduler) {
+        this.gatewayURI = gatewayURI;
+        this.endpoint = endpoint;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Returns the client of a device, which uses the endpoint of this session.
+     *
+     * @param id instance id of the device
+     * @return client of the device
+     * @throws IllegalArgumentException if the id does not result in a valid URI
+     */
+    public TradfriCoapClient getClient(String id) {
+        return clients.computeIfAbsent(id, this::createClient);
+    }
+
+    protected TradfriCoapClient createClient(String id) {
+        TradfriCoapClient client = new TradfriCoapClient(URI.create(gatewayURI + "/" + id));
+        client.setEndpoint(endpoint);
+        return client;
+    }
+
+    /**
+     * Starts to observe a device, as soon as there are few enough outstanding requests. An existing observation of the
+     * device is replaced.
+     *
+     * @param id instance id of the device
+     * @param callback callback receiving the notifications
+     */
+    public void observe(String id, CoapCallback callback) {
+        submitRequest(OBSERVE + id, done -> {
+            cancelRelation(id);
+            observations.put(id, getClient(id).startObserve(new ObservationCallback(id, callback, done)));
+        });
+    }
+
+    /**
+     * Stops observing a device, including a pending observation or refresh request.
+     *
+     * @param id instance id of the device
+     */
+    public void cancelObservation(String id) {
+        synchronized (this) {
+            pendingRequests.remove(OBSERVE + id);
+            pendingRequests.remove(REFRESH + id);
+        }
+        cancelRelation(id);
+        commandTimes.remove(id);
+    }
+
+    private void cancelRelation(String id) {
+        CoapObserveRelation relation = observations.remove(id);
+        if (relation != null) {
+            relation.reactiveCancel();
+        }
+    }
+
+    /**
+     * Reads the current state of a device, as soon as there are few enough outstanding requests. A refresh which is
+     * still waiting covers all further refreshes of the device.
+     *
+     * @param id instance id of the device
+     * @param callback callback receiving the state
+     */
+    public void refresh(String id, CoapCallback callback) {
+        submitRequest(REFRESH + id, done -> getClient(id).asyncGet(new ResponseCallback(callback, done)));
+    }
+
+    /**
+     * Asynchronously requests the details of a device, as soon as there are few enough outstanding requests.
+     *
+     * @param id instance id of the device
+     * @return the future that will hold the details
+     */
+    public CompletableFuture<String> requestDetails(String id) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> pending = detailRequests.putIfAbsent(id, future);
+        if (pending != null) {
+            return pending;
+        }
+        submitRequest(DETAILS + id, done -> getClient(id).asyncGet().whenComplete((data, exception) -> {
+            detailRequests.remove(id, future);
+            done.run();
+            if (exception != null) {
+                future.completeExceptionally(exception);
+            } else {
+                future.complete(data);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Sends a command to a device. The commands of all devices are sent in order, at most
+     * {@link #COMMANDS_PER_SECOND} per second.
+     *
+     * @param id instance id of the device
+     * @param payload the payload to send with the PUT request
+     * @param callback the callback to use for the response
+     */
+    public void put(String id, String payload, CoapCallback callback) {
+        synchronized (commands) {
+            if (shutdown) {
+                return;
+            }
+            commands.add(new Command(id, payload, callback));
+            if (commandJob == null) {
+                commandJob = scheduler.submit(this::sendCommands);
+            }
+        }
+    }
+
+    private void sendCommands() {
+        while (true) {
+            Command command;
+            synchronized (commands) {
+                if (shutdown || commands.isEmpty()) {
+                    commandJob = null;
+                    return;
+                }
+                long now = System.nanoTime();
+                if (!commandBucket.tryTake(now)) {
+                    commandJob = scheduler.schedule(this::sendCommands, commandBucket.getDelay(now),
+                            TimeUnit.NANOSECONDS);
+                    return;
+                }
+                command = commands.poll();
+            }
+            logger.debug("CoAP PUT request\ndevice: {}\npayload: {}", command.id, command.payload);
+            commandTimes.put(command.id, System.nanoTime());
+            try {
+                getClient(command.id).asyncPut(command.payload, command.callback);
+            } catch (RuntimeException e) {
+                logger.debug("Sending command to device {} failed: {}", command.id, e.getMessage());
+                command.callback.setStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR);
+            }
+        }
+    }
+
+    private void submitRequest(String key, Consumer<Runnable> request) {
+        synchronized (this) {
+            if (shutdown) {
+                return;
+            }
+            pendingRequests.putIfAbsent(key, request);
+        }
+        startPendingRequests();
+    }
+
+    /**
+     * Starts waiting requests while there are free slots. Each request gets a callback to release its slot, which is
+     * also called if the request doesn't finish in time.
+     */
+    private void startPendingRequests() {
+        while (true) {
+            Consumer<Runnable> request;
+            synchronized (this) {
+                if (shutdown || runningRequests >= MAX_PENDING_REQUESTS || pendingRequests.isEmpty()) {
+                    return;
+                }
+                Iterator<Consumer<Runnable>> iterator = pendingRequests.values().iterator();
+                request = iterator.next();
+                iterator.remove();
+                runningRequests++;
+            }
+            AtomicBoolean finished = new AtomicBoolean();
+            Runnable release = () -> {
+                if (finished.compareAndSet(false, true)) {
+                    synchronized (this) {
+                        runningRequests--;
+                    }
+                    startPendingRequests();
+                }
+            };
+            ScheduledFuture<?> timeout = scheduler.schedule(release, REQUEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            try {
+                request.accept(() -> {
+                    timeout.cancel(false);
+                    release.run();
+                });
+            } catch (RuntimeException e) {
+                logger.debug("CoAP request failed: {}", e.getMessage());
+                timeout.cancel(false);
+                release.run();
+            }
+        }
+    }
+
+    synchronized int getRunningRequests() {
+        return runningRequests;
+    }
+
+    synchronized int getPendingRequests() {
+        return pendingRequests.size();
+    }
+
+    /**
+     * Returns the measured times from a command to the next notification of a device.
+     *
+     * @param id instance id of the device
+     * @return latencies of the device or null, if no command has been notified yet
+     */
+    public @Nullable NotificationLatency getNotificationLatency(String id) {
+        return latencies.get(id);
+    }
+
+    /**
+     * Logs the notification latencies of all devices.
+     */
+    public void logNotificationLatencies() {
+        if (logger.isDebugEnabled()) {
+            latencies.forEach((id, latency) -> logger.debug("Notification latency of device {}: {}", id, latency));
+        }
+    }
+
+    /**
+     * Cancels all observations and drops waiting requests and commands.
+     */
+    public void shutdown() {
+        shutdown = true;
+        synchronized (this) {
+            pendingRequests.clear();
+        }
+        synchronized (commands) {
+            commands.clear();
+            Future<?> job = commandJob;
+            if (job != null) {
+                job.cancel(false);
+                commandJob = null;
+            }
+        }
+        observations.keySet().forEach(this::cancelRelation);
+        detailRequests.values().forEach(future -> future.cancel(false));
+        clients.values().forEach(TradfriCoapClient::shutdown);
+        clients.clear();
+    }
+
+    /**
+     * Passes the notifications of an observation on to the device handler. The first response releases the slot of
+     * the observation request and each notification completes the latency measurement of a preceding command.
+     */
+    private class ObservationCallback implements CoapCallback {
+        private final String id;
+        private final CoapCallback callback;
+        private final Runnable done;
+
+        ObservationCallback(String id, CoapCallback callback, Runnable done) {
+            this.id = id;
+            this.callback = callback;
+            this.done = done;
+        }
+
+        @Override
+        public void onUpdate(JsonElement data) {
+            done.run();
+            Long commandTime = commandTimes.remove(id);
+            if (commandTime != null) {
+                long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - commandTime);
+                latencies.computeIfAbsent(id, key -> new NotificationLatency()).add(latency);
+                logger.debug("Notification of device {} received {} ms after the last command", id, latency);
+            }
+            callback.onUpdate(data);
+        }
+
+        @Override
+        public void setStatus(ThingStatus status, ThingStatusDetail statusDetail) {
+            if (status != ThingStatus.ONLINE) {
+                done.run();
+            }
+            callback.setStatus(status, statusDetail);
+        }
+    }
+
+    /**
+     * Passes the response of a GET request on to the device handler and releases the slot of the request.
+     */
+    private static class ResponseCallback implements CoapCallback {
+        private final CoapCallback callback;
+        private final Runnable done;
+
+        ResponseCallback(CoapCallback callback, Runnable done) {
+            this.callback = callback;
+            this.done = done;
+        }
+
+        @Override
+        public void onUpdate(JsonElement data) {
+            done.run();
+            callback.onUpdate(data);
+        }
+
+        @Override
+        public void setStatus(ThingStatus status, ThingStatusDetail statusDetail) {
+            done.run();
+            callback.setStatus(status, statusDetail);
+        }
+    }
+
+    /**
+     * Times from a command to the next notification of a device.
+     */
+    public static class NotificationLatency {
+        private long count;
+        private long total;
+        private long max;
+
+        synchronized void add(long latency) {
+            count++;
+            total += latency;
+            max = Math.max(max, latency);
+        }
+
+        public synchronized long getCount() {
+            return count;
+        }
+
+        public synchronized long getAverage() {
+            return count > 0 ? total / count : 0;
+        }
+
+        public synchronized long getMax() {
+            return max;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("%d notifications, average %d ms, max %d ms", count, getAverage(), max);
+        }
+    }
+
+    private static class Command {
+        private final String id;
+        private final String payload;
+        private final CoapCallback callback;
+
+        Command(String id, String payload, CoapCallback callback) {
+            this.id = id;
+            this.payload = payload;
+            this.callback = callback;
+        }
+    }
+
+    /**
+     * Token bucket refilled at a constant rate.
+     */
+    static class TokenBucket {
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(int capacity, int tokensPerSecond, long now) {
+            this.capacity = capacity;
+            this.tokensPerNano = tokensPerSecond / (double) TimeUnit.SECONDS.toNanos(1);
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+        }
+
+        boolean tryTake(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens--;
+                return true;
+            }
+            return false;
+        }
+
+        long getDelay(long now) {
+            refill(now);
+            return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+    }
+}
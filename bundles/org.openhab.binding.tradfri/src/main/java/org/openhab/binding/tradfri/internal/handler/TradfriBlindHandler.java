@@ -35,6 +35,7 @@ import com.google.gson.JsonElement;
  * The {@link TradfriBlindHandler} is responsible for handling commands for individual blinds.
  *
  * @author Manuel Raffel - Initial contribution
+ * @author agent - Refresh through the gateway session
  */
 @NonNullByDefault
 public class TradfriBlindHandler extends TradfriThingHandler {
@@ -87,7 +88,7 @@ public class TradfriBlindHandler extends TradfriThingHandler {
         if (active) {
             if (command instanceof RefreshType) {
                 logger.debug("Refreshing channel {}", channelUID);
-                coapClient.asyncGet(this);
+                refresh();
                 return;
             }
 
@@ -33,6 +33,7 @@ import com.google.gson.JsonElement;
  * The {@link TradfriControllerHandler} is responsible for handling commands for individual controllers.
  *
  * @author Christoph Weitkamp - Initial contribution
+ * @author agent - Refresh through the gateway session
  */
 @NonNullByDefault
 public class TradfriControllerHandler extends TradfriThingHandler {
@@ -81,7 +82,7 @@ public class TradfriControllerHandler extends TradfriThingHandler {
         if (active) {
             if (command instanceof RefreshType) {
                 logger.debug("Refreshing channel {}", channelUID);
-                coapClient.asyncGet(this);
+                refresh();
                 return;
             }
 
@@ -50,6 +50,7 @@ import org.openhab.binding.tradfri.internal.DeviceUpdateListener;
 import org.openhab.binding.tradfri.internal.TradfriBindingConstants;
 import org.openhab.binding.tradfri.internal.TradfriCoapClient;
 import org.openhab.binding.tradfri.internal.TradfriCoapHandler;
+import org.openhab.binding.tradfri.internal.TradfriCoapSession;
 import org.openhab.binding.tradfri.internal.config.TradfriGatewayConfig;
 import org.openhab.binding.tradfri.internal.discovery.TradfriDiscoveryService;
 import org.openhab.binding.tradfri.internal.model.TradfriVersion;
@@ -68,6 +69,7 @@ import com.google.gson.JsonSyntaxException;
  * sent to one of the channels.
  *
  * @author Kai Kreuzer - Initial contribution
+ * @author agent - Added gateway session
  */
 @NonNullByDefault
 public class TradfriGatewayHandler extends BaseBridgeHandler implements CoapCallback {
@@ -81,6 +83,7 @@ public class TradfriGatewayHandler extends BaseBridgeHandler implements CoapCall
     private @NonNullByDefault({}) String gatewayInfoURI;
     private @NonNullByDefault({}) DTLSConnector dtlsConnector;
     private @Nullable CoapEndpoint endPoint;
+    private @Nullable TradfriCoapSession session;
 
     private final Set<DeviceUpdateListener> deviceUpdateListeners = new CopyOnWriteArraySet<>();
 
@@ -162,6 +165,7 @@ public class TradfriGatewayHandler extends BaseBridgeHandler implements CoapCall
         dtlsConnector = new DTLSConnector(builder.build());
         endPoint = new CoapEndpoint.Builder().setConnector(dtlsConnector).build();
         deviceClient.setEndpoint(endPoint);
+        session = new TradfriCoapSession(gatewayURI, endPoint, scheduler);
         updateStatus(ThingStatus.UNKNOWN);
 
         // schedule a new scan every minute
@@ -266,6 +270,11 @@ public class TradfriGatewayHandler extends BaseBridgeHandler implements CoapCall
             scanJob.cancel(true);
             scanJob = null;
         }
+        TradfriCoapSession session = this.session;
+        if (session != null) {
+            session.shutdown();
+            this.session = null;
+        }
         if (endPoint != null) {
             endPoint.destroy();
             endPoint = null;
@@ -286,6 +295,10 @@ public class TradfriGatewayHandler extends BaseBridgeHandler implements CoapCall
             requestGatewayInfo();
             deviceClient.get(new TradfriCoapHandler(this));
         }
+        TradfriCoapSession session = this.session;
+        if (session != null) {
+            session.logNotificationLatencies();
+        }
     }
 
     /**
@@ -306,6 +319,15 @@ public class TradfriGatewayHandler extends BaseBridgeHandler implements CoapCall
         return endPoint;
     }
 
+    /**
+     * Returns the session, which all device handlers use to access the gateway.
+     *
+     * @return the session or null, if the connection has not been established
+     */
+    public @Nullable TradfriCoapSession getSession() {
+        return session;
+    }
+
     @Override
     public void onUpdate(JsonElement data) {
         logger.debug("onUpdate response: {}", data);
@@ -336,16 +358,16 @@ public class TradfriGatewayHandler extends BaseBridgeHandler implements CoapCall
         deviceClient.setURI(gatewayURI);
     }
 
-    private synchronized void requestDeviceDetails(String instanceId) {
-        // we are reusing our coap client and merely temporarily set a sub-URI to call
-        deviceClient.setURI(gatewayURI + "/" + instanceId);
-        deviceClient.asyncGet().thenAccept(data -> {
+    private void requestDeviceDetails(String instanceId) {
+        TradfriCoapSession session = this.session;
+        if (session == null) {
+            return;
+        }
+        session.requestDetails(instanceId).thenAccept(data -> {
             logger.debug("requestDeviceDetails response: {}", data);
             JsonObject json = new JsonParser().parse(data).getAsJsonObject();
             deviceUpdateListeners.forEach(listener -> listener.onUpdate(instanceId, json));
         });
-        // restore root URI
-        deviceClient.setURI(gatewayURI);
     }
 
     @Override
@@ -37,6 +37,7 @@ import com.google.gson.JsonElement;
  * @author Kai Kreuzer - Initial contribution
  * @author Holger Reichert - Support for color bulbs
  * @author Christoph Weitkamp - Restructuring and refactoring of the binding
+ * @author agent - Refresh through the gateway session
  */
 @NonNullByDefault
 public class TradfriLightHandler extends TradfriThingHandler {
@@ -127,7 +128,7 @@ public class TradfriLightHandler extends TradfriThingHandler {
         if (active) {
             if (command instanceof RefreshType) {
                 logger.debug("Refreshing channel {}", channelUID);
-                coapClient.asyncGet(this);
+                refresh();
                 return;
             }
 
@@ -31,6 +31,7 @@ import com.google.gson.JsonElement;
  * The {@link TradfriPlugHandler} is responsible for handling commands for individual plugs.
  *
  * @author Kai Kreuzer - Initial contribution
+ * @author agent - Refresh through the gateway session
  */
 @NonNullByDefault
 public class TradfriPlugHandler extends TradfriThingHandler {
@@ -63,7 +64,7 @@ public class TradfriPlugHandler extends TradfriThingHandler {
         if (active) {
             if (command instanceof RefreshType) {
                 logger.debug("Refreshing channel {}", channelUID);
-                coapClient.asyncGet(this);
+                refresh();
                 return;
             }
 
@@ -32,6 +32,7 @@ import com.google.gson.JsonElement;
  * The {@link TradfriSensorHandler} is responsible for handling commands for individual sensors.
  *
  * @author Christoph Weitkamp - Initial contribution
+ * @author agent - Refresh through the gateway session
  */
 @NonNullByDefault
 public class TradfriSensorHandler extends TradfriThingHandler {
@@ -72,7 +73,7 @@ public class TradfriSensorHandler extends TradfriThingHandler {
         if (active) {
             if (command instanceof RefreshType) {
                 logger.debug("Refreshing channel {}", channelUID);
-                coapClient.asyncGet(this);
+                refresh();
                 return;
             }
 
@@ -14,11 +14,8 @@ package org.openhab.binding.tradfri.internal.handler;
 
 import static org.eclipse.smarthome.core.thing.Thing.*;
 
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.util.concurrent.TimeUnit;
 
-import org.eclipse.californium.core.CoapObserveRelation;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.thing.Bridge;
@@ -29,6 +26,7 @@ import org.eclipse.smarthome.core.thing.ThingStatusInfo;
 import org.eclipse.smarthome.core.thing.binding.BaseThingHandler;
 import org.openhab.binding.tradfri.internal.CoapCallback;
 import org.openhab.binding.tradfri.internal.TradfriCoapClient;
+import org.openhab.binding.tradfri.internal.TradfriCoapSession;
 import org.openhab.binding.tradfri.internal.config.TradfriDeviceConfig;
 import org.openhab.binding.tradfri.internal.model.TradfriDeviceData;
 import org.slf4j.Logger;
@@ -39,6 +37,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Kai Kreuzer - Initial contribution
  * @author Christoph Weitkamp - Restructuring and refactoring of the binding
+ * @author agent - Added gateway session
  */
 @NonNullByDefault
 public abstract class TradfriThingHandler extends BaseThingHandler implements CoapCallback {
@@ -53,7 +52,7 @@ public abstract class TradfriThingHandler extends BaseThingHandler implements Co
 
     protected @NonNullByDefault({}) TradfriCoapClient coapClient;
 
-    private @Nullable CoapObserveRelation observeRelation;
+    private @Nullable TradfriCoapSession session;
 
     public TradfriThingHandler(Thing thing) {
         super(thing);
@@ -66,23 +65,26 @@ public abstract class TradfriThingHandler extends BaseThingHandler implements Co
         this.id = getConfigAs(TradfriDeviceConfig.class).id;
         TradfriGatewayHandler handler = (TradfriGatewayHandler) tradfriGateway.getHandler();
 
-        String uriString = handler.getGatewayURI() + "/" + id;
+        TradfriCoapSession session = handler.getSession();
+        if (session == null) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.BRIDGE_OFFLINE,
+                    String.format("Gateway offline '%s'", tradfriGateway.getStatusInfo()));
+            return;
+        }
         try {
-            URI uri = new URI(uriString);
-            coapClient = new TradfriCoapClient(uri);
-            coapClient.setEndpoint(handler.getEndpoint());
-        } catch (URISyntaxException e) {
-            logger.debug("Illegal device URI `{}`: {}", uriString, e.getMessage());
+            coapClient = session.getClient(String.valueOf(id));
+        } catch (IllegalArgumentException e) {
+            logger.debug("Illegal device URI for id `{}`: {}", id, e.getMessage());
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
             return;
         }
+        this.session = session;
         active = true;
         updateStatus(ThingStatus.UNKNOWN);
         switch (tradfriGateway.getStatus()) {
             case ONLINE:
-                scheduler.schedule(() -> {
-                    observeRelation = coapClient.startObserve(this);
-                }, 3, TimeUnit.SECONDS);
+                // the session limits the number of observations being established at the same time
+                session.observe(String.valueOf(id), this);
                 break;
             case OFFLINE:
             default:
@@ -95,12 +97,10 @@ public abstract class TradfriThingHandler extends BaseThingHandler implements Co
     @Override
     public synchronized void dispose() {
         active = false;
-        if (observeRelation != null) {
-            observeRelation.reactiveCancel();
-            observeRelation = null;
-        }
-        if (coapClient != null) {
-            coapClient.shutdown();
+        TradfriCoapSession session = this.session;
+        if (session != null) {
+            session.cancelObservation(String.valueOf(id));
+            this.session = null;
         }
         super.dispose();
     }
@@ -112,11 +112,10 @@ public abstract class TradfriThingHandler extends BaseThingHandler implements Co
             updateStatus(status, statusDetail);
             // we are offline and lost our observe relation - let's try to establish the connection in 10 seconds again
             scheduler.schedule(() -> {
-                if (observeRelation != null) {
-                    observeRelation.reactiveCancel();
-                    observeRelation = null;
+                TradfriCoapSession session = this.session;
+                if (active && session != null) {
+                    session.observe(String.valueOf(id), this);
                 }
-                observeRelation = coapClient.startObserve(this);
             }, 10, TimeUnit.SECONDS);
         }
     }
@@ -133,9 +132,22 @@ public abstract class TradfriThingHandler extends BaseThingHandler implements Co
         }
     }
 
+    /**
+     * Reads the current state of the device through the session, which limits the outstanding requests.
+     */
+    protected void refresh() {
+        TradfriCoapSession session = this.session;
+        if (session != null) {
+            session.refresh(String.valueOf(id), this);
+        }
+    }
+
     protected void set(String payload) {
         logger.debug("Sending payload: {}", payload);
-        coapClient.asyncPut(payload, this, scheduler);
+        TradfriCoapSession session = this.session;
+        if (session != null) {
+            session.put(String.valueOf(id), payload, this);
+        }
     }
 
     protected void updateDeviceProperties(TradfriDeviceData state) {
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.tradfri.internal;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.californium.core.CoapObserveRelation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.openhab.binding.tradfri.internal.TradfriCoapSession.NotificationLatency;
+import org.openhab.binding.tradfri.internal.TradfriCoapSession.TokenBucket;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Tests for {@link TradfriCoapSession}.
+ *
+ * @author agent - Initial contribution
+ */
+public class TradfriCoapSessionTest {
+
+    private ScheduledExecutorService scheduler;
+    private final Map<String, TradfriCoapClient> clients = new HashMap<>();
+    private final CoapCallback callback = mock(CoapCallback.class);
+    private TradfriCoapSession session;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        session = new TradfriCoapSession("coaps://localhost:5684/15001", null, scheduler) {
+            @Override
+            protected TradfriCoapClient createClient(String id) {
+                TradfriCoapClient client = mock(TradfriCoapClient.class);
+                when(client.startObserve(any())).thenReturn(mock(CoapObserveRelation.class));
+                when(client.asyncGet()).thenReturn(new CompletableFuture<>());
+                clients.put(id, client);
+                return client;
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        session.shutdown();
+        scheduler.shutdownNow();
+    }
+
+    private CoapCallback getObservationCallback(String id) {
+        ArgumentCaptor<CoapCallback> captor = ArgumentCaptor.forClass(CoapCallback.class);
+        verify(clients.get(id)).startObserve(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    public void observationsAreEstablishedWithBoundedConcurrency() {
+        int devices = TradfriCoapSession.MAX_PENDING_REQUESTS + 2;
+        for (int i = 0; i < devices; i++) {
+            session.observe(String.valueOf(i), callback);
+        }
+        assertEquals(TradfriCoapSession.MAX_PENDING_REQUESTS, session.getRunningRequests());
+        assertEquals(2, session.getPendingRequests());
+        assertFalse(clients.containsKey(String.valueOf(devices - 2)));
+
+        // the first notification of an observation frees its slot
+        getObservationCallback("0").onUpdate(new JsonObject());
+        verify(callback).onUpdate(any());
+        verify(clients.get(String.valueOf(devices - 2))).startObserve(any());
+        assertEquals(1, session.getPendingRequests());
+    }
+
+    @Test
+    public void pendingObservationIsQueuedOnlyOnceAndCanBeCancelled() {
+        for (int i = 0; i < TradfriCoapSession.MAX_PENDING_REQUESTS; i++) {
+            session.observe(String.valueOf(i), callback);
+        }
+        session.observe("10", callback);
+        session.observe("10", callback);
+        assertEquals(1, session.getPendingRequests());
+
+        session.cancelObservation("10");
+        assertEquals(0, session.getPendingRequests());
+    }
+
+    @Test
+    public void refreshesAreQueuedWithTheOtherRequests() {
+        for (int i = 0; i < TradfriCoapSession.MAX_PENDING_REQUESTS; i++) {
+            session.observe(String.valueOf(i), callback);
+        }
+        session.refresh("10", callback);
+        session.refresh("10", callback);
+        assertEquals(1, session.getPendingRequests());
+        assertFalse(clients.containsKey("10"));
+
+        getObservationCallback("0").onUpdate(new JsonObject());
+        ArgumentCaptor<CoapCallback> captor = ArgumentCaptor.forClass(CoapCallback.class);
+        verify(clients.get("10"), times(1)).asyncGet(captor.capture());
+        assertEquals(0, session.getPendingRequests());
+        assertEquals(TradfriCoapSession.MAX_PENDING_REQUESTS, session.getRunningRequests());
+
+        // the response frees the slot of the refresh
+        captor.getValue().onUpdate(new JsonObject());
+        verify(callback, times(2)).onUpdate(any());
+        assertEquals(TradfriCoapSession.MAX_PENDING_REQUESTS - 1, session.getRunningRequests());
+    }
+
+    @Test
+    public void detailRequestsOfTheSameDeviceAreShared() {
+        CompletableFuture<String> first = session.requestDetails("1");
+        assertSame(first, session.requestDetails("1"));
+        verify(clients.get("1"), times(1)).asyncGet();
+    }
+
+    @Test
+    public void commandsArePacedAndLatencyIsMeasured() throws Exception {
+        session.observe("1", callback);
+        CoapCallback observation = getObservationCallback("1");
+        observation.onUpdate(new JsonObject());
+
+        int commands = TradfriCoapSession.COMMANDS_PER_SECOND + 2;
+        for (int i = 0; i < commands; i++) {
+            session.put("1", "{\"5850\":" + i + "}", callback);
+        }
+        verify(clients.get("1"), timeout(1000).times(TradfriCoapSession.COMMANDS_PER_SECOND)).asyncPut(anyString(),
+                eq(callback));
+        verify(clients.get("1"), timeout(2000).times(commands)).asyncPut(anyString(), eq(callback));
+
+        observation.onUpdate(new JsonObject());
+        NotificationLatency latency = session.getNotificationLatency("1");
+        assertNotNull(latency);
+        assertEquals(1, latency.getCount());
+    }
+
+    @Test
+    public void tokenBucketLimitsRate() {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        TokenBucket bucket = new TokenBucket(2, 2, 0);
+        assertTrue(bucket.tryTake(0));
+        assertTrue(bucket.tryTake(0));
+        assertFalse(bucket.tryTake(0));
+        assertEquals(second / 2, bucket.getDelay(0));
+        assertTrue(bucket.tryTake(second / 2));
+    }
+}
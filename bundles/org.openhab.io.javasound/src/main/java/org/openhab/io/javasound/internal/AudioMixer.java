@@ -0,0 +1,374 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.javasound.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.Line;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.Mixer;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link AudioMixer} plays audio streams through a single output line.
+ *
+ * The line is opened with a fixed format and stays open between streams, it is only closed after it has been idle
+ * for {@link #IDLE_TIMEOUT_MILLIS}. Streams that are played at the same time are mixed. In {@link Mode#DUCK} the
+ * older streams are attenuated while the most recent stream plays, e.g. music while a notification is spoken.
+ * Each stream is read ahead on a thread of a pool into a few pooled buffers. The mixing thread only uses what has
+ * already been read, a stream that has no data yet is silent, so a slow stream does not hold up the others.
+ *
+ * @author agent - Initial contribution
+ */
+public class AudioMixer {
+
+    /**
+     * How concurrent streams are combined.
+     */
+    public enum Mode {
+        /** all streams play with full volume */
+        MIX,
+        /** all streams but the most recent one play with {@link AudioMixer#DUCKING_GAIN} */
+        DUCK
+    }
+
+    /**
+     * Opens the output line, can be replaced for tests.
+     */
+    @FunctionalInterface
+    public interface LineFactory {
+        SourceDataLine getLine(AudioFormat format) throws LineUnavailableException;
+    }
+
+    static final AudioFormat MIX_FORMAT = new AudioFormat(44100f, 16, 2, true, false);
+    static final int CHUNK_FRAMES = 441;
+    static final int LINE_BUFFER_CHUNKS = 8;
+    static final float DUCKING_GAIN = 0.25f;
+    static final long IDLE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    static final int READ_AHEAD_BUFFERS = 4;
+
+    private static final float GAIN_STEP = 0.1f;
+    private static final long CHUNK_MILLIS = TimeUnit.SECONDS.toMillis(CHUNK_FRAMES)
+            / (long) MIX_FORMAT.getSampleRate();
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final int MAX_POOLED_BUFFERS = 16;
+    private static final String THREAD_POOL_NAME = "javasound";
+
+    private final Logger logger = LoggerFactory.getLogger(AudioMixer.class);
+
+    private final LineFactory lineFactory;
+    private final Mode mode;
+    private final long idleTimeoutMillis;
+    private final Executor readers = ThreadPoolManager.getPool(THREAD_POOL_NAME);
+    private final BufferPool pool = new BufferPool(READ_BUFFER_SIZE, MAX_POOLED_BUFFERS);
+    private final PlaybackStatistics statistics = new PlaybackStatistics();
+    private final List<Playback> playbacks = new ArrayList<>();
+    private final int channels = MIX_FORMAT.getChannels();
+    private final float[] mix = new float[CHUNK_FRAMES * channels];
+    private final byte[] output = new byte[CHUNK_FRAMES * MIX_FORMAT.getFrameSize()];
+
+    private Thread thread;
+    private SourceDataLine line;
+    private boolean running = true;
+    private int lineOpenings;
+
+    /**
+     * A stream submitted to the mixer.
+     */
+    public static class Playback {
+        private final MixerSource source;
+        private final long submitted = System.nanoTime();
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+        private float gain = 1f;
+        private boolean started;
+
+        private Playback(MixerSource source) {
+            this.source = source;
+        }
+
+        /**
+         * Completes when the stream has been written to the output line.
+         */
+        public CompletableFuture<Void> getCompletion() {
+            return completion;
+        }
+    }
+
+    public AudioMixer(Mode mode) {
+        this(AudioMixer::openSystemLine, mode, IDLE_TIMEOUT_MILLIS);
+    }
+
+    AudioMixer(LineFactory lineFactory, Mode mode, long idleTimeoutMillis) {
+        this.lineFactory = lineFactory;
+        this.mode = mode;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Starts playing a stream.
+     *
+     * @param audioStream the stream to play
+     * @return the playback, which completes when the stream has been played
+     * @throws UnsupportedAudioFileException if the format of the stream cannot be played
+     * @throws IOException if the stream cannot be read
+     */
+    public Playback play(AudioStream audioStream) throws UnsupportedAudioFileException, IOException {
+        AudioInputStream input = MixerSource.decode(audioStream);
+        Playback playback = new Playback(new MixerSource(input, MIX_FORMAT.getSampleRate(), pool,
+                READ_AHEAD_BUFFERS, readers, this::dataAvailable));
+        synchronized (this) {
+            if (!running) {
+                playback.source.close();
+                throw new IOException("Audio mixer has been closed");
+            }
+            playbacks.add(playback);
+            if (thread == null) {
+                thread = new Thread(this::run, "OH-javasound-mixer");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            notifyAll();
+        }
+        return playback;
+    }
+
+    /**
+     * Stops all streams, closes the output line and stops the mixing thread.
+     */
+    public void close() {
+        Thread mixingThread;
+        synchronized (this) {
+            running = false;
+            mixingThread = thread;
+            notifyAll();
+        }
+        if (mixingThread != null) {
+            try {
+                mixingThread.join(TimeUnit.SECONDS.toMillis(2));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Wakes up the mixing thread if it waits for the data of a stream.
+     */
+    private synchronized void dataAvailable() {
+        notifyAll();
+    }
+
+    public PlaybackStatistics getStatistics() {
+        return statistics;
+    }
+
+    synchronized int getActiveStreams() {
+        return playbacks.size();
+    }
+
+    synchronized boolean isLineOpen() {
+        return line != null;
+    }
+
+    synchronized int getLineOpenings() {
+        return lineOpenings;
+    }
+
+    int getAllocatedBuffers() {
+        return pool.getAllocated();
+    }
+
+    private void run() {
+        boolean playing = false;
+        try {
+            while (true) {
+                Playback[] active;
+                synchronized (this) {
+                    long idleSince = System.currentTimeMillis();
+                    while (running && playbacks.isEmpty()) {
+                        long remaining = idleSince + idleTimeoutMillis - System.currentTimeMillis();
+                        if (line != null && remaining <= 0) {
+                            closeLine();
+                        }
+                        wait(line != null ? Math.max(remaining, 1) : 0);
+                    }
+                    if (!running) {
+                        break;
+                    }
+                    active = playbacks.toArray(new Playback[playbacks.size()]);
+                    if (line == null && !openLine(active)) {
+                        continue;
+                    }
+                }
+                playing = mixChunk(active, playing);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this) {
+                for (Playback playback : playbacks) {
+                    playback.source.close();
+                    playback.completion.cancel(false);
+                }
+                playbacks.clear();
+                closeLine();
+                thread = null;
+            }
+        }
+    }
+
+    private boolean mixChunk(Playback[] active, boolean wasPlaying) throws InterruptedException {
+        Arrays.fill(mix, 0f);
+        int frames = 0;
+        List<Playback> starting = new ArrayList<>(1);
+        List<Playback> finished = new ArrayList<>(1);
+        Playback newest = active[active.length - 1];
+        for (Playback playback : active) {
+            float target = mode == Mode.DUCK && playback != newest ? DUCKING_GAIN : 1f;
+            // ramp the gain to avoid clicks when a stream is ducked or restored
+            if (playback.gain < target) {
+                playback.gain = Math.min(target, playback.gain + GAIN_STEP);
+            } else if (playback.gain > target) {
+                playback.gain = Math.max(target, playback.gain - GAIN_STEP);
+            }
+            try {
+                int read = playback.source.mixInto(mix, CHUNK_FRAMES, channels, playback.gain);
+                frames = Math.max(frames, read);
+                if (read > 0 && !playback.started) {
+                    playback.started = true;
+                    starting.add(playback);
+                }
+                if (playback.source.isFinished()) {
+                    finished.add(playback);
+                }
+            } catch (IOException e) {
+                logger.warn("Error while playing audio: {}", e.getMessage());
+                remove(playback);
+                statistics.recordStream(false);
+                playback.completion.completeExceptionally(e);
+            }
+        }
+
+        if (frames > 0) {
+            for (int i = 0; i < frames * channels; i++) {
+                int sample = Math.round(mix[i]);
+                if (sample > Short.MAX_VALUE) {
+                    sample = Short.MAX_VALUE;
+                } else if (sample < Short.MIN_VALUE) {
+                    sample = Short.MIN_VALUE;
+                }
+                output[2 * i] = (byte) sample;
+                output[2 * i + 1] = (byte) (sample >> 8);
+            }
+            int queued = line.getBufferSize() - line.available();
+            if (wasPlaying && queued <= 0) {
+                // the line has played everything that was written before, so there has been a gap
+                statistics.recordUnderrun();
+                logger.trace("Underrun of the audio output line");
+            }
+            long now = System.nanoTime();
+            long queuedNanos = TimeUnit.SECONDS.toNanos(queued / MIX_FORMAT.getFrameSize())
+                    / (long) MIX_FORMAT.getSampleRate();
+            for (Playback playback : starting) {
+                statistics.recordLatency(now - playback.submitted + queuedNanos);
+            }
+            line.write(output, 0, frames * MIX_FORMAT.getFrameSize());
+        }
+
+        for (Playback playback : finished) {
+            remove(playback);
+            statistics.recordStream(true);
+            playback.completion.complete(null);
+        }
+        if (!finished.isEmpty()) {
+            logger.debug("Audio playback finished: {}", statistics);
+        }
+        synchronized (this) {
+            if (frames == 0 && finished.isEmpty() && running) {
+                // none of the streams had data, wait for a reader instead of spinning. The timeout covers data that
+                // was read after the streams were mixed.
+                wait(CHUNK_MILLIS);
+            }
+            // the line only plays once something has been written, waiting for the first data is no underrun
+            return !playbacks.isEmpty() && (wasPlaying || frames > 0);
+        }
+    }
+
+    private void remove(Playback playback) {
+        synchronized (this) {
+            playbacks.remove(playback);
+        }
+        playback.source.close();
+    }
+
+    private boolean openLine(Playback[] active) {
+        int bufferSize = CHUNK_FRAMES * MIX_FORMAT.getFrameSize() * LINE_BUFFER_CHUNKS;
+        try {
+            SourceDataLine newLine = lineFactory.getLine(MIX_FORMAT);
+            newLine.open(MIX_FORMAT, bufferSize);
+            newLine.start();
+            line = newLine;
+            lineOpenings++;
+            return true;
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            logger.warn("No line found: {}", e.getMessage());
+            logAvailableLines();
+            LineUnavailableException failure = new LineUnavailableException(e.getMessage());
+            for (Playback playback : active) {
+                playbacks.remove(playback);
+                playback.source.close();
+                statistics.recordStream(false);
+                playback.completion.completeExceptionally(failure);
+            }
+            return false;
+        }
+    }
+
+    private void closeLine() {
+        if (line != null) {
+            line.drain();
+            line.close();
+            line = null;
+        }
+    }
+
+    private void logAvailableLines() {
+        logger.info("Available lines are:");
+        for (Mixer.Info mixerInfo : AudioSystem.getMixerInfo()) {
+            Mixer mixer = AudioSystem.getMixer(mixerInfo);
+            for (Line.Info lineInfo : mixer.getSourceLineInfo()) {
+                logger.info("{}", lineInfo);
+            }
+        }
+    }
+
+    private static SourceDataLine openSystemLine(AudioFormat format) throws LineUnavailableException {
+        return (SourceDataLine) AudioSystem.getLine(new DataLine.Info(SourceDataLine.class, format));
+    }
+}
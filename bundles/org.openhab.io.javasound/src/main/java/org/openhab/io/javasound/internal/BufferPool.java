@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.javasound.internal;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A pool of equally sized byte buffers, so that playing a stream does not allocate new buffers.
+ *
+ * @author agent - Initial contribution
+ */
+class BufferPool {
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final Deque<byte[]> buffers = new ArrayDeque<>();
+    private int allocated;
+
+    BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    synchronized byte[] acquire() {
+        byte[] buffer = buffers.pollFirst();
+        if (buffer == null) {
+            allocated++;
+            buffer = new byte[bufferSize];
+        }
+        return buffer;
+    }
+
+    synchronized void release(byte[] buffer) {
+        if (buffer.length == bufferSize && buffers.size() < maxPooled) {
+            buffers.addFirst(buffer);
+        }
+    }
+
+    /**
+     * Returns the number of buffers allocated since the pool was created.
+     */
+    synchronized int getAllocated() {
+        return allocated;
+    }
+
+    int getBufferSize() {
+        return bufferSize;
+    }
+}
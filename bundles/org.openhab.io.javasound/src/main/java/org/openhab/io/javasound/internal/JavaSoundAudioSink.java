@@ -19,6 +19,8 @@ import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Stream;
 
 import javax.sound.sampled.AudioSystem;
@@ -26,6 +28,7 @@ import javax.sound.sampled.FloatControl;
 import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.Mixer;
 import javax.sound.sampled.Port;
+import javax.sound.sampled.UnsupportedAudioFileException;
 
 import org.apache.commons.collections.Closure;
 import org.apache.commons.io.IOUtils;
@@ -52,6 +55,7 @@ import javazoom.jl.player.Player;
  *
  * @author Kai Kreuzer - Initial contribution and API
  * @author Christoph Weitkamp - Added getSupportedStreams() and UnsupportedAudioStreamException
+ * @author agent - Play PCM streams through the {@link AudioMixer}
  *
  */
 @Component(service = AudioSink.class, immediate = true)
@@ -62,6 +66,7 @@ public class JavaSoundAudioSink implements AudioSink {
     private boolean isMac = false;
     private PercentType macVolumeValue = null;
     private static Player streamPlayer = null;
+    private AudioMixer audioMixer;
 
     private static final Set<AudioFormat> SUPPORTED_AUDIO_FORMATS = Collections
             .unmodifiableSet(Stream.of(AudioFormat.MP3, AudioFormat.WAV).collect(toSet()));
@@ -76,47 +81,62 @@ public class JavaSoundAudioSink implements AudioSink {
         if (os != null && os.toLowerCase().startsWith("macos")) {
             isMac = true;
         }
+        audioMixer = new AudioMixer(AudioMixer.Mode.DUCK);
     }
 
     @Override
-    public synchronized void process(final AudioStream audioStream)
+    public void process(final AudioStream audioStream)
             throws UnsupportedAudioFormatException, UnsupportedAudioStreamException {
         if (audioStream != null && audioStream.getFormat().getCodec() != AudioFormat.CODEC_MP3) {
-            AudioPlayer audioPlayer = new AudioPlayer(audioStream);
-            audioPlayer.start();
-            try {
-                audioPlayer.join();
-            } catch (InterruptedException e) {
-                LOGGER.error("Playing audio has been interrupted.");
-            }
+            // not synchronized, so that concurrent streams are mixed instead of waiting for each other
+            playMixed(audioStream);
         } else {
-            if (audioStream == null || audioStream instanceof URLAudioStream) {
-                // we are dealing with an infinite stream here
-                if (streamPlayer != null) {
-                    // if we are already playing a stream, stop it first
-                    streamPlayer.close();
-                    streamPlayer = null;
-                }
-                if (audioStream == null) {
-                    // the call was only for stopping the currently playing stream
-                    return;
-                } else {
-                    try {
-                        // we start a new continuous stream and store its handle
-                        streamPlayer = new Player(audioStream);
-                        playInThread(streamPlayer);
-                    } catch (JavaLayerException e) {
-                        LOGGER.error("An exception occurred while playing url audio stream : '{}'", e.getMessage());
-                    }
-                    return;
-                }
+            playMP3(audioStream);
+        }
+    }
+
+    private void playMixed(AudioStream audioStream) throws UnsupportedAudioFormatException {
+        try {
+            audioMixer.play(audioStream).getCompletion().get();
+        } catch (UnsupportedAudioFileException e) {
+            throw new UnsupportedAudioFormatException(e.getMessage(), audioStream.getFormat(), e);
+        } catch (IOException | ExecutionException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            LOGGER.error("Error while playing audio: {}", cause.getMessage());
+        } catch (CancellationException e) {
+            LOGGER.debug("Playing audio has been stopped.");
+        } catch (InterruptedException e) {
+            LOGGER.error("Playing audio has been interrupted.");
+        }
+    }
+
+    private synchronized void playMP3(final AudioStream audioStream) {
+        if (audioStream == null || audioStream instanceof URLAudioStream) {
+            // we are dealing with an infinite stream here
+            if (streamPlayer != null) {
+                // if we are already playing a stream, stop it first
+                streamPlayer.close();
+                streamPlayer = null;
+            }
+            if (audioStream == null) {
+                // the call was only for stopping the currently playing stream
+                return;
             } else {
-                // we are playing some normal file (no url stream)
                 try {
-                    playInThread(new Player(audioStream));
+                    // we start a new continuous stream and store its handle
+                    streamPlayer = new Player(audioStream);
+                    playInThread(streamPlayer);
                 } catch (JavaLayerException e) {
-                    LOGGER.error("An exception occurred while playing audio : '{}'", e.getMessage());
+                    LOGGER.error("An exception occurred while playing url audio stream : '{}'", e.getMessage());
                 }
+                return;
+            }
+        } else {
+            // we are playing some normal file (no url stream)
+            try {
+                playInThread(new Player(audioStream));
+            } catch (JavaLayerException e) {
+                LOGGER.error("An exception occurred while playing audio : '{}'", e.getMessage());
             }
         }
     }
@@ -140,6 +160,10 @@ public class JavaSoundAudioSink implements AudioSink {
             streamPlayer.close();
             streamPlayer = null;
         }
+        if (audioMixer != null) {
+            audioMixer.close();
+            audioMixer = null;
+        }
     }
 
     @Override
@@ -0,0 +1,315 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.javasound.internal;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import org.eclipse.smarthome.core.audio.AudioStream;
+
+/**
+ * A stream played by the {@link AudioMixer}. It decodes the stream to 16 bit PCM and converts it to the sample rate
+ * and channels of the mixer, using linear interpolation for the sample rate.
+ *
+ * The stream is read ahead by a reader task into a bounded number of pooled buffers, so the mixer never waits for a
+ * slow stream. The reader task only runs while there is room for another buffer.
+ *
+ * @author Kelly Davis - Initial contribution of the format conversion
+ * @author agent - Resampling for the mixer
+ */
+class MixerSource {
+
+    private static class Chunk {
+        private final byte[] data;
+        private final int length;
+
+        private Chunk(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+    }
+
+    private final AudioInputStream input;
+    private final int channels;
+    private final int frameSize;
+    private final double step;
+    private final BufferPool pool;
+    private final Executor readers;
+    private final Runnable dataListener;
+
+    // read ahead by the reader task, consumed by the mixer
+    private final BlockingQueue<Chunk> chunks;
+    private final AtomicBoolean reading = new AtomicBoolean();
+    private volatile boolean inputEnded;
+    private volatile IOException readError;
+    // guarded by this
+    private boolean closed;
+
+    // only accessed by the mixer
+    private byte[] buffer;
+    private int pendingBytes;
+    private final short[] samples;
+    private int frames;
+    private double position;
+    private boolean ended;
+
+    /**
+     * @param input 16 bit signed little endian PCM
+     * @param mixSampleRate sample rate of the mixer
+     * @param pool pool of the read buffers
+     * @param readAheadBuffers number of buffers that are read ahead
+     * @param readers executor of the reader task
+     * @param dataListener called by the reader task after it has read data or reached the end of the stream
+     */
+    MixerSource(AudioInputStream input, float mixSampleRate, BufferPool pool, int readAheadBuffers, Executor readers,
+            Runnable dataListener) {
+        AudioFormat format = input.getFormat();
+        this.input = input;
+        this.channels = format.getChannels();
+        this.frameSize = format.getFrameSize();
+        this.step = format.getSampleRate() / mixSampleRate;
+        this.pool = pool;
+        this.readers = readers;
+        this.dataListener = dataListener;
+        this.chunks = new ArrayBlockingQueue<>(readAheadBuffers);
+        this.buffer = pool.acquire();
+        // one more frame is kept from the previous buffer to interpolate across the buffer boundary
+        this.samples = new short[(buffer.length / frameSize + 1) * channels];
+        scheduleRead();
+    }
+
+    /**
+     * Starts the reader task, unless it is running or there is no room for another buffer.
+     */
+    private void scheduleRead() {
+        if (!inputEnded && chunks.remainingCapacity() > 0 && reading.compareAndSet(false, true)) {
+            readers.execute(this::readAhead);
+        }
+    }
+
+    private void readAhead() {
+        try {
+            while (!inputEnded && chunks.remainingCapacity() > 0) {
+                byte[] data = pool.acquire();
+                // leaves room for an incomplete frame of the previous buffer, see refill
+                int read = input.read(data, 0, data.length - frameSize);
+                synchronized (this) {
+                    if (read < 0 || closed) {
+                        pool.release(data);
+                        inputEnded = true;
+                    } else if (read > 0) {
+                        chunks.add(new Chunk(data, read));
+                    } else {
+                        pool.release(data);
+                    }
+                }
+                dataListener.run();
+            }
+        } catch (IOException e) {
+            readError = e;
+            inputEnded = true;
+            dataListener.run();
+        } finally {
+            reading.set(false);
+        }
+        // the mixer may have made room while the task was finishing
+        scheduleRead();
+    }
+
+    /**
+     * Adds the next frames of the stream to the mix buffer. Only the frames that have already been read are added.
+     *
+     * @param mix interleaved samples of the mixer
+     * @param mixFrames number of frames to add
+     * @param mixChannels number of channels of the mixer
+     * @param gain factor the samples are multiplied with
+     * @return the number of frames added, less than mixFrames at the end of the stream or if the frames have not
+     *         been read yet
+     * @throws IOException if the stream cannot be read
+     */
+    int mixInto(float[] mix, int mixFrames, int mixChannels, float gain) throws IOException {
+        for (int i = 0; i < mixFrames; i++) {
+            while (position + 1 >= frames) {
+                if (!refill()) {
+                    return i;
+                }
+            }
+            int index = (int) position;
+            float fraction = (float) (position - index);
+            int current = index * channels;
+            int next = current + channels;
+            for (int c = 0; c < mixChannels; c++) {
+                int channel = Math.min(c, channels - 1);
+                float sample = samples[current + channel];
+                sample += fraction * (samples[next + channel] - sample);
+                mix[i * mixChannels + c] += sample * gain;
+            }
+            position += step;
+        }
+        return mixFrames;
+    }
+
+    /**
+     * Returns whether all frames of the stream have been added to the mix.
+     */
+    boolean isFinished() {
+        return ended;
+    }
+
+    private boolean refill() throws IOException {
+        if (ended) {
+            return false;
+        }
+        // the end must be read before the queue, the reader adds the last chunk before it sets the end
+        boolean inputEnded = this.inputEnded;
+        Chunk chunk = chunks.poll();
+        if (chunk == null) {
+            if (inputEnded) {
+                IOException readError = this.readError;
+                if (readError != null) {
+                    throw readError;
+                }
+                ended = true;
+            } else {
+                scheduleRead();
+            }
+            return false;
+        }
+        System.arraycopy(chunk.data, 0, buffer, pendingBytes, chunk.length);
+        pool.release(chunk.data);
+        scheduleRead();
+
+        if (frames > 0) {
+            System.arraycopy(samples, (frames - 1) * channels, samples, 0, channels);
+            position -= frames - 1;
+            frames = 1;
+        }
+        int available = pendingBytes + chunk.length;
+        int completeFrames = available / frameSize;
+        for (int i = 0; i < completeFrames * channels; i++) {
+            samples[frames * channels + i] = (short) ((buffer[2 * i] & 0xff) | (buffer[2 * i + 1] << 8));
+        }
+        frames += completeFrames;
+        pendingBytes = available - completeFrames * frameSize;
+        System.arraycopy(buffer, completeFrames * frameSize, buffer, 0, pendingBytes);
+        return true;
+    }
+
+    /**
+     * Closes the stream and returns the read buffers to the pool.
+     */
+    void close() {
+        synchronized (this) {
+            closed = true;
+            Chunk chunk;
+            while ((chunk = chunks.poll()) != null) {
+                pool.release(chunk.data);
+            }
+        }
+        if (buffer != null) {
+            pool.release(buffer);
+            buffer = null;
+        }
+        // also ends a read of the reader task that waits for data
+        try {
+            input.close();
+        } catch (IOException e) {
+            // the stream is not needed anymore
+        }
+    }
+
+    /**
+     * Opens an audio stream as 16 bit signed little endian PCM with the sample rate and channels of the stream.
+     *
+     * @param audioStream the stream to play
+     * @return the decoded stream
+     * @throws UnsupportedAudioFileException if the format of the stream is not supported
+     */
+    static AudioInputStream decode(AudioStream audioStream) throws UnsupportedAudioFileException, IOException {
+        org.eclipse.smarthome.core.audio.AudioFormat streamFormat = audioStream.getFormat();
+        AudioInputStream input;
+        if (org.eclipse.smarthome.core.audio.AudioFormat.CONTAINER_WAVE.equals(streamFormat.getContainer())) {
+            // the header of the wave file has all details of the format
+            input = AudioSystem.getAudioInputStream(new BufferedInputStream(audioStream));
+        } else {
+            AudioFormat format = convertAudioFormat(streamFormat);
+            if (format == null) {
+                throw new UnsupportedAudioFileException(
+                        "Audio format is unsupported or does not have enough details in order to be played");
+            }
+            input = new AudioInputStream(audioStream, format, AudioSystem.NOT_SPECIFIED);
+        }
+        AudioFormat format = input.getFormat();
+        AudioFormat pcm = new AudioFormat(format.getSampleRate(), 16, format.getChannels(), true, false);
+        if (!format.matches(pcm)) {
+            try {
+                input = AudioSystem.getAudioInputStream(pcm, input);
+            } catch (IllegalArgumentException e) {
+                throw new UnsupportedAudioFileException("Cannot convert " + format + " to " + pcm);
+            }
+        }
+        return input;
+    }
+
+    /**
+     * Converts a org.eclipse.smarthome.core.audio.AudioFormat
+     * to a javax.sound.sampled.AudioFormat
+     *
+     * @param audioFormat The AudioFormat to convert
+     * @return The corresponding AudioFormat
+     */
+    static AudioFormat convertAudioFormat(org.eclipse.smarthome.core.audio.AudioFormat audioFormat) {
+        AudioFormat.Encoding encoding = new AudioFormat.Encoding(audioFormat.getCodec());
+        if (audioFormat.getCodec().equals(org.eclipse.smarthome.core.audio.AudioFormat.CODEC_PCM_SIGNED)) {
+            encoding = AudioFormat.Encoding.PCM_SIGNED;
+        } else if (audioFormat.getCodec().equals(org.eclipse.smarthome.core.audio.AudioFormat.CODEC_PCM_ULAW)) {
+            encoding = AudioFormat.Encoding.ULAW;
+        } else if (audioFormat.getCodec().equals(org.eclipse.smarthome.core.audio.AudioFormat.CODEC_PCM_ALAW)) {
+            encoding = AudioFormat.Encoding.ALAW;
+        }
+
+        final Long frequency = audioFormat.getFrequency();
+        if (frequency == null) {
+            return null;
+        }
+        final float sampleRate = frequency.floatValue();
+
+        final Integer bitDepth = audioFormat.getBitDepth();
+        if (bitDepth == null) {
+            return null;
+        }
+        final int sampleSizeInBits = bitDepth.intValue();
+
+        final int channels = 1;
+
+        final int frameSize = sampleSizeInBits / 8;
+
+        final float frameRate = sampleRate;
+
+        final Boolean bigEndian = audioFormat.isBigEndian();
+        if (bigEndian == null) {
+            return null;
+        }
+
+        return new AudioFormat(encoding, sampleRate, sampleSizeInBits, channels, frameSize, frameRate, bigEndian);
+    }
+}
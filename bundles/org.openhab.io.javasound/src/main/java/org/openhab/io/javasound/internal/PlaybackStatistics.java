@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.javasound.internal;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of the {@link AudioMixer}: the number of played streams, the underruns of the output line and the
+ * latency from submitting a stream until its first sample leaves the output line.
+ *
+ * @author agent - Initial contribution
+ */
+public class PlaybackStatistics {
+
+    private long streams;
+    private long failures;
+    private long underruns;
+    private long latencyCount;
+    private long totalLatencyNanos;
+    private long maxLatencyNanos;
+
+    synchronized void recordStream(boolean success) {
+        streams++;
+        if (!success) {
+            failures++;
+        }
+    }
+
+    synchronized void recordUnderrun() {
+        underruns++;
+    }
+
+    synchronized void recordLatency(long nanos) {
+        latencyCount++;
+        totalLatencyNanos += nanos;
+        maxLatencyNanos = Math.max(maxLatencyNanos, nanos);
+    }
+
+    public synchronized long getStreams() {
+        return streams;
+    }
+
+    public synchronized long getFailures() {
+        return failures;
+    }
+
+    public synchronized long getUnderruns() {
+        return underruns;
+    }
+
+    public synchronized long getAverageLatencyMillis() {
+        return latencyCount > 0 ? TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos / latencyCount) : 0;
+    }
+
+    public synchronized long getMaxLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "streams=" + streams + ", failures=" + failures + ", underruns=" + underruns + ", latency avg="
+                + getAverageLatencyMillis() + "ms, max=" + getMaxLatencyMillis() + "ms";
+    }
+}
@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.javasound.internal;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.sound.sampled.LineUnavailableException;
+
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.audio.ByteArrayAudioStream;
+import org.junit.After;
+import org.junit.Test;
+import org.openhab.io.javasound.internal.AudioMixer.Mode;
+import org.openhab.io.javasound.internal.AudioMixer.Playback;
+
+/**
+ * Tests for {@link AudioMixer} with a {@link SourceDataLineStub}.
+ *
+ * @author agent - Initial contribution
+ */
+public class AudioMixerTest {
+
+    private static final long MIX_RATE = (long) AudioMixer.MIX_FORMAT.getSampleRate();
+
+    private final List<SourceDataLineStub> lines = new ArrayList<>();
+    private AudioMixer mixer;
+
+    private AudioMixer createMixer(Mode mode, long idleTimeoutMillis) {
+        mixer = new AudioMixer(format -> {
+            SourceDataLineStub line = new SourceDataLineStub();
+            lines.add(line);
+            return line;
+        }, mode, idleTimeoutMillis);
+        return mixer;
+    }
+
+    @After
+    public void tearDown() {
+        if (mixer != null) {
+            mixer.close();
+        }
+    }
+
+    private static AudioStream constantStream(short value, long sampleRate, int millis) {
+        int samples = (int) (sampleRate * millis / 1000);
+        byte[] data = new byte[samples * 2];
+        for (int i = 0; i < samples; i++) {
+            data[2 * i] = (byte) value;
+            data[2 * i + 1] = (byte) (value >> 8);
+        }
+        return new ByteArrayAudioStream(data, new AudioFormat(AudioFormat.CONTAINER_NONE,
+                AudioFormat.CODEC_PCM_SIGNED, false, 16, null, sampleRate));
+    }
+
+    private static short[] samples(SourceDataLineStub line) {
+        byte[] bytes = line.getWritten();
+        short[] samples = new short[bytes.length / 2];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) ((bytes[2 * i] & 0xff) | (bytes[2 * i + 1] << 8));
+        }
+        return samples;
+    }
+
+    private static boolean contains(short[] samples, int value) {
+        for (short sample : samples) {
+            if (sample == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void lineStaysOpenBetweenStreamsAndBuffersArePooled() throws Exception {
+        createMixer(Mode.MIX, TimeUnit.MINUTES.toMillis(1));
+        for (int i = 0; i < 5; i++) {
+            mixer.play(constantStream((short) 1000, 16000, 50)).getCompletion().get(2, TimeUnit.SECONDS);
+        }
+        assertEquals(1, mixer.getLineOpenings());
+        assertTrue(mixer.isLineOpen());
+        // the buffers of the read ahead, the one being read and the one being mixed are reused by the next streams
+        assertTrue(mixer.getAllocatedBuffers() <= AudioMixer.READ_AHEAD_BUFFERS + 2);
+        assertEquals(5, mixer.getStatistics().getStreams());
+        assertEquals(0, mixer.getStatistics().getFailures());
+
+        // mono 16 kHz is resampled to stereo 44.1 kHz
+        short[] samples = samples(lines.get(0));
+        assertEquals(5 * 2 * MIX_RATE * 50 / 1000, samples.length, 5 * 2 * 2);
+        assertEquals(1000, samples[0]);
+        assertEquals(1000, samples[samples.length - 1]);
+    }
+
+    @Test
+    public void lineIsClosedAfterIdleTimeout() throws Exception {
+        createMixer(Mode.MIX, 100);
+        mixer.play(constantStream((short) 1000, MIX_RATE, 20)).getCompletion().get(2, TimeUnit.SECONDS);
+        Thread.sleep(500);
+        assertFalse(mixer.isLineOpen());
+        assertFalse(lines.get(0).isOpen());
+
+        mixer.play(constantStream((short) 1000, MIX_RATE, 20)).getCompletion().get(2, TimeUnit.SECONDS);
+        assertEquals(2, mixer.getLineOpenings());
+    }
+
+    @Test
+    public void concurrentStreamsAreMixedAndClipped() throws Exception {
+        createMixer(Mode.MIX, TimeUnit.MINUTES.toMillis(1));
+        Playback first = mixer.play(constantStream((short) 20000, MIX_RATE, 300));
+        Playback second = mixer.play(constantStream((short) 20000, 16000, 300));
+        first.getCompletion().get(2, TimeUnit.SECONDS);
+        second.getCompletion().get(2, TimeUnit.SECONDS);
+
+        short[] samples = samples(lines.get(0));
+        assertTrue(contains(samples, Short.MAX_VALUE));
+        assertTrue(contains(samples, 20000));
+    }
+
+    @Test
+    public void olderStreamsAreDucked() throws Exception {
+        createMixer(Mode.DUCK, TimeUnit.MINUTES.toMillis(1));
+        Playback music = mixer.play(constantStream((short) 4000, MIX_RATE, 500));
+        Thread.sleep(50);
+        Playback speech = mixer.play(constantStream((short) 1000, MIX_RATE, 200));
+        music.getCompletion().get(2, TimeUnit.SECONDS);
+        speech.getCompletion().get(2, TimeUnit.SECONDS);
+
+        short[] samples = samples(lines.get(0));
+        assertTrue(contains(samples, (int) (4000 * AudioMixer.DUCKING_GAIN) + 1000));
+        // the gain of the music is restored after the speech
+        assertEquals(4000, samples[samples.length - 1]);
+    }
+
+    /**
+     * Returns a stream that stops for a while before the given read.
+     */
+    private static AudioStream stallingStream(int stallingRead, long stallMillis) {
+        return stallingStream(constantStream((short) 1000, MIX_RATE, 300), stallingRead, stallMillis);
+    }
+
+    private static AudioStream stallingStream(AudioStream data, int stallingRead, long stallMillis) {
+        return new AudioStream() {
+            private int reads;
+
+            @Override
+            public AudioFormat getFormat() {
+                return data.getFormat();
+            }
+
+            @Override
+            public int read() throws IOException {
+                return data.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (++reads == stallingRead) {
+                    try {
+                        Thread.sleep(stallMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return data.read(b, off, len);
+            }
+        };
+    }
+
+    @Test
+    public void underrunsAreReported() throws Exception {
+        createMixer(Mode.MIX, TimeUnit.MINUTES.toMillis(1));
+        // the stall is longer than the buffer of the line
+        mixer.play(stallingStream(2, 300)).getCompletion().get(3, TimeUnit.SECONDS);
+        assertEquals(1, mixer.getStatistics().getUnderruns());
+
+        // a gap between streams is no underrun
+        Thread.sleep(300);
+        mixer.play(constantStream((short) 1000, MIX_RATE, 50)).getCompletion().get(3, TimeUnit.SECONDS);
+        assertEquals(1, mixer.getStatistics().getUnderruns());
+    }
+
+    @Test
+    public void stallingStreamDoesNotHoldUpOtherStreams() throws Exception {
+        createMixer(Mode.MIX, TimeUnit.MINUTES.toMillis(1));
+        // the first two reads are about half a second, the stream stalls after they have been played
+        Playback stalling = mixer.play(stallingStream(constantStream((short) 1000, 16000, 2000), 3, 1500));
+        Thread.sleep(700);
+        long start = System.nanoTime();
+        Playback doorbell = mixer.play(constantStream((short) 2000, MIX_RATE, 200));
+
+        doorbell.getCompletion().get(1, TimeUnit.SECONDS);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertFalse(stalling.getCompletion().isDone());
+        assertTrue(contains(samples(lines.get(0)), 2000));
+
+        stalling.getCompletion().get(5, TimeUnit.SECONDS);
+        assertEquals(2, mixer.getStatistics().getStreams());
+    }
+
+    @Test
+    public void latencyIsReported() throws Exception {
+        createMixer(Mode.MIX, TimeUnit.MINUTES.toMillis(1));
+        mixer.play(stallingStream(1, 200)).getCompletion().get(3, TimeUnit.SECONDS);
+
+        PlaybackStatistics statistics = mixer.getStatistics();
+        assertTrue(statistics.getMaxLatencyMillis() >= 200);
+        assertEquals(statistics.getMaxLatencyMillis(), statistics.getAverageLatencyMillis());
+    }
+
+    @Test
+    public void unavailableLineFailsThePlayback() throws Exception {
+        mixer = new AudioMixer(format -> {
+            throw new LineUnavailableException("busy");
+        }, Mode.MIX, 100);
+        Playback playback = mixer.play(constantStream((short) 1000, MIX_RATE, 20));
+        try {
+            playback.getCompletion().get(2, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof LineUnavailableException);
+        }
+        assertEquals(1, mixer.getStatistics().getFailures());
+    }
+}
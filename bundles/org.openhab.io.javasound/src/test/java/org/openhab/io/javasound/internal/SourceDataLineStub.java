@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.javasound.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.Control;
+import javax.sound.sampled.Control.Type;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.LineListener;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * A {@link SourceDataLine} that consumes the written audio in real time and records it.
+ *
+ * @author agent - Initial contribution
+ */
+public class SourceDataLineStub implements SourceDataLine {
+
+    private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+    private AudioFormat format;
+    private int bufferSize;
+    private boolean open;
+    private boolean running;
+    private long writtenBytes;
+    private long consumedBytes;
+    private long lastUpdate;
+
+    private synchronized void consume() {
+        long now = System.nanoTime();
+        if (running && open) {
+            long bytesPerSecond = (long) format.getFrameRate() * format.getFrameSize();
+            long bytes = (now - lastUpdate) * bytesPerSecond / TimeUnit.SECONDS.toNanos(1);
+            bytes -= bytes % format.getFrameSize();
+            if (bytes > 0) {
+                consumedBytes = Math.min(writtenBytes, consumedBytes + bytes);
+                lastUpdate += bytes * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond;
+            }
+        } else {
+            lastUpdate = now;
+        }
+        if (consumedBytes == writtenBytes) {
+            lastUpdate = now;
+        }
+    }
+
+    public synchronized byte[] getWritten() {
+        return written.toByteArray();
+    }
+
+    @Override
+    public synchronized void open(AudioFormat format, int bufferSize) {
+        this.format = format;
+        this.bufferSize = bufferSize;
+        open = true;
+        lastUpdate = System.nanoTime();
+    }
+
+    @Override
+    public void open(AudioFormat format) {
+        open(format, (int) format.getFrameRate() * format.getFrameSize() / 2);
+    }
+
+    @Override
+    public void open() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int write(byte[] b, int off, int len) {
+        int remaining = len;
+        while (remaining > 0) {
+            int chunk;
+            synchronized (this) {
+                if (!open) {
+                    return len - remaining;
+                }
+                chunk = Math.min(remaining, available());
+                written.write(b, off + len - remaining, chunk);
+                writtenBytes += chunk;
+            }
+            remaining -= chunk;
+            if (remaining > 0) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return len - remaining;
+                }
+            }
+        }
+        return len;
+    }
+
+    @Override
+    public void drain() {
+        while (true) {
+            synchronized (this) {
+                consume();
+                if (!open || !running || consumedBytes == writtenBytes) {
+                    return;
+                }
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        consumedBytes = writtenBytes;
+    }
+
+    @Override
+    public synchronized void start() {
+        consume();
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        consume();
+        running = false;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public synchronized boolean isActive() {
+        consume();
+        return running && consumedBytes < writtenBytes;
+    }
+
+    @Override
+    public synchronized AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public synchronized int getBufferSize() {
+        return bufferSize;
+    }
+
+    @Override
+    public synchronized int available() {
+        consume();
+        return bufferSize - (int) (writtenBytes - consumedBytes);
+    }
+
+    @Override
+    public synchronized int getFramePosition() {
+        return (int) getLongFramePosition();
+    }
+
+    @Override
+    public synchronized long getLongFramePosition() {
+        consume();
+        return consumedBytes / format.getFrameSize();
+    }
+
+    @Override
+    public long getMicrosecondPosition() {
+        return (long) (getLongFramePosition() * 1000000 / format.getFrameRate());
+    }
+
+    @Override
+    public float getLevel() {
+        return AudioSystem.NOT_SPECIFIED;
+    }
+
+    @Override
+    public DataLine.Info getLineInfo() {
+        return new DataLine.Info(SourceDataLine.class, format);
+    }
+
+    @Override
+    public synchronized void close() {
+        open = false;
+        running = false;
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public Control[] getControls() {
+        return new Control[0];
+    }
+
+    @Override
+    public boolean isControlSupported(Type control) {
+        return false;
+    }
+
+    @Override
+    public Control getControl(Type control) {
+        throw new IllegalArgumentException("Unsupported control type: " + control);
+    }
+
+    @Override
+    public void addLineListener(LineListener listener) {
+    }
+
+    @Override
+    public void removeLineListener(LineListener listener) {
+    }
+}
@@ -68,6 +68,7 @@ import org.slf4j.LoggerFactory;
  * to the brain and handle communication with the brain (in addition to starting up the dashboard tile)
  *
  * @author Tim Roberts - Initial Contribution
+ * @author agent - Open and close the NeeoDeviceIndex
  */
 @NonNullByDefault
 @Component(service = EventSubscriber.class, immediate = true, property = {
@@ -378,6 +379,7 @@ public class NeeoService implements EventSubscriber, NetworkAddressChangeListene
                 validate(eventPublisher, "eventPublisher"), validate(networkAddressService, "networkAddressService"));
 
         context = localContext;
+        localContext.getDefinitions().getIndex().open();
         discovery = new MdnsBrainDiscovery(localContext);
         discovery.addListener(discoveryListener);
 
@@ -433,6 +435,7 @@ public class NeeoService implements EventSubscriber, NetworkAddressChangeListene
 
         final ServiceContext localContext = context;
         if (localContext != null) {
+            localContext.getDefinitions().getIndex().close();
             localContext.getDefinitions().save();
 
             final HttpService service = localContext.getHttpService();
@@ -44,6 +44,7 @@ import com.google.gson.JsonParseException;
  * All device definition changes are saved to a JSON file in the user data folder.
  *
  * @author Tim Roberts - Initial Contribution
+ * @author agent - Keep the NeeoDeviceIndex up to date
  */
 @NonNullByDefault
 public class NeeoDeviceDefinitions {
@@ -72,6 +73,9 @@ public class NeeoDeviceDefinitions {
     /** The file we store definitions in */
     private final File file = new File(NeeoConstants.FILENAME_DEVICEDEFINITIONS);
 
+    /** The search index of the exposed devices */
+    private final NeeoDeviceIndex index;
+
     /**
      * Create the object based on the {@link ServiceContext} and will read the definitions from the {@link #file}
      *
@@ -85,6 +89,7 @@ public class NeeoDeviceDefinitions {
 
         exposeAll = context.isExposeAllThings();
         exposeNeeoBinding = context.isExposeNeeoBinding();
+        index = new NeeoDeviceIndex(context, this::getExposed, this::getExposedDevice);
 
         if (file.exists()) {
             try {
@@ -149,6 +154,7 @@ public class NeeoDeviceDefinitions {
 
         uidToDevice.put(device.getUid(), device);
         save();
+        index.update(device.getUid());
     }
 
     /**
@@ -163,6 +169,7 @@ public class NeeoDeviceDefinitions {
         final boolean found = uidToDevice.remove(uid) != null;
         if (found) {
             save();
+            index.update(uid);
         }
         return found;
     }
@@ -175,8 +182,7 @@ public class NeeoDeviceDefinitions {
     public List<NeeoDevice> getExposed() {
         final List<NeeoDevice> devices = new ArrayList<>();
         for (NeeoDevice device : exposeAll || exposeNeeoBinding ? getAllDevices() : uidToDevice.values()) {
-            if (device.getExposedChannels().length > 0 && !NeeoDeviceType.EXCLUDE.equals(device.getType())
-                    && StringUtils.isNotEmpty(device.getType().toString())) {
+            if (isExposed(device)) {
                 devices.add(device);
             }
         }
@@ -184,6 +190,45 @@ public class NeeoDeviceDefinitions {
         return devices;
     }
 
+    /**
+     * Returns the {@link NeeoDevice} for the given {@link NeeoThingUID} if it is part of {@link #getExposed()}
+     *
+     * @param uid the non-null uid
+     * @return the exposed device or null if the device is not exposed
+     */
+    @Nullable
+    public NeeoDevice getExposedDevice(NeeoThingUID uid) {
+        Objects.requireNonNull(uid, "uid cannot be null");
+
+        NeeoDevice device = uidToDevice.get(uid);
+        if (exposeAll || exposeNeeoBinding) {
+            // same as getAllDevices() for a single device
+            final Thing thing = StringUtils.equalsIgnoreCase(NeeoConstants.NEEOIO_BINDING_ID, uid.getBindingId())
+                    ? null
+                    : context.getThingRegistry().get(uid.asThingUID());
+            if (device != null) {
+                device = device.merge(context);
+            } else if (thing != null) {
+                device = converter.convert(thing);
+            }
+        }
+        return device != null && isExposed(device) ? device : null;
+    }
+
+    /**
+     * Returns the search index of the exposed devices
+     *
+     * @return the non-null index
+     */
+    public NeeoDeviceIndex getIndex() {
+        return index;
+    }
+
+    private boolean isExposed(NeeoDevice device) {
+        return device.getExposedChannels().length > 0 && !NeeoDeviceType.EXCLUDE.equals(device.getType())
+                && StringUtils.isNotEmpty(device.getType().toString());
+    }
+
     /**
      *
      * Checks to see if the specified itemName is bound given the {@link NeeoDeviceKeys}. This method will find any
@@ -0,0 +1,465 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.neeo.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntBiFunction;
+
+import org.apache.commons.lang.StringUtils;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.binding.BindingInfo;
+import org.eclipse.smarthome.core.common.registry.RegistryChangeListener;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.link.ItemChannelLink;
+import org.eclipse.smarthome.core.thing.type.ThingType;
+import org.openhab.io.neeo.internal.models.NeeoDevice;
+import org.openhab.io.neeo.internal.models.NeeoThingUID;
+import org.openhab.io.neeo.internal.models.TokenScore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An inverted index of the search tokens of all exposed {@link NeeoDevice}. The tokens of a device are the words of
+ * its name, "openhab", its binding ID and, if the thing exists, its location, vendor, thing type label and binding
+ * name. Every token is also indexed by its trigrams, so that tokens containing a search term are found without
+ * looking at every token.
+ *
+ * The index is built on the first search and then kept up to date by {@link #update(NeeoThingUID)}, which is called
+ * when a device definition, a thing or a link changes.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class NeeoDeviceIndex {
+
+    /** The length of the n-grams of the tokens */
+    private static final int GRAM_SIZE = 3;
+
+    /** The delimiter used to split the fields into tokens */
+    private static final char DELIMITER = ' ';
+
+    private final Logger logger = LoggerFactory.getLogger(NeeoDeviceIndex.class);
+
+    /** The service context (null if the index is not bound to the registries) */
+    private final @Nullable ServiceContext context;
+
+    /** Supplies all exposed devices for building the index */
+    private final Supplier<List<NeeoDevice>> exposedDevices;
+
+    /** Supplies the exposed device of a uid (or null if not exposed) for updating the index */
+    private final Function<NeeoThingUID, @Nullable NeeoDevice> exposedDevice;
+
+    /** Returns the (possibly null) fields of a device that are split into tokens */
+    private final Function<NeeoDevice, List<@Nullable String>> searchFields;
+
+    /** The indexed devices with their tokens */
+    private final Map<NeeoThingUID, Entry> entries = new LinkedHashMap<>();
+
+    /** The devices containing a token with the number of occurrences */
+    private final Map<String, Map<NeeoThingUID, Integer>> postings = new HashMap<>();
+
+    /** The tokens containing a (lower case) n-gram */
+    private final Map<String, Set<String>> grams = new HashMap<>();
+
+    /** Whether the index has been built */
+    private boolean built;
+
+    /** Updates the index for things that have been added, updated or removed */
+    private final RegistryChangeListener<Thing> thingListener = new RegistryChangeListener<Thing>() {
+        @Override
+        public void added(Thing element) {
+            update(new NeeoThingUID(element.getUID()));
+        }
+
+        @Override
+        public void removed(Thing element) {
+            update(new NeeoThingUID(element.getUID()));
+        }
+
+        @Override
+        public void updated(Thing oldElement, Thing element) {
+            update(new NeeoThingUID(element.getUID()));
+        }
+    };
+
+    /** Updates the index for things whose exposed channels may have changed */
+    private final RegistryChangeListener<ItemChannelLink> linkListener = new RegistryChangeListener<ItemChannelLink>() {
+        @Override
+        public void added(ItemChannelLink element) {
+            update(new NeeoThingUID(element.getLinkedUID().getThingUID()));
+        }
+
+        @Override
+        public void removed(ItemChannelLink element) {
+            update(new NeeoThingUID(element.getLinkedUID().getThingUID()));
+        }
+
+        @Override
+        public void updated(ItemChannelLink oldElement, ItemChannelLink element) {
+            update(new NeeoThingUID(oldElement.getLinkedUID().getThingUID()));
+            update(new NeeoThingUID(element.getLinkedUID().getThingUID()));
+        }
+    };
+
+    /**
+     * An indexed device
+     */
+    private static class Entry {
+        private final NeeoDevice device;
+        private final Map<String, Integer> tokens;
+
+        private Entry(NeeoDevice device, Map<String, Integer> tokens) {
+            this.device = device;
+            this.tokens = tokens;
+        }
+    }
+
+    /**
+     * Creates the index
+     *
+     * @param context the non-null service context
+     * @param exposedDevices the non-null supplier of all exposed devices
+     * @param exposedDevice the non-null function returning the exposed device of a uid
+     */
+    NeeoDeviceIndex(ServiceContext context, Supplier<List<NeeoDevice>> exposedDevices,
+            Function<NeeoThingUID, @Nullable NeeoDevice> exposedDevice) {
+        this(Objects.requireNonNull(context, "context cannot be null"), exposedDevices, exposedDevice,
+                device -> getSearchFields(context, device));
+    }
+
+    /**
+     * Creates the index with the given search fields of a device. The index only listens to the registries if a
+     * context is given.
+     *
+     * @param context the possibly null service context
+     * @param exposedDevices the non-null supplier of all exposed devices
+     * @param exposedDevice the non-null function returning the exposed device of a uid
+     * @param searchFields the non-null function returning the search fields of a device
+     */
+    NeeoDeviceIndex(@Nullable ServiceContext context, Supplier<List<NeeoDevice>> exposedDevices,
+            Function<NeeoThingUID, @Nullable NeeoDevice> exposedDevice,
+            Function<NeeoDevice, List<@Nullable String>> searchFields) {
+        Objects.requireNonNull(exposedDevices, "exposedDevices cannot be null");
+        Objects.requireNonNull(exposedDevice, "exposedDevice cannot be null");
+        Objects.requireNonNull(searchFields, "searchFields cannot be null");
+
+        this.context = context;
+        this.exposedDevices = exposedDevices;
+        this.exposedDevice = exposedDevice;
+        this.searchFields = searchFields;
+    }
+
+    /**
+     * Starts listening to the thing and link registries
+     */
+    public void open() {
+        final ServiceContext localContext = context;
+        if (localContext != null) {
+            localContext.getThingRegistry().addRegistryChangeListener(thingListener);
+            localContext.getItemChannelLinkRegistry().addRegistryChangeListener(linkListener);
+        }
+    }
+
+    /**
+     * Stops listening to the thing and link registries and clears the index
+     */
+    public void close() {
+        final ServiceContext localContext = context;
+        if (localContext != null) {
+            localContext.getThingRegistry().removeRegistryChangeListener(thingListener);
+            localContext.getItemChannelLinkRegistry().removeRegistryChangeListener(linkListener);
+        }
+        invalidate();
+    }
+
+    /**
+     * Updates the index for the device with the given uid. Nothing is done if the index has not been built yet.
+     *
+     * @param uid the non-null uid
+     */
+    public void update(NeeoThingUID uid) {
+        Objects.requireNonNull(uid, "uid cannot be null");
+
+        synchronized (this) {
+            if (!built) {
+                return;
+            }
+        }
+
+        // look up the device and its tokens outside of the lock, this calls the registries
+        final NeeoDevice device = exposedDevice.apply(uid);
+        final Map<String, Integer> tokens = device == null ? Collections.emptyMap() : getTokens(device);
+
+        synchronized (this) {
+            if (built) {
+                removeEntry(uid);
+                if (device != null) {
+                    addEntry(device, tokens);
+                }
+                logger.trace("Updated search index for {}: {}", uid, device == null ? "removed" : tokens.keySet());
+            }
+        }
+    }
+
+    /**
+     * Clears the index, it will be rebuilt on the next search
+     */
+    public synchronized void invalidate() {
+        entries.clear();
+        postings.clear();
+        grams.clear();
+        built = false;
+    }
+
+    /**
+     * Scores all indexed devices for the needles. The score of a device is the sum of the scores of all its tokens for
+     * all the needles.
+     *
+     * @param needles the non-null needles
+     * @param tokenScore the non-null function scoring a token for a needle
+     * @param includeUnmatched whether devices without any matching token are part of the scores
+     * @param scores the non-null list the device scores are added to
+     * @return the maximum score of all devices (negative if there are no devices)
+     */
+    public int score(String[] needles, ToIntBiFunction<String, String> tokenScore, boolean includeUnmatched,
+            List<TokenScore<NeeoDevice>> scores) {
+        Objects.requireNonNull(needles, "needles cannot be null");
+        Objects.requireNonNull(tokenScore, "tokenScore cannot be null");
+        Objects.requireNonNull(scores, "scores cannot be null");
+
+        build();
+
+        synchronized (this) {
+            final Map<NeeoThingUID, Integer> deviceScores = new HashMap<>();
+            for (String needle : needles) {
+                for (String token : getMatchingTokens(needle)) {
+                    final int score = tokenScore.applyAsInt(token, needle);
+                    if (score == 0) {
+                        continue;
+                    }
+                    final Map<NeeoThingUID, Integer> posting = postings.get(token);
+                    if (posting != null) {
+                        for (Map.Entry<NeeoThingUID, Integer> occurrences : posting.entrySet()) {
+                            deviceScores.merge(occurrences.getKey(), score * occurrences.getValue(), Integer::sum);
+                        }
+                    }
+                }
+            }
+
+            int maxScore = entries.isEmpty() ? -1 : 0;
+            for (Entry entry : entries.values()) {
+                final Integer score = deviceScores.get(entry.device.getUid());
+                if (score != null) {
+                    maxScore = Math.max(maxScore, score);
+                    scores.add(new TokenScore<>(score, entry.device));
+                } else if (includeUnmatched) {
+                    scores.add(new TokenScore<>(0, entry.device));
+                }
+            }
+            return maxScore;
+        }
+    }
+
+    /**
+     * Returns the number of indexed devices
+     *
+     * @return the number of indexed devices
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Builds the index if it has not been built yet
+     */
+    private void build() {
+        synchronized (this) {
+            if (built) {
+                return;
+            }
+        }
+
+        final List<NeeoDevice> devices = exposedDevices.get();
+        final List<Map<String, Integer>> tokens = new ArrayList<>(devices.size());
+        for (NeeoDevice device : devices) {
+            tokens.add(getTokens(device));
+        }
+
+        synchronized (this) {
+            if (!built) {
+                for (int i = 0; i < devices.size(); i++) {
+                    addEntry(devices.get(i), tokens.get(i));
+                }
+                built = true;
+                logger.debug("Built search index of {} devices with {} tokens", entries.size(), postings.size());
+            }
+        }
+    }
+
+    /**
+     * Returns the tokens that contain the needle (ignoring case)
+     *
+     * @param needle the non-null needle
+     * @return the non-null, possibly empty tokens
+     */
+    private Collection<String> getMatchingTokens(String needle) {
+        Collection<String> candidates = postings.keySet();
+        if (needle.length() >= GRAM_SIZE) {
+            Set<String> smallest = null;
+            for (String gram : getGrams(needle)) {
+                final Set<String> tokens = grams.get(gram);
+                if (tokens == null) {
+                    return Collections.emptyList();
+                }
+                if (smallest == null || tokens.size() < smallest.size()) {
+                    smallest = tokens;
+                }
+            }
+            if (smallest != null) {
+                candidates = smallest;
+            }
+        }
+
+        final List<String> matches = new ArrayList<>();
+        for (String token : candidates) {
+            if (StringUtils.indexOfIgnoreCase(token, needle) > -1) {
+                matches.add(token);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the search fields of a device: its name, "openhab", its binding ID and, if the thing exists, its
+     * location, vendor, thing type label and binding name
+     *
+     * @param context the non-null service context
+     * @param device the non-null device
+     * @return the non-null list of possibly null fields
+     */
+    static List<@Nullable String> getSearchFields(ServiceContext context, NeeoDevice device) {
+        final List<@Nullable String> fields = new ArrayList<>();
+        fields.add(device.getName());
+        fields.add("openhab");
+        fields.add(device.getUid().getBindingId());
+
+        final Thing thing = context.getThingRegistry().get(device.getUid().asThingUID());
+        if (thing != null) {
+            fields.add(thing.getLocation());
+
+            final Map<@NonNull String, String> properties = thing.getProperties();
+            fields.add(properties.get(Thing.PROPERTY_VENDOR));
+
+            final ThingType tt = context.getThingTypeRegistry().getThingType(thing.getThingTypeUID());
+            if (tt != null) {
+                fields.add(tt.getLabel());
+
+                final BindingInfo bi = context.getBindingInfoRegistry().getBindingInfo(tt.getBindingId());
+                if (bi != null) {
+                    fields.add(bi.getName());
+                }
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Returns the tokens of a device with the number of occurrences
+     *
+     * @param device the non-null device
+     * @return the non-null tokens
+     */
+    private Map<String, Integer> getTokens(NeeoDevice device) {
+        final Map<String, Integer> tokens = new HashMap<>();
+        for (String field : searchFields.apply(device)) {
+            if (field != null && StringUtils.isNotEmpty(field)) {
+                for (String token : StringUtils.split(field, DELIMITER)) {
+                    tokens.merge(token, 1, Integer::sum);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private void addEntry(NeeoDevice device, Map<String, Integer> tokens) {
+        final NeeoThingUID uid = device.getUid();
+        entries.put(uid, new Entry(device, tokens));
+        for (Map.Entry<String, Integer> token : tokens.entrySet()) {
+            final Map<NeeoThingUID, Integer> posting = postings.get(token.getKey());
+            if (posting == null) {
+                final Map<NeeoThingUID, Integer> newPosting = new HashMap<>();
+                newPosting.put(uid, token.getValue());
+                postings.put(token.getKey(), newPosting);
+                for (String gram : getGrams(token.getKey())) {
+                    grams.computeIfAbsent(gram, k -> new HashSet<>()).add(token.getKey());
+                }
+            } else {
+                posting.put(uid, token.getValue());
+            }
+        }
+    }
+
+    private void removeEntry(NeeoThingUID uid) {
+        final Entry entry = entries.remove(uid);
+        if (entry == null) {
+            return;
+        }
+        for (String token : entry.tokens.keySet()) {
+            final Map<NeeoThingUID, Integer> posting = postings.get(token);
+            if (posting != null) {
+                posting.remove(uid);
+                if (posting.isEmpty()) {
+                    postings.remove(token);
+                    for (String gram : getGrams(token)) {
+                        final Set<String> tokens = grams.get(gram);
+                        if (tokens != null) {
+                            tokens.remove(token);
+                            if (tokens.isEmpty()) {
+                                grams.remove(gram);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the lower case n-grams of a token
+     *
+     * @param token the non-null token
+     * @return the non-null, possibly empty n-grams
+     */
+    private static Set<String> getGrams(String token) {
+        final String lower = token.toLowerCase(Locale.ROOT);
+        final Set<String> result = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= lower.length(); i++) {
+            result.add(lower.substring(i, i + GRAM_SIZE));
+        }
+        return result;
+    }
+}
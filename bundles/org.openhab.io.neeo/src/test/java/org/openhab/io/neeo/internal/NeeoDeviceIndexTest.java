@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.neeo.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.io.neeo.internal.models.NeeoDevice;
+import org.openhab.io.neeo.internal.models.NeeoDeviceType;
+import org.openhab.io.neeo.internal.models.NeeoThingUID;
+import org.openhab.io.neeo.internal.models.TokenScore;
+
+/**
+ * Tests that the {@link NeeoDeviceIndex} scores the devices like the search that scanned every device, before and
+ * after devices are added, updated and removed.
+ *
+ * @author agent - Initial contribution
+ */
+public class NeeoDeviceIndexTest {
+
+    private static final String[] QUERIES = { "lamp", "living room", "Living", "sonos speaker", "tv", "o", "kitchen",
+            "openhab", "hue lamp 2", "room room", "xyz", "LAMP" };
+
+    /** The exposed devices by uid */
+    private final Map<NeeoThingUID, NeeoDevice> devices = new LinkedHashMap<>();
+
+    /** The search fields (from the registries) by uid */
+    private final Map<NeeoThingUID, List<@Nullable String>> fields = new HashMap<>();
+
+    private NeeoDeviceIndex index;
+
+    @Before
+    public void setUp() {
+        expose("hue:bulb:1", "Lamp 1", "hue", "Living Room", "Philips", "Color Lamp", "Hue Binding");
+        expose("hue:bulb:2", "Lamp 2", "hue", "Kitchen", "Philips", "Color Lamp", "Hue Binding");
+        expose("sonos:one:1", "Living Room Speaker", "sonos", "Living Room", "Sonos", "Speaker", null);
+        expose("lgwebos:tv:1", "TV", "lgwebos", null, null, null, null);
+        expose("zwave:node:5", "Kitchen Lamp Lamp", "zwave", "Kitchen", "Fibaro", "Dimmer", "Z-Wave Binding");
+
+        index = new NeeoDeviceIndex(null, () -> new ArrayList<>(devices.values()), uid -> devices.get(uid),
+                device -> fields.get(device.getUid()));
+    }
+
+    private NeeoThingUID expose(String uid, String name, String binding, @Nullable String location,
+            @Nullable String vendor, @Nullable String thingType, @Nullable String bindingName) {
+        final NeeoDevice device = new NeeoDevice(new NeeoThingUID(uid), 0, NeeoDeviceType.ACCESSOIRE, "openHAB", name,
+                Collections.emptyList(), null, null, null, null);
+        devices.put(device.getUid(), device);
+        fields.put(device.getUid(), Arrays.asList(name, "openhab", binding, location, vendor, thingType, bindingName));
+        return device.getUid();
+    }
+
+    /**
+     * Scores every device by splitting and scoring all of its search fields, like the search without the index did
+     */
+    private Map<NeeoThingUID, Double> scan(String[] needles) {
+        final Map<NeeoThingUID, Double> scores = new HashMap<>();
+        for (NeeoDevice device : devices.values()) {
+            int score = 0;
+            for (String field : fields.get(device.getUid())) {
+                if (field != null && StringUtils.isNotEmpty(field)) {
+                    for (String token : StringUtils.split(field, ' ')) {
+                        score += TokenSearch.searchAlgorithm(token, needles);
+                    }
+                }
+            }
+            scores.put(device.getUid(), (double) score);
+        }
+        return scores;
+    }
+
+    private Map<NeeoThingUID, Double> search(String[] needles, boolean includeUnmatched) {
+        final List<TokenScore<NeeoDevice>> scores = new ArrayList<>();
+        index.score(needles, TokenSearch::searchAlgorithm, includeUnmatched, scores);
+
+        final Map<NeeoThingUID, Double> result = new HashMap<>();
+        for (TokenScore<NeeoDevice> score : scores) {
+            assertNull("a device must be scored once", result.put(score.getItem().getUid(), score.getScore()));
+        }
+        return result;
+    }
+
+    private void assertSameScoresAsScan() {
+        for (String query : QUERIES) {
+            final String[] needles = StringUtils.split(query, ' ');
+            final Map<NeeoThingUID, Double> scanned = scan(needles);
+            assertEquals("Scores of '" + query + "'", scanned, search(needles, true));
+
+            final Map<NeeoThingUID, Double> matched = new HashMap<>(scanned);
+            matched.values().removeIf(score -> score == 0);
+            assertEquals("Matches of '" + query + "'", matched, search(needles, false));
+        }
+    }
+
+    @Test
+    public void testScoresAreTheSameAsTheScan() {
+        assertSameScoresAsScan();
+        assertEquals(devices.size(), index.size());
+    }
+
+    @Test
+    public void testMaxScore() {
+        final String[] needles = { "lamp" };
+        final int maxScore = index.score(needles, TokenSearch::searchAlgorithm, false, new ArrayList<>());
+        assertEquals(scan(needles).values().stream().mapToInt(Double::intValue).max().getAsInt(), maxScore);
+
+        assertEquals(0, index.score(new String[] { "xyz" }, TokenSearch::searchAlgorithm, false, new ArrayList<>()));
+
+        devices.clear();
+        index.invalidate();
+        assertEquals(-1, index.score(needles, TokenSearch::searchAlgorithm, true, new ArrayList<>()));
+    }
+
+    @Test
+    public void testUpdatedDevice() {
+        assertSameScoresAsScan();
+
+        final NeeoThingUID uid = expose("hue:bulb:2", "Television Light", "hue", "Living Room", "Philips",
+                "White Lamp", "Hue Binding");
+        index.update(uid);
+
+        assertSameScoresAsScan();
+        assertFalse("tokens of the old name must be gone", search(new String[] { "2" }, false).containsKey(uid));
+    }
+
+    @Test
+    public void testRemovedDevice() {
+        assertSameScoresAsScan();
+
+        final NeeoThingUID uid = new NeeoThingUID("lgwebos:tv:1");
+        devices.remove(uid);
+        fields.remove(uid);
+        index.update(uid);
+
+        assertSameScoresAsScan();
+        assertEquals(devices.size(), index.size());
+        assertTrue("a token only the removed device had must be gone", search(new String[] { "tv" }, false).isEmpty());
+
+        // removing it again does not change anything
+        index.update(uid);
+        assertSameScoresAsScan();
+    }
+
+    @Test
+    public void testAddedDevice() {
+        assertSameScoresAsScan();
+
+        index.update(expose("kodi:kodi:1", "Kodi Living Room", "kodi", "Living Room", "Kodi", "Media Center", null));
+
+        assertSameScoresAsScan();
+        assertEquals(devices.size(), index.size());
+    }
+
+    @Test
+    public void testUpdateBeforeBuildIsIgnored() {
+        final NeeoThingUID uid = expose("kodi:kodi:1", "Kodi", "kodi", null, null, null, null);
+        index.update(uid);
+
+        // the index is built from the exposed devices on the first search
+        assertSameScoresAsScan();
+        assertEquals(devices.size(), index.size());
+    }
+
+    @Test
+    public void testInvalidateRebuildsTheIndex() {
+        assertSameScoresAsScan();
+
+        // changes without an update are only seen after the index is invalidated
+        expose("sonos:one:1", "Bedroom Speaker", "sonos", "Bedroom", "Sonos", "Speaker", null);
+        assertNotEquals(scan(new String[] { "bedroom" }), search(new String[] { "bedroom" }, true));
+
+        index.invalidate();
+        assertSameScoresAsScan();
+    }
+}
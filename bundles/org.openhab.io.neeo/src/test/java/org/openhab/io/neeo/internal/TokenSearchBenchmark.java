@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.neeo.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang.StringUtils;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.neeo.internal.models.NeeoDevice;
+import org.openhab.io.neeo.internal.models.NeeoDeviceType;
+import org.openhab.io.neeo.internal.models.NeeoThingUID;
+import org.openhab.io.neeo.internal.models.TokenScore;
+
+/**
+ * This class compares the time of a brain search that scores every exposed device (as {@link TokenSearch} did before
+ * the {@link NeeoDeviceIndex}) with the time of a search answered from the index. The devices are synthetic, the
+ * search fields that come from the registries are kept in a map.
+ *
+ * Usage: java org.openhab.io.neeo.internal.TokenSearchBenchmark [devices] [iterations]
+ *
+ * @author agent - Initial contribution
+ */
+public class TokenSearchBenchmark {
+
+    private static final String[] BINDINGS = { "hue", "zwave", "sonos", "kodi", "harmonyhub", "mqtt", "lgwebos",
+            "knx" };
+    private static final String[] LOCATIONS = { "Living Room", "Kitchen", "Bedroom", "Office", "Garage", "Basement",
+            "Hallway", "Guest Room" };
+    private static final String[] KINDS = { "Lamp", "Speaker", "Television", "Thermostat", "Blinds", "Receiver",
+            "Switch", "Sensor" };
+    private static final String[] VENDORS = { "Philips", "Aeotec", "Sonos", "Logitech", "LG", "Fibaro", "Denon",
+            "Gira" };
+
+    private static final String[] QUERIES = { "lamp", "living room", "sonos speaker", "tv", "kodi", "therm",
+            "openhab", "guest room blinds 17", "xyz" };
+
+    public static void main(String[] args) {
+        int deviceCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        final List<NeeoDevice> devices = new ArrayList<>();
+        final Map<NeeoThingUID, List<@Nullable String>> fields = new HashMap<>();
+        for (int i = 0; i < deviceCount; i++) {
+            final String binding = BINDINGS[i % BINDINGS.length];
+            final String location = LOCATIONS[(i / BINDINGS.length) % LOCATIONS.length];
+            final String kind = KINDS[(i / 3) % KINDS.length];
+            final NeeoDevice device = new NeeoDevice(new NeeoThingUID(binding + ":device:" + i), 0,
+                    NeeoDeviceType.ACCESSOIRE, "openHAB", location + " " + kind + " " + i, Collections.emptyList(),
+                    null, null, null, null);
+            devices.add(device);
+            fields.put(device.getUid(), Arrays.asList(device.getName(), "openhab", binding, location,
+                    VENDORS[i % VENDORS.length], kind + " Thing", StringUtils.capitalize(binding) + " Binding"));
+        }
+
+        final NeeoDeviceIndex index = new NeeoDeviceIndex(null, () -> devices, uid -> null,
+                device -> fields.get(device.getUid()));
+
+        // check that both searches return the same scores before measuring them
+        for (String query : QUERIES) {
+            final String[] needles = StringUtils.split(query, ' ');
+            final Map<NeeoThingUID, Double> scanned = toMap(scan(devices, fields, needles));
+            final List<TokenScore<NeeoDevice>> indexed = new ArrayList<>();
+            index.score(needles, TokenSearch::searchAlgorithm, true, indexed);
+            if (!scanned.equals(toMap(indexed))) {
+                throw new IllegalStateException("Scores differ for query '" + query + "'");
+            }
+        }
+
+        System.out.println("Devices: " + deviceCount + ", iterations: " + iterations);
+        run("scan", iterations, needles -> scan(devices, fields, needles));
+        run("index", iterations, needles -> {
+            final List<TokenScore<NeeoDevice>> scores = new ArrayList<>();
+            index.score(needles, TokenSearch::searchAlgorithm, false, scores);
+            return scores;
+        });
+
+        final long start = System.nanoTime();
+        index.invalidate();
+        index.score(new String[] { "lamp" }, TokenSearch::searchAlgorithm, false, new ArrayList<>());
+        System.out.println(String.format("index build: %.2f ms", (System.nanoTime() - start) / 1e6));
+    }
+
+    private interface Search {
+        List<TokenScore<NeeoDevice>> search(String[] needles);
+    }
+
+    private static void run(String name, int iterations, Search search) {
+        // warm up the JIT
+        for (int i = 0; i < iterations; i++) {
+            for (String query : QUERIES) {
+                search.search(StringUtils.split(query, ' '));
+            }
+        }
+
+        final long[] times = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            final long start = System.nanoTime();
+            for (String query : QUERIES) {
+                search.search(StringUtils.split(query, ' '));
+            }
+            times[i] = (System.nanoTime() - start) / QUERIES.length;
+        }
+        Arrays.sort(times);
+        System.out.println(String.format("%-6s per query: median %d us, p95 %d us", name,
+                TimeUnit.NANOSECONDS.toMicros(times[iterations / 2]),
+                TimeUnit.NANOSECONDS.toMicros(times[(int) (iterations * 0.95)])));
+    }
+
+    /**
+     * Scores every device by splitting and scoring all of its search fields, like the search without the index
+     */
+    private static List<TokenScore<NeeoDevice>> scan(List<NeeoDevice> devices,
+            Map<NeeoThingUID, List<@Nullable String>> fields, String[] needles) {
+        final List<TokenScore<NeeoDevice>> scores = new ArrayList<>();
+        for (NeeoDevice device : devices) {
+            int score = 0;
+            for (String field : fields.get(device.getUid())) {
+                if (field != null && StringUtils.isNotEmpty(field)) {
+                    for (String token : StringUtils.split(field, ' ')) {
+                        score += TokenSearch.searchAlgorithm(token, needles);
+                    }
+                }
+            }
+            scores.add(new TokenScore<>(score, device));
+        }
+        return scores;
+    }
+
+    private static Map<NeeoThingUID, Double> toMap(List<TokenScore<NeeoDevice>> scores) {
+        final Map<NeeoThingUID, Double> result = new HashMap<>();
+        for (TokenScore<NeeoDevice> score : scores) {
+            result.put(score.getItem().getUid(), score.getScore());
+        }
+        return result;
+    }
+}
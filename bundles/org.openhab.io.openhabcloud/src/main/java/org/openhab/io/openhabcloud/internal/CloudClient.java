@@ -14,10 +14,8 @@ package org.openhab.io.openhabcloud.internal;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
-import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.net.URLEncoder;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -25,6 +23,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jetty.client.HttpClient;
@@ -37,6 +36,7 @@ import org.eclipse.jetty.client.api.Result;
 import org.eclipse.jetty.client.util.BytesContentProvider;
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.util.BufferUtil;
@@ -45,6 +45,7 @@ import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.openhab.core.OpenHAB;
+import org.openhab.io.openhabcloud.internal.ItemRequestHandler.ItemResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,10 +64,18 @@ import io.socket.engineio.client.Transport;
  *
  * @author Victor Belov - Initial contribution
  * @author Kai Kreuzer - migrated code to new Jetty client and ESH APIs
+ * @author agent - coalesced item updates, compressed responses and in-process item requests
  *
  */
 
 public class CloudClient {
+    private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
+
+    /*
+     * Minimum time between two batches of item updates
+     */
+    static final long ITEM_UPDATE_WINDOW_MILLIS = 200;
+
     /*
      * Logger for this class
      */
@@ -131,6 +140,16 @@ public class CloudClient {
     private boolean remoteAccessEnabled;
     private Set<String> exposedItems;
 
+    /*
+     * This variable holds the handler for item requests, which are served without the local HTTP server
+     */
+    private ItemRequestHandler itemRequestHandler;
+
+    /*
+     * This variable holds the item updates which are waiting to be sent to the openHAB Cloud
+     */
+    private final ItemUpdateCoalescer itemUpdateCoalescer;
+
     /**
      * Constructor of CloudClient
      *
@@ -141,6 +160,12 @@ public class CloudClient {
      */
     public CloudClient(HttpClient httpClient, String uuid, String secret, String baseURL, String localBaseUrl,
             boolean remoteAccessEnabled, Set<String> exposedItems) {
+        this(httpClient, uuid, secret, baseURL, localBaseUrl, remoteAccessEnabled, exposedItems,
+                ThreadPoolManager.getScheduledPool(THREADPOOL_OPENHABCLOUD));
+    }
+
+    CloudClient(HttpClient httpClient, String uuid, String secret, String baseURL, String localBaseUrl,
+            boolean remoteAccessEnabled, Set<String> exposedItems, ScheduledExecutorService scheduler) {
         this.uuid = uuid;
         this.secret = secret;
         this.baseURL = baseURL;
@@ -149,6 +174,8 @@ public class CloudClient {
         this.exposedItems = exposedItems;
         runningRequests = new HashMap<Integer, Request>();
         this.jettyClient = httpClient;
+        this.itemUpdateCoalescer = new ItemUpdateCoalescer(scheduler, ITEM_UPDATE_WINDOW_MILLIS,
+                this::sendItemUpdates);
     }
 
     /**
@@ -292,33 +319,29 @@ public class CloudClient {
             logger.debug("{}", requestHeadersJson.toString());
             // Get JSONObject for request query parameters
             JSONObject requestQueryJson = data.getJSONObject("query");
-            // Create URI builder with base request URI of openHAB and path from request
-            String newPath = URIUtil.addPaths(localBaseUrl, requestPath);
+            String proto = protocol;
+            if (data.has("protocol")) {
+                proto = data.getString("protocol");
+            }
+            boolean compress = GzipContentEncoder.isAccepted(getHeader(requestHeadersJson, "Accept-Encoding"));
+            logger.debug("Request method is {}", requestMethod);
+            // Requests of item states and commands are served without the loopback connection
+            if (itemRequestHandler != null) {
+                ItemResponse itemResponse = itemRequestHandler.handle(requestMethod, requestPath, requestBody);
+                if (itemResponse != null) {
+                    sendItemResponse(requestId, itemResponse);
+                    return;
+                }
+            }
+            Request request = jettyClient.newRequest(URIUtil.addPaths(localBaseUrl, requestPath));
+            // Add query parameters, they are encoded by the client
             @SuppressWarnings("unchecked")
             Iterator<String> queryIterator = requestQueryJson.keys();
-            // Add query parameters to URI builder, if any
-            newPath += "?";
             while (queryIterator.hasNext()) {
                 String queryName = queryIterator.next();
-                newPath += queryName;
-                newPath += "=";
-                newPath += URLEncoder.encode(requestQueryJson.getString(queryName), "UTF-8");
-                if (queryIterator.hasNext()) {
-                    newPath += "&";
-                }
+                request.param(queryName, requestQueryJson.getString(queryName));
             }
-            // Finally get the future request URI
-            URI requestUri = new URI(newPath);
-            // All preparations which are common for different methods are done
-            // Now perform the request to openHAB
-            // If method is GET
-            logger.debug("Request method is {}", requestMethod);
-            Request request = jettyClient.newRequest(requestUri);
             setRequestHeaders(request, requestHeadersJson);
-            String proto = protocol;
-            if (data.has("protocol")) {
-                proto = data.getString("protocol");
-            }
             request.header("X-Forwarded-Proto", proto);
 
             if (requestMethod.equals("GET")) {
@@ -334,16 +357,50 @@ public class CloudClient {
                 logger.warn("Unsupported request method {}", requestMethod);
                 return;
             }
-            ResponseListener listener = new ResponseListener(requestId);
+            ResponseListener listener = new ResponseListener(requestId, compress);
             request.onResponseHeaders(listener).onResponseContent(listener).onRequestFailure(listener).send(listener);
             // If successfully submitted request to http client, add it to the list of currently
             // running requests to be able to cancel it if needed
             runningRequests.put(requestId, request);
-        } catch (JSONException | IOException | URISyntaxException e) {
+        } catch (JSONException e) {
             logger.debug("{}", e.getMessage());
         }
     }
 
+    private String getHeader(JSONObject headersJson, String name) {
+        @SuppressWarnings("unchecked")
+        Iterator<String> headersIterator = headersJson.keys();
+        while (headersIterator.hasNext()) {
+            String headerName = headersIterator.next();
+            if (headerName.equalsIgnoreCase(name)) {
+                return headersJson.optString(headerName, null);
+            }
+        }
+        return null;
+    }
+
+    private void sendItemResponse(int requestId, ItemResponse itemResponse) {
+        logger.debug("Request {} is served in-process with status {}", requestId, itemResponse.getStatus());
+        JSONObject headersJson = new JSONObject();
+        headersJson.put(HttpHeader.CONTENT_TYPE.asString(), itemResponse.getContentType());
+        headersJson.put(HttpHeader.CONTENT_LENGTH.asString(), String.valueOf(itemResponse.getBody().length));
+        JSONObject responseJson = new JSONObject();
+        responseJson.put("id", requestId);
+        responseJson.put("headers", headersJson);
+        responseJson.put("responseStatusCode", itemResponse.getStatus());
+        responseJson.put("responseStatusText", HttpStatus.getMessage(itemResponse.getStatus()));
+        emit("responseHeader", responseJson);
+        if (itemResponse.getBody().length > 0) {
+            JSONObject contentJson = new JSONObject();
+            contentJson.put("id", requestId);
+            contentJson.put("body", itemResponse.getBody());
+            emit("responseContentBinary", contentJson);
+        }
+        JSONObject finishedJson = new JSONObject();
+        finishedJson.put("id", requestId);
+        emit("responseFinished", finishedJson);
+    }
+
     private void setRequestHeaders(Request request, JSONObject requestHeadersJson) {
         @SuppressWarnings("unchecked")
         Iterator<String> headersIterator = requestHeadersJson.keys();
@@ -354,7 +411,8 @@ public class CloudClient {
             try {
                 headerValue = requestHeadersJson.getString(headerName);
                 logger.debug("Jetty set header {} = {}", headerName, headerValue);
-                if (!headerName.equalsIgnoreCase("Content-Length")) {
+                // the response is compressed for the openHAB Cloud, not on the local connection
+                if (!headerName.equalsIgnoreCase("Content-Length") && !headerName.equalsIgnoreCase("Accept-Encoding")) {
                     request.header(headerName, headerValue);
                 }
             } catch (JSONException e) {
@@ -411,7 +469,7 @@ public class CloudClient {
                 notificationMessage.put("message", message);
                 notificationMessage.put("icon", icon);
                 notificationMessage.put("severity", severity);
-                socket.emit("notification", notificationMessage);
+                emit("notification", notificationMessage);
             } catch (JSONException e) {
                 logger.debug("{}", e.getMessage());
             }
@@ -435,7 +493,7 @@ public class CloudClient {
                 notificationMessage.put("message", message);
                 notificationMessage.put("icon", icon);
                 notificationMessage.put("severity", severity);
-                socket.emit("lognotification", notificationMessage);
+                emit("lognotification", notificationMessage);
             } catch (JSONException e) {
                 logger.debug("{}", e.getMessage());
             }
@@ -459,7 +517,7 @@ public class CloudClient {
                 notificationMessage.put("message", message);
                 notificationMessage.put("icon", icon);
                 notificationMessage.put("severity", severity);
-                socket.emit("broadcastnotification", notificationMessage);
+                emit("broadcastnotification", notificationMessage);
             } catch (JSONException e) {
                 logger.debug("{}", e.getMessage());
             }
@@ -469,7 +527,8 @@ public class CloudClient {
     }
 
     /**
-     * Send item update to openHAB Cloud
+     * Send item update to openHAB Cloud. Updates are coalesced, so that only the latest state of an item is sent
+     * if it changes several times within {@link #ITEM_UPDATE_WINDOW_MILLIS}.
      *
      * @param itemName the name of the item
      * @param itemState updated item state
@@ -477,20 +536,44 @@ public class CloudClient {
      */
     public void sendItemUpdate(String itemName, String itemState) {
         if (isConnected()) {
-            logger.debug("Sending update '{}' for item '{}'", itemState, itemName);
+            itemUpdateCoalescer.add(itemName, itemState);
+        } else {
+            logger.debug("No connection, Item update is not sent");
+        }
+    }
+
+    private void sendItemUpdates(Map<String, String> itemStates) {
+        if (!isConnected()) {
+            logger.debug("No connection, {} Item updates are not sent", itemStates.size());
+            return;
+        }
+        for (Map.Entry<String, String> itemState : itemStates.entrySet()) {
+            logger.debug("Sending update '{}' for item '{}'", itemState.getValue(), itemState.getKey());
             JSONObject itemUpdateMessage = new JSONObject();
             try {
-                itemUpdateMessage.put("itemName", itemName);
-                itemUpdateMessage.put("itemStatus", itemState);
-                socket.emit("itemupdate", itemUpdateMessage);
+                itemUpdateMessage.put("itemName", itemState.getKey());
+                itemUpdateMessage.put("itemStatus", itemState.getValue());
+                emit("itemupdate", itemUpdateMessage);
             } catch (JSONException e) {
                 logger.debug("{}", e.getMessage());
             }
-        } else {
-            logger.debug("No connection, Item update is not sent");
         }
     }
 
+    /**
+     * Sends an event to the openHAB Cloud
+     *
+     * @param event the name of the event
+     * @param message the message of the event
+     */
+    void emit(String event, JSONObject message) {
+        socket.emit(event, message);
+    }
+
+    ItemUpdateCoalescer getItemUpdateCoalescer() {
+        return itemUpdateCoalescer;
+    }
+
     /**
      * Returns true if openHAB Cloud connection is active
      */
@@ -503,6 +586,7 @@ public class CloudClient {
      */
     public void shutdown() {
         logger.info("Shutting down openHAB Cloud service connection");
+        itemUpdateCoalescer.dispose();
         socket.disconnect();
     }
 
@@ -518,26 +602,39 @@ public class CloudClient {
         this.listener = listener;
     }
 
+    public void setItemRequestHandler(ItemRequestHandler itemRequestHandler) {
+        this.itemRequestHandler = itemRequestHandler;
+    }
+
     /*
      * An internal class which forwards response headers and data back to the openHAB Cloud
      */
     private class ResponseListener
             implements Response.CompleteListener, HeadersListener, ContentListener, FailureListener {
 
-        private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
         private int mRequestId;
         private boolean mHeadersSent = false;
+        private boolean mCompressionAccepted;
+        private GzipContentEncoder mEncoder;
 
-        public ResponseListener(int requestId) {
+        public ResponseListener(int requestId, boolean compressionAccepted) {
             mRequestId = requestId;
+            mCompressionAccepted = compressionAccepted;
         }
 
         private JSONObject getJSONHeaders(HttpFields httpFields) {
             JSONObject headersJSON = new JSONObject();
             try {
                 for (HttpField field : httpFields) {
+                    if (mEncoder != null && field.getHeader() == HttpHeader.CONTENT_LENGTH) {
+                        continue;
+                    }
                     headersJSON.put(field.getName(), field.getValue());
                 }
+                if (mEncoder != null) {
+                    headersJSON.put(HttpHeader.CONTENT_ENCODING.asString(), GzipContentEncoder.GZIP);
+                    headersJSON.put(HttpHeader.VARY.asString(), HttpHeader.ACCEPT_ENCODING.asString());
+                }
             } catch (JSONException e) {
                 logger.warn("Error forming response headers: {}", e.getMessage());
             }
@@ -548,6 +645,9 @@ public class CloudClient {
         public void onComplete(Result result) {
             // Remove this request from list of running requests
             runningRequests.remove(mRequestId);
+            if (mEncoder != null) {
+                sendContent(mEncoder.finish());
+            }
             if ((result != null && result.isFailed())
                     && (result.getResponse() != null && result.getResponse().getStatus() != HttpStatus.OK_200)) {
                 if (result.getFailure() != null) {
@@ -570,7 +670,7 @@ public class CloudClient {
                 JSONObject responseJson = new JSONObject();
                 try {
                     responseJson.put("id", mRequestId);
-                    socket.emit("responseFinished", responseJson);
+                    emit("responseFinished", responseJson);
                     logger.debug("Finished responding to request {}", mRequestId);
                 } catch (JSONException e) {
                     logger.debug("{}", e.getMessage());
@@ -584,7 +684,7 @@ public class CloudClient {
             try {
                 responseJson.put("id", mRequestId);
                 responseJson.put("responseStatusText", "openHAB connection error: " + failure.getMessage());
-                socket.emit("responseError", responseJson);
+                emit("responseError", responseJson);
             } catch (JSONException e) {
                 logger.debug("{}", e.getMessage());
             }
@@ -593,11 +693,18 @@ public class CloudClient {
         @Override
         public void onContent(Response response, ByteBuffer content) {
             logger.debug("Jetty received response content of size {}", String.valueOf(content.remaining()));
+            sendContent(mEncoder != null ? mEncoder.encode(content) : BufferUtil.toArray(content));
+        }
+
+        private void sendContent(byte[] body) {
+            if (body.length == 0) {
+                return;
+            }
             JSONObject responseJson = new JSONObject();
             try {
                 responseJson.put("id", mRequestId);
-                responseJson.put("body", BufferUtil.toArray(content));
-                socket.emit("responseContentBinary", responseJson);
+                responseJson.put("body", body);
+                emit("responseContentBinary", responseJson);
                 logger.debug("Sent content to request {}", mRequestId);
             } catch (JSONException e) {
                 logger.debug("{}", e.getMessage());
@@ -610,12 +717,18 @@ public class CloudClient {
                 logger.debug("Jetty finished receiving response header");
                 JSONObject responseJson = new JSONObject();
                 mHeadersSent = true;
+                HttpFields headers = response.getHeaders();
+                long contentLength = headers.getLongField(HttpHeader.CONTENT_LENGTH.asString());
+                if (mCompressionAccepted && GzipContentEncoder.isCompressible(headers.get(HttpHeader.CONTENT_TYPE),
+                        headers.get(HttpHeader.CONTENT_ENCODING), contentLength)) {
+                    mEncoder = new GzipContentEncoder();
+                }
                 try {
                     responseJson.put("id", mRequestId);
                     responseJson.put("headers", getJSONHeaders(response.getHeaders()));
                     responseJson.put("responseStatusCode", response.getStatus());
                     responseJson.put("responseStatusText", "OK");
-                    socket.emit("responseHeader", responseJson);
+                    emit("responseHeader", responseJson);
                     logger.debug("Sent headers to request {}", mRequestId);
                     logger.debug("{}", responseJson.toString());
                 } catch (JSONException e) {
@@ -42,13 +42,8 @@ import org.eclipse.smarthome.core.items.ItemNotFoundException;
 import org.eclipse.smarthome.core.items.ItemRegistry;
 import org.eclipse.smarthome.core.items.events.ItemEventFactory;
 import org.eclipse.smarthome.core.items.events.ItemStateEvent;
-import org.eclipse.smarthome.core.library.items.RollershutterItem;
-import org.eclipse.smarthome.core.library.items.SwitchItem;
-import org.eclipse.smarthome.core.library.types.OnOffType;
-import org.eclipse.smarthome.core.library.types.UpDownType;
 import org.eclipse.smarthome.core.net.HttpServiceUtil;
 import org.eclipse.smarthome.core.types.Command;
-import org.eclipse.smarthome.core.types.TypeParser;
 import org.eclipse.smarthome.io.net.http.HttpClientFactory;
 import org.eclipse.smarthome.model.script.engine.action.ActionService;
 import org.openhab.core.OpenHAB;
@@ -70,6 +65,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Victor Belov - Initial contribution
  * @author Kai Kreuzer - migrated code to new Jetty client and ESH APIs
+ * @author agent - share the command parsing with the in-process item requests
  */
 @Component(immediate = true, service = { EventSubscriber.class,
         ActionService.class }, configurationPid = "org.openhab.openhabcloud", property = {
@@ -239,6 +235,7 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
         cloudClient = new CloudClient(httpClient, InstanceUUID.get(), getSecret(), cloudBaseUrl, localBaseUrl,
                 remoteAccessEnabled, exposedItems);
         cloudClient.setOpenHABVersion(OpenHAB.getVersion());
+        cloudClient.setItemRequestHandler(new ItemRequestHandler(() -> itemRegistry, () -> eventPublisher));
         cloudClient.connect();
         cloudClient.setListener(this);
         NotificationAction.cloudService = this;
@@ -314,23 +311,7 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
                 Command command = null;
                 if (item != null) {
                     if (this.eventPublisher != null) {
-                        if ("toggle".equalsIgnoreCase(commandString)
-                                && (item instanceof SwitchItem || item instanceof RollershutterItem)) {
-                            if (OnOffType.ON.equals(item.getStateAs(OnOffType.class))) {
-                                command = OnOffType.OFF;
-                            }
-                            if (OnOffType.OFF.equals(item.getStateAs(OnOffType.class))) {
-                                command = OnOffType.ON;
-                            }
-                            if (UpDownType.UP.equals(item.getStateAs(UpDownType.class))) {
-                                command = UpDownType.DOWN;
-                            }
-                            if (UpDownType.DOWN.equals(item.getStateAs(UpDownType.class))) {
-                                command = UpDownType.UP;
-                            }
-                        } else {
-                            command = TypeParser.parseCommand(item.getAcceptedCommandTypes(), commandString);
-                        }
+                        command = ItemRequestHandler.parseCommand(item, commandString);
                         if (command != null) {
                             logger.debug("Received command '{}' for item '{}'", commandString, itemName);
                             this.eventPublisher.post(ItemEventFactory.createCommandEvent(itemName, command));
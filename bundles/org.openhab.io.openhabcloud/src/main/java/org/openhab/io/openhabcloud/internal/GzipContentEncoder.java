@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class compresses the content of a proxied response, which is sent to the openHAB Cloud in chunks.
+ * Every chunk is flushed, so that the openHAB Cloud can forward it without waiting for the next one.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class GzipContentEncoder {
+
+    public static final String GZIP = "gzip";
+
+    /*
+     * Responses with a known length below this size are not compressed
+     */
+    static final long MIN_COMPRESSED_LENGTH = 256;
+
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    private final GZIPOutputStream gzip;
+
+    public GzipContentEncoder() {
+        try {
+            gzip = new GZIPOutputStream(compressed, true);
+        } catch (IOException e) {
+            // writing to a ByteArrayOutputStream does not fail
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Compresses a chunk of the response
+     *
+     * @param content the uncompressed chunk
+     * @return the compressed data, which can be sent to the client
+     */
+    public byte[] encode(ByteBuffer content) {
+        try {
+            if (content.hasArray()) {
+                gzip.write(content.array(), content.arrayOffset() + content.position(), content.remaining());
+                content.position(content.limit());
+            } else {
+                byte[] bytes = new byte[content.remaining()];
+                content.get(bytes);
+                gzip.write(bytes);
+            }
+            gzip.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return drain();
+    }
+
+    /**
+     * Finishes the compressed stream
+     *
+     * @return the remaining compressed data
+     */
+    public byte[] finish() {
+        try {
+            gzip.finish();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return drain();
+    }
+
+    private byte[] drain() {
+        byte[] result = compressed.toByteArray();
+        compressed.reset();
+        return result;
+    }
+
+    /**
+     * Returns true if the client accepts gzip compressed responses
+     *
+     * @param acceptEncoding the Accept-Encoding header of the request
+     */
+    public static boolean isAccepted(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (GZIP.equalsIgnoreCase(parts[0].trim())) {
+                return parts.length < 2 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if a response is worth compressing
+     *
+     * @param contentType the Content-Type header of the response
+     * @param contentEncoding the Content-Encoding header of the response
+     * @param contentLength the length of the response or -1 if unknown
+     */
+    public static boolean isCompressible(String contentType, String contentEncoding, long contentLength) {
+        if (contentEncoding != null || contentType == null) {
+            return false;
+        }
+        if (contentLength >= 0 && contentLength < MIN_COMPRESSED_LENGTH) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.startsWith("text/") && !type.startsWith("text/event-stream") || type.contains("json")
+                || type.contains("javascript") || type.contains("xml");
+    }
+}
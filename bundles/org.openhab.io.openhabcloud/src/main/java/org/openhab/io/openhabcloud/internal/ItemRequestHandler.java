@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.smarthome.core.events.EventPublisher;
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.items.ItemNotFoundException;
+import org.eclipse.smarthome.core.items.ItemRegistry;
+import org.eclipse.smarthome.core.items.events.ItemEventFactory;
+import org.eclipse.smarthome.core.library.items.RollershutterItem;
+import org.eclipse.smarthome.core.library.items.SwitchItem;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.TypeParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class serves the item requests of the REST API, which the apps send most often, directly from the item
+ * registry and the event bus instead of proxying them to the local HTTP server.
+ * It handles reading the state of an item, updating the state and sending a command, like the REST API does.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class ItemRequestHandler {
+
+    /**
+     * A response to a request that was handled in-process
+     */
+    public static class ItemResponse {
+        private final int status;
+        private final String body;
+
+        ItemResponse(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getContentType() {
+            return "text/plain;charset=UTF-8";
+        }
+
+        public byte[] getBody() {
+            return body.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final Pattern ITEM_PATH = Pattern.compile("/rest/items/([A-Za-z0-9_]+)(/state)?/?");
+
+    private final Logger logger = LoggerFactory.getLogger(ItemRequestHandler.class);
+
+    private final Supplier<ItemRegistry> itemRegistry;
+    private final Supplier<EventPublisher> eventPublisher;
+
+    public ItemRequestHandler(Supplier<ItemRegistry> itemRegistry, Supplier<EventPublisher> eventPublisher) {
+        this.itemRegistry = itemRegistry;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Handles a request if it is an item request
+     *
+     * @param method the HTTP method of the request
+     * @param path the path of the request without query
+     * @param body the body of the request
+     * @return the response or null, if the request has to be proxied to the local HTTP server
+     */
+    public ItemResponse handle(String method, String path, String body) {
+        Matcher matcher = ITEM_PATH.matcher(path);
+        if (!matcher.matches()) {
+            return null;
+        }
+        boolean statePath = matcher.group(2) != null;
+        ItemRegistry registry = itemRegistry.get();
+        EventPublisher publisher = eventPublisher.get();
+        if (registry == null || publisher == null) {
+            return null;
+        }
+        if ("GET".equals(method) && statePath) {
+            Item item = getItem(registry, matcher.group(1));
+            return item == null ? notFound(matcher.group(1)) : new ItemResponse(200, item.getState().toFullString());
+        } else if ("PUT".equals(method) && statePath) {
+            Item item = getItem(registry, matcher.group(1));
+            if (item == null) {
+                return notFound(matcher.group(1));
+            }
+            State state = TypeParser.parseState(item.getAcceptedDataTypes(), body);
+            if (state == null) {
+                logger.warn("Received invalid state '{}' for item '{}'", body, item.getName());
+                return new ItemResponse(400, "State could not be parsed: " + body);
+            }
+            publisher.post(ItemEventFactory.createStateEvent(item.getName(), state));
+            return new ItemResponse(202, "");
+        } else if ("POST".equals(method) && !statePath) {
+            Item item = getItem(registry, matcher.group(1));
+            if (item == null) {
+                return notFound(matcher.group(1));
+            }
+            Command command = parseCommand(item, body);
+            if (command == null) {
+                logger.warn("Received invalid command '{}' for item '{}'", body, item.getName());
+                return new ItemResponse(400, "Command could not be parsed: " + body);
+            }
+            publisher.post(ItemEventFactory.createCommandEvent(item.getName(), command));
+            return new ItemResponse(200, "");
+        }
+        return null;
+    }
+
+    /**
+     * Parses a command for an item, which may also be "toggle" for switches and rollershutters
+     *
+     * @param item the item to send the command to
+     * @param commandString the command
+     * @return the command or null, if it is not valid for the item
+     */
+    public static Command parseCommand(Item item, String commandString) {
+        Command command = null;
+        if ("toggle".equalsIgnoreCase(commandString)
+                && (item instanceof SwitchItem || item instanceof RollershutterItem)) {
+            if (OnOffType.ON.equals(item.getStateAs(OnOffType.class))) {
+                command = OnOffType.OFF;
+            }
+            if (OnOffType.OFF.equals(item.getStateAs(OnOffType.class))) {
+                command = OnOffType.ON;
+            }
+            if (UpDownType.UP.equals(item.getStateAs(UpDownType.class))) {
+                command = UpDownType.DOWN;
+            }
+            if (UpDownType.DOWN.equals(item.getStateAs(UpDownType.class))) {
+                command = UpDownType.UP;
+            }
+        } else {
+            command = TypeParser.parseCommand(item.getAcceptedCommandTypes(), commandString);
+        }
+        return command;
+    }
+
+    private Item getItem(ItemRegistry registry, String itemName) {
+        try {
+            return registry.getItem(itemName);
+        } catch (ItemNotFoundException e) {
+            return null;
+        }
+    }
+
+    private ItemResponse notFound(String itemName) {
+        return new ItemResponse(404, "Item " + itemName + " does not exist!");
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * This class coalesces item updates which are sent to the openHAB Cloud.
+ * An update is sent immediately if no updates have been sent during the last window. Otherwise it is kept until the
+ * window has passed and only the latest state of each item is sent.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class ItemUpdateCoalescer {
+
+    private final ScheduledExecutorService scheduler;
+    private final long windowMillis;
+    private final Consumer<Map<String, String>> sender;
+    private final LongSupplier clock;
+
+    private Map<String, String> pendingUpdates = new LinkedHashMap<>();
+    private ScheduledFuture<?> flushJob;
+    private long lastFlush = Long.MIN_VALUE;
+    private long receivedUpdates;
+    private long coalescedUpdates;
+    private long batches;
+
+    /**
+     * Constructor of ItemUpdateCoalescer
+     *
+     * @param scheduler the scheduler for sending delayed updates
+     * @param windowMillis the minimum time between two batches of updates
+     * @param sender receives the latest states by item name
+     */
+    public ItemUpdateCoalescer(ScheduledExecutorService scheduler, long windowMillis,
+            Consumer<Map<String, String>> sender) {
+        this(scheduler, windowMillis, sender, System::currentTimeMillis);
+    }
+
+    ItemUpdateCoalescer(ScheduledExecutorService scheduler, long windowMillis, Consumer<Map<String, String>> sender,
+            LongSupplier clock) {
+        this.scheduler = scheduler;
+        this.windowMillis = windowMillis;
+        this.sender = sender;
+        this.clock = clock;
+    }
+
+    /**
+     * Adds an update of an item, which replaces a pending update of the same item
+     *
+     * @param itemName the name of the item
+     * @param itemState the updated state
+     */
+    public void add(String itemName, String itemState) {
+        synchronized (this) {
+            receivedUpdates++;
+            if (pendingUpdates.put(itemName, itemState) != null) {
+                coalescedUpdates++;
+            }
+            if (flushJob != null) {
+                return;
+            }
+            long delay = lastFlush == Long.MIN_VALUE ? 0 : lastFlush + windowMillis - clock.getAsLong();
+            if (delay > 0) {
+                flushJob = scheduler.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+                return;
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Sends all pending updates
+     */
+    public void flush() {
+        Map<String, String> updates;
+        synchronized (this) {
+            if (flushJob != null) {
+                flushJob.cancel(false);
+                flushJob = null;
+            }
+            if (pendingUpdates.isEmpty()) {
+                return;
+            }
+            updates = pendingUpdates;
+            pendingUpdates = new LinkedHashMap<>();
+            lastFlush = clock.getAsLong();
+            batches++;
+        }
+        sender.accept(updates);
+    }
+
+    /**
+     * Drops all pending updates
+     */
+    public synchronized void dispose() {
+        if (flushJob != null) {
+            flushJob.cancel(false);
+            flushJob = null;
+        }
+        pendingUpdates.clear();
+    }
+
+    public synchronized long getReceivedUpdates() {
+        return receivedUpdates;
+    }
+
+    public synchronized long getCoalescedUpdates() {
+        return coalescedUpdates;
+    }
+
+    public synchronized long getBatches() {
+        return batches;
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.core.events.EventPublisher;
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.items.ItemNotFoundException;
+import org.eclipse.smarthome.core.items.ItemRegistry;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.types.Command;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Tests for {@link CloudClient} with a stand-in for the Socket.IO connection, which records the emitted events.
+ *
+ * @author agent - Initial contribution
+ */
+public class CloudClientTest {
+
+    private static class EmittedEvent {
+        final String event;
+        final JSONObject message;
+
+        EmittedEvent(String event, JSONObject message) {
+            this.event = event;
+            this.message = message;
+        }
+    }
+
+    private final List<EmittedEvent> emitted = Collections.synchronizedList(new ArrayList<>());
+    private final HttpClient httpClient = mock(HttpClient.class);
+    private final ItemRegistry itemRegistry = mock(ItemRegistry.class);
+    private final EventPublisher eventPublisher = mock(EventPublisher.class);
+    private ScheduledExecutorService scheduler;
+    private CloudClient client;
+
+    @Before
+    public void setUp() throws ItemNotFoundException {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        client = new CloudClient(httpClient, "uuid", "secret", "https://myopenhab.org/", "http://localhost:8080",
+                true, Collections.singleton("Light"), scheduler) {
+            @Override
+            void emit(String event, JSONObject message) {
+                emitted.add(new EmittedEvent(event, message));
+            }
+        };
+        client.setItemRequestHandler(new ItemRequestHandler(() -> itemRegistry, () -> eventPublisher));
+        client.onConnect();
+
+        Item light = mock(Item.class);
+        when(light.getName()).thenReturn("Light");
+        when(light.getState()).thenReturn(OnOffType.ON);
+        when(light.getAcceptedCommandTypes()).thenReturn(Collections.singletonList(OnOffType.class));
+        when(itemRegistry.getItem("Light")).thenReturn(light);
+        when(itemRegistry.getItem("Unknown")).thenThrow(new ItemNotFoundException("Unknown"));
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private List<EmittedEvent> getEmitted(String event) {
+        List<EmittedEvent> result = new ArrayList<>();
+        synchronized (emitted) {
+            for (EmittedEvent emittedEvent : emitted) {
+                if (emittedEvent.event.equals(event)) {
+                    result.add(emittedEvent);
+                }
+            }
+        }
+        return result;
+    }
+
+    private JSONObject request(int id, String method, String path, String body) {
+        JSONObject request = new JSONObject();
+        request.put("id", id);
+        request.put("path", path);
+        request.put("method", method);
+        request.put("body", body);
+        request.put("headers", new JSONObject());
+        request.put("query", new JSONObject());
+        return request;
+    }
+
+    @Test
+    public void itemUpdatesAreCoalescedWithinTheWindow() throws InterruptedException {
+        client.sendItemUpdate("Light", "ON");
+        // the first update is sent immediately
+        assertEquals(1, getEmitted("itemupdate").size());
+
+        client.sendItemUpdate("Light", "OFF");
+        client.sendItemUpdate("Dimmer", "10");
+        client.sendItemUpdate("Light", "ON");
+        client.sendItemUpdate("Dimmer", "20");
+        assertEquals(1, getEmitted("itemupdate").size());
+
+        Thread.sleep(CloudClient.ITEM_UPDATE_WINDOW_MILLIS * 3);
+        List<EmittedEvent> updates = getEmitted("itemupdate");
+        assertEquals(3, updates.size());
+        assertEquals("Light", updates.get(1).message.getString("itemName"));
+        assertEquals("ON", updates.get(1).message.getString("itemStatus"));
+        assertEquals("Dimmer", updates.get(2).message.getString("itemName"));
+        assertEquals("20", updates.get(2).message.getString("itemStatus"));
+        assertEquals(2, client.getItemUpdateCoalescer().getCoalescedUpdates());
+    }
+
+    @Test
+    public void itemUpdatesAreDroppedWithoutConnection() {
+        client.onDisconnect();
+        client.sendItemUpdate("Light", "ON");
+        assertTrue(getEmitted("itemupdate").isEmpty());
+    }
+
+    @Test
+    public void itemStateIsServedInProcess() {
+        client.onEvent("request", request(1, "GET", "/rest/items/Light/state", ""));
+
+        assertEquals(200, getEmitted("responseHeader").get(0).message.getInt("responseStatusCode"));
+        byte[] body = (byte[]) getEmitted("responseContentBinary").get(0).message.get("body");
+        assertEquals("ON", new String(body, StandardCharsets.UTF_8));
+        assertEquals(1, getEmitted("responseFinished").size());
+        verifyZeroInteractions(httpClient);
+    }
+
+    @Test
+    public void commandIsPostedInProcess() {
+        client.onEvent("request", request(2, "POST", "/rest/items/Light", "OFF"));
+
+        assertEquals(200, getEmitted("responseHeader").get(0).message.getInt("responseStatusCode"));
+        ArgumentCaptor<Event> event = ArgumentCaptor.forClass(Event.class);
+        verify(eventPublisher).post(event.capture());
+        assertEquals("smarthome/items/Light/command", event.getValue().getTopic());
+        verifyZeroInteractions(httpClient);
+    }
+
+    @Test
+    public void invalidItemRequestsAreAnswered() {
+        client.onEvent("request", request(3, "GET", "/rest/items/Unknown/state", ""));
+        client.onEvent("request", request(4, "POST", "/rest/items/Light", "UP"));
+
+        List<EmittedEvent> headers = getEmitted("responseHeader");
+        assertEquals(404, headers.get(0).message.getInt("responseStatusCode"));
+        assertEquals(400, headers.get(1).message.getInt("responseStatusCode"));
+        verify(eventPublisher, never()).post(any());
+    }
+
+    @Test
+    public void commandParsingSupportsToggle() {
+        Item item = mock(org.eclipse.smarthome.core.library.items.SwitchItem.class);
+        when(item.getStateAs(OnOffType.class)).thenReturn(OnOffType.ON);
+        Command command = ItemRequestHandler.parseCommand(item, "TOGGLE");
+        assertEquals(OnOffType.OFF, command);
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link GzipContentEncoder}.
+ *
+ * @author agent - Initial contribution
+ */
+public class GzipContentEncoderTest {
+
+    private static byte[] decompress(byte[] compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    @Test
+    public void chunksAreCompressedAndFlushed() throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 500; i++) {
+            json.append("{\"name\":\"Item").append(i).append("\",\"state\":\"NULL\",\"type\":\"Switch\"},");
+        }
+        byte[] content = json.append("{}]").toString().getBytes(StandardCharsets.UTF_8);
+
+        GzipContentEncoder encoder = new GzipContentEncoder();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        int half = content.length / 2;
+        byte[] first = encoder.encode(ByteBuffer.wrap(content, 0, half));
+        // a flushed chunk can already be decompressed by the client
+        assertTrue(first.length > 0);
+        compressed.write(first);
+        compressed.write(encoder.encode(ByteBuffer.wrap(content, half, content.length - half).slice()));
+        compressed.write(encoder.finish());
+
+        assertArrayEquals(content, decompress(compressed.toByteArray()));
+        assertTrue(compressed.size() < content.length / 5);
+    }
+
+    @Test
+    public void acceptEncodingIsParsed() {
+        assertTrue(GzipContentEncoder.isAccepted("gzip, deflate, br"));
+        assertTrue(GzipContentEncoder.isAccepted("deflate, GZIP;q=0.5"));
+        assertFalse(GzipContentEncoder.isAccepted("gzip;q=0"));
+        assertFalse(GzipContentEncoder.isAccepted("deflate"));
+        assertFalse(GzipContentEncoder.isAccepted(null));
+    }
+
+    @Test
+    public void onlyTextualResponsesAreCompressed() {
+        assertTrue(GzipContentEncoder.isCompressible("application/json", null, -1));
+        assertTrue(GzipContentEncoder.isCompressible("text/html;charset=UTF-8", null, 10000));
+        assertFalse(GzipContentEncoder.isCompressible("text/html", null, 100));
+        assertFalse(GzipContentEncoder.isCompressible("text/event-stream", null, -1));
+        assertFalse(GzipContentEncoder.isCompressible("image/png", null, 10000));
+        assertFalse(GzipContentEncoder.isCompressible("application/json", "gzip", 10000));
+    }
+}
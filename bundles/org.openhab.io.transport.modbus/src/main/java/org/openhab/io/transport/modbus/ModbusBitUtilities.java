@@ -13,9 +13,6 @@
 package org.openhab.io.transport.modbus;
 
 import java.math.BigDecimal;
-import java.math.BigInteger;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.util.Optional;
 
@@ -31,6 +28,7 @@ import org.eclipse.smarthome.core.types.Command;
  * Utilities for working with binary data.
  *
  * @author Sami Salonen - Initial contribution
+ * @author agent - Added primitive decoding
  */
 @NonNullByDefault
 public class ModbusBitUtilities {
@@ -101,114 +99,142 @@ public class ModbusBitUtilities {
      */
     public static Optional<DecimalType> extractStateFromRegisters(ModbusRegisterArray registers, int index,
             ModbusConstants.ValueType type) {
-        int endBitIndex = (type.getBits() >= 16 ? 16 * index : type.getBits() * index) + type.getBits() - 1;
-        // each register has 16 bits
-        int lastValidIndex = registers.size() * 16 - 1;
-        if (endBitIndex > lastValidIndex || index < 0) {
-            throw new IllegalArgumentException(
-                    String.format("Index=%d with type=%s is out-of-bounds given registers of size %d", index, type,
-                            registers.size()));
-        }
         switch (type) {
-            case BIT:
-                return Optional
-                        .of(new DecimalType((registers.getRegister(index / 16).toUnsignedShort() >> (index % 16)) & 1));
-            case INT8:
-                return Optional.of(new DecimalType(registers.getRegister(index / 2).getBytes()[1 - (index % 2)]));
-            case UINT8:
-                return Optional.of(new DecimalType(
-                        (registers.getRegister(index / 2).toUnsignedShort() >> (8 * (index % 2))) & 0xff));
-            case INT16: {
-                ByteBuffer buff = ByteBuffer.allocate(2);
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getShort(0)));
-            }
-            case UINT16:
-                return Optional.of(new DecimalType(registers.getRegister(index).toUnsignedShort()));
-            case INT32: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getInt(0)));
-            }
-            case UINT32: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.position(4);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0)));
-            }
-            case FLOAT32: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                try {
-                    return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getFloat(0)));
-                } catch (NumberFormatException e) {
-                    // floating point NaN or infinity encountered
-                    return Optional.empty();
-                }
-            }
-            case INT64: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 3).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0)));
-            }
-            case UINT64: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 3).getBytes());
-                return Optional.of(
-                        new DecimalType(new BigDecimal(new BigInteger(1, buff.order(ByteOrder.BIG_ENDIAN).array()))));
-            }
-            case INT32_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getInt(0)));
-            }
-            case UINT32_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.position(4);
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0)));
-            }
+            case FLOAT32:
             case FLOAT32_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                try {
-                    return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getFloat(0)));
-                } catch (NumberFormatException e) {
+                float floatValue = extractFloatFromRegisters(registers, index, type);
+                if (Float.isNaN(floatValue) || Float.isInfinite(floatValue)) {
                     // floating point NaN or infinity encountered
                     return Optional.empty();
                 }
+                return Optional.of(new DecimalType(floatValue));
             }
-            case INT64_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index + 3).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0)));
+            case UINT64:
+            case UINT64_SWAP: {
+                long longValue = extractLongFromRegisters(registers, index, type);
+                if (longValue < 0) {
+                    // value exceeds the range of signed 64bit integer, BigDecimal is needed
+                    return Optional.of(new DecimalType(new BigDecimal(Long.toUnsignedString(longValue))));
+                }
+                return Optional.of(new DecimalType(longValue));
             }
+            default:
+                return Optional.of(new DecimalType(extractLongFromRegisters(registers, index, type)));
+        }
+    }
+
+    /**
+     * Read data from registers and convert the result to primitive <tt>long</tt>, without allocating objects.
+     *
+     * Interpretation of <tt>index</tt> and <tt>type</tt> is the same as with
+     * {@link #extractStateFromRegisters(ModbusRegisterArray, int, ModbusConstants.ValueType)}.
+     *
+     * Note that with UINT64 and UINT64_SWAP, the returned value holds the raw 64 bits. Values larger than
+     * {@link Long#MAX_VALUE} are thus returned as negative numbers, and should be handled with the unsigned methods of
+     * {@link Long}, e.g. {@link Long#toUnsignedString(long)}.
+     *
+     * @param registers list of registers, each register represent 16bit of data
+     * @param index zero based item index
+     * @param type integer item type, e.g. unsigned 16bit integer
+     * @return queried value
+     * @throws IllegalArgumentException when <tt>index</tt> is out of bounds of registers, or when <tt>type</tt> is a
+     *             floating point type
+     */
+    public static long extractLongFromRegisters(ModbusRegisterArray registers, int index,
+            ModbusConstants.ValueType type) {
+        checkBounds(registers, index, type);
+        switch (type) {
+            case BIT:
+                return (registers.getRegister(index / 16).toUnsignedShort() >> (index % 16)) & 1;
+            case INT8:
+                return (byte) (registers.getRegister(index / 2).toUnsignedShort() >> (8 * (index % 2)));
+            case UINT8:
+                return (registers.getRegister(index / 2).toUnsignedShort() >> (8 * (index % 2))) & 0xff;
+            case INT16:
+                return (short) registers.getRegister(index).toUnsignedShort();
+            case UINT16:
+                return registers.getRegister(index).toUnsignedShort();
+            case INT32:
+                return extractInt(registers, index, index + 1);
+            case UINT32:
+                return extractInt(registers, index, index + 1) & 0xffffffffL;
+            case INT64:
+            case UINT64:
+                return ((long) extractInt(registers, index, index + 1) << 32)
+                        | (extractInt(registers, index + 2, index + 3) & 0xffffffffL);
+            case INT32_SWAP:
+                return extractInt(registers, index + 1, index);
+            case UINT32_SWAP:
+                return extractInt(registers, index + 1, index) & 0xffffffffL;
+            case INT64_SWAP:
+            case UINT64_SWAP:
+                return ((long) extractInt(registers, index + 3, index + 2) << 32)
+                        | (extractInt(registers, index + 1, index) & 0xffffffffL);
+            default:
+                throw new IllegalArgumentException(
+                        String.format("Type=%s is not an integer type. Use extractDoubleFromRegisters instead", type));
+        }
+    }
+
+    /**
+     * Read data from registers and convert the result to primitive <tt>double</tt>, without allocating objects.
+     *
+     * Interpretation of <tt>index</tt> and <tt>type</tt> is the same as with
+     * {@link #extractStateFromRegisters(ModbusRegisterArray, int, ModbusConstants.ValueType)}.
+     *
+     * Unlike {@link #extractStateFromRegisters(ModbusRegisterArray, int, ModbusConstants.ValueType)}, floating point
+     * NaN and infinity are returned as is. Note that 64bit integers beyond 2^53 cannot be represented exactly.
+     *
+     * @param registers list of registers, each register represent 16bit of data
+     * @param index zero based item index
+     * @param type item type, e.g. 32bit floating point number
+     * @return queried value
+     * @throws IllegalArgumentException when <tt>index</tt> is out of bounds of registers
+     */
+    public static double extractDoubleFromRegisters(ModbusRegisterArray registers, int index,
+            ModbusConstants.ValueType type) {
+        switch (type) {
+            case FLOAT32:
+            case FLOAT32_SWAP:
+                return extractFloatFromRegisters(registers, index, type);
+            case UINT64:
             case UINT64_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index + 3).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(
-                        new DecimalType(new BigDecimal(new BigInteger(1, buff.order(ByteOrder.BIG_ENDIAN).array()))));
+                long longValue = extractLongFromRegisters(registers, index, type);
+                if (longValue < 0) {
+                    // unsigned value beyond Long.MAX_VALUE. Halve to fit signed range, keeping the lowest bit
+                    return ((longValue >>> 1) | (longValue & 1)) * 2.0;
+                }
+                return longValue;
             }
             default:
-                throw new IllegalArgumentException(type.getConfigValue());
+                return extractLongFromRegisters(registers, index, type);
+        }
+    }
+
+    private static float extractFloatFromRegisters(ModbusRegisterArray registers, int index,
+            ModbusConstants.ValueType type) {
+        checkBounds(registers, index, type);
+        int intBits = type == ModbusConstants.ValueType.FLOAT32_SWAP ? extractInt(registers, index + 1, index)
+                : extractInt(registers, index, index + 1);
+        return Float.intBitsToFloat(intBits);
+    }
+
+    /**
+     * Read 32 bits from two registers, most significant register given first
+     */
+    private static int extractInt(ModbusRegisterArray registers, int highIndex, int lowIndex) {
+        return (registers.getRegister(highIndex).toUnsignedShort() << 16)
+                | registers.getRegister(lowIndex).toUnsignedShort();
+    }
+
+    private static void checkBounds(ModbusRegisterArray registers, int index, ModbusConstants.ValueType type) {
+        int endBitIndex = (type.getBits() >= 16 ? 16 * index : type.getBits() * index) + type.getBits() - 1;
+        // each register has 16 bits
+        int lastValidIndex = registers.size() * 16 - 1;
+        if (endBitIndex > lastValidIndex || index < 0) {
+            throw new IllegalArgumentException(
+                    String.format("Index=%d with type=%s is out-of-bounds given registers of size %d", index, type,
+                            registers.size()));
         }
     }
 
@@ -18,6 +18,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ScheduledExecutorService;
@@ -66,6 +68,7 @@ import net.wimpi.modbus.ModbusException;
 import net.wimpi.modbus.ModbusIOException;
 import net.wimpi.modbus.ModbusSlaveException;
 import net.wimpi.modbus.io.ModbusTransaction;
+import net.wimpi.modbus.msg.ExceptionResponse;
 import net.wimpi.modbus.msg.ModbusRequest;
 import net.wimpi.modbus.msg.ModbusResponse;
 import net.wimpi.modbus.net.ModbusSlaveConnection;
@@ -78,6 +81,7 @@ import net.wimpi.modbus.net.ModbusSlaveConnection;
  * capability to handle many connections at the same time
  *
  * @author Sami Salonen - Initial contribution
+ * @author agent - Added pipelined transactions
  */
 @Component(service = ModbusManager.class, immediate = true, configurationPid = "transport.modbus")
 @NonNullByDefault
@@ -91,7 +95,6 @@ public class ModbusManagerImpl implements ModbusManager {
         private static final long serialVersionUID = 6939730579178506885L;
     }
 
-    @FunctionalInterface
     private interface ModbusOperation<T> {
 
         /**
@@ -108,6 +111,23 @@ public class ModbusManagerImpl implements ModbusManager {
         public void accept(AggregateStopWatch timer, T task, ModbusSlaveConnection connection)
                 throws ModbusException, IIOException, ModbusUnexpectedTransactionIdException;
 
+        /**
+         * Create the library request for the task. Used with pipelined connections.
+         *
+         * @param task task to execute
+         * @return request to send
+         */
+        public ModbusRequest createRequest(T task);
+
+        /**
+         * Pass the response to the callback of the task. Used with pipelined connections.
+         *
+         * @param timer aggregate stop watch for performance profiling
+         * @param task executed task
+         * @param response response received
+         */
+        public void handleResponse(AggregateStopWatch timer, T task, ModbusResponse response);
+
     }
 
     /**
@@ -146,7 +166,6 @@ public class ModbusManagerImpl implements ModbusManager {
                 throws ModbusException, ModbusUnexpectedTransactionIdException {
             ModbusSlaveEndpoint endpoint = task.getEndpoint();
             ModbusReadRequestBlueprint request = task.getRequest();
-            ModbusReadCallback callback = task.getCallback();
             String operationId = timer.operationId;
 
             ModbusTransaction transaction = ModbusLibraryWrapper.createTransactionForEndpoint(endpoint, connection);
@@ -162,6 +181,18 @@ public class ModbusManagerImpl implements ModbusManager {
             logger.trace("Response for read request (FC={}, transaction ID={}): {} [operation ID {}]",
                     response.getFunctionCode(), response.getTransactionID(), response.getHexMessage(), operationId);
             checkTransactionId(response, libRequest, task, operationId);
+            handleResponse(timer, task, response);
+        }
+
+        @Override
+        public ModbusRequest createRequest(PollTask task) {
+            return ModbusLibraryWrapper.createRequest(task.getRequest());
+        }
+
+        @Override
+        public void handleResponse(AggregateStopWatch timer, PollTask task, ModbusResponse response) {
+            ModbusReadRequestBlueprint request = task.getRequest();
+            ModbusReadCallback callback = task.getCallback();
             if (callback != null) {
                 timer.callback.timeRunnable(
                         () -> ModbusLibraryWrapper.invokeCallbackWithResponse(request, callback, response));
@@ -181,7 +212,6 @@ public class ModbusManagerImpl implements ModbusManager {
                 throws ModbusException, ModbusUnexpectedTransactionIdException {
             ModbusSlaveEndpoint endpoint = task.getEndpoint();
             ModbusWriteRequestBlueprint request = task.getRequest();
-            ModbusWriteCallback callback = task.getCallback();
             String operationId = timer.operationId;
 
             ModbusTransaction transaction = ModbusLibraryWrapper.createTransactionForEndpoint(endpoint, connection);
@@ -199,6 +229,18 @@ public class ModbusManagerImpl implements ModbusManager {
                     response.getFunctionCode(), response.getTransactionID(), response.getHexMessage(), operationId);
 
             checkTransactionId(response, libRequest, task, operationId);
+            handleResponse(timer, task, response);
+        }
+
+        @Override
+        public ModbusRequest createRequest(WriteTask task) {
+            return ModbusLibraryWrapper.createRequest(task.getRequest());
+        }
+
+        @Override
+        public void handleResponse(AggregateStopWatch timer, WriteTask task, ModbusResponse response) {
+            ModbusWriteRequestBlueprint request = task.getRequest();
+            ModbusWriteCallback callback = task.getCallback();
             if (callback != null) {
                 timer.callback.timeRunnable(
                         () -> invokeCallbackWithResponse(request, callback, new ModbusResponseImpl(response)));
@@ -268,6 +310,10 @@ public class ModbusManagerImpl implements ModbusManager {
     @Nullable
     private volatile ModbusSlaveConnectionFactoryImpl connectionFactory;
     private volatile Map<PollTask, ScheduledFuture<?>> scheduledPollTasks = new ConcurrentHashMap<>();
+    /**
+     * Pipelined connections of TCP endpoints configured with more than one transaction in flight
+     */
+    private volatile Map<ModbusSlaveEndpoint, ModbusTCPPipeline> pipelines = new ConcurrentHashMap<>();
     /**
      * Executor for requests
      */
@@ -517,6 +563,13 @@ public class ModbusManagerImpl implements ModbusManager {
             throw new IllegalArgumentException("maxTries should be positive");
         }
 
+        ModbusTCPPipeline pipeline = getPipeline(endpoint);
+        if (pipeline != null) {
+            logger.trace("Starting new pipelined operation with task {} [operation ID {}]", task, operationId);
+            executePipelinedOperation(pipeline, task, oneOffTask, operation, timer, retryDelay, 0);
+            return;
+        }
+
         Optional<ModbusSlaveConnection> connection = Optional.empty();
         try {
             logger.trace("Starting new operation with task {}. Trying to get connection [operation ID {}]", task,
@@ -691,6 +744,126 @@ public class ModbusManagerImpl implements ModbusManager {
         }
     }
 
+    /**
+     * Execute operation using a pipelined connection.
+     *
+     * Unlike {@link #executeOperation(TaskWithEndpoint, boolean, ModbusOperation)}, this returns as soon as the request
+     * has been sent. The response is passed to the callback asynchronously, and failed tries are re-scheduled instead
+     * of blocking the calling thread.
+     *
+     * @param pipeline pipelined connection to the endpoint of the task
+     * @param task task to execute
+     * @param oneOffTask whether this is one-off, or execution of previously scheduled poll
+     * @param operation operation to execute
+     * @param timer aggregate stop watch of the operation
+     * @param retryDelay delay before retrying, in milliseconds
+     * @param previousTries number of tries executed already
+     */
+    private <R extends ModbusRequestBlueprint, C extends ModbusCallback, T extends TaskWithEndpoint<R, C>> void executePipelinedOperation(
+            ModbusTCPPipeline pipeline, @NonNull T task, boolean oneOffTask, ModbusOperation<T> operation,
+            AggregateStopWatch timer, long retryDelay, int previousTries) {
+        String operationId = timer.operationId;
+        R request = task.getRequest();
+        @Nullable
+        C callback = task.getCallback();
+        int maxTries = task.getMaxTries();
+        ScheduledExecutorService executor = scheduledThreadPoolExecutor;
+        if (executor == null) {
+            logger.debug("Manager has been shut down, aborting processing request {} [operation ID {}]", request,
+                    operationId);
+            return;
+        }
+        // Check poll task is still registered (this is all asynchronous)
+        if (!oneOffTask && task instanceof PollTask && !scheduledPollTasks.containsKey(task)) {
+            logger.debug("Poll task {} is unregistered -- not executing/proceeding with the poll [operation ID {}]",
+                    task, operationId);
+            return;
+        }
+
+        ModbusRequest libRequest = operation.createRequest(task);
+        CompletableFuture<ModbusResponse> futureResponse;
+        try {
+            futureResponse = pipeline.submit(libRequest);
+        } catch (InterruptedException e) {
+            logger.warn("Operation was canceled while waiting for pipelined connection: {} [operation ID {}]",
+                    e.getMessage(), operationId);
+            Thread.currentThread().interrupt();
+            return;
+        }
+        int tryIndex = previousTries + 1;
+        futureResponse.whenCompleteAsync((response, error) -> {
+            Exception failure = getPipelinedOperationError(response, error);
+            if (failure == null) {
+                logger.trace("Response for pipelined request (FC={}, transaction ID={}): {} [operation ID {}]",
+                        response.getFunctionCode(), response.getTransactionID(), response.getHexMessage(),
+                        operationId);
+                operation.handleResponse(timer, task, response);
+            } else if (tryIndex < maxTries) {
+                logger.warn(
+                        "Try {} out of {} failed when executing pipelined request ({}). Will try again soon. Error details: {} {} [operation ID {}]",
+                        tryIndex, maxTries, request, failure.getClass().getName(), failure.getMessage(), operationId);
+                executor.schedule(() -> executePipelinedOperation(pipeline, task, oneOffTask, operation, timer,
+                        retryDelay, tryIndex), retryDelay, TimeUnit.MILLISECONDS);
+                return;
+            } else {
+                logger.error(
+                        "Last try {} failed when executing pipelined request ({}). Aborting. Error details: {} {} [operation ID {}]",
+                        tryIndex, request, failure.getClass().getName(), failure.getMessage(), operationId);
+                if (callback != null) {
+                    timer.callback.timeRunnable(() -> invokeCallbackWithError(request, callback, failure));
+                }
+            }
+            timer.suspendAllRunning();
+            logger.debug("Modbus operation ended, timing info: {} [operation ID {}]", timer, operationId);
+        }, executor);
+    }
+
+    private @Nullable Exception getPipelinedOperationError(@Nullable ModbusResponse response,
+            @Nullable Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause()
+                    : error;
+            return cause instanceof ModbusIOException ? new ModbusSlaveIOExceptionImpl((ModbusIOException) cause)
+                    : new ModbusSlaveIOExceptionImpl(new IOException(cause));
+        } else if (response instanceof ExceptionResponse) {
+            // Slave returned explicit error response
+            return new ModbusSlaveErrorResponseExceptionImpl(
+                    new ModbusSlaveException(((ExceptionResponse) response).getExceptionCode()));
+        } else if (response == null) {
+            return new ModbusSlaveIOExceptionImpl(new IOException("No response"));
+        }
+        return null;
+    }
+
+    /**
+     * Get pipelined connection for the endpoint
+     *
+     * @param endpoint endpoint to query
+     * @return pipelined connection, or null if the endpoint is not configured for pipelining
+     */
+    private @Nullable ModbusTCPPipeline getPipeline(ModbusSlaveEndpoint endpoint) {
+        ModbusSlaveConnectionFactoryImpl connectionFactory = this.connectionFactory;
+        ScheduledExecutorService executor = this.scheduledThreadPoolExecutor;
+        if (!(endpoint instanceof ModbusTCPSlaveEndpoint) || connectionFactory == null || executor == null) {
+            return null;
+        }
+        EndpointPoolConfiguration config = connectionFactory.getEndpointPoolConfiguration(endpoint);
+        if (config == null || config.getMaxInFlightTransactions() <= 1) {
+            return null;
+        }
+        return pipelines.computeIfAbsent(endpoint,
+                key -> new ModbusTCPPipeline((ModbusTCPSlaveEndpoint) key, config.getMaxInFlightTransactions(),
+                        config.getConnectTimeoutMillis(), Modbus.DEFAULT_TIMEOUT, executor));
+    }
+
+    private void closePipeline(ModbusSlaveEndpoint endpoint) {
+        ModbusTCPPipeline pipeline = pipelines.remove(endpoint);
+        if (pipeline != null) {
+            logger.debug("Closing pipelined connection to endpoint {}", endpoint);
+            pipeline.close();
+        }
+    }
+
     @Override
     public ScheduledFuture<?> submitOneTimePoll(PollTask task) {
         ScheduledExecutorService executor = scheduledThreadPoolExecutor;
@@ -796,6 +969,8 @@ public class ModbusManagerImpl implements ModbusManager {
             @Nullable EndpointPoolConfiguration configuration) {
         Objects.requireNonNull(connectionFactory, "Not activated!");
         connectionFactory.setEndpointPoolConfiguration(endpoint, configuration);
+        // Pipelined connection is re-created with the new configuration on next use
+        closePipeline(endpoint);
         for (ModbusManagerListener listener : listeners) {
             listener.onEndpointPoolConfigurationSet(endpoint, configuration);
         }
@@ -856,6 +1031,7 @@ public class ModbusManagerImpl implements ModbusManager {
                 connectionPool.close();
                 this.connectionPool = connectionPool = null;
             }
+            pipelines.keySet().forEach(this::closePipeline);
 
             if (monitorFuture != null) {
                 monitorFuture.cancel(true);
@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.wimpi.modbus.ModbusIOException;
+import net.wimpi.modbus.io.ModbusTCPTransport;
+import net.wimpi.modbus.msg.ModbusRequest;
+import net.wimpi.modbus.msg.ModbusResponse;
+
+/**
+ * Pipelined connection to a Modbus TCP slave
+ *
+ * Unlike with pooled connections, several transactions can be outstanding at the same time. Requests are written as
+ * soon as there is room in the in-flight window, one at a time, and responses are matched to requests by transaction
+ * ID by a dedicated reader thread. This is useful with gateways fronting many slaves, since the round trips overlap.
+ *
+ * The connection is established lazily on first request, and re-established after I/O errors.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusTCPPipeline {
+
+    private static class PendingTransaction {
+        private final CompletableFuture<ModbusResponse> future = new CompletableFuture<>();
+        private volatile @Nullable ScheduledFuture<?> timeout;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(ModbusTCPPipeline.class);
+
+    private final ModbusTCPSlaveEndpoint endpoint;
+    private final int connectTimeoutMillis;
+    private final long responseTimeoutMillis;
+    private final ScheduledExecutorService scheduler;
+    private final Semaphore window;
+    private final Map<Integer, PendingTransaction> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger lastTransactionId = new AtomicInteger();
+    private final Object connectionLock = new Object();
+    // jamod writes a request field by field, concurrent writes would interleave on the socket
+    private final Object writeLock = new Object();
+
+    private @Nullable Socket socket;
+    private @Nullable ModbusTCPTransport transport;
+    private volatile boolean closed;
+
+    /**
+     * Construct new pipeline
+     *
+     * @param endpoint endpoint to connect to
+     * @param maxInFlightTransactions maximum number of transactions awaiting response at the same time
+     * @param connectTimeoutMillis connect timeout in milliseconds, 0 for system default
+     * @param responseTimeoutMillis how long to wait for each response, in milliseconds
+     * @param scheduler scheduler for response timeouts
+     */
+    public ModbusTCPPipeline(ModbusTCPSlaveEndpoint endpoint, int maxInFlightTransactions, int connectTimeoutMillis,
+            long responseTimeoutMillis, ScheduledExecutorService scheduler) {
+        if (maxInFlightTransactions <= 0) {
+            throw new IllegalArgumentException("maxInFlightTransactions should be positive");
+        }
+        this.endpoint = endpoint;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.responseTimeoutMillis = responseTimeoutMillis;
+        this.scheduler = scheduler;
+        this.window = new Semaphore(maxInFlightTransactions, true);
+    }
+
+    /**
+     * Send request to the slave
+     *
+     * Blocks only while the in-flight window is full. The transaction ID of the request is overwritten with an ID
+     * unique among the outstanding transactions.
+     *
+     * @param request request to send
+     * @return future completing with the response, or exceptionally with {@link ModbusIOException} on I/O errors and
+     *         timeouts
+     * @throws InterruptedException when interrupted while waiting for room in the in-flight window
+     */
+    public CompletableFuture<ModbusResponse> submit(ModbusRequest request) throws InterruptedException {
+        PendingTransaction transaction = new PendingTransaction();
+        if (closed) {
+            transaction.future.completeExceptionally(new ModbusIOException("Pipeline closed"));
+            return transaction.future;
+        }
+        window.acquire();
+        int transactionId;
+        do {
+            // transaction ID 0 is avoided, since some slaves echo it back in every response
+            transactionId = lastTransactionId.updateAndGet(id -> id >= 0xffff ? 1 : id + 1);
+        } while (pending.putIfAbsent(transactionId, transaction) != null);
+        int id = transactionId;
+        transaction.future.whenComplete((response, error) -> {
+            pending.remove(id, transaction);
+            ScheduledFuture<?> timeout = transaction.timeout;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            window.release();
+        });
+        request.setTransactionID(id);
+
+        try {
+            ModbusTCPTransport transport = getTransport();
+            transaction.timeout = scheduler.schedule(
+                    () -> transaction.future.completeExceptionally(new ModbusIOException(
+                            String.format("No response to transaction %d in %d ms", id, responseTimeoutMillis))),
+                    responseTimeoutMillis, TimeUnit.MILLISECONDS);
+            logger.trace("Sending request with transaction ID {} to {}: {}", id, endpoint, request.getHexMessage());
+            synchronized (writeLock) {
+                transport.writeMessage(request);
+            }
+        } catch (IOException | ModbusIOException e) {
+            logger.debug("Error sending request with transaction ID {} to {}: {}", id, endpoint, e.getMessage());
+            transaction.future.completeExceptionally(
+                    e instanceof ModbusIOException ? e : new ModbusIOException(e.getMessage()));
+            disconnect(e);
+        }
+        return transaction.future;
+    }
+
+    /**
+     * Get number of transactions awaiting response
+     */
+    public int getInFlightTransactions() {
+        return pending.size();
+    }
+
+    /**
+     * Close the connection, and fail all outstanding transactions
+     */
+    public void close() {
+        closed = true;
+        disconnect(new ModbusIOException("Pipeline closed"));
+    }
+
+    private ModbusTCPTransport getTransport() throws IOException {
+        synchronized (connectionLock) {
+            ModbusTCPTransport currentTransport = this.transport;
+            if (currentTransport != null) {
+                return currentTransport;
+            }
+            logger.debug("Connecting pipelined connection to {}", endpoint);
+            Socket socket = new Socket();
+            ModbusTCPTransport transport;
+            try {
+                socket.setTcpNoDelay(true);
+                socket.connect(new InetSocketAddress(endpoint.getAddress(), endpoint.getPort()), connectTimeoutMillis);
+                transport = new ModbusTCPTransport(socket);
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+            this.socket = socket;
+            this.transport = transport;
+            Thread reader = new Thread(() -> readResponses(socket, transport),
+                    "modbusTCPPipeline-" + endpoint.getAddress() + ":" + endpoint.getPort());
+            reader.setDaemon(true);
+            reader.start();
+            return transport;
+        }
+    }
+
+    private void readResponses(Socket socket, ModbusTCPTransport transport) {
+        try {
+            while (!closed && !socket.isClosed()) {
+                ModbusResponse response = transport.readResponse();
+                PendingTransaction transaction = pending.get(response.getTransactionID());
+                if (transaction == null) {
+                    // e.g. response to a transaction that timed out already
+                    logger.debug("Ignoring response with unexpected transaction ID {} from {}",
+                            response.getTransactionID(), endpoint);
+                    continue;
+                }
+                logger.trace("Received response with transaction ID {} from {}: {}", response.getTransactionID(),
+                        endpoint, response.getHexMessage());
+                transaction.future.complete(response);
+            }
+        } catch (ModbusIOException | RuntimeException e) {
+            if (!socket.isClosed()) {
+                logger.debug("Error reading responses from {}: {}", endpoint, e.getMessage());
+            }
+            disconnect(socket, e);
+        }
+    }
+
+    private void disconnect(Exception cause) {
+        Socket socket;
+        synchronized (connectionLock) {
+            socket = this.socket;
+        }
+        if (socket != null) {
+            disconnect(socket, cause);
+        }
+    }
+
+    private void disconnect(Socket socket, Exception cause) {
+        synchronized (connectionLock) {
+            if (this.socket == socket) {
+                this.socket = null;
+                this.transport = null;
+            }
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            logger.debug("Error closing pipelined connection to {}: {}", endpoint, e.getMessage());
+        }
+        ModbusIOException error = cause instanceof ModbusIOException ? (ModbusIOException) cause
+                : new ModbusIOException(cause.getMessage());
+        // the responses to outstanding transactions are lost with the connection
+        pending.values().forEach(transaction -> transaction.future.completeExceptionally(error));
+    }
+}
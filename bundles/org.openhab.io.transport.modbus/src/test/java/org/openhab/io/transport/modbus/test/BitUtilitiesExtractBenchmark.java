@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.openhab.io.transport.modbus.BasicBitArray;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusBitUtilities;
+import org.openhab.io.transport.modbus.ModbusConstants.ValueType;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+
+/**
+ * Measures the time to convert a full block of 125 registers, the maximum of a single read request, for every
+ * {@link ValueType}. Each type is
+ * <ul>
+ * <li>decoded with the ByteBuffer based decoding which {@link ModbusBitUtilities#extractStateFromRegisters} used
+ * before,</li>
+ * <li>decoded with {@link ModbusBitUtilities#extractStateFromRegisters},</li>
+ * <li>decoded with {@link ModbusBitUtilities#extractDoubleFromRegisters} and
+ * {@link ModbusBitUtilities#extractLongFromRegisters}, and</li>
+ * <li>encoded with {@link ModbusBitUtilities#commandToRegisters}, for the types it supports.</li>
+ * </ul>
+ * The {@link BasicModbusRegisterArray} and {@link BasicBitArray} wrappers are measured with a block of 125 registers
+ * and 2000 coils, the maxima of a single read request.
+ *
+ * Usage: java org.openhab.io.transport.modbus.test.BitUtilitiesExtractBenchmark [iterations]
+ *
+ * @author agent - Initial contribution
+ */
+public class BitUtilitiesExtractBenchmark {
+
+    private static final int REGISTERS = 125;
+    private static final int COILS = 2000;
+
+    private interface Decoder {
+        double decode(ModbusRegisterArray registers, int index, ValueType type);
+    }
+
+    /**
+     * A single pass over a full block, returning a value derived from the results
+     */
+    private interface Pass {
+        double run();
+    }
+
+    // prevents the JIT from removing the conversions
+    private static double sink;
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+
+        Random random = new Random(42);
+        int[] registerValues = new int[REGISTERS];
+        for (int i = 0; i < REGISTERS; i++) {
+            // keep the two high bits of every register clear, so that no float exponent has all bits set and no NaN
+            // or infinity is decoded, whichever register order the type uses
+            registerValues[i] = random.nextInt(0x4000);
+        }
+        ModbusRegisterArray registers = new BasicModbusRegisterArray(registerValues);
+        boolean[] coils = new boolean[COILS];
+        for (int i = 0; i < COILS; i++) {
+            coils[i] = random.nextBoolean();
+        }
+
+        System.out.println("Iterations: " + iterations + ", registers per iteration: " + REGISTERS);
+        for (ValueType type : ValueType.values()) {
+            int values = valueCount(type);
+            int step = type.getBits() >= 16 ? type.getBits() / 16 : 1;
+
+            decode("bytebuffer", type, iterations, registers, BitUtilitiesExtractBenchmark::extractWithByteBuffer);
+            decode("state", type, iterations, registers, (r, index, t) -> ModbusBitUtilities
+                    .extractStateFromRegisters(r, index, t).map(DecimalType::doubleValue).orElse(0.0));
+            decode("double", type, iterations, registers, ModbusBitUtilities::extractDoubleFromRegisters);
+            if (!isFloat(type)) {
+                decode("long", type, iterations, registers, ModbusBitUtilities::extractLongFromRegisters);
+            }
+
+            if (type.getBits() < 16) {
+                System.out.println(String.format("%-12s %-10s not supported", type, "encode"));
+                continue;
+            }
+            DecimalType[] commands = new DecimalType[values];
+            for (int value = 0; value < values; value++) {
+                commands[value] = ModbusBitUtilities.extractStateFromRegisters(registers, value * step, type).get();
+            }
+            run("encode", type, iterations, values, () -> {
+                double result = 0;
+                for (DecimalType command : commands) {
+                    result += ModbusBitUtilities.commandToRegisters(command, type).getRegister(0).getValue();
+                }
+                return result;
+            });
+        }
+
+        run("wrap", "registers", iterations, REGISTERS, () -> {
+            ModbusRegisterArray wrapped = new BasicModbusRegisterArray(registerValues);
+            double result = 0;
+            for (int i = 0; i < wrapped.size(); i++) {
+                result += wrapped.getRegister(i).toUnsignedShort();
+            }
+            return result;
+        });
+        run("wrap", "coils", iterations, COILS, () -> {
+            BitArray wrapped = new BasicBitArray(coils);
+            double result = 0;
+            for (int i = 0; i < wrapped.size(); i++) {
+                result += wrapped.getBit(i) ? 1 : 0;
+            }
+            return result;
+        });
+        BasicBitArray written = new BasicBitArray(COILS);
+        run("set", "coils", iterations, COILS, () -> {
+            for (int i = 0; i < COILS; i++) {
+                written.setBit(i, coils[i]);
+            }
+            return written.getBit(COILS - 1) ? 1 : 0;
+        });
+
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+    /**
+     * The number of values of the type in the block
+     */
+    private static int valueCount(ValueType type) {
+        return type.getBits() >= 16 ? REGISTERS / (type.getBits() / 16) : REGISTERS * 16 / type.getBits();
+    }
+
+    private static boolean isFloat(ValueType type) {
+        return type == ValueType.FLOAT32 || type == ValueType.FLOAT32_SWAP;
+    }
+
+    private static void decode(String name, ValueType type, int iterations, ModbusRegisterArray registers,
+            Decoder decoder) {
+        int values = valueCount(type);
+        int step = type.getBits() >= 16 ? type.getBits() / 16 : 1;
+        run(name, type, iterations, values, () -> {
+            double result = 0;
+            for (int value = 0; value < values; value++) {
+                result += decoder.decode(registers, value * step, type);
+            }
+            return result;
+        });
+    }
+
+    private static void run(String name, Object subject, int iterations, int operations, Pass pass) {
+        // warm up the JIT
+        for (int i = 0; i < iterations; i++) {
+            sink += pass.run();
+        }
+
+        long[] times = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            sink += pass.run();
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        System.out.println(String.format("%-12s %-10s per value: median %.1f ns, p95 %.1f ns", subject, name,
+                (double) times[iterations / 2] / operations, (double) times[(int) (iterations * 0.95)] / operations));
+    }
+
+    /**
+     * The decoding as {@link ModbusBitUtilities#extractStateFromRegisters} implemented it before the primitive
+     * decoding was added.
+     */
+    private static double extractWithByteBuffer(ModbusRegisterArray registers, int index, ValueType type) {
+        switch (type) {
+            case BIT:
+                return new DecimalType((registers.getRegister(index / 16).toUnsignedShort() >> (index % 16)) & 1)
+                        .doubleValue();
+            case INT8:
+                return new DecimalType(registers.getRegister(index / 2).getBytes()[1 - (index % 2)]).doubleValue();
+            case UINT8:
+                return new DecimalType((registers.getRegister(index / 2).toUnsignedShort() >> (8 * (index % 2))) & 0xff)
+                        .doubleValue();
+            case INT16:
+                return new DecimalType(fill(ByteBuffer.allocate(2), registers, index).getShort(0)).doubleValue();
+            case UINT16:
+                return new DecimalType(registers.getRegister(index).toUnsignedShort()).doubleValue();
+            case INT32:
+                return new DecimalType(fill(ByteBuffer.allocate(4), registers, index, index + 1).getInt(0))
+                        .doubleValue();
+            case INT32_SWAP:
+                return new DecimalType(fill(ByteBuffer.allocate(4), registers, index + 1, index).getInt(0))
+                        .doubleValue();
+            case UINT32:
+                return new DecimalType(fill(unsigned32(), registers, index, index + 1).getLong(0)).doubleValue();
+            case UINT32_SWAP:
+                return new DecimalType(fill(unsigned32(), registers, index + 1, index).getLong(0)).doubleValue();
+            case FLOAT32:
+                return new DecimalType(fill(ByteBuffer.allocate(4), registers, index, index + 1).getFloat(0))
+                        .doubleValue();
+            case FLOAT32_SWAP:
+                return new DecimalType(fill(ByteBuffer.allocate(4), registers, index + 1, index).getFloat(0))
+                        .doubleValue();
+            case INT64:
+                return new DecimalType(
+                        fill(ByteBuffer.allocate(8), registers, index, index + 1, index + 2, index + 3).getLong(0))
+                                .doubleValue();
+            case INT64_SWAP:
+                return new DecimalType(
+                        fill(ByteBuffer.allocate(8), registers, index + 3, index + 2, index + 1, index).getLong(0))
+                                .doubleValue();
+            case UINT64:
+                return new DecimalType(new BigDecimal(new BigInteger(1,
+                        fill(ByteBuffer.allocate(8), registers, index, index + 1, index + 2, index + 3).array())))
+                                .doubleValue();
+            case UINT64_SWAP:
+                return new DecimalType(new BigDecimal(new BigInteger(1,
+                        fill(ByteBuffer.allocate(8), registers, index + 3, index + 2, index + 1, index).array())))
+                                .doubleValue();
+            default:
+                throw new IllegalArgumentException("Type " + type + " is not benchmarked");
+        }
+    }
+
+    private static ByteBuffer unsigned32() {
+        ByteBuffer buff = ByteBuffer.allocate(8);
+        buff.position(4);
+        return buff;
+    }
+
+    private static ByteBuffer fill(ByteBuffer buff, ModbusRegisterArray registers, int... indices) {
+        for (int index : indices) {
+            buff.put(registers.getRegister(index).getBytes());
+        }
+        return buff.order(ByteOrder.BIG_ENDIAN);
+    }
+}
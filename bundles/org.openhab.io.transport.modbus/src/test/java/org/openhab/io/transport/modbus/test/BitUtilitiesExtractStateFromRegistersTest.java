@@ -40,6 +40,7 @@ import org.openhab.io.transport.modbus.ModbusRegisterArray;
 
 /**
  * @author Sami Salonen - Initial contribution
+ * @author agent - Added primitive decoding
  */
 @RunWith(Parameterized.class)
 public class BitUtilitiesExtractStateFromRegistersTest {
@@ -401,4 +402,37 @@ public class BitUtilitiesExtractStateFromRegistersTest {
         assertThat(String.format("registers=%s, index=%d, type=%s", registers, index, type), actualState,
                 is(equalTo(expectedStateWrapped)));
     }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Test
+    public void testExtractLongFromRegisters() {
+        if (expectedResult instanceof Class && Exception.class.isAssignableFrom((Class) expectedResult)) {
+            shouldThrow.expect((Class) expectedResult);
+        } else if (type == ValueType.FLOAT32 || type == ValueType.FLOAT32_SWAP) {
+            shouldThrow.expect(IllegalArgumentException.class);
+        }
+
+        long actual = ModbusBitUtilities.extractLongFromRegisters(this.registers, this.index, this.type);
+        // unsigned 64bit values beyond Long.MAX_VALUE are returned as raw bits
+        long expected = ((DecimalType) expectedResult).toBigDecimal().longValue();
+        assertThat(String.format("registers=%s, index=%d, type=%s", registers, index, type), actual,
+                is(equalTo(expected)));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Test
+    public void testExtractDoubleFromRegisters() {
+        if (expectedResult instanceof Class && Exception.class.isAssignableFrom((Class) expectedResult)) {
+            shouldThrow.expect((Class) expectedResult);
+        }
+
+        double actual = ModbusBitUtilities.extractDoubleFromRegisters(this.registers, this.index, this.type);
+        String message = String.format("registers=%s, index=%d, type=%s", registers, index, type);
+        if (expectedResult instanceof DecimalType) {
+            assertThat(message, actual, is(equalTo(((DecimalType) expectedResult).doubleValue())));
+        } else {
+            // NaN or infinity
+            assertThat(message, Double.isFinite(actual), is(false));
+        }
+    }
 }
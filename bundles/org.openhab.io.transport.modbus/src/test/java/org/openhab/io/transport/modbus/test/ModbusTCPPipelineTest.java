@@ -0,0 +1,269 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.ModbusTCPPipeline;
+
+import net.wimpi.modbus.ModbusIOException;
+import net.wimpi.modbus.msg.ModbusResponse;
+import net.wimpi.modbus.msg.ReadMultipleRegistersRequest;
+import net.wimpi.modbus.msg.ReadMultipleRegistersResponse;
+
+/**
+ * Tests the {@link ModbusTCPPipeline} against a fake slave answering out of order
+ *
+ * @author agent - Initial contribution
+ */
+public class ModbusTCPPipelineTest {
+
+    private ServerSocket server;
+    private ScheduledExecutorService scheduler;
+    private ModbusTCPPipeline pipeline;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (pipeline != null) {
+            pipeline.close();
+        }
+        scheduler.shutdownNow();
+        server.close();
+    }
+
+    private ModbusTCPPipeline createPipeline(int maxInFlightTransactions, long responseTimeoutMillis) {
+        ModbusTCPSlaveEndpoint endpoint = new ModbusTCPSlaveEndpoint(server.getInetAddress().getHostAddress(),
+                server.getLocalPort());
+        pipeline = new ModbusTCPPipeline(endpoint, maxInFlightTransactions, 1000, responseTimeoutMillis, scheduler);
+        return pipeline;
+    }
+
+    /**
+     * Read requests from the socket, and answer them in reverse order. Each response has single register holding the
+     * reference of the request.
+     */
+    private void answerInReverseOrder(int requestCount) {
+        new Thread(() -> {
+            try (Socket socket = server.accept()) {
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                List<int[]> requests = new ArrayList<>();
+                for (int i = 0; i < requestCount; i++) {
+                    int transactionId = in.readUnsignedShort();
+                    in.readUnsignedShort(); // protocol
+                    int length = in.readUnsignedShort();
+                    int unitId = in.readUnsignedByte();
+                    in.readUnsignedByte(); // function code
+                    int reference = in.readUnsignedShort();
+                    in.skipBytes(length - 4);
+                    requests.add(new int[] { transactionId, unitId, reference });
+                }
+                for (int i = requests.size() - 1; i >= 0; i--) {
+                    int[] request = requests.get(i);
+                    // each response is written in one go, like real slaves do
+                    ByteArrayOutputStream response = new ByteArrayOutputStream();
+                    DataOutputStream responseOut = new DataOutputStream(response);
+                    responseOut.writeShort(request[0]);
+                    responseOut.writeShort(0);
+                    responseOut.writeShort(5);
+                    responseOut.writeByte(request[1]);
+                    responseOut.writeByte(3);
+                    responseOut.writeByte(2);
+                    responseOut.writeShort(request[2]);
+                    out.write(response.toByteArray());
+                    out.flush();
+                }
+                // keep the connection open until the test is done
+                in.read();
+            } catch (IOException e) {
+                // test done
+            }
+        }).start();
+    }
+
+    /**
+     * Read requests from the socket and answer each of them right away, with a single register holding the reference
+     * of the request. Frames which are not a well-formed request to read one holding register are added to
+     * <tt>malformedFrames</tt>, and the connection is closed.
+     */
+    private void answerImmediately(int requestCount, List<String> malformedFrames) {
+        new Thread(() -> {
+            try (Socket socket = server.accept()) {
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                for (int i = 0; i < requestCount; i++) {
+                    int transactionId = in.readUnsignedShort();
+                    int protocol = in.readUnsignedShort();
+                    int length = in.readUnsignedShort();
+                    int unitId = in.readUnsignedByte();
+                    int functionCode = in.readUnsignedByte();
+                    int reference = in.readUnsignedShort();
+                    int count = in.readUnsignedShort();
+                    if (protocol != 0 || length != 6 || unitId != 1 || functionCode != 3 || count != 1) {
+                        malformedFrames.add(String.format("frame %d: transaction=%d protocol=%d length=%d unit=%d "
+                                + "function=%d reference=%d count=%d", i, transactionId, protocol, length, unitId,
+                                functionCode, reference, count));
+                        return;
+                    }
+                    ByteArrayOutputStream response = new ByteArrayOutputStream();
+                    DataOutputStream responseOut = new DataOutputStream(response);
+                    responseOut.writeShort(transactionId);
+                    responseOut.writeShort(0);
+                    responseOut.writeShort(5);
+                    responseOut.writeByte(unitId);
+                    responseOut.writeByte(3);
+                    responseOut.writeByte(2);
+                    responseOut.writeShort(reference);
+                    out.write(response.toByteArray());
+                    out.flush();
+                }
+                // keep the connection open until the test is done
+                in.read();
+            } catch (IOException e) {
+                // test done
+            }
+        }).start();
+    }
+
+    private static ReadMultipleRegistersRequest request(int reference) {
+        ReadMultipleRegistersRequest request = new ReadMultipleRegistersRequest(reference, 1);
+        request.setUnitID(1);
+        return request;
+    }
+
+    @Test
+    public void testResponsesAreMatchedByTransactionId() throws Exception {
+        answerInReverseOrder(3);
+        ModbusTCPPipeline pipeline = createPipeline(3, 5000);
+
+        List<CompletableFuture<ModbusResponse>> futures = new ArrayList<>();
+        for (int reference = 10; reference < 13; reference++) {
+            futures.add(pipeline.submit(request(reference)));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            ModbusResponse response = futures.get(i).get(5, TimeUnit.SECONDS);
+            assertThat(response, instanceOf(ReadMultipleRegistersResponse.class));
+            assertEquals(10 + i, ((ReadMultipleRegistersResponse) response).getRegisterValue(0));
+        }
+        assertEquals(0, pipeline.getInFlightTransactions());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        // slave never answers
+        answerInReverseOrder(2);
+        ModbusTCPPipeline pipeline = createPipeline(2, 100);
+
+        CompletableFuture<ModbusResponse> future = pipeline.submit(request(1));
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Expecting timeout");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(ModbusIOException.class));
+        }
+        assertEquals(0, pipeline.getInFlightTransactions());
+    }
+
+    @Test
+    public void testCloseFailsOutstandingTransactions() throws Exception {
+        answerInReverseOrder(2);
+        ModbusTCPPipeline pipeline = createPipeline(2, 5000);
+
+        CompletableFuture<ModbusResponse> future = pipeline.submit(request(1));
+        pipeline.close();
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Expecting failure");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(ModbusIOException.class));
+        }
+        assertTrue(pipeline.submit(request(2)).isCompletedExceptionally());
+    }
+
+    @Test
+    public void testConcurrentSubmitsWriteWellFormedFrames() throws Exception {
+        int threads = 8;
+        int requestsPerThread = 100;
+        List<String> malformedFrames = Collections.synchronizedList(new ArrayList<>());
+        answerImmediately(threads * requestsPerThread, malformedFrames);
+        ModbusTCPPipeline pipeline = createPipeline(32, 5000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int firstReference = thread * requestsPerThread;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    List<CompletableFuture<ModbusResponse>> futures = new ArrayList<>();
+                    for (int reference = firstReference; reference < firstReference + requestsPerThread; reference++) {
+                        futures.add(pipeline.submit(request(reference)));
+                    }
+                    List<String> errors = new ArrayList<>();
+                    for (int i = 0; i < futures.size(); i++) {
+                        ModbusResponse response = futures.get(i).get(10, TimeUnit.SECONDS);
+                        int value = ((ReadMultipleRegistersResponse) response).getRegisterValue(0);
+                        if (value != firstReference + i) {
+                            errors.add(String.format("request %d answered with %d", firstReference + i, value));
+                        }
+                    }
+                    return errors;
+                }));
+            }
+            start.countDown();
+            for (Future<List<String>> result : results) {
+                try {
+                    assertEquals(Collections.emptyList(), result.get(30, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    fail("Request failed: " + e.getCause() + ", malformed frames: " + malformedFrames);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(Collections.emptyList(), malformedFrames);
+        assertEquals(0, pipeline.getInFlightTransactions());
+    }
+}
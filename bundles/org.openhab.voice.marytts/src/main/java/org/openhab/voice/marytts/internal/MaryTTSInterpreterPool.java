@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.marytts.internal;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.voice.Voice;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import marytts.LocalMaryInterface;
+import marytts.MaryInterface;
+import marytts.exceptions.MaryConfigurationException;
+import marytts.exceptions.SynthesisException;
+
+/**
+ * A pool of MaryTTS interpreters per voice, so that utterances of different voices and concurrent utterances of the
+ * same voice are synthesized in parallel. The locale and voice of an interpreter are set once when it is created.
+ *
+ * @author agent - Initial contribution
+ */
+class MaryTTSInterpreterPool {
+
+    private static final String WARM_UP_TEXT = "openHAB";
+
+    private final Logger logger = LoggerFactory.getLogger(MaryTTSInterpreterPool.class);
+
+    /**
+     * Creates the interpreters of a voice.
+     */
+    @FunctionalInterface
+    interface InterpreterFactory {
+        MaryInterface create(Voice voice) throws MaryConfigurationException;
+    }
+
+    private static class Interpreters {
+        final BlockingQueue<MaryInterface> idle = new LinkedBlockingQueue<>();
+        int created;
+    }
+
+    private final Map<String, Interpreters> interpretersByVoice = new ConcurrentHashMap<>();
+    private final InterpreterFactory factory;
+    private final int maxInterpretersPerVoice;
+    private final long timeout;
+
+    /**
+     * @param maxInterpretersPerVoice maximum number of concurrent utterances per voice
+     * @param timeout milliseconds to wait for an interpreter if all interpreters of a voice are busy
+     */
+    MaryTTSInterpreterPool(int maxInterpretersPerVoice, long timeout) {
+        this(MaryTTSInterpreterPool::createInterpreter, maxInterpretersPerVoice, timeout);
+    }
+
+    MaryTTSInterpreterPool(InterpreterFactory factory, int maxInterpretersPerVoice, long timeout) {
+        this.factory = factory;
+        this.maxInterpretersPerVoice = maxInterpretersPerVoice;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Takes an idle interpreter for the voice, creates one if all are busy and the maximum is not reached, or waits for
+     * an interpreter to be released.
+     *
+     * @param voice the voice
+     * @return the interpreter or null, if no interpreter was released in time
+     * @throws MaryConfigurationException if a new interpreter could not be created
+     * @throws InterruptedException if interrupted while waiting
+     */
+    MaryInterface borrow(Voice voice) throws MaryConfigurationException, InterruptedException {
+        Interpreters interpreters = interpretersByVoice.computeIfAbsent(voice.getLabel(), key -> new Interpreters());
+        MaryInterface interpreter = interpreters.idle.poll();
+        if (interpreter != null) {
+            return interpreter;
+        }
+        boolean create;
+        synchronized (interpreters) {
+            create = interpreters.created < maxInterpretersPerVoice;
+            if (create) {
+                interpreters.created++;
+            }
+        }
+        if (create) {
+            try {
+                MaryInterface created = factory.create(voice);
+                logger.debug("Created MaryTTS interpreter for voice {}", voice.getLabel());
+                return created;
+            } catch (MaryConfigurationException | RuntimeException e) {
+                synchronized (interpreters) {
+                    interpreters.created--;
+                }
+                throw e;
+            }
+        }
+        return interpreters.idle.poll(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns an interpreter to the pool.
+     *
+     * @param voice the voice of the interpreter
+     * @param interpreter the interpreter
+     */
+    void release(Voice voice, MaryInterface interpreter) {
+        Interpreters interpreters = interpretersByVoice.get(voice.getLabel());
+        if (interpreters != null) {
+            interpreters.idle.offer(interpreter);
+        }
+    }
+
+    /**
+     * Creates an interpreter for the voice and synthesizes a short text, so that the first utterance does not have to
+     * wait for the voice to be loaded.
+     *
+     * @param voice the voice
+     */
+    void warmUp(Voice voice) {
+        MaryInterface interpreter = null;
+        try {
+            long start = System.nanoTime();
+            interpreter = borrow(voice);
+            if (interpreter != null) {
+                interpreter.generateAudio(WARM_UP_TEXT).close();
+                logger.debug("Warmed up MaryTTS voice {} in {} ms", voice.getLabel(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        } catch (MaryConfigurationException | SynthesisException | IOException | RuntimeException e) {
+            logger.debug("Could not warm up MaryTTS voice {}: {}", voice.getLabel(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (interpreter != null) {
+                release(voice, interpreter);
+            }
+        }
+    }
+
+    /**
+     * Removes all interpreters.
+     */
+    void clear() {
+        interpretersByVoice.clear();
+    }
+
+    private static MaryInterface createInterpreter(Voice voice) throws MaryConfigurationException {
+        MaryInterface interpreter = new LocalMaryInterface();
+        interpreter.setLocale(voice.getLocale());
+        interpreter.setVoice(voice.getLabel());
+        return interpreter;
+    }
+}
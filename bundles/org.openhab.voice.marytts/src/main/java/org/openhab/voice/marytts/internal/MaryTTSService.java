@@ -14,15 +14,21 @@ package org.openhab.voice.marytts.internal;
 
 import static javax.sound.sampled.AudioSystem.NOT_SPECIFIED;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Set;
 
+import org.apache.commons.io.IOUtils;
+import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.audio.ByteArrayAudioStream;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.voice.TTSException;
 import org.eclipse.smarthome.core.voice.TTSService;
+import org.openhab.voice.ttscache.TTSCache;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,14 +44,38 @@ import marytts.modules.synthesis.Voice;
  *
  * @author Kelly Davis - Initial contribution and API
  * @author Kai Kreuzer - Refactored to updated APIs and moved to openHAB
+ * @author agent - Cache audio with the shared TTS cache, pool interpreters per voice
  */
 @Component
 public class MaryTTSService implements TTSService {
 
+    /**
+     * Cache folder under $userdata
+     */
+    private static final String CACHE_FOLDER_NAME = "cache" + File.separator + "org.openhab.voice.marytts";
+
+    /**
+     * Maximum number of concurrent utterances per voice
+     */
+    private static final int MAX_INTERPRETERS_PER_VOICE = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Time to wait for an interpreter if all interpreters of a voice are busy
+     */
+    private static final long INTERPRETER_TIMEOUT_MS = 30000;
+
     private final Logger logger = LoggerFactory.getLogger(MaryTTSService.class);
 
     private MaryInterface marytts;
 
+    private final MaryTTSInterpreterPool interpreterPool = new MaryTTSInterpreterPool(MAX_INTERPRETERS_PER_VOICE,
+            INTERPRETER_TIMEOUT_MS);
+
+    /**
+     * Cache of the synthesized audio
+     */
+    private TTSCache cache;
+
     /**
      * Set of supported voices
      */
@@ -61,11 +91,20 @@ public class MaryTTSService implements TTSService {
             marytts = new LocalMaryInterface();
             voices = initVoices();
             audioFormats = initAudioFormats();
+            cache = new TTSCache(new File(ConfigConstants.getUserDataFolder(), CACHE_FOLDER_NAME));
+            // load the voices in the background, so that the first utterance does not have to wait for them
+            Set<org.eclipse.smarthome.core.voice.Voice> warmUpVoices = voices;
+            ThreadPoolManager.getPool(getClass().getSimpleName())
+                    .execute(() -> warmUpVoices.forEach(interpreterPool::warmUp));
         } catch (MaryConfigurationException e) {
             logger.error("Failed to initialize MaryTTS: {}", e.getMessage(), e);
         }
     }
 
+    protected void deactivate() {
+        interpreterPool.clear();
+    }
+
     @Override
     public Set<org.eclipse.smarthome.core.voice.Voice> getAvailableVoices() {
         return voices;
@@ -114,17 +153,42 @@ public class MaryTTSService implements TTSService {
         Voice maryTTSVoice = Voice.getVoice(voice.getLabel());
         AudioFormat maryTTSVoiceAudioFormat = getAudioFormat(maryTTSVoice.dbAudioFormat());
 
-        // Synchronize on marytts
-        synchronized (marytts) {
-            // Set voice (Each voice supports only a single AudioFormat)
-            marytts.setLocale(voice.getLocale());
-            marytts.setVoice(voice.getLabel());
+        // concurrent requests for the same text share one synthesis
+        byte[] audio = cache.getAudio(voice.getLabel(), text, "wav",
+                () -> generateAudio(text, voice, maryTTSVoiceAudioFormat));
+        return new ByteArrayAudioStream(audio, maryTTSVoiceAudioFormat);
+    }
 
-            try {
-                return new MaryTTSAudioStream(marytts.generateAudio(text), maryTTSVoiceAudioFormat);
-            } catch (SynthesisException | IOException e) {
-                throw new TTSException("Error generating an AudioStream", e);
-            }
+    /**
+     * Generates the WAVE audio for the text with an interpreter of the voice.
+     *
+     * @param text The text
+     * @param voice The voice
+     * @param audioFormat The AudioFormat of the voice
+     * @return The WAVE audio
+     * @throws TTSException If no interpreter is available or the audio could not be generated
+     */
+    private byte[] generateAudio(String text, org.eclipse.smarthome.core.voice.Voice voice, AudioFormat audioFormat)
+            throws TTSException {
+        // Each interpreter has its voice set once (Each voice supports only a single AudioFormat)
+        MaryInterface interpreter;
+        try {
+            interpreter = interpreterPool.borrow(voice);
+        } catch (MaryConfigurationException e) {
+            throw new TTSException("Error creating a MaryTTS interpreter", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TTSException("Interrupted while waiting for a MaryTTS interpreter", e);
+        }
+        if (interpreter == null) {
+            throw new TTSException("No MaryTTS interpreter available for voice " + voice.getLabel());
+        }
+        try (MaryTTSAudioStream audioStream = new MaryTTSAudioStream(interpreter.generateAudio(text), audioFormat)) {
+            return IOUtils.toByteArray(audioStream);
+        } catch (SynthesisException | IOException e) {
+            throw new TTSException("Error generating an AudioStream", e);
+        } finally {
+            interpreterPool.release(voice, interpreter);
         }
     }
 
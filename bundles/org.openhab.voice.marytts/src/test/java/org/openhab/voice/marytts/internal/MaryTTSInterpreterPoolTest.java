@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.marytts.internal;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+
+import org.eclipse.smarthome.core.voice.Voice;
+import org.junit.After;
+import org.junit.Test;
+
+import marytts.MaryInterface;
+import marytts.exceptions.MaryConfigurationException;
+
+/**
+ * Tests for {@link MaryTTSInterpreterPool}.
+ *
+ * @author agent - Initial contribution
+ */
+public class MaryTTSInterpreterPoolTest {
+
+    private static final Voice VOICE = new MaryTTSVoice(Locale.US, "cmu-slt-hsmm");
+    private static final Voice OTHER_VOICE = new MaryTTSVoice(Locale.GERMAN, "bits1-hsmm");
+
+    private final List<MaryInterface> created = new ArrayList<>();
+    private final List<Voice> createdVoices = new ArrayList<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private synchronized MaryInterface create(Voice voice) {
+        MaryInterface interpreter = mock(MaryInterface.class);
+        created.add(interpreter);
+        createdVoices.add(voice);
+        return interpreter;
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void idleInterpretersAreReused() throws Exception {
+        MaryTTSInterpreterPool pool = new MaryTTSInterpreterPool(this::create, 2, 100);
+        MaryInterface interpreter = pool.borrow(VOICE);
+        pool.release(VOICE, interpreter);
+
+        assertSame(interpreter, pool.borrow(VOICE));
+        assertEquals(1, created.size());
+    }
+
+    @Test
+    public void concurrentUtterancesGetTheirOwnInterpreters() throws Exception {
+        MaryTTSInterpreterPool pool = new MaryTTSInterpreterPool(this::create, 2, 100);
+        MaryInterface first = pool.borrow(VOICE);
+        MaryInterface second = pool.borrow(VOICE);
+
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNotSame(first, second);
+        assertEquals(2, created.size());
+    }
+
+    @Test
+    public void borrowTimesOutIfAllInterpretersAreBusy() throws Exception {
+        MaryTTSInterpreterPool pool = new MaryTTSInterpreterPool(this::create, 1, 50);
+        assertNotNull(pool.borrow(VOICE));
+
+        long start = System.nanoTime();
+        assertNull(pool.borrow(VOICE));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(1, created.size());
+    }
+
+    @Test
+    public void waitingUtteranceGetsTheReleasedInterpreter() throws Exception {
+        MaryTTSInterpreterPool pool = new MaryTTSInterpreterPool(this::create, 1, 10000);
+        MaryInterface interpreter = pool.borrow(VOICE);
+
+        Future<MaryInterface> waiting = executor.submit(() -> pool.borrow(VOICE));
+        Thread.sleep(50);
+        assertFalse(waiting.isDone());
+        pool.release(VOICE, interpreter);
+
+        assertSame(interpreter, waiting.get(1, TimeUnit.SECONDS));
+        assertEquals(1, created.size());
+    }
+
+    @Test
+    public void voicesHaveTheirOwnInterpreters() throws Exception {
+        MaryTTSInterpreterPool pool = new MaryTTSInterpreterPool(this::create, 1, 50);
+        MaryInterface interpreter = pool.borrow(VOICE);
+        MaryInterface otherInterpreter = pool.borrow(OTHER_VOICE);
+
+        assertNotNull(otherInterpreter);
+        assertNotSame(interpreter, otherInterpreter);
+        assertEquals(VOICE, createdVoices.get(0));
+        assertEquals(OTHER_VOICE, createdVoices.get(1));
+
+        pool.release(OTHER_VOICE, otherInterpreter);
+        assertNull("an interpreter of another voice must not be borrowed", pool.borrow(VOICE));
+    }
+
+    @Test
+    public void failedCreationDoesNotCountAgainstTheMaximum() throws Exception {
+        MaryTTSInterpreterPool failingPool = new MaryTTSInterpreterPool(voice -> {
+            throw new MaryConfigurationException("voice not installed");
+        }, 1, 50);
+        try {
+            failingPool.borrow(VOICE);
+            fail("Expecting the creation to fail");
+        } catch (MaryConfigurationException e) {
+            assertEquals("voice not installed", e.getMessage());
+        }
+
+        List<Voice> attempts = new ArrayList<>();
+        MaryTTSInterpreterPool pool = new MaryTTSInterpreterPool(voice -> {
+            attempts.add(voice);
+            if (attempts.size() == 1) {
+                throw new MaryConfigurationException("voice not loaded yet");
+            }
+            return create(voice);
+        }, 1, 50);
+        try {
+            pool.borrow(VOICE);
+            fail("Expecting the creation to fail");
+        } catch (MaryConfigurationException e) {
+            // expected
+        }
+        assertNotNull(pool.borrow(VOICE));
+        assertEquals(2, attempts.size());
+    }
+
+    @Test
+    public void warmUpSynthesizesWithAPooledInterpreter() throws Exception {
+        MaryInterface interpreter = mock(MaryInterface.class);
+        when(interpreter.generateAudio(anyString())).thenReturn(new AudioInputStream(
+                new ByteArrayInputStream(new byte[0]), new AudioFormat(16000, 16, 1, true, false), 0));
+        MaryTTSInterpreterPool pool = new MaryTTSInterpreterPool(voice -> interpreter, 1, 50);
+        pool.warmUp(VOICE);
+
+        verify(interpreter).generateAudio(anyString());
+        assertSame("the warmed up interpreter must be released", interpreter, pool.borrow(VOICE));
+    }
+
+    @Test
+    public void clearRemovesAllInterpreters() throws Exception {
+        MaryTTSInterpreterPool pool = new MaryTTSInterpreterPool(this::create, 1, 50);
+        MaryInterface interpreter = pool.borrow(VOICE);
+        pool.release(VOICE, interpreter);
+        pool.clear();
+
+        assertNotSame(interpreter, pool.borrow(VOICE));
+        assertEquals(2, created.size());
+    }
+}
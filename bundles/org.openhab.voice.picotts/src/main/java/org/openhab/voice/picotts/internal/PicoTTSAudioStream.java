@@ -28,20 +28,24 @@ import org.eclipse.smarthome.core.voice.Voice;
  * Implementation of {@link AudioStream} for {@link PicoTTSService}
  *
  * @author Florian Schmidt - Initial Contribution
+ * @author agent - Read in blocks, write to the temporary folder of the pool
  */
 class PicoTTSAudioStream extends FixedLengthAudioStream {
     private final Voice voice;
     private final String text;
     private final AudioFormat audioFormat;
+    private final PicoTTSTempPool tempPool;
     private final InputStream inputStream;
 
     private long length;
     private File file;
 
-    public PicoTTSAudioStream(String text, Voice voice, AudioFormat audioFormat) throws AudioException {
+    public PicoTTSAudioStream(String text, Voice voice, AudioFormat audioFormat, PicoTTSTempPool tempPool)
+            throws AudioException {
         this.text = text;
         this.voice = voice;
         this.audioFormat = audioFormat;
+        this.tempPool = tempPool;
         this.inputStream = createInputStream();
     }
 
@@ -89,7 +93,7 @@ class PicoTTSAudioStream extends FixedLengthAudioStream {
      */
     private String generateOutputFilename() throws AudioException {
         try {
-            File tempFile = File.createTempFile(Integer.toString(text.hashCode()), ".wav");
+            File tempFile = tempPool.createTempFile(text);
             tempFile.deleteOnExit();
             return tempFile.getAbsolutePath();
         } catch (IOException e) {
@@ -112,11 +116,24 @@ class PicoTTSAudioStream extends FixedLengthAudioStream {
         return inputStream.read();
     }
 
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        return inputStream.read(b, off, len);
+    }
+
     @Override
     public long length() {
         return length;
     }
 
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+        if (file != null) {
+            file.delete();
+        }
+    }
+
     @Override
     public InputStream getClonedStream() throws AudioException {
         if (file != null) {
@@ -1,87 +1,189 @@
-/**
- * Copyright (c) 2010-2020 Contributors to the openHAB project
- *
- * See the NOTICE file(s) distributed with this work for additional
- * information.
- *
- * This program and the accompanying materials are made available under the
- * terms of the Eclipse Public License 2.0 which is available at
- * http://www.eclipse.org/legal/epl-2.0
- *
- * SPDX-License-Identifier: EPL-2.0
- */
-package org.openhab.voice.picotts.internal;
-
-import java.util.Collections;
-import java.util.Locale;
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
-import org.eclipse.smarthome.core.audio.AudioException;
-import org.eclipse.smarthome.core.audio.AudioFormat;
-import org.eclipse.smarthome.core.audio.AudioStream;
-import org.eclipse.smarthome.core.voice.TTSException;
-import org.eclipse.smarthome.core.voice.TTSService;
-import org.eclipse.smarthome.core.voice.Voice;
-import org.osgi.service.component.annotations.Component;
-
-/**
- * @author Florian Schmidt - Initial Contribution
- */
-@Component
-public class PicoTTSService implements TTSService {
-    private final Set<Voice> voices = Stream
-            .of(new PicoTTSVoice("de-DE"), new PicoTTSVoice("en-US"), new PicoTTSVoice("en-GB"),
-                    new PicoTTSVoice("es-ES"), new PicoTTSVoice("fr-FR"), new PicoTTSVoice("it-IT"))
-            .collect(Collectors.toSet());
-
-    private final Set<AudioFormat> audioFormats = Collections.singleton(
-            new AudioFormat(AudioFormat.CONTAINER_WAVE, AudioFormat.CODEC_PCM_SIGNED, false, 16, null, 16000L));
-
-    @Override
-    public Set<Voice> getAvailableVoices() {
-        return this.voices;
-    }
-
-    @Override
-    public Set<AudioFormat> getSupportedFormats() {
-        return this.audioFormats;
-    }
-
-    @Override
-    public AudioStream synthesize(String text, Voice voice, AudioFormat requestedFormat) throws TTSException {
-        if (text == null || text.isEmpty()) {
-            throw new TTSException("The passed text can not be null or empty");
-        }
-
-        if (!this.voices.contains(voice)) {
-            throw new TTSException("The passed voice is unsupported");
-        }
-
-        boolean isAudioFormatSupported = this.audioFormats.stream().anyMatch(audioFormat -> {
-            return audioFormat.isCompatible(requestedFormat);
-        });
-
-        if (!isAudioFormatSupported) {
-            throw new TTSException("The passed AudioFormat is unsupported");
-        }
-
-        try {
-            return new PicoTTSAudioStream(text, voice, requestedFormat);
-        } catch (AudioException e) {
-            throw new TTSException(e);
-        }
-    }
-
-    @Override
-    public String getId() {
-        return "picotts";
-    }
-
-    @Override
-    public String getLabel(Locale locale) {
-        return "PicoTTS";
-    }
-
-}
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.picotts.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.core.audio.AudioException;
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.audio.ByteArrayAudioStream;
+import org.eclipse.smarthome.core.voice.TTSException;
+import org.eclipse.smarthome.core.voice.TTSService;
+import org.eclipse.smarthome.core.voice.Voice;
+import org.openhab.voice.ttscache.TTSCache;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @author Florian Schmidt - Initial Contribution
+ * @author agent - Cache audio with the shared TTS cache, stream audio from named pipes
+ */
+@Component
+public class PicoTTSService implements TTSService {
+    /**
+     * Cache folder under $userdata
+     */
+    private static final String CACHE_FOLDER_NAME = "cache" + File.separator + "org.openhab.voice.picotts";
+
+    private final Logger logger = LoggerFactory.getLogger(PicoTTSService.class);
+
+    private final Set<Voice> voices = Stream
+            .of(new PicoTTSVoice("de-DE"), new PicoTTSVoice("en-US"), new PicoTTSVoice("en-GB"),
+                    new PicoTTSVoice("es-ES"), new PicoTTSVoice("fr-FR"), new PicoTTSVoice("it-IT"))
+            .collect(Collectors.toSet());
+
+    private final Set<AudioFormat> audioFormats = Collections.singleton(
+            new AudioFormat(AudioFormat.CONTAINER_WAVE, AudioFormat.CODEC_PCM_SIGNED, false, 16, null, 16000L));
+
+    private TTSCache cache;
+
+    private final PicoTTSTempPool tempPool = PicoTTSTempPool.create();
+
+    /**
+     * The streams of the utterances pico2wave is synthesizing, by voice and text
+     */
+    private final Map<List<String>, PicoTTSStreamingAudioStream> utterancesInProgress = new ConcurrentHashMap<>();
+
+    /**
+     * Whether pico2wave writes to named pipes, so that the audio is streamed while it is synthesized
+     */
+    private boolean streaming;
+
+    @Activate
+    protected void activate() {
+        cache = new TTSCache(new File(ConfigConstants.getUserDataFolder(), CACHE_FOLDER_NAME));
+        streaming = tempPool.isStreamingSupported();
+        logger.debug("Using temporary folder {}, streaming {}", tempPool.getFolder(), streaming);
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        tempPool.clear();
+    }
+
+    @Override
+    public Set<Voice> getAvailableVoices() {
+        return this.voices;
+    }
+
+    @Override
+    public Set<AudioFormat> getSupportedFormats() {
+        return this.audioFormats;
+    }
+
+    @Override
+    public AudioStream synthesize(String text, Voice voice, AudioFormat requestedFormat) throws TTSException {
+        if (text == null || text.isEmpty()) {
+            throw new TTSException("The passed text can not be null or empty");
+        }
+
+        if (!this.voices.contains(voice)) {
+            throw new TTSException("The passed voice is unsupported");
+        }
+
+        boolean isAudioFormatSupported = this.audioFormats.stream().anyMatch(audioFormat -> {
+            return audioFormat.isCompatible(requestedFormat);
+        });
+
+        if (!isAudioFormatSupported) {
+            throw new TTSException("The passed AudioFormat is unsupported");
+        }
+
+        if (streaming) {
+            return synthesizeStreaming(text, voice, requestedFormat);
+        }
+
+        byte[] audio = cache.getAudio(voice.getLabel(), text, "wav", () -> {
+            try (PicoTTSAudioStream audioStream = new PicoTTSAudioStream(text, voice, requestedFormat, tempPool)) {
+                return IOUtils.toByteArray(audioStream);
+            } catch (AudioException | IOException e) {
+                throw new TTSException(e);
+            }
+        });
+        return new ByteArrayAudioStream(audio, requestedFormat);
+    }
+
+    /**
+     * Streams the audio while pico2wave synthesizes it, unless it is cached. Concurrent requests for the same text
+     * read the samples of the utterance in progress, at their own pace.
+     */
+    private AudioStream synthesizeStreaming(String text, Voice voice, AudioFormat requestedFormat)
+            throws TTSException {
+        List<String> key = Arrays.asList(voice.getLabel(), text);
+        // the utterances are only started while holding the lock, so that they are started once. The completion
+        // listener removes them without the lock, the lock of the utterance is held while it is called.
+        synchronized (utterancesInProgress) {
+            PicoTTSStreamingAudioStream inProgress = utterancesInProgress.get(key);
+            if (inProgress != null) {
+                PicoTTSStreamingAudioStream reader = inProgress.newReader();
+                if (reader != null) {
+                    return reader;
+                }
+            }
+
+            byte[] audio = cache.getAudioOrStartSynthesis(voice.getLabel(), text, "wav");
+            if (audio != null) {
+                return new ByteArrayAudioStream(audio, requestedFormat);
+            }
+            try {
+                PicoTTSStreamingAudioStream stream = new PicoTTSStreamingAudioStream(text, voice, requestedFormat,
+                        tempPool, new PicoTTSStreamingAudioStream.CompletionListener() {
+                            @Override
+                            public void completed(byte[] wav) {
+                                utterancesInProgress.remove(key);
+                                cache.completeSynthesis(voice.getLabel(), text, "wav", wav);
+                            }
+
+                            @Override
+                            public void failed(IOException cause) {
+                                utterancesInProgress.remove(key);
+                                cache.failSynthesis(voice.getLabel(), text, "wav", new TTSException(cause));
+                            }
+                        });
+                utterancesInProgress.put(key, stream);
+                return stream;
+            } catch (AudioException | RuntimeException e) {
+                TTSException exception = new TTSException(e);
+                cache.failSynthesis(voice.getLabel(), text, "wav", exception);
+                throw exception;
+            }
+        }
+    }
+
+    @Override
+    public String getId() {
+        return "picotts";
+    }
+
+    @Override
+    public String getLabel(Locale locale) {
+        return "PicoTTS";
+    }
+
+}
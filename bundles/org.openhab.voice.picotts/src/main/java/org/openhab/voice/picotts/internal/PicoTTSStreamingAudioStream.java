@@ -0,0 +1,438 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.picotts.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.audio.AudioException;
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.audio.FixedLengthAudioStream;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.eclipse.smarthome.core.voice.Voice;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation of {@link AudioStream} for {@link PicoTTSService}, which streams the samples while pico2wave writes
+ * them to a named pipe.
+ *
+ * pico2wave cannot update the WAVE header of a named pipe, so its header is replaced. As long as the utterance is
+ * not complete, the header contains the maximum length. The length, cloned streams and streams that are read after
+ * the utterance is complete have the actual length.
+ *
+ * Further streams of the same utterance can be created with {@link #newReader()}. They share the samples, whichever
+ * stream is ahead reads them from pico2wave, so a stream does not wait for the others to be played.
+ *
+ * @author agent - Initial contribution
+ */
+class PicoTTSStreamingAudioStream extends FixedLengthAudioStream {
+
+    /**
+     * Informs about the end of the utterance.
+     */
+    interface CompletionListener {
+        /**
+         * pico2wave has finished the utterance.
+         *
+         * @param audio the complete WAVE audio
+         */
+        void completed(byte[] audio);
+
+        /**
+         * The utterance is incomplete, since pico2wave failed or all streams were closed before.
+         *
+         * @param cause the reason
+         */
+        void failed(IOException cause);
+    }
+
+    private static final String PICO2WAVE = "pico2wave";
+
+    private static final int HEADER_LENGTH = 44;
+    private static final int STREAMING_DATA_LENGTH = Integer.MAX_VALUE - HEADER_LENGTH - 1;
+    private static final int READ_BUFFER_SIZE = 4096;
+    private static final long PROCESS_TIMEOUT_SECONDS = 10;
+
+    private final Logger logger = LoggerFactory.getLogger(PicoTTSStreamingAudioStream.class);
+
+    /**
+     * The synthesis shared by the streams of an utterance, all access is synchronized on it.
+     */
+    private class Utterance {
+        private final File fifo;
+        private final Process process;
+        private final CompletionListener completionListener;
+        private volatile boolean opening = true;
+        private boolean finished;
+        private int readers = 1;
+
+        /**
+         * The named pipe, null when pico2wave has finished or all streams are closed
+         */
+        private InputStream source;
+        private int skippedHeader;
+        private byte[] samples = new byte[READ_BUFFER_SIZE * 4];
+        private int samplesLength;
+
+        private Utterance(String pico2wave, String text, Voice voice, CompletionListener completionListener)
+                throws AudioException {
+            this.completionListener = completionListener;
+            try {
+                this.fifo = tempPool.borrowFifo();
+            } catch (IOException e) {
+                throw new AudioException("Unable to create named pipe.", e);
+            }
+            String[] command = new String[] { pico2wave, "-l=" + voice.getLabel(), "-w=" + fifo.getAbsolutePath(),
+                    text };
+            try {
+                this.process = Runtime.getRuntime().exec(command);
+            } catch (IOException e) {
+                tempPool.releaseFifo(fifo);
+                throw new AudioException("Error while executing '" + String.join(" ", command) + "'", e);
+            }
+            // opening the named pipe blocks until pico2wave opens it, which it does not if it fails early
+            ThreadPoolManager.getPool(PicoTTSService.class.getSimpleName()).execute(this::unblockOnExit);
+            try {
+                this.source = new FileInputStream(fifo);
+            } catch (IOException e) {
+                process.destroy();
+                fifo.delete();
+                throw new AudioException("Cannot open named pipe '" + fifo.getName() + "'.", e);
+            } finally {
+                opening = false;
+            }
+        }
+
+        /**
+         * Adds a stream, unless the utterance has ended or all streams are closed.
+         */
+        private boolean addReader() {
+            if (finished || readers == 0) {
+                return false;
+            }
+            readers++;
+            return true;
+        }
+
+        /**
+         * Removes a closed stream, pico2wave is stopped when it was the last one.
+         */
+        private void removeReader() throws IOException {
+            readers--;
+            if (readers == 0 && source != null) {
+                source.close();
+                source = null;
+                // pico2wave must not write to the named pipe when it is reused
+                process.destroy();
+                releaseFifo();
+                fail(new IOException("The stream was closed before pico2wave finished"));
+            }
+        }
+
+        private void readCompletely() {
+            try {
+                while (fill(samplesLength + READ_BUFFER_SIZE)) {
+                    // wait for the remaining samples
+                }
+            } catch (IOException e) {
+                logger.debug("Error while reading from pico2wave: {}", e.getMessage());
+            }
+        }
+
+        /**
+         * Reads samples from the named pipe until at least one more byte is available.
+         *
+         * @param requested the sample length the reader asks for
+         * @return false if pico2wave has finished
+         */
+        private boolean fill(int requested) throws IOException {
+            while (source != null) {
+                byte[] buffer = samples;
+                int offset = samplesLength;
+                int length = requested - samplesLength;
+                if (skippedHeader < HEADER_LENGTH) {
+                    // skip the header written by pico2wave
+                    buffer = new byte[HEADER_LENGTH - skippedHeader];
+                    offset = 0;
+                    length = buffer.length;
+                } else if (requested > samples.length) {
+                    samples = Arrays.copyOf(samples, Math.max(requested, samples.length * 2));
+                    buffer = samples;
+                }
+                int read;
+                try {
+                    read = source.read(buffer, offset, length);
+                } catch (IOException e) {
+                    fail(e);
+                    throw e;
+                }
+                if (read < 0) {
+                    complete();
+                    return false;
+                }
+                if (skippedHeader < HEADER_LENGTH) {
+                    skippedHeader += read;
+                } else if (read > 0) {
+                    samplesLength += read;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void complete() throws IOException {
+            source.close();
+            source = null;
+            try {
+                if (!process.waitFor(PROCESS_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    process.destroy();
+                }
+            } catch (InterruptedException e) {
+                process.destroy();
+                Thread.currentThread().interrupt();
+            }
+            releaseFifo();
+            if (samplesLength == 0) {
+                IOException e = new IOException("pico2wave did not write any audio");
+                fail(e);
+                throw e;
+            }
+            if (completionListener != null && !finished) {
+                finished = true;
+                byte[] audio = new byte[HEADER_LENGTH + samplesLength];
+                System.arraycopy(getWavHeader(samplesLength), 0, audio, 0, HEADER_LENGTH);
+                System.arraycopy(samples, 0, audio, HEADER_LENGTH, samplesLength);
+                completionListener.completed(audio);
+            }
+        }
+
+        private void fail(IOException cause) {
+            if (completionListener != null && !finished) {
+                finished = true;
+                completionListener.failed(cause);
+            }
+        }
+
+        private void releaseFifo() {
+            try {
+                if (process.waitFor(PROCESS_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    tempPool.releaseFifo(fifo);
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // a named pipe pico2wave might still write to is not reused
+            fifo.delete();
+        }
+
+        private void unblockOnExit() {
+            try {
+                process.waitFor();
+                if (opening) {
+                    // opening the named pipe for reading and writing does not block and lets the reader open it, the
+                    // reader sees the end once it is closed again
+                    try (RandomAccessFile writer = new RandomAccessFile(fifo, "rw")) {
+                        while (opening) {
+                            Thread.sleep(10);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                logger.debug("Could not unblock named pipe {}: {}", fifo.getName(), e.getMessage());
+            }
+        }
+    }
+
+    private final AudioFormat audioFormat;
+    private final PicoTTSTempPool tempPool;
+    private final Utterance utterance;
+
+    // the position of this stream, guarded by the utterance
+    private byte[] header;
+    private int position;
+    private boolean closed;
+
+    /**
+     * Starts pico2wave for the utterance.
+     *
+     * @param text the text to speak
+     * @param voice the voice
+     * @param audioFormat the format of the audio
+     * @param tempPool the pool of named pipes
+     * @param completionListener informed about the end of the utterance, may be null
+     * @throws AudioException if pico2wave could not be started
+     */
+    public PicoTTSStreamingAudioStream(String text, Voice voice, AudioFormat audioFormat, PicoTTSTempPool tempPool,
+            CompletionListener completionListener) throws AudioException {
+        this(PICO2WAVE, text, voice, audioFormat, tempPool, completionListener);
+    }
+
+    /**
+     * Starts pico2wave for the utterance.
+     *
+     * @param pico2wave the command of pico2wave
+     */
+    PicoTTSStreamingAudioStream(String pico2wave, String text, Voice voice, AudioFormat audioFormat,
+            PicoTTSTempPool tempPool, CompletionListener completionListener) throws AudioException {
+        this.audioFormat = audioFormat;
+        this.tempPool = tempPool;
+        this.utterance = new Utterance(pico2wave, text, voice, completionListener);
+    }
+
+    private PicoTTSStreamingAudioStream(PicoTTSStreamingAudioStream other) {
+        this.audioFormat = other.audioFormat;
+        this.tempPool = other.tempPool;
+        this.utterance = other.utterance;
+    }
+
+    /**
+     * Creates another stream of the utterance, which starts at the beginning.
+     *
+     * @return the stream, or null if the utterance has ended or all its streams are closed
+     */
+    PicoTTSStreamingAudioStream newReader() {
+        synchronized (utterance) {
+            return utterance.addReader() ? new PicoTTSStreamingAudioStream(this) : null;
+        }
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return audioFormat;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        synchronized (utterance) {
+            if (position < HEADER_LENGTH) {
+                if (header == null) {
+                    header = getWavHeader(
+                            utterance.source == null ? utterance.samplesLength : STREAMING_DATA_LENGTH);
+                }
+                int count = Math.min(len, HEADER_LENGTH - position);
+                System.arraycopy(header, position, b, off, count);
+                position += count;
+                return count;
+            }
+            int samplePosition = position - HEADER_LENGTH;
+            if (samplePosition >= utterance.samplesLength && (closed || !utterance.fill(samplePosition + len))) {
+                return -1;
+            }
+            int count = Math.min(len, utterance.samplesLength - samplePosition);
+            System.arraycopy(utterance.samples, samplePosition, b, off, count);
+            position += count;
+            return count;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public long length() {
+        synchronized (utterance) {
+            utterance.readCompletely();
+            return HEADER_LENGTH + utterance.samplesLength;
+        }
+    }
+
+    @Override
+    public InputStream getClonedStream() throws AudioException {
+        synchronized (utterance) {
+            utterance.readCompletely();
+            return new SequenceInputStream(new ByteArrayInputStream(getWavHeader(utterance.samplesLength)),
+                    new ByteArrayInputStream(utterance.samples, 0, utterance.samplesLength));
+        }
+    }
+
+    @Override
+    public void reset() throws IOException {
+        synchronized (utterance) {
+            position = 0;
+            header = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (utterance) {
+            if (!closed) {
+                closed = true;
+                utterance.removeReader();
+            }
+        }
+    }
+
+    /**
+     * Creates the WAVE header of the 16 bit mono samples.
+     */
+    private byte[] getWavHeader(int dataLength) {
+        long sampleRate = audioFormat.getFrequency() != null ? audioFormat.getFrequency() : 16000L;
+        int channels = 1;
+        int bitDepth = 16;
+        long byteRate = sampleRate * channels * bitDepth / 8;
+        int riffLength = dataLength + 36;
+
+        byte[] header = new byte[HEADER_LENGTH];
+        writeString(header, 0, "RIFF");
+        writeInt(header, 4, riffLength);
+        writeString(header, 8, "WAVE");
+        writeString(header, 12, "fmt ");
+        writeInt(header, 16, 16);
+        writeShort(header, 20, 1); // PCM
+        writeShort(header, 22, channels);
+        writeInt(header, 24, (int) sampleRate);
+        writeInt(header, 28, (int) byteRate);
+        writeShort(header, 32, channels * bitDepth / 8);
+        writeShort(header, 34, bitDepth);
+        writeString(header, 36, "data");
+        writeInt(header, 40, dataLength);
+        return header;
+    }
+
+    private static void writeString(byte[] header, int offset, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            header[offset + i] = (byte) value.charAt(i);
+        }
+    }
+
+    private static void writeInt(byte[] header, int offset, int value) {
+        header[offset] = (byte) value;
+        header[offset + 1] = (byte) (value >> 8);
+        header[offset + 2] = (byte) (value >> 16);
+        header[offset + 3] = (byte) (value >> 24);
+    }
+
+    private static void writeShort(byte[] header, int offset, int value) {
+        header[offset] = (byte) value;
+        header[offset + 1] = (byte) (value >> 8);
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.picotts.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The temporary files pico2wave writes to. They are placed on a memory backed file system (/dev/shm) if available.
+ * Named pipes are reused for further utterances, so that pico2wave writes directly to the reading audio stream.
+ *
+ * Each pool uses its own temporary folder with a random name, which only the user of openHAB can access, so that
+ * the names of the named pipes can neither collide with those of another pool nor be guessed.
+ *
+ * @author agent - Initial contribution
+ */
+class PicoTTSTempPool {
+
+    private static final String FOLDER_PREFIX = "openhab-picotts-";
+    private static final File SHARED_MEMORY_FOLDER = new File("/dev/shm");
+
+    private final Logger logger = LoggerFactory.getLogger(PicoTTSTempPool.class);
+
+    private final File parent;
+    private File folder;
+    private final Queue<File> idleFifos = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger fifoCount = new AtomicInteger();
+    private Boolean streamingSupported;
+
+    /**
+     * @param parent the folder the temporary folder of the pool is created in
+     */
+    PicoTTSTempPool(File parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Creates a pool in /dev/shm if it is writable, otherwise in the default temporary folder.
+     */
+    static PicoTTSTempPool create() {
+        File parent = SHARED_MEMORY_FOLDER.isDirectory() && SHARED_MEMORY_FOLDER.canWrite() ? SHARED_MEMORY_FOLDER
+                : new File(System.getProperty("java.io.tmpdir"));
+        return new PicoTTSTempPool(parent);
+    }
+
+    /**
+     * @return the temporary folder, or null if it has not been created yet
+     */
+    public synchronized File getFolder() {
+        return folder;
+    }
+
+    /**
+     * Checks once whether named pipes can be created, i.e. whether mkfifo is available.
+     *
+     * @return true if pico2wave can write to named pipes
+     */
+    public synchronized boolean isStreamingSupported() {
+        if (streamingSupported == null) {
+            try {
+                releaseFifo(borrowFifo());
+                streamingSupported = true;
+            } catch (IOException e) {
+                logger.debug("Named pipes are not supported, audio is streamed from files: {}", e.getMessage());
+                streamingSupported = false;
+            }
+        }
+        return streamingSupported;
+    }
+
+    /**
+     * Creates a temporary file for an utterance, it has to be deleted after use.
+     */
+    public File createTempFile(String text) throws IOException {
+        return File.createTempFile(Integer.toString(text.hashCode()), ".wav", getOrCreateFolder());
+    }
+
+    /**
+     * Takes an idle named pipe or creates a new one.
+     *
+     * @return the named pipe
+     * @throws IOException if the named pipe could not be created
+     */
+    public File borrowFifo() throws IOException {
+        File fifo = idleFifos.poll();
+        if (fifo != null && fifo.exists()) {
+            return fifo;
+        }
+        // pico2wave requires the .wav extension
+        fifo = new File(getOrCreateFolder(), "stream-" + fifoCount.incrementAndGet() + ".wav");
+        fifo.delete();
+        Process process = new ProcessBuilder("mkfifo", fifo.getAbsolutePath()).start();
+        try {
+            if (!process.waitFor(5, TimeUnit.SECONDS) || process.exitValue() != 0 || !fifo.exists()) {
+                process.destroy();
+                throw new IOException("Could not create named pipe " + fifo.getAbsolutePath());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while creating named pipe " + fifo.getAbsolutePath(), e);
+        }
+        return fifo;
+    }
+
+    /**
+     * Returns a named pipe after pico2wave has finished writing to it.
+     */
+    public void releaseFifo(File fifo) {
+        idleFifos.offer(fifo);
+    }
+
+    /**
+     * Deletes the temporary folder with all named pipes and temporary files.
+     */
+    public synchronized void clear() {
+        idleFifos.clear();
+        if (folder == null) {
+            return;
+        }
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        folder.delete();
+        folder = null;
+    }
+
+    private synchronized File getOrCreateFolder() throws IOException {
+        if (folder == null || !folder.isDirectory()) {
+            folder = Files.createTempDirectory(parent.toPath(), FOLDER_PREFIX).toFile();
+        }
+        return folder;
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.picotts.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.audio.AudioException;
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.voice.Voice;
+
+/**
+ * This class measures the time to the first sample of an utterance, with pico2wave writing to a temporary file and
+ * to a named pipe. pico2wave has to be installed.
+ *
+ * Usage: java org.openhab.voice.picotts.internal.PicoTTSBenchmark [iterations] [language]
+ *
+ * @author agent - Initial contribution
+ */
+public class PicoTTSBenchmark {
+
+    private static final String SHORT_PHRASE = "The door is open.";
+    private static final String LONG_PHRASE = "Good morning. It is seven o'clock and the outside temperature is twelve "
+            + "degrees. Today it will be cloudy with occasional rain in the afternoon. The washing machine has "
+            + "finished and the garage door has been open for two hours. Have a nice day.";
+
+    private static final int HEADER_LENGTH = 44;
+
+    private interface StreamFactory {
+        InputStream create(String text) throws AudioException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        Voice voice = new PicoTTSVoice(args.length > 1 ? args[1] : "en-US");
+        AudioFormat format = new AudioFormat(AudioFormat.CONTAINER_WAVE, AudioFormat.CODEC_PCM_SIGNED, false, 16,
+                null, 16000L);
+        PicoTTSTempPool tempPool = PicoTTSTempPool.create();
+        try {
+            boolean streamingSupported = tempPool.isStreamingSupported();
+            StreamFactory file = text -> new PicoTTSAudioStream(text, voice, format, tempPool);
+            run("file, short phrase", iterations, SHORT_PHRASE, file);
+            run("file, long phrase", iterations, LONG_PHRASE, file);
+            System.out.println("Temporary folder: " + tempPool.getFolder());
+            if (streamingSupported) {
+                StreamFactory pipe = text -> new PicoTTSStreamingAudioStream(text, voice, format, tempPool, null);
+                run("named pipe, short phrase", iterations, SHORT_PHRASE, pipe);
+                run("named pipe, long phrase", iterations, LONG_PHRASE, pipe);
+            } else {
+                System.out.println("Named pipes are not supported");
+            }
+        } finally {
+            tempPool.clear();
+        }
+        System.exit(0);
+    }
+
+    private static void run(String name, int iterations, String text, StreamFactory factory)
+            throws AudioException, IOException {
+        // warm up the file system cache and the JIT
+        measure(text, factory);
+        long[] firstByte = new long[iterations];
+        long[] complete = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long[] result = measure(text, factory);
+            firstByte[i] = result[0];
+            complete[i] = result[1];
+        }
+        System.out.println(String.format("%-26s first sample: %s, complete: %s", name, summarize(firstByte),
+                summarize(complete)));
+    }
+
+    /**
+     * @return the nanoseconds to the first sample and to the end of the stream
+     */
+    private static long[] measure(String text, StreamFactory factory) throws AudioException, IOException {
+        long start = System.nanoTime();
+        try (InputStream stream = factory.create(text)) {
+            byte[] buffer = new byte[4096];
+            int total = 0;
+            long firstByte = 0;
+            int read;
+            while ((read = stream.read(buffer, 0, buffer.length)) >= 0) {
+                total += read;
+                if (firstByte == 0 && total > HEADER_LENGTH) {
+                    firstByte = System.nanoTime() - start;
+                }
+            }
+            return new long[] { firstByte, System.nanoTime() - start };
+        }
+    }
+
+    private static String summarize(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return String.format("min %d ms, median %d ms, max %d ms", TimeUnit.NANOSECONDS.toMillis(sorted[0]),
+                TimeUnit.NANOSECONDS.toMillis(sorted[sorted.length / 2]),
+                TimeUnit.NANOSECONDS.toMillis(sorted[sorted.length - 1]));
+    }
+}
@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.picotts.internal;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openhab.voice.picotts.internal.PicoTTSStreamingAudioStream.CompletionListener;
+
+/**
+ * Tests for {@link PicoTTSStreamingAudioStream}, with a script in place of pico2wave, which writes a WAVE header and
+ * the text as samples to the named pipe.
+ *
+ * @author agent - Initial contribution
+ */
+public class PicoTTSStreamingAudioStreamTest {
+
+    private static final int HEADER_LENGTH = 44;
+    private static final AudioFormat FORMAT = new AudioFormat(AudioFormat.CONTAINER_WAVE,
+            AudioFormat.CODEC_PCM_SIGNED, false, 16, null, 16000L);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private PicoTTSTempPool tempPool;
+    private byte[] completedAudio;
+    private IOException failure;
+
+    private final CompletionListener listener = new CompletionListener() {
+        @Override
+        public void completed(byte[] audio) {
+            assertNull("the listener must be informed once", completedAudio);
+            completedAudio = audio;
+        }
+
+        @Override
+        public void failed(IOException cause) {
+            assertNull("the listener must be informed once", failure);
+            failure = cause;
+        }
+    };
+
+    @Before
+    public void setUp() {
+        tempPool = new PicoTTSTempPool(folder.getRoot());
+        assumeTrue("mkfifo is not available", tempPool.isStreamingSupported());
+    }
+
+    @After
+    public void tearDown() {
+        tempPool.clear();
+    }
+
+    /**
+     * Creates a script which takes the arguments of pico2wave and writes the header and the text in two parts with
+     * the given pause in between.
+     */
+    private String createPico2wave(String pause) throws IOException {
+        File script = folder.newFile("pico2wave.sh");
+        Files.write(script.toPath(), ("#!/bin/sh\n" //
+                + "for arg; do\n" //
+                + "  case \"$arg\" in\n" //
+                + "    -w=*) out=\"${arg#-w=}\" ;;\n" //
+                + "    -l=*) ;;\n" //
+                + "    *) text=\"$arg\" ;;\n" //
+                + "  esac\n" //
+                + "done\n" //
+                + "{ head -c 44 /dev/zero; printf '%s' \"${text%%|*}\"; sleep " + pause + "; "
+                + "printf '%s' \"${text#*|}\"; } > \"$out\"\n").getBytes(StandardCharsets.UTF_8));
+        assertTrue(script.setExecutable(true));
+        return script.getAbsolutePath();
+    }
+
+    private String createFailingPico2wave() throws IOException {
+        File script = folder.newFile("pico2wave-failing.sh");
+        Files.write(script.toPath(), "#!/bin/sh\nexit 1\n".getBytes(StandardCharsets.UTF_8));
+        assertTrue(script.setExecutable(true));
+        return script.getAbsolutePath();
+    }
+
+    private PicoTTSStreamingAudioStream start(String pico2wave, String text) throws Exception {
+        return new PicoTTSStreamingAudioStream(pico2wave, text, new PicoTTSVoice("en-US"), FORMAT, tempPool,
+                listener);
+    }
+
+    private static byte[] readFully(InputStream stream, int length) throws IOException {
+        byte[] buffer = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int read = stream.read(buffer, offset, length - offset);
+            assertTrue("unexpected end of stream", read > 0);
+            offset += read;
+        }
+        return buffer;
+    }
+
+    private static byte[] readToEnd(InputStream stream) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = stream.read(buffer, 0, buffer.length)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static int getDataLength(byte[] audio) {
+        return ByteBuffer.wrap(audio, 40, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+    }
+
+    @Test
+    public void samplesAreStreamedWhilePico2waveWrites() throws Exception {
+        try (PicoTTSStreamingAudioStream stream = start(createPico2wave("1"), "abcd|efgh")) {
+            byte[] header = readFully(stream, HEADER_LENGTH);
+            assertEquals("RIFF", new String(header, 0, 4, StandardCharsets.US_ASCII));
+            assertEquals("the length is not known while streaming", Integer.MAX_VALUE - HEADER_LENGTH - 1,
+                    getDataLength(header));
+
+            long start = System.nanoTime();
+            assertEquals("abcd", new String(readFully(stream, 4), StandardCharsets.US_ASCII));
+            assertTrue("the first samples must not wait for the utterance",
+                    System.nanoTime() - start < 900_000_000L);
+            assertNull(completedAudio);
+
+            assertEquals("efgh", new String(readToEnd(stream), StandardCharsets.US_ASCII));
+        }
+
+        assertNull(failure);
+        assertNotNull(completedAudio);
+        assertEquals(HEADER_LENGTH + 8, completedAudio.length);
+        assertEquals(8, getDataLength(completedAudio));
+        assertEquals("abcdefgh",
+                new String(Arrays.copyOfRange(completedAudio, HEADER_LENGTH, completedAudio.length),
+                        StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void lengthAndClonedStreamHaveTheCompleteUtterance() throws Exception {
+        try (PicoTTSStreamingAudioStream stream = start(createPico2wave("0"), "abcd|efgh")) {
+            assertEquals(HEADER_LENGTH + 8, stream.length());
+            byte[] cloned = readToEnd(stream.getClonedStream());
+            assertEquals(HEADER_LENGTH + 8, cloned.length);
+            assertEquals(8, getDataLength(cloned));
+
+            // a stream read after the utterance is complete has the actual length too
+            byte[] audio = readToEnd(stream);
+            assertArrayEquals(cloned, audio);
+        }
+        assertNotNull(completedAudio);
+    }
+
+    @Test
+    public void namedPipeIsReusedAfterTheUtterance() throws Exception {
+        try (PicoTTSStreamingAudioStream stream = start(createPico2wave("0"), "abcd|efgh")) {
+            readToEnd(stream);
+        }
+
+        // the named pipe of the streaming check is used by the utterance and released again
+        File fifo = tempPool.borrowFifo();
+        assertEquals("stream-1.wav", fifo.getName());
+        assertEquals(1, tempPool.getFolder().list().length);
+    }
+
+    @Test
+    public void failingPico2waveDoesNotBlockTheReader() throws Exception {
+        try (PicoTTSStreamingAudioStream stream = start(createFailingPico2wave(), "abcd|efgh")) {
+            readFully(stream, HEADER_LENGTH);
+            try {
+                readToEnd(stream);
+                fail("Expecting the stream to fail");
+            } catch (IOException e) {
+                assertEquals("pico2wave did not write any audio", e.getMessage());
+            }
+        }
+        assertNull(completedAudio);
+        assertNotNull(failure);
+    }
+
+    @Test
+    public void readersOfTheSameUtteranceShareTheSamples() throws Exception {
+        try (PicoTTSStreamingAudioStream first = start(createPico2wave("1"), "abcd|efgh")) {
+            assertEquals("abcd", new String(Arrays.copyOfRange(readFully(first, HEADER_LENGTH + 4), HEADER_LENGTH,
+                    HEADER_LENGTH + 4), StandardCharsets.US_ASCII));
+
+            // the second reader does not wait for the first one to read the utterance
+            try (PicoTTSStreamingAudioStream second = first.newReader()) {
+                assertNotNull(second);
+                byte[] audio = readToEnd(second);
+                assertEquals("abcdefgh", new String(Arrays.copyOfRange(audio, HEADER_LENGTH, audio.length),
+                        StandardCharsets.US_ASCII));
+            }
+            assertNotNull(completedAudio);
+            assertNull("the utterance has ended", first.newReader());
+
+            assertEquals("efgh", new String(readToEnd(first), StandardCharsets.US_ASCII));
+        }
+        assertNull(failure);
+    }
+
+    @Test
+    public void utteranceContinuesWhileAReaderIsOpen() throws Exception {
+        PicoTTSStreamingAudioStream first = start(createPico2wave("0.5"), "abcd|efgh");
+        try (PicoTTSStreamingAudioStream second = first.newReader()) {
+            readFully(first, HEADER_LENGTH + 4);
+            first.close();
+            assertNull(failure);
+
+            assertEquals(HEADER_LENGTH + 8, readToEnd(second).length);
+        }
+        assertNotNull(completedAudio);
+        assertNull(failure);
+    }
+
+    @Test
+    public void closingTheStreamEarlyFailsTheUtterance() throws Exception {
+        try (PicoTTSStreamingAudioStream stream = start(createPico2wave("5"), "abcd|efgh")) {
+            readFully(stream, HEADER_LENGTH + 4);
+            stream.newReader().close();
+            assertNull("the utterance has another reader", failure);
+        }
+        assertNull(completedAudio);
+        assertNotNull(failure);
+    }
+}
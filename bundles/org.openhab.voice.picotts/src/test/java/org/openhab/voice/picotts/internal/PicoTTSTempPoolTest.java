@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.picotts.internal;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link PicoTTSTempPool}.
+ *
+ * @author agent - Initial contribution
+ */
+public class PicoTTSTempPoolTest {
+
+    @Rule
+    public TemporaryFolder parent = new TemporaryFolder();
+
+    private PicoTTSTempPool pool;
+    private PicoTTSTempPool otherPool;
+
+    @Before
+    public void setUp() {
+        pool = new PicoTTSTempPool(parent.getRoot());
+        otherPool = new PicoTTSTempPool(parent.getRoot());
+    }
+
+    @After
+    public void tearDown() {
+        pool.clear();
+        otherPool.clear();
+    }
+
+    @Test
+    public void poolsUseTheirOwnFolder() throws IOException {
+        assertNull("the folder is created when it is needed", pool.getFolder());
+
+        File file = pool.createTempFile("hello");
+        File otherFile = otherPool.createTempFile("hello");
+
+        File folder = pool.getFolder();
+        assertNotNull(folder);
+        assertEquals(parent.getRoot(), folder.getParentFile());
+        assertTrue(folder.getName().startsWith("openhab-picotts-"));
+        assertEquals(folder, file.getParentFile());
+        assertNotEquals(folder, otherPool.getFolder());
+        assertEquals(otherPool.getFolder(), otherFile.getParentFile());
+        assertNotEquals(file.getName(), otherFile.getName());
+    }
+
+    @Test
+    public void tempFilesAreUnique() throws IOException {
+        File first = pool.createTempFile("hello");
+        File second = pool.createTempFile("hello");
+
+        assertNotEquals(first, second);
+        assertTrue(first.getName().endsWith(".wav"));
+    }
+
+    @Test
+    public void namedPipesOfPoolsDoNotCollide() throws IOException {
+        assumeTrue("mkfifo is not available", pool.isStreamingSupported());
+        assumeTrue(otherPool.isStreamingSupported());
+
+        File fifo = pool.borrowFifo();
+        File otherFifo = otherPool.borrowFifo();
+
+        assertNotEquals(fifo, otherFifo);
+        assertEquals(pool.getFolder(), fifo.getParentFile());
+        assertEquals(otherPool.getFolder(), otherFifo.getParentFile());
+        assertTrue(fifo.getName().endsWith(".wav"));
+        assertFalse("a named pipe is not a regular file", fifo.isFile());
+    }
+
+    @Test
+    public void releasedNamedPipesAreReused() throws IOException {
+        assumeTrue("mkfifo is not available", pool.isStreamingSupported());
+
+        File fifo = pool.borrowFifo();
+        File concurrentFifo = pool.borrowFifo();
+        assertNotEquals(fifo, concurrentFifo);
+
+        pool.releaseFifo(fifo);
+        assertEquals(fifo, pool.borrowFifo());
+
+        // a deleted named pipe is replaced
+        pool.releaseFifo(concurrentFifo);
+        concurrentFifo.delete();
+        File newFifo = pool.borrowFifo();
+        assertNotEquals(concurrentFifo, newFifo);
+        assertTrue(newFifo.exists());
+    }
+
+    @Test
+    public void clearDeletesTheFolder() throws IOException {
+        pool.createTempFile("hello");
+        File folder = pool.getFolder();
+        pool.clear();
+
+        assertFalse(folder.exists());
+        assertNull(pool.getFolder());
+
+        // the pool can be used again
+        File file = pool.createTempFile("hello");
+        assertTrue(file.exists());
+        assertNotEquals(folder, file.getParentFile());
+    }
+}
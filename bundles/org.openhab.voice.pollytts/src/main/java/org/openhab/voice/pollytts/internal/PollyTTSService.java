@@ -18,22 +18,26 @@ import static org.openhab.voice.pollytts.internal.PollyTTSService.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.io.IOUtils;
 import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.config.core.ConfigurableService;
-import org.eclipse.smarthome.core.audio.AudioException;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.audio.ByteArrayAudioStream;
 import org.eclipse.smarthome.core.voice.TTSException;
 import org.eclipse.smarthome.core.voice.TTSService;
 import org.eclipse.smarthome.core.voice.Voice;
-import org.openhab.voice.pollytts.internal.cloudapi.CachedPollyTTSCloudImpl;
+import org.openhab.voice.pollytts.internal.cloudapi.PollyTTSCloudImpl;
 import org.openhab.voice.pollytts.internal.cloudapi.PollyTTSConfig;
+import org.openhab.voice.ttscache.TTSCache;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
@@ -45,6 +49,7 @@ import org.slf4j.LoggerFactory;
  * This is a TTS service implementation for using Polly Text-to-Speech.
  *
  * @author Robert Hillman - Initial contribution
+ * @author agent - Cache audio with the shared TTS cache
  */
 @Component(configurationPid = SERVICE_PID, property = { Constants.SERVICE_PID + "=" + SERVICE_PID,
         ConfigurableService.SERVICE_PROPERTY_LABEL + "=" + SERVICE_NAME + " Text-to-Speech",
@@ -79,10 +84,12 @@ public class PollyTTSService implements TTSService {
 
     private final Logger logger = LoggerFactory.getLogger(PollyTTSService.class);
 
+    private PollyTTSCloudImpl pollyTTSImpl;
+
     /**
-     * We need the cached implementation to allow for FixedLengthAudioStream.
+     * Cache of the synthesized audio
      */
-    private CachedPollyTTSCloudImpl pollyTTSImpl;
+    private TTSCache cache;
 
     /**
      * Set of supported voices
@@ -114,7 +121,9 @@ public class PollyTTSService implements TTSService {
             }
             logger.info("Using cache folder {}", cacheFolder.getAbsolutePath());
 
-            pollyTTSImpl = new CachedPollyTTSCloudImpl(pollyTTSConfig, cacheFolder);
+            pollyTTSImpl = new PollyTTSCloudImpl(pollyTTSConfig);
+            cache = new TTSCache(cacheFolder, TTSCache.DEFAULT_MEMORY_SIZE, TTSCache.DEFAULT_DISK_SIZE,
+                    TimeUnit.DAYS.toMillis(pollyTTSConfig.getExpireDate()));
 
             audioFormats.clear();
             audioFormats.addAll(initAudioFormats());
@@ -167,20 +176,16 @@ public class PollyTTSService implements TTSService {
 
         // now create the input stream for given text, locale, format. There is
         // only a default voice
-        try {
-            File cacheAudioFile = pollyTTSImpl.getTextToSpeechAsFile(text, voice.getLabel(),
-                    getApiAudioFormat(requestedFormat));
-            if (cacheAudioFile == null) {
-                throw new TTSException("Could not read from PollyTTS service");
+        String apiAudioFormat = getApiAudioFormat(requestedFormat);
+        byte[] audio = cache.getAudio(voice.getLabel(), text, apiAudioFormat, () -> {
+            try (InputStream is = pollyTTSImpl.getTextToSpeech(text, voice.getLabel(), apiAudioFormat)) {
+                return IOUtils.toByteArray(is);
+            } catch (IOException ex) {
+                throw new TTSException("Could not read from PollyTTS service: " + ex.getMessage(), ex);
             }
-            logger.debug("Audio Stream for '{}' in format {}", text, requestedFormat);
-            AudioStream audioStream = new PollyTTSAudioStream(cacheAudioFile, requestedFormat);
-            return audioStream;
-        } catch (AudioException ex) {
-            throw new TTSException("Could not create AudioStream: " + ex.getMessage(), ex);
-        } catch (IOException ex) {
-            throw new TTSException("Could not read from PollyTTS service: " + ex.getMessage(), ex);
-        }
+        });
+        logger.debug("Audio Stream for '{}' in format {}", text, requestedFormat);
+        return new ByteArrayAudioStream(audio, requestedFormat);
     }
 
     private Set<Voice> initVoices() {
@@ -21,6 +21,7 @@ import java.util.stream.Stream;
  * This class implements the PollyTTS configuration.
  *
  * @author Robert Hillman - Initial contribution
+ * @author agent - Expiration is checked by the TTS cache
  */
 public class PollyTTSConfig {
 
@@ -35,7 +36,6 @@ public class PollyTTSConfig {
     private String serviceRegion = "eu-west-1";
     private int expireDate = 0;
     private String audioFormat = "default";
-    private long lastDelete;
 
     public PollyTTSConfig(Map<String, Object> config) {
         assertValidConfig(config);
@@ -85,26 +85,12 @@ public class PollyTTSConfig {
         return audioFormat;
     }
 
-    /**
-     * get the date when cache was cleaned last
-     */
-    public long getLastDelete() {
-        return lastDelete;
-    }
-
-    /**
-     * set the date when cache was cleaned last
-     */
-    public void setLastDelete(long lastDelete) {
-        this.lastDelete = lastDelete;
-    }
-
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
         builder.append("PollyTTSConfig [accessKey=").append(accessKey).append(", secretKey=").append(secretKey)
                 .append(", serviceRegion=").append(serviceRegion).append(", expireDate=").append(expireDate)
-                .append(", audioFormat=").append(audioFormat).append(", lastDelete=").append(lastDelete).append("]");
+                .append(", audioFormat=").append(audioFormat).append("]");
         return builder.toString();
     }
 }
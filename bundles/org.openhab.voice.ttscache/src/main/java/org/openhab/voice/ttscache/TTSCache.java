@@ -0,0 +1,350 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.ttscache;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.voice.TTSException;
+import org.openhab.voice.ttscache.internal.AudioFileCache;
+import org.openhab.voice.ttscache.internal.AudioMemoryCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link TTSCache} caches the audio synthesized by a text-to-speech service.
+ *
+ * The most recently used clips are kept in memory, in front of the audio files in the cache folder of the service.
+ * Both tiers are bounded by their total size, the least recently used clips are removed first. Concurrent requests
+ * for the same clip are synthesized only once. A request waits for the synthesis of another request at most
+ * {@link #DEFAULT_SYNTHESIS_TIMEOUT} milliseconds, then it synthesizes the clip itself.
+ *
+ * The audio files are named by the voice and a MD5 hash of the text, e.g.
+ * "en-US_00a2653ac5f77063bc4ea2fee87318d3.mp3", which keeps the files cached by former versions of the services.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class TTSCache {
+
+    /**
+     * Default size of the in-memory tier: 10 MB
+     */
+    public static final long DEFAULT_MEMORY_SIZE = 10L * 1024 * 1024;
+
+    /**
+     * Default size of the on-disk tier: 500 MB
+     */
+    public static final long DEFAULT_DISK_SIZE = 500L * 1024 * 1024;
+
+    /**
+     * Default time a request waits for the synthesis of the same clip by another request: 10 seconds
+     */
+    public static final long DEFAULT_SYNTHESIS_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
+    /**
+     * Synthesizes the audio of a clip that is not cached.
+     */
+    @FunctionalInterface
+    public interface Synthesizer {
+        byte[] synthesize() throws TTSException;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(TTSCache.class);
+
+    private final AudioMemoryCache memoryCache;
+    private final AudioFileCache fileCache;
+    private final Map<String, CompletableFuture<byte[]>> synthesesInFlight = new ConcurrentHashMap<>();
+    private final long synthesisTimeout;
+
+    private long memoryHits;
+    private long diskHits;
+    private long misses;
+    private long sharedSyntheses;
+
+    /**
+     * Creates a cache with the default sizes and without expiration.
+     *
+     * @param cacheFolder the cache folder of the service
+     */
+    public TTSCache(File cacheFolder) {
+        this(cacheFolder, DEFAULT_MEMORY_SIZE, DEFAULT_DISK_SIZE, 0);
+    }
+
+    /**
+     * Creates a cache and indexes the audio files in the cache folder.
+     *
+     * @param cacheFolder the cache folder of the service
+     * @param memorySize maximum size of the in-memory tier in bytes, 0 to disable it
+     * @param diskSize maximum size of the on-disk tier in bytes
+     * @param maxAge milliseconds after their last use the clips are removed from both tiers, 0 to keep them
+     */
+    public TTSCache(File cacheFolder, long memorySize, long diskSize, long maxAge) {
+        this(cacheFolder, memorySize, diskSize, maxAge, DEFAULT_SYNTHESIS_TIMEOUT, System::currentTimeMillis);
+    }
+
+    TTSCache(File cacheFolder, long memorySize, long diskSize, long maxAge, long synthesisTimeout,
+            LongSupplier clock) {
+        this.synthesisTimeout = synthesisTimeout;
+        memoryCache = new AudioMemoryCache(memorySize, maxAge, clock);
+        fileCache = new AudioFileCache(cacheFolder, diskSize, maxAge, clock);
+        fileCache.load();
+    }
+
+    /**
+     * Returns the audio for the text, either from the cache, from a synthesis in flight or by synthesizing it.
+     *
+     * @param voice the voice, e.g. its label or locale
+     * @param text the text, or any other string that identifies the audio for the voice
+     * @param extension the file extension of the audio format, e.g. "mp3"
+     * @param synthesizer synthesizes the audio if it is not cached
+     * @return the audio
+     * @throws TTSException if the audio could not be synthesized
+     */
+    public byte[] getAudio(String voice, String text, String extension, Synthesizer synthesizer) throws TTSException {
+        String fileName = getFileName(voice, text, extension);
+        byte[] audio = getAudioOrStartSynthesis(fileName);
+        if (audio != null) {
+            return audio;
+        }
+        try {
+            audio = synthesizer.synthesize();
+            store(fileName, text, audio);
+        } catch (TTSException | RuntimeException e) {
+            finishSynthesis(fileName, null, e);
+            throw e;
+        }
+        finishSynthesis(fileName, audio, null);
+        return audio;
+    }
+
+    /**
+     * Returns the audio for the text from the cache or from a synthesis in flight, for services that stream the audio
+     * of clips that are not cached.
+     *
+     * If the audio is neither cached nor synthesized by another request, or the synthesis of another request takes
+     * too long, null is returned and the caller has to synthesize it. It must then call {@link #completeSynthesis}
+     * with the complete audio or {@link #failSynthesis}, since concurrent requests for the same text wait for it.
+     *
+     * @param voice the voice, e.g. its label or locale
+     * @param text the text, or any other string that identifies the audio for the voice
+     * @param extension the file extension of the audio format, e.g. "mp3"
+     * @return the audio or null, if the caller has to synthesize it
+     * @throws TTSException if the synthesis in flight failed
+     */
+    public byte @Nullable [] getAudioOrStartSynthesis(String voice, String text, String extension)
+            throws TTSException {
+        return getAudioOrStartSynthesis(getFileName(voice, text, extension));
+    }
+
+    /**
+     * Adds the audio synthesized after {@link #getAudioOrStartSynthesis} returned null to the cache, and passes it to
+     * the requests waiting for it.
+     *
+     * @param voice the voice, e.g. its label or locale
+     * @param text the text, or any other string that identifies the audio for the voice
+     * @param extension the file extension of the audio format, e.g. "mp3"
+     * @param audio the complete audio
+     */
+    public void completeSynthesis(String voice, String text, String extension, byte[] audio) {
+        String fileName = getFileName(voice, text, extension);
+        try {
+            store(fileName, text, audio);
+        } finally {
+            finishSynthesis(fileName, audio, null);
+        }
+    }
+
+    /**
+     * Passes the failure of a synthesis started by {@link #getAudioOrStartSynthesis} to the requests waiting for it.
+     *
+     * @param voice the voice, e.g. its label or locale
+     * @param text the text, or any other string that identifies the audio for the voice
+     * @param extension the file extension of the audio format, e.g. "mp3"
+     * @param cause the reason of the failure
+     */
+    public void failSynthesis(String voice, String text, String extension, Throwable cause) {
+        finishSynthesis(getFileName(voice, text, extension), null, cause);
+    }
+
+    /**
+     * Removes all clips from memory and all files from the cache folder.
+     */
+    public void clear() {
+        memoryCache.clear();
+        fileCache.clear();
+    }
+
+    public synchronized long getMemoryHits() {
+        return memoryHits;
+    }
+
+    public synchronized long getDiskHits() {
+        return diskHits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getSharedSyntheses() {
+        return sharedSyntheses;
+    }
+
+    public long getMemorySize() {
+        return memoryCache.getSize();
+    }
+
+    public long getDiskSize() {
+        return fileCache.getSize();
+    }
+
+    @Override
+    public String toString() {
+        return "TTSCache [memoryHits=" + getMemoryHits() + ", diskHits=" + getDiskHits() + ", misses=" + getMisses()
+                + ", sharedSyntheses=" + getSharedSyntheses() + ", memorySize=" + getMemorySize() + ", diskSize="
+                + getDiskSize() + "]";
+    }
+
+    /**
+     * Gets a unique filename for a given text, by creating a MD5 hash of it. It will be preceded by the voice.
+     *
+     * Sample: "en-US_00a2653ac5f77063bc4ea2fee87318d3.mp3"
+     */
+    static String getFileName(String voice, String text, String extension) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            // MD5 is available on every Java platform
+            throw new IllegalStateException(e);
+        }
+        byte[] md5Hash = md.digest(text.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hashText = new StringBuilder(new BigInteger(1, md5Hash).toString(16));
+        // zero pad it to the full 32 chars
+        while (hashText.length() < 32) {
+            hashText.insert(0, '0');
+        }
+        return voice.replaceAll("[^\\w\\-. ]", "_") + "_" + hashText + "." + extension.toLowerCase(Locale.ROOT);
+    }
+
+    private byte @Nullable [] getAudioOrStartSynthesis(String fileName) throws TTSException {
+        byte[] audio = memoryCache.get(fileName);
+        if (audio != null) {
+            fileCache.touch(fileName);
+            synchronized (this) {
+                memoryHits++;
+            }
+            return audio;
+        }
+
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        CompletableFuture<byte[]> inFlight = synthesesInFlight.putIfAbsent(fileName, future);
+        if (inFlight != null) {
+            synchronized (this) {
+                sharedSyntheses++;
+            }
+            audio = await(inFlight);
+            if (audio == null) {
+                logger.debug("The synthesis of {} by another request takes too long, synthesizing it again",
+                        fileName);
+                synchronized (this) {
+                    misses++;
+                }
+            }
+            return audio;
+        }
+        try {
+            audio = fileCache.get(fileName);
+        } catch (RuntimeException e) {
+            finishSynthesis(fileName, null, e);
+            throw e;
+        }
+        if (audio == null) {
+            synchronized (this) {
+                misses++;
+            }
+            return null;
+        }
+        synchronized (this) {
+            diskHits++;
+        }
+        memoryCache.put(fileName, audio);
+        finishSynthesis(fileName, audio, null);
+        return audio;
+    }
+
+    /**
+     * Ends the synthesis in flight, the audio has to be stored before, so that later requests find it.
+     */
+    private void finishSynthesis(String fileName, byte @Nullable [] audio, @Nullable Throwable cause) {
+        CompletableFuture<byte[]> future = synthesesInFlight.remove(fileName);
+        if (future == null) {
+            return;
+        }
+        if (audio != null) {
+            future.complete(audio);
+        } else {
+            future.completeExceptionally(cause != null ? cause : new TTSException("The synthesis failed"));
+        }
+    }
+
+    private void store(String fileName, String text, byte[] audio) {
+        try {
+            fileCache.put(fileName, audio, text);
+        } catch (IOException e) {
+            logger.warn("Could not write {} to cache: {}", fileName, e.getMessage());
+        }
+        memoryCache.put(fileName, audio);
+    }
+
+    /**
+     * Waits for the synthesis of another request.
+     *
+     * @return the audio, or null if the synthesis did not complete in time
+     */
+    private byte @Nullable [] await(CompletableFuture<byte[]> future) throws TTSException {
+        try {
+            return future.get(synthesisTimeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TTSException("Interrupted while waiting for the synthesis", e);
+        } catch (ExecutionException e) {
+            @Nullable
+            Throwable cause = e.getCause();
+            if (cause instanceof TTSException) {
+                throw (TTSException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new TTSException(cause);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.ttscache.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link AudioFileCache} keeps audio clips as files in a cache folder, bounded by their total size and
+ * optionally by the time since their last use.
+ *
+ * The folder is scanned only once when the cache is loaded, afterwards the files are tracked in an index in the order
+ * of their last use. Each audio file is accompanied by a .txt file with the synthesized text.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class AudioFileCache {
+
+    private static final String TEXT_EXTENSION = ".txt";
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    private static class Entry {
+        final File file;
+        final long length;
+        long lastUsed;
+
+        Entry(File file, long length, long lastUsed) {
+            this.file = file;
+            this.length = length;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(AudioFileCache.class);
+
+    private final Map<String, Entry> index = new LinkedHashMap<>(16, 0.75f, true);
+    private final File folder;
+    private final long maxSize;
+    private final long maxAge;
+    private final LongSupplier clock;
+    private long size;
+
+    /**
+     * @param folder the cache folder
+     * @param maxSize maximum total size of the audio files in bytes
+     * @param maxAge milliseconds after their last use the files are removed, 0 to keep them until the size is exceeded
+     * @param clock the current time in milliseconds
+     */
+    public AudioFileCache(File folder, long maxSize, long maxAge, LongSupplier clock) {
+        this.folder = folder;
+        this.maxSize = maxSize;
+        this.maxAge = maxAge;
+        this.clock = clock;
+    }
+
+    /**
+     * Indexes the files in the cache folder, with the last modification time as time of their last use.
+     */
+    public synchronized void load() {
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+        index.clear();
+        size = 0;
+        File[] files = folder.listFiles();
+        if (files == null) {
+            logger.warn("Could not read cache folder {}", folder.getAbsolutePath());
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(TEMP_EXTENSION)) {
+                // left over from an interrupted write
+                file.delete();
+            } else if (file.isFile() && !name.endsWith(TEXT_EXTENSION)) {
+                index.put(name, new Entry(file, file.length(), file.lastModified()));
+                size += file.length();
+            }
+        }
+        evict();
+        logger.debug("Indexed {} cached audio files with {} bytes in {}", index.size(), size,
+                folder.getAbsolutePath());
+    }
+
+    /**
+     * Reads a cached audio file.
+     *
+     * @param name the file name
+     * @return the audio or null, if the file is not cached
+     */
+    public byte @Nullable [] get(String name) {
+        long now = clock.getAsLong();
+        Entry entry;
+        synchronized (this) {
+            entry = index.get(name);
+            if (entry == null) {
+                return null;
+            }
+            if (isExpired(entry, now)) {
+                remove(name);
+                return null;
+            }
+            entry.lastUsed = now;
+        }
+        try {
+            byte[] audio = Files.readAllBytes(entry.file.toPath());
+            // keep the order of use across restarts
+            entry.file.setLastModified(now);
+            return audio;
+        } catch (IOException e) {
+            logger.debug("Could not read cached audio file {}: {}", entry.file, e.getMessage());
+            synchronized (this) {
+                if (index.get(name) == entry) {
+                    remove(name);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Marks a cached audio file as used without reading it, e.g. when its audio was served from memory.
+     *
+     * @param name the file name
+     */
+    public synchronized void touch(String name) {
+        Entry entry = index.get(name);
+        if (entry != null) {
+            entry.lastUsed = clock.getAsLong();
+        }
+    }
+
+    /**
+     * Writes an audio file and its text file to the cache.
+     *
+     * @param name the file name
+     * @param audio the audio
+     * @param text the synthesized text
+     * @throws IOException if the files could not be written
+     */
+    public void put(String name, byte[] audio, String text) throws IOException {
+        if (audio.length > maxSize) {
+            return;
+        }
+        File file = new File(folder, name);
+        // concurrent writes of the same clip, e.g. by another cache on the same folder, must not share a temp file
+        Path tempFile = Files.createTempFile(folder.toPath(), name, TEMP_EXTENSION);
+        try {
+            Files.write(tempFile, audio);
+            Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        // write text to file for transparency too
+        // this allows to know which contents is in which audio file
+        Files.write(getTextFile(file).toPath(), text.getBytes(StandardCharsets.UTF_8));
+
+        synchronized (this) {
+            Entry previous = index.put(name, new Entry(file, audio.length, clock.getAsLong()));
+            if (previous != null) {
+                size -= previous.length;
+            }
+            size += audio.length;
+            evict();
+        }
+    }
+
+    /**
+     * Removes all files from the cache folder.
+     */
+    public synchronized void clear() {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isFile()) {
+                    file.delete();
+                }
+            }
+        }
+        index.clear();
+        size = 0;
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized int getCount() {
+        return index.size();
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return maxAge > 0 && now - entry.lastUsed > maxAge;
+    }
+
+    /**
+     * Removes the least recently used files while the cache is too large or they are expired.
+     */
+    private void evict() {
+        long now = clock.getAsLong();
+        Iterator<Entry> eldest = index.values().iterator();
+        while (eldest.hasNext()) {
+            Entry entry = eldest.next();
+            if (size <= maxSize && !isExpired(entry, now)) {
+                break;
+            }
+            eldest.remove();
+            delete(entry);
+        }
+    }
+
+    private void remove(String name) {
+        Entry entry = index.remove(name);
+        if (entry != null) {
+            delete(entry);
+        }
+    }
+
+    private void delete(Entry entry) {
+        size -= entry.length;
+        entry.file.delete();
+        getTextFile(entry.file).delete();
+        logger.trace("Removed cached audio file {}", entry.file.getName());
+    }
+
+    private File getTextFile(File audioFile) {
+        String name = audioFile.getName();
+        int extension = name.lastIndexOf('.');
+        return new File(folder, (extension > 0 ? name.substring(0, extension) : name) + TEXT_EXTENSION);
+    }
+}
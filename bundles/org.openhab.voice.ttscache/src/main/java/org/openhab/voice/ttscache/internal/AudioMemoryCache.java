@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.ttscache.internal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link AudioMemoryCache} keeps the most recently used audio clips in memory, bounded by their total size and
+ * optionally by the time since their last use.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class AudioMemoryCache {
+
+    private static class Clip {
+        final byte[] audio;
+        long lastUsed;
+
+        Clip(byte[] audio, long lastUsed) {
+            this.audio = audio;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private final Map<String, Clip> clips = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxSize;
+    private final long maxAge;
+    private final LongSupplier clock;
+    private long size;
+
+    /**
+     * @param maxSize maximum total size of the clips in bytes, 0 to disable the tier
+     * @param maxAge milliseconds after their last use the clips are removed, 0 to keep them until the size is exceeded
+     * @param clock the current time in milliseconds
+     */
+    public AudioMemoryCache(long maxSize, long maxAge, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.maxAge = maxAge;
+        this.clock = clock;
+    }
+
+    public synchronized byte @Nullable [] get(String key) {
+        Clip clip = clips.get(key);
+        if (clip == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        if (maxAge > 0 && now - clip.lastUsed > maxAge) {
+            clips.remove(key);
+            size -= clip.audio.length;
+            return null;
+        }
+        clip.lastUsed = now;
+        return clip.audio;
+    }
+
+    public synchronized void put(String key, byte[] audio) {
+        // a single clip must not replace all others
+        if (audio.length > maxSize / 2) {
+            return;
+        }
+        Clip previous = clips.put(key, new Clip(audio, clock.getAsLong()));
+        if (previous != null) {
+            size -= previous.audio.length;
+        }
+        size += audio.length;
+
+        Iterator<Clip> eldest = clips.values().iterator();
+        while (size > maxSize && eldest.hasNext()) {
+            size -= eldest.next().audio.length;
+            eldest.remove();
+        }
+    }
+
+    public synchronized void clear() {
+        clips.clear();
+        size = 0;
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized int getCount() {
+        return clips.size();
+    }
+}
@@ -0,0 +1,253 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.ttscache;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.smarthome.core.voice.TTSException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link TTSCache}.
+ *
+ * @author agent - Initial contribution
+ */
+public class TTSCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger syntheses = new AtomicInteger();
+    private final AtomicLong clock = new AtomicLong(1000000);
+
+    private TTSCache createCache(long memorySize, long diskSize, long maxAge) {
+        return new TTSCache(folder.getRoot(), memorySize, diskSize, maxAge, TTSCache.DEFAULT_SYNTHESIS_TIMEOUT,
+                clock::get);
+    }
+
+    private byte[] synthesize(String text) {
+        syntheses.incrementAndGet();
+        return text.getBytes();
+    }
+
+    @Test
+    public void audioIsServedFromMemoryAndDisk() throws TTSException {
+        TTSCache cache = createCache(1000, 1000, 0);
+        assertArrayEquals("hello".getBytes(), cache.getAudio("en-US", "hello", "MP3", () -> synthesize("hello")));
+        assertArrayEquals("hello".getBytes(), cache.getAudio("en-US", "hello", "MP3", () -> synthesize("hello")));
+        assertEquals(1, syntheses.get());
+        assertEquals(1, cache.getMemoryHits());
+
+        File audioFile = new File(folder.getRoot(), TTSCache.getFileName("en-US", "hello", "mp3"));
+        assertTrue(audioFile.exists());
+        assertTrue(new File(folder.getRoot(), audioFile.getName().replace(".mp3", ".txt")).exists());
+
+        // a new cache indexes the existing files
+        TTSCache reloaded = createCache(1000, 1000, 0);
+        assertArrayEquals("hello".getBytes(), reloaded.getAudio("en-US", "hello", "mp3", () -> synthesize("hello")));
+        assertEquals(1, syntheses.get());
+        assertEquals(1, reloaded.getDiskHits());
+    }
+
+    @Test
+    public void fileNamesOfFormerCachesAreKept() {
+        assertEquals("en-US_5eb63bbbe01eeed093cb22bb8f5acdc3.mp3", TTSCache.getFileName("en-US", "hello world", "MP3"));
+    }
+
+    @Test
+    public void leastRecentlyUsedClipsAreEvicted() throws TTSException {
+        TTSCache cache = createCache(20, 25, 0);
+        cache.getAudio("v", "aaaaaaaaaa", "wav", () -> synthesize("aaaaaaaaaa"));
+        clock.incrementAndGet();
+        cache.getAudio("v", "bbbbbbbbbb", "wav", () -> synthesize("bbbbbbbbbb"));
+        clock.incrementAndGet();
+        cache.getAudio("v", "aaaaaaaaaa", "wav", () -> synthesize("aaaaaaaaaa"));
+        clock.incrementAndGet();
+        cache.getAudio("v", "cccccccccc", "wav", () -> synthesize("cccccccccc"));
+        assertEquals(3, syntheses.get());
+        assertEquals(20, cache.getMemorySize());
+        assertEquals(20, cache.getDiskSize());
+        assertFalse(new File(folder.getRoot(), TTSCache.getFileName("v", "bbbbbbbbbb", "wav")).exists());
+
+        cache.getAudio("v", "aaaaaaaaaa", "wav", () -> synthesize("aaaaaaaaaa"));
+        assertEquals(3, syntheses.get());
+    }
+
+    @Test
+    public void unusedFilesExpire() throws TTSException {
+        TTSCache cache = createCache(0, 1000, 100);
+        cache.getAudio("v", "hello", "wav", () -> synthesize("hello"));
+        clock.addAndGet(50);
+        cache.getAudio("v", "hello", "wav", () -> synthesize("hello"));
+        assertEquals(1, syntheses.get());
+        clock.addAndGet(101);
+        cache.getAudio("v", "hello", "wav", () -> synthesize("hello"));
+        assertEquals(2, syntheses.get());
+    }
+
+    @Test
+    public void unusedClipsExpireInMemory() throws TTSException {
+        TTSCache cache = createCache(1000, 1000, 100);
+        cache.getAudio("v", "hello", "wav", () -> synthesize("hello"));
+        clock.addAndGet(50);
+        cache.getAudio("v", "hello", "wav", () -> synthesize("hello"));
+        assertEquals(1, cache.getMemoryHits());
+        clock.addAndGet(101);
+        cache.getAudio("v", "hello", "wav", () -> synthesize("hello"));
+        assertEquals(1, cache.getMemoryHits());
+        assertEquals(0, cache.getDiskHits());
+        assertEquals(2, syntheses.get());
+    }
+
+    @Test
+    public void noTempFilesAreLeftBehind() throws TTSException {
+        TTSCache cache = createCache(0, 1000, 0);
+        cache.getAudio("v", "hello", "wav", () -> synthesize("hello"));
+        cache.getAudio("v", "world", "wav", () -> synthesize("world"));
+        String[] files = folder.getRoot().list();
+        assertNotNull(files);
+        for (String file : files) {
+            assertFalse(file, file.endsWith(".tmp"));
+        }
+        // the audio and text files of both clips
+        assertEquals(4, files.length);
+    }
+
+    @Test
+    public void concurrentRequestsAreSynthesizedOnce() throws Exception {
+        TTSCache cache = createCache(1000, 1000, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> cache.getAudio("v", "hello", "wav", () -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new TTSException(e);
+                    }
+                    return synthesize("hello");
+                })));
+            }
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+            // give the other requests time to join the synthesis in flight
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<byte[]> result : results) {
+                assertArrayEquals("hello".getBytes(), result.get(1, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, syntheses.get());
+    }
+
+    @Test
+    public void streamedSynthesisIsSharedAndCached() throws Exception {
+        TTSCache cache = createCache(1000, 1000, 0);
+        assertNull(cache.getAudioOrStartSynthesis("v", "hello", "wav"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<byte[]> waiting = executor.submit(() -> cache.getAudio("v", "hello", "wav", () -> {
+                fail("The audio must not be synthesized again");
+                return null;
+            }));
+            long deadline = System.currentTimeMillis() + 1000;
+            while (cache.getSharedSyntheses() == 0) {
+                assertTrue(System.currentTimeMillis() < deadline);
+                Thread.sleep(5);
+            }
+            cache.completeSynthesis("v", "hello", "wav", synthesize("hello"));
+            assertArrayEquals("hello".getBytes(), waiting.get(1, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertArrayEquals("hello".getBytes(), cache.getAudioOrStartSynthesis("v", "hello", "wav"));
+        assertEquals(1, syntheses.get());
+        assertEquals(1, cache.getMemoryHits());
+    }
+
+    @Test
+    public void failedStreamedSynthesisIsPassedToWaitingRequests() throws Exception {
+        TTSCache cache = createCache(1000, 1000, 0);
+        assertNull(cache.getAudioOrStartSynthesis("v", "hello", "wav"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<byte[]> waiting = executor.submit(() -> cache.getAudioOrStartSynthesis("v", "hello", "wav"));
+            long deadline = System.currentTimeMillis() + 1000;
+            while (cache.getSharedSyntheses() == 0) {
+                assertTrue(System.currentTimeMillis() < deadline);
+                Thread.sleep(5);
+            }
+            cache.failSynthesis("v", "hello", "wav", new TTSException("pipe closed"));
+            try {
+                waiting.get(1, TimeUnit.SECONDS);
+                fail("Expecting the synthesis to fail");
+            } catch (ExecutionException e) {
+                assertEquals("pipe closed", e.getCause().getMessage());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // the next request synthesizes the audio again
+        assertNull(cache.getAudioOrStartSynthesis("v", "hello", "wav"));
+    }
+
+    @Test
+    public void requestSynthesizesItselfIfTheSynthesisInFlightTakesTooLong() throws Exception {
+        TTSCache cache = new TTSCache(folder.getRoot(), 1000, 1000, 0, 100, clock::get);
+        // the stream of the first request is never read to the end
+        assertNull(cache.getAudioOrStartSynthesis("v", "hello", "wav"));
+
+        long start = System.nanoTime();
+        assertArrayEquals("hello".getBytes(), cache.getAudio("v", "hello", "wav", () -> synthesize("hello")));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertEquals(1, syntheses.get());
+        assertEquals(2, cache.getMisses());
+
+        // the audio is cached for the next requests, the late synthesis does not change it
+        cache.failSynthesis("v", "hello", "wav", new TTSException("pipe closed"));
+        assertArrayEquals("hello".getBytes(), cache.getAudioOrStartSynthesis("v", "hello", "wav"));
+    }
+
+    @Test
+    public void failedSynthesisIsNotCached() {
+        TTSCache cache = createCache(1000, 1000, 0);
+        try {
+            cache.getAudio("v", "hello", "wav", () -> {
+                throw new TTSException("unavailable");
+            });
+            fail();
+        } catch (TTSException e) {
+            assertEquals("unavailable", e.getMessage());
+        }
+        assertEquals(0, cache.getDiskSize());
+    }
+}
@@ -14,21 +14,24 @@ package org.openhab.voice.voicerss.internal;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.commons.io.IOUtils;
 import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.config.core.ConfigurableService;
-import org.eclipse.smarthome.core.audio.AudioException;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.audio.ByteArrayAudioStream;
 import org.eclipse.smarthome.core.voice.TTSException;
 import org.eclipse.smarthome.core.voice.TTSService;
 import org.eclipse.smarthome.core.voice.Voice;
-import org.openhab.voice.voicerss.internal.cloudapi.CachedVoiceRSSCloudImpl;
+import org.openhab.voice.ttscache.TTSCache;
+import org.openhab.voice.voicerss.internal.cloudapi.VoiceRSSCloudImpl;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Modified;
@@ -40,6 +43,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Jochen Hiller - Initial contribution and API
  * @author Laurent Garnier - add support for OGG and AAC audio formats
+ * @author agent - Cache audio with the shared TTS cache
  */
 @Component(configurationPid = "org.openhab.voicerss", property = { Constants.SERVICE_PID + "=org.openhab.voicerss",
         ConfigurableService.SERVICE_PROPERTY_DESCRIPTION_URI + "=voice:voicerss",
@@ -56,10 +60,12 @@ public class VoiceRSSTTSService implements TTSService {
 
     private final Logger logger = LoggerFactory.getLogger(VoiceRSSTTSService.class);
 
+    private VoiceRSSCloudImpl voiceRssImpl;
+
     /**
-     * We need the cached implementation to allow for FixedLengthAudioStream.
+     * Cache of the synthesized audio
      */
-    private CachedVoiceRSSCloudImpl voiceRssImpl;
+    private TTSCache cache;
 
     /**
      * Set of supported voices
@@ -77,7 +83,8 @@ public class VoiceRSSTTSService implements TTSService {
     protected void activate(Map<String, Object> config) {
         try {
             modified(config);
-            voiceRssImpl = initVoiceImplementation();
+            voiceRssImpl = new VoiceRSSCloudImpl();
+            cache = new TTSCache(new File(getCacheFolderName()));
             voices = initVoices();
             audioFormats = initAudioFormats();
 
@@ -136,18 +143,16 @@ public class VoiceRSSTTSService implements TTSService {
 
         // now create the input stream for given text, locale, format. There is
         // only a default voice
-        try {
-            File cacheAudioFile = voiceRssImpl.getTextToSpeechAsFile(apiKey, trimmedText,
-                    voice.getLocale().toLanguageTag(), getApiAudioFormat(requestedFormat));
-            if (cacheAudioFile == null) {
-                throw new TTSException("Could not read from VoiceRSS service");
+        String locale = voice.getLocale().toLanguageTag();
+        String apiAudioFormat = getApiAudioFormat(requestedFormat);
+        byte[] audio = cache.getAudio(locale, trimmedText, apiAudioFormat, () -> {
+            try (InputStream is = voiceRssImpl.getTextToSpeech(apiKey, trimmedText, locale, apiAudioFormat)) {
+                return IOUtils.toByteArray(is);
+            } catch (IOException ex) {
+                throw new TTSException("Could not read from VoiceRSS service: " + ex.getMessage(), ex);
             }
-            return new VoiceRSSAudioStream(cacheAudioFile, requestedFormat);
-        } catch (AudioException ex) {
-            throw new TTSException("Could not create AudioStream: " + ex.getMessage(), ex);
-        } catch (IOException ex) {
-            throw new TTSException("Could not read from VoiceRSS service: " + ex.getMessage(), ex);
-        }
+        });
+        return new ByteArrayAudioStream(audio, requestedFormat);
     }
 
     /**
@@ -214,10 +219,6 @@ public class VoiceRSSTTSService implements TTSService {
         }
     }
 
-    private CachedVoiceRSSCloudImpl initVoiceImplementation() {
-        return new CachedVoiceRSSCloudImpl(getCacheFolderName());
-    }
-
     private String getCacheFolderName() {
         // we assume that this folder does NOT have a trailing separator
         return ConfigConstants.getUserDataFolder() + File.separator + CACHE_FOLDER_NAME;